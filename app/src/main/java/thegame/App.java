@@ -1,5 +1,7 @@
 package thegame;
 
+import java.nio.file.Path;
+
 import org.lwjgl.glfw.GLFWErrorCallback;
 import org.lwjgl.opengl.GL;
 import static org.lwjgl.glfw.GLFW.*;
@@ -7,6 +9,12 @@ import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.system.MemoryUtil.NULL;
 import org.lwjgl.opengl.GL30;
 import org.bson.Document;
+
+import thegame.render.GLState;
+import thegame.render.Renderer2D;
+import thegame.render.ShaderCache;
+import thegame.utils.Profiler;
+
 /**
  * The main application class for the game.
  * Handles window creation, input, and game loop.
@@ -19,6 +27,14 @@ public class App {
     // Default VAO for resource management
     public static int defaultVao = 0;
 
+    // Length of one fixed update step in seconds
+    public static final double TIME_STEP = 1.0 / 120.0;
+    // Longest frame time simulated at once, so a stall doesn't trigger a burst of updates
+    private static final double MAX_FRAME_TIME = 0.25;
+
+    // Where F4 writes profiles
+    private static final Path PROFILE_DIRECTORY = Path.of(System.getProperty("user.home"), ".thegame", "profiles");
+
     // Window title
     private String windowTitle = "Flauliss Audits";
 
@@ -27,6 +43,19 @@ public class App {
 
     // Current screen
     private Screen currentScreen;
+    private Screen retiredScreen; // Replaced screen, cleaned up before the next frame
+
+    // Render-on-demand state
+    private volatile boolean redrawRequested = true;
+
+    // Input recorded by the GLFW callbacks, dispatched to the screen once per frame
+    private final InputQueue inputQueue = new InputQueue(256);
+    private double cursorX, cursorY; // Last position reported by the cursor callback
+
+    // Frame timing
+    private double minFrameTime; // Frame cap while vsync is off, 0 for none
+    private long lastFrameTime; // System.nanoTime() of the last rendered frame
+    private double updateTime;  // Elapsed time not yet simulated by update steps
 
     // Window state
     private boolean fullscreen = false;
@@ -57,6 +86,10 @@ public class App {
      * Initializes the application.
      */
     public void init() {
+        // Read the fonts while the window and context are being set up
+        thegame.utils.AssetManager.init(this::requestRedraw);
+        thegame.utils.FontRegistry.preload();
+
         // Set up error callback
         GLFWErrorCallback.createPrint(System.err).set();
 
@@ -77,8 +110,13 @@ public class App {
             throw new RuntimeException("Failed to create the GLFW window");
         }
 
-        // Set up input callbacks
+        // Set up input callbacks, starting from the current cursor position
         setupInputCallbacks();
+        double[] xpos = new double[1];
+        double[] ypos = new double[1];
+        glfwGetCursorPos(window, xpos, ypos);
+        cursorX = xpos[0];
+        cursorY = ypos[0];
 
         // Get the primary monitor
         long monitor = glfwGetPrimaryMonitor();
@@ -94,8 +132,8 @@ public class App {
         // Make the OpenGL context current
         glfwMakeContextCurrent(window);
         
-        // Enable VSync
-        glfwSwapInterval(1);
+        // Apply the saved VSync setting
+        setVsync(thegame.utils.SettingsManager.isVsync());
 
         // Make the window visible
         glfwShowWindow(window);
@@ -105,12 +143,18 @@ public class App {
         
         // Initialize default VAO
         defaultVao = GL30.glGenVertexArrays();
-        GL30.glBindVertexArray(defaultVao);
-        GL30.glBindVertexArray(0);
+        GLState.bindVertexArray(defaultVao);
+        GLState.bindVertexArray(0);
+        
+        // Shared batched renderer for all 2D shapes
+        Renderer2D.init();
         
         // Set up scaling factors
         updateScalingFactors();
         
+        // Flush level statistics journaled by a previous run
+        thegame.utils.LevelStatsService.start();
+
         // Set initial screen
         setCurrentScreen(new thegame.screens.TitleScreen(this));
     }
@@ -119,51 +163,61 @@ public class App {
      * Sets up input callbacks for the window.
      */
     private void setupInputCallbacks() {
-        // Mouse button callback
+        // Callbacks only queue events; dispatchInput hands them to the screen
         glfwSetMouseButtonCallback(window, (window, button, action, mods) -> {
+            redrawRequested = true;
             if (button == GLFW_MOUSE_BUTTON_LEFT && action == GLFW_PRESS) {
-                double[] xpos = new double[1];
-                double[] ypos = new double[1];
-                glfwGetCursorPos(window, xpos, ypos);
-                
-                if (currentScreen != null) {
-                    currentScreen.handleMouseClick(xpos[0], ypos[0]);
-                }
+                inputQueue.pushMouse(InputQueue.MOUSE_PRESS, cursorX, cursorY);
             } else if (button == GLFW_MOUSE_BUTTON_LEFT && action == GLFW_RELEASE) {
-                double[] xpos = new double[1];
-                double[] ypos = new double[1];
-                glfwGetCursorPos(window, xpos, ypos);
-                
-                if (currentScreen != null) {
-                    currentScreen.handleMouseRelease(xpos[0], ypos[0]);
-                }
+                inputQueue.pushMouse(InputQueue.MOUSE_RELEASE, cursorX, cursorY);
             }
         });
         
-        // Mouse position callback
+        // Mouse position callback, also caching the position for button events
         glfwSetCursorPosCallback(window, (window, xpos, ypos) -> {
-            if (currentScreen != null) {
-                currentScreen.handleMouseMove(xpos, ypos);
-            }
+            redrawRequested = true;
+            cursorX = xpos;
+            cursorY = ypos;
+            inputQueue.pushMouse(InputQueue.MOUSE_MOVE, xpos, ypos);
         });
         
         // Key callback
         glfwSetKeyCallback(window, (window, key, scancode, action, mods) -> {
-            if (key == GLFW_KEY_F11 && action == GLFW_PRESS) {
-                toggleFullscreen();
-            }
-            
-            if (currentScreen != null) {
-                currentScreen.handleKeyPress(key, action);
-            }
+            redrawRequested = true;
+            inputQueue.pushKey(key, action);
         });
         
         // Character callback
         glfwSetCharCallback(window, (window, codepoint) -> {
+            redrawRequested = true;
+            inputQueue.pushChar(codepoint);
+        });
+        
+        // The window system asks for a redraw when the window was uncovered or resized
+        glfwSetWindowRefreshCallback(window, window -> redrawRequested = true);
+    }
+
+    /**
+     * Hands the queued input events to the current screen.
+     * Called once per frame, before the update steps. A screen switch takes effect for
+     * the events after the one that caused it.
+     */
+    private void dispatchInput() {
+        while (inputQueue.poll()) {
+            if (inputQueue.getType() == InputQueue.KEY && inputQueue.getAction() == GLFW_PRESS) {
+                int key = inputQueue.getCode();
+                if (key == GLFW_KEY_F11) {
+                    toggleFullscreen();
+                } else if (key == GLFW_KEY_F3) {
+                    Profiler.toggleOverlay();
+                } else if (key == GLFW_KEY_F4) {
+                    Profiler.export(PROFILE_DIRECTORY, 10.0);
+                }
+            }
             if (currentScreen != null) {
-                currentScreen.handleCharInput(codepoint);
+                inputQueue.deliver(currentScreen);
             }
-        });
+        }
     }
 
     /**
@@ -216,6 +270,7 @@ public class App {
         
         // Update scaling factors
         updateScalingFactors();
+        redrawRequested = true;
     }
     
     /**
@@ -293,18 +348,68 @@ public class App {
         glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
         
         // Enable alpha blending
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        GLState.setBlend(true);
+        GLState.blendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
         
         // Main loop
+        lastFrameTime = System.nanoTime();
         while (!glfwWindowShouldClose(window)) {
+            // Release the screen that was replaced since the last frame
+            if (retiredScreen != null) {
+                retiredScreen.cleanup();
+                retiredScreen = null;
+            }
+            
+            // Wait if the frame cap or the screen's next animation tick is not due yet
+            long now = System.nanoTime();
+            double sinceLastFrame = (now - lastFrameTime) / 1e9;
+            double interval = currentScreen != null && !Profiler.isOverlayVisible()
+                    ? currentScreen.getRedrawInterval() : Screen.REDRAW_EVERY_FRAME;
+            double wait = (redrawRequested ? minFrameTime : Math.max(minFrameTime, interval)) - sinceLastFrame;
+            if (wait > 0) {
+                // The last frame stays on screen; input wakes the loop early
+                if (wait == Double.POSITIVE_INFINITY) {
+                    glfwWaitEvents();
+                } else {
+                    glfwWaitEventsTimeout(wait);
+                }
+                continue;
+            }
+            redrawRequested = false;
+            lastFrameTime = now;
+            
+            // Deliver this frame's input, then catch the simulation up with the clock in fixed steps
+            Profiler.beginFrame();
+            Profiler.begin(Profiler.Section.INPUT);
+            dispatchInput();
+            Profiler.end(Profiler.Section.INPUT);
+            Profiler.begin(Profiler.Section.UPLOAD);
+            thegame.utils.AssetManager.processUploads();
+            Profiler.end(Profiler.Section.UPLOAD);
+            Profiler.begin(Profiler.Section.UPDATE);
+            updateTime += Math.min(sinceLastFrame, MAX_FRAME_TIME);
+            while (updateTime >= TIME_STEP) {
+                if (currentScreen != null) {
+                    currentScreen.update(TIME_STEP);
+                }
+                updateTime -= TIME_STEP;
+            }
+            Profiler.end(Profiler.Section.UPDATE);
+            
             // Clear the framebuffer
             glClear(GL_COLOR_BUFFER_BIT);
             
-            // Render the current screen
+            // Render the current screen between the last update step and the next
+            Renderer2D.beginFrame();
+            Profiler.begin(Profiler.Section.RENDER);
             if (currentScreen != null) {
-                currentScreen.render();
+                currentScreen.render((float)(updateTime / TIME_STEP));
             }
+            Renderer2D.flush();
+            Profiler.end(Profiler.Section.RENDER);
+            Profiler.endFrame();
+            Profiler.renderOverlay();
+            Renderer2D.endFrame();
             
             // Swap buffers
             glfwSwapBuffers(window);
@@ -318,9 +423,20 @@ public class App {
      * Cleans up resources.
      */
     private void cleanup() {
+        // Write out buffered level statistics
+        thegame.utils.LevelStatsService.shutdown();
+        thegame.utils.MongoDBConnection.shutdown();
+
+        thegame.utils.AssetManager.shutdown();
+        thegame.utils.FontRegistry.cleanup();
+        thegame.utils.TextureCache.cleanup();
+        Renderer2D.cleanup();
+        ShaderCache.cleanup();
+        Profiler.cleanup();
+
         // Clean up default VAO
         if (defaultVao != 0) {
-            GL30.glDeleteVertexArrays(defaultVao);
+            GLState.deleteVertexArray(defaultVao);
             defaultVao = 0;
         }
         
@@ -338,7 +454,27 @@ public class App {
      * @param screen The screen to set as current
      */
     public void setCurrentScreen(Screen screen) {
+        // Screens usually switch from their own input handlers, so cleanup waits for the loop
+        if (currentScreen != null && currentScreen != screen) {
+            if (retiredScreen != null) {
+                retiredScreen.cleanup();
+            }
+            retiredScreen = currentScreen;
+        }
         this.currentScreen = screen;
+        redrawRequested = true;
+    }
+
+    /**
+     * Marks the current screen as changed so it is redrawn on the next frame.
+     * Safe to call from any thread; background work calls it when its results arrive
+     * so screens that only redraw on demand show them straight away.
+     */
+    public void requestRedraw() {
+        redrawRequested = true;
+        if (window != NULL) {
+            glfwPostEmptyEvent();
+        }
     }
 
     /**
@@ -424,6 +560,10 @@ public class App {
      */
     public void setVsync(boolean enabled) {
         glfwSwapInterval(enabled ? 1 : 0);
+        
+        // Buffer swaps pace the loop with vsync on; otherwise the frame cap does
+        int frameCap = thegame.utils.SettingsManager.getFrameCap();
+        minFrameTime = enabled || frameCap <= 0 ? 0 : 1.0 / frameCap;
     }
 
     /**
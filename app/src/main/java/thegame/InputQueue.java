@@ -0,0 +1,214 @@
+package thegame;
+
+/**
+ * Fixed-size ring buffer of input events.
+ * The GLFW callbacks only record events here; the game loop drains the queue once per
+ * frame before updating the screen, so screen handlers never run inside a callback.
+ * Events are stored in parallel primitive arrays and read back in place, so neither
+ * side allocates. Consecutive mouse moves are merged into one event. Events are
+ * plain values, so a recorded sequence can be replayed into a screen in tests.
+ */
+public final class InputQueue {
+    /** Left mouse button pressed at (x, y). */
+    public static final int MOUSE_PRESS = 1;
+    /** Left mouse button released at (x, y). */
+    public static final int MOUSE_RELEASE = 2;
+    /** Cursor moved to (x, y). */
+    public static final int MOUSE_MOVE = 3;
+    /** Key event with a key code and a GLFW action. */
+    public static final int KEY = 4;
+    /** Character typed, with its Unicode code point. */
+    public static final int CHAR = 5;
+
+    private final int[] types;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] codes;
+    private final int[] actions;
+    private final int mask;
+
+    private int head; // Next event to read
+    private int tail; // Next free slot
+    private int current = -1; // Slot of the event returned by the last poll()
+    private int dropped;
+
+    /**
+     * Creates a queue.
+     *
+     * @param capacity Maximum number of pending events, rounded up to a power of two
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        types = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        codes = new int[size];
+        actions = new int[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Queues a mouse event. A move directly after another pending move replaces it.
+     *
+     * @param type {@link #MOUSE_PRESS}, {@link #MOUSE_RELEASE} or {@link #MOUSE_MOVE}
+     * @param x The cursor x-coordinate
+     * @param y The cursor y-coordinate
+     */
+    public void pushMouse(int type, double x, double y) {
+        if (type == MOUSE_MOVE && tail != head && types[(tail - 1) & mask] == MOUSE_MOVE) {
+            int last = (tail - 1) & mask;
+            xs[last] = x;
+            ys[last] = y;
+            return;
+        }
+        int slot = claim(type);
+        if (slot >= 0) {
+            xs[slot] = x;
+            ys[slot] = y;
+        }
+    }
+
+    /**
+     * Queues a key event.
+     *
+     * @param key The key code
+     * @param action The action (GLFW_PRESS, GLFW_RELEASE, GLFW_REPEAT)
+     */
+    public void pushKey(int key, int action) {
+        int slot = claim(KEY);
+        if (slot >= 0) {
+            codes[slot] = key;
+            actions[slot] = action;
+        }
+    }
+
+    /**
+     * Queues a typed character.
+     *
+     * @param codepoint The Unicode code point
+     */
+    public void pushChar(int codepoint) {
+        int slot = claim(CHAR);
+        if (slot >= 0) {
+            codes[slot] = codepoint;
+        }
+    }
+
+    /**
+     * Advances to the next pending event, whose fields are then available from the
+     * getters until the next call.
+     *
+     * @return true if there was an event, false if the queue is empty
+     */
+    public boolean poll() {
+        if (head == tail) {
+            current = -1;
+            return false;
+        }
+        current = head;
+        head = (head + 1) & mask;
+        return true;
+    }
+
+    /**
+     * Gets the type of the current event.
+     *
+     * @return One of the event type constants
+     */
+    public int getType() {
+        return types[current];
+    }
+
+    /**
+     * Gets the cursor x-coordinate of the current mouse event.
+     *
+     * @return The x-coordinate
+     */
+    public double getX() {
+        return xs[current];
+    }
+
+    /**
+     * Gets the cursor y-coordinate of the current mouse event.
+     *
+     * @return The y-coordinate
+     */
+    public double getY() {
+        return ys[current];
+    }
+
+    /**
+     * Gets the key code of the current key event, or the code point of a character event.
+     *
+     * @return The key code or code point
+     */
+    public int getCode() {
+        return codes[current];
+    }
+
+    /**
+     * Gets the GLFW action of the current key event.
+     *
+     * @return The action
+     */
+    public int getAction() {
+        return actions[current];
+    }
+
+    /**
+     * Passes the current event to the matching handler of a screen.
+     *
+     * @param screen The screen to receive the event
+     */
+    public void deliver(Screen screen) {
+        switch (types[current]) {
+            case MOUSE_PRESS:
+                screen.handleMouseClick(xs[current], ys[current]);
+                break;
+            case MOUSE_RELEASE:
+                screen.handleMouseRelease(xs[current], ys[current]);
+                break;
+            case MOUSE_MOVE:
+                screen.handleMouseMove(xs[current], ys[current]);
+                break;
+            case KEY:
+                screen.handleKeyPress(codes[current], actions[current]);
+                break;
+            case CHAR:
+                screen.handleCharInput(codes[current]);
+                break;
+        }
+    }
+
+    /**
+     * Gets the number of events waiting to be read.
+     *
+     * @return The pending event count
+     */
+    public int size() {
+        return (tail - head) & mask;
+    }
+
+    /**
+     * Discards all pending events.
+     */
+    public void clear() {
+        head = tail;
+        current = -1;
+    }
+
+    private int claim(int type) {
+        int next = (tail + 1) & mask;
+        if (next == head) {
+            // Full: the screen has not been drained for a while, so drop the newest input
+            if (dropped++ == 0) {
+                System.err.println("Input queue full, dropping events");
+            }
+            return -1;
+        }
+        int slot = tail;
+        types[slot] = type;
+        tail = next;
+        return slot;
+    }
+}
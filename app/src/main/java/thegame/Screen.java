@@ -10,6 +10,10 @@ public interface Screen {
     float BASE_WIDTH = 2.0f;  // OpenGL coordinates from -1 to 1
     float BASE_HEIGHT = BASE_WIDTH / ASPECT_RATIO;
     
+    // Redraw intervals (see getRedrawInterval)
+    double REDRAW_EVERY_FRAME = 0.0;
+    double REDRAW_ON_DEMAND = Double.POSITIVE_INFINITY;
+
     
     // Convert screen coordinates to OpenGL coordinates
     default float toGLX(float screenX) {
@@ -20,11 +24,24 @@ public interface Screen {
         return 1.0f - (screenY * 2.0f);
     }
     
+    /**
+     * Advances the screen's animations by one fixed time step.
+     * Called zero or more times before each frame, so animation speed does not depend
+     * on the frame rate.
+     *
+     * @param dt The step length in seconds
+     */
+    default void update(double dt) {
+    }
+    
     /**
      * Renders the screen.
      * Called once per frame.
+     *
+     * @param alpha Fraction of the next update step that has elapsed (0-1), for
+     *              drawing moving things between their stepped positions
      */
-    void render();
+    void render(float alpha);
     
     /**
      * Handles mouse click events.
@@ -64,4 +81,24 @@ public interface Screen {
      * @param codepoint The Unicode code point of the character
      */
     void handleCharInput(int codepoint);
+    
+    /**
+     * Gets how often the screen has to be redrawn when nothing has changed.
+     * Input events, screen switches and {@link App#requestRedraw()} always cause a redraw;
+     * between those the loop sleeps and keeps showing the last frame until this interval
+     * has passed. Screens that animate continuously return {@link #REDRAW_EVERY_FRAME},
+     * screens that only change on input return {@link #REDRAW_ON_DEMAND}.
+     *
+     * @return The interval in seconds between animation ticks
+     */
+    default double getRedrawInterval() {
+        return REDRAW_EVERY_FRAME;
+    }
+    
+    /**
+     * Releases resources held by the screen.
+     * Called on the render thread after another screen has replaced this one.
+     */
+    default void cleanup() {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,546 @@
+package thegame.engine;
+
+import java.util.Arrays;
+
+import thegame.utils.CellGrid;
+import thegame.utils.LevelConfig;
+
+/**
+ * Headless puzzle board used by the game screen, solvers and validators.
+ *
+ * Each cell is packed into a single int: the low 16 bits hold either a palette
+ * index (color mode) or the numeric value (number mode), followed by an editable
+ * bit and a blocked bit for black cells that cannot be swapped. The board keeps a
+ * running count of cells that match the target pattern so that every move only
+ * has to re-check the cells it touched instead of rescanning the whole grid.
+ * A Zobrist hash of the cells is maintained the same way for transposition tables.
+ *
+ * Move methods never allocate and return true only if the board changed.
+ */
+public final class Board {
+    /** Mask selecting the palette index or numeric value of a packed cell. */
+    public static final int VALUE_MASK = 0xFFFF;
+    /** Set on cells the player is allowed to change. */
+    public static final int EDITABLE = 1 << 16;
+    /** Set on black cells, which cannot be dragged in swap mode. */
+    public static final int BLOCKED = 1 << 17;
+    // Empty cells in a packed palette table; only an error if a grid uses one
+    private static final int EMPTY = -1;
+
+    private final int size;
+    private final boolean numberMode;
+    private final int[] cells;
+    private final int[] target;
+    private final float[] palette; // RGB triples indexed by palette index, color mode only
+    private int matches;
+    private long hash;
+
+    private Board(int size, boolean numberMode, int[] cells, int[] target, float[] palette) {
+        this.size = size;
+        this.numberMode = numberMode;
+        this.cells = cells;
+        this.target = target;
+        this.palette = palette;
+        recount();
+    }
+
+    /**
+     * Builds a board from a level configuration.
+     *
+     * @param levelConfig The level to load
+     * @return A new board holding the level's starting grid and target pattern
+     * @throws IllegalArgumentException if the grid or target pattern have invalid dimensions
+     */
+    public static Board fromLevel(LevelConfig levelConfig) {
+        return fromGrids(levelConfig.getGrid(), levelConfig.getTargetPattern(),
+                         levelConfig.getSettings().isNumberMode());
+    }
+
+    /**
+     * Builds a board from cell arrays.
+     *
+     * @param grid The starting grid
+     * @param targetPattern The pattern the player has to reach
+     * @param numberMode Whether cells are compared by numeric value instead of color
+     * @return A new board
+     * @throws IllegalArgumentException if the arrays are missing or not the same square size
+     */
+    public static Board fromCells(LevelConfig.Cell[][] grid, LevelConfig.Cell[][] targetPattern, boolean numberMode) {
+        if (grid == null || targetPattern == null) {
+            throw new IllegalArgumentException("Grid and target pattern are required");
+        }
+        CellGrid.Palette palette = new CellGrid.Palette();
+        return fromGrids(palette.grid(grid), palette.grid(targetPattern), numberMode);
+    }
+
+    /**
+     * Builds a board from a level's grids. Each distinct cell of the level's palette is
+     * packed once, and the grids' palette indices are mapped through that table.
+     *
+     * @param grid The starting grid
+     * @param targetPattern The pattern the player has to reach
+     * @param numberMode Whether cells are compared by numeric value instead of color
+     * @return A new board
+     * @throws IllegalArgumentException if the grids are missing or not the same square size
+     */
+    public static Board fromGrids(CellGrid grid, CellGrid targetPattern, boolean numberMode) {
+        if (grid == null || grid.getRows() == 0 || grid.getRows() != grid.getCols()) {
+            throw new IllegalArgumentException("Grid must be a non-empty square");
+        }
+        int size = grid.getRows();
+        if (targetPattern == null || targetPattern.getRows() != size || targetPattern.getCols() != size) {
+            throw new IllegalArgumentException("Invalid target pattern dimensions");
+        }
+
+        int[] paletteKeys = new int[grid.getPalette().size() + targetPattern.getPalette().size()];
+        int[] paletteCount = new int[1];
+        int[] gridPacked = packPalette(grid.getPalette(), numberMode, paletteKeys, paletteCount);
+        int[] targetPacked = targetPattern.getPalette() == grid.getPalette()
+                ? gridPacked : packPalette(targetPattern.getPalette(), numberMode, paletteKeys, paletteCount);
+
+        int[] cells = new int[size * size];
+        int[] target = new int[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int i = row * size + col;
+                cells[i] = checkNotEmpty(gridPacked[grid.indexAt(row, col)]);
+                target[i] = checkNotEmpty(targetPacked[targetPattern.indexAt(row, col)]);
+            }
+        }
+
+        float[] palette = new float[paletteCount[0] * 3];
+        for (int p = 0; p < paletteCount[0]; p++) {
+            palette[p * 3] = ((paletteKeys[p] >> 16) & 0xFF) / 255.0f;
+            palette[p * 3 + 1] = ((paletteKeys[p] >> 8) & 0xFF) / 255.0f;
+            palette[p * 3 + 2] = (paletteKeys[p] & 0xFF) / 255.0f;
+        }
+
+        return new Board(size, numberMode, cells, target, palette);
+    }
+
+    private static int checkNotEmpty(int packed) {
+        if (packed == EMPTY) {
+            throw new IllegalArgumentException("Grid contains an empty cell");
+        }
+        return packed;
+    }
+
+    // Packs every entry of a level palette
+    private static int[] packPalette(CellGrid.Palette levelPalette, boolean numberMode, int[] paletteKeys, int[] paletteCount) {
+        int[] packed = new int[levelPalette.size()];
+        for (int i = 0; i < packed.length; i++) {
+            LevelConfig.Cell cell = levelPalette.get(i);
+            packed[i] = cell == null ? EMPTY : pack(cell, numberMode, paletteKeys, paletteCount);
+        }
+        return packed;
+    }
+
+    // Packs a cell, interning its color into the board palette in color mode
+    private static int pack(LevelConfig.Cell cell, boolean numberMode, int[] paletteKeys, int[] paletteCount) {
+        int flags = cell.editable ? EDITABLE : 0;
+        if (cell.red == 0.0f && cell.green == 0.0f && cell.blue == 0.0f) {
+            flags |= BLOCKED;
+        }
+
+        if (numberMode) {
+            return (cell.getNumericValue() & VALUE_MASK) | flags;
+        }
+
+        // Colors closer than one 8-bit step are treated as the same color,
+        // matching the epsilon comparison the game has always used
+        int key = (Math.round(cell.red * 255) << 16)
+                | (Math.round(cell.green * 255) << 8)
+                | Math.round(cell.blue * 255);
+        for (int p = 0; p < paletteCount[0]; p++) {
+            if (paletteKeys[p] == key) {
+                return p | flags;
+            }
+        }
+        paletteKeys[paletteCount[0]] = key;
+        return paletteCount[0]++ | flags;
+    }
+
+    /**
+     * Creates an independent copy of this board.
+     *
+     * @return A new board with the same cells, target and palette
+     */
+    public Board copy() {
+        return new Board(size, numberMode, cells.clone(), target, palette);
+    }
+
+    // Getters
+
+    public int getSize() { return size; }
+    public boolean isNumberMode() { return numberMode; }
+
+    /**
+     * Gets the packed value of a cell in the current grid.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return The packed cell
+     */
+    public int getCell(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    /**
+     * Gets the packed value of a cell in the target pattern.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return The packed cell
+     */
+    public int getTargetCell(int row, int col) {
+        return target[row * size + col];
+    }
+
+    /**
+     * Gets the palette index or numeric value of a packed cell.
+     *
+     * @param packed The packed cell
+     * @return The palette index (color mode) or numeric value (number mode)
+     */
+    public static int valueOf(int packed) {
+        return packed & VALUE_MASK;
+    }
+
+    /**
+     * Checks whether a packed cell can be changed by the player.
+     *
+     * @param packed The packed cell
+     * @return true if the cell is editable
+     */
+    public static boolean isEditable(int packed) {
+        return (packed & EDITABLE) != 0;
+    }
+
+    /**
+     * Checks whether a packed cell is a black cell.
+     *
+     * @param packed The packed cell
+     * @return true if the cell is black
+     */
+    public static boolean isBlocked(int packed) {
+        return (packed & BLOCKED) != 0;
+    }
+
+    /**
+     * Gets the red component of a packed cell's color.
+     *
+     * @param packed The packed cell
+     * @return Red component (0.0-1.0)
+     */
+    public float getRed(int packed) {
+        return numberMode ? numberShade(packed) : palette[valueOf(packed) * 3];
+    }
+
+    /**
+     * Gets the green component of a packed cell's color.
+     *
+     * @param packed The packed cell
+     * @return Green component (0.0-1.0)
+     */
+    public float getGreen(int packed) {
+        return numberMode ? numberShade(packed) : palette[valueOf(packed) * 3 + 1];
+    }
+
+    /**
+     * Gets the blue component of a packed cell's color.
+     *
+     * @param packed The packed cell
+     * @return Blue component (0.0-1.0)
+     */
+    public float getBlue(int packed) {
+        return numberMode ? numberShade(packed) : palette[valueOf(packed) * 3 + 2];
+    }
+
+    private static float numberShade(int packed) {
+        return valueOf(packed) / (float) NumberOp.MAX_VALUE;
+    }
+
+    /**
+     * Gets the number of cells that currently match the target pattern.
+     *
+     * @return The match count
+     */
+    public int getMatchCount() {
+        return matches;
+    }
+
+    /**
+     * Checks if every cell matches the target pattern.
+     *
+     * @return true if the puzzle is solved
+     */
+    public boolean isSolved() {
+        return matches == cells.length;
+    }
+
+    /**
+     * Gets the Zobrist hash of the current cells.
+     *
+     * @return A 64-bit hash that changes with every cell write
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Gets the Zobrist key of one cell. Keys are derived from the cell index and
+     * packed value with a SplitMix64 finalizer, which acts as an implicit random
+     * table without having to size one for every palette.
+     *
+     * @param index The cell index (row * size + col)
+     * @param packed The packed cell
+     * @return The key XORed into the board hash
+     */
+    public static long zobristKey(int index, int packed) {
+        long z = ((long) index << 32 | (packed & 0xFFFFFFFFL)) + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Checks if a cell can be picked up for a swap.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return true if the cell is editable and not black
+     */
+    public boolean canSwapFrom(int row, int col) {
+        int packed = cells[row * size + col];
+        return isEditable(packed) && !isBlocked(packed);
+    }
+
+    /**
+     * Swaps two orthogonally adjacent cells.
+     *
+     * @return true if both cells could be swapped
+     */
+    public boolean swapCells(int row1, int col1, int row2, int col2) {
+        boolean adjacent = (row1 == row2 && Math.abs(col1 - col2) == 1)
+                        || (col1 == col2 && Math.abs(row1 - row2) == 1);
+        if (!adjacent || !canSwapFrom(row1, col1) || !canSwapFrom(row2, col2)) {
+            return false;
+        }
+
+        int i = row1 * size + col1;
+        int j = row2 * size + col2;
+        int a = cells[i];
+        set(i, cells[j]);
+        set(j, a);
+        return true;
+    }
+
+    /**
+     * Swaps two entire rows. At least one column must be editable in both rows.
+     *
+     * @return true if the rows were swapped
+     */
+    public boolean swapRows(int rowA, int rowB) {
+        if (rowA == rowB) {
+            return false;
+        }
+
+        int a = rowA * size;
+        int b = rowB * size;
+        boolean canSwap = false;
+        for (int col = 0; col < size; col++) {
+            if (isEditable(cells[a + col]) && isEditable(cells[b + col])) {
+                canSwap = true;
+                break;
+            }
+        }
+        if (!canSwap) {
+            return false;
+        }
+
+        for (int col = 0; col < size; col++) {
+            int temp = cells[a + col];
+            set(a + col, cells[b + col]);
+            set(b + col, temp);
+        }
+        return true;
+    }
+
+    /**
+     * Swaps two entire columns. At least one row must be editable in both columns.
+     *
+     * @return true if the columns were swapped
+     */
+    public boolean swapColumns(int colA, int colB) {
+        if (colA == colB) {
+            return false;
+        }
+
+        boolean canSwap = false;
+        for (int row = 0; row < size; row++) {
+            if (isEditable(cells[row * size + colA]) && isEditable(cells[row * size + colB])) {
+                canSwap = true;
+                break;
+            }
+        }
+        if (!canSwap) {
+            return false;
+        }
+
+        for (int row = 0; row < size; row++) {
+            int temp = cells[row * size + colA];
+            set(row * size + colA, cells[row * size + colB]);
+            set(row * size + colB, temp);
+        }
+        return true;
+    }
+
+    /**
+     * Applies a number operation to a single editable cell.
+     *
+     * @return true if the cell value changed
+     */
+    public boolean applyToCell(NumberOp op, int row, int col) {
+        return applyAt(op, row * size + col);
+    }
+
+    /**
+     * Applies a number operation to every editable cell in a row.
+     *
+     * @return true if any cell value changed
+     */
+    public boolean applyToRow(NumberOp op, int row) {
+        boolean changed = false;
+        for (int col = 0; col < size; col++) {
+            changed |= applyAt(op, row * size + col);
+        }
+        return changed;
+    }
+
+    /**
+     * Applies a number operation to every editable cell in a column.
+     *
+     * @return true if any cell value changed
+     */
+    public boolean applyToColumn(NumberOp op, int col) {
+        boolean changed = false;
+        for (int row = 0; row < size; row++) {
+            changed |= applyAt(op, row * size + col);
+        }
+        return changed;
+    }
+
+    /**
+     * Doubles every cell in a row whose doubled value stays within range (multiply mode).
+     *
+     * @return true if any cell value changed
+     */
+    public boolean doubleRow(int row) {
+        boolean changed = false;
+        for (int col = 0; col < size; col++) {
+            changed |= doubleAt(row * size + col);
+        }
+        return changed;
+    }
+
+    /**
+     * Doubles every cell in a column whose doubled value stays within range (multiply mode).
+     *
+     * @return true if any cell value changed
+     */
+    public boolean doubleColumn(int col) {
+        boolean changed = false;
+        for (int row = 0; row < size; row++) {
+            changed |= doubleAt(row * size + col);
+        }
+        return changed;
+    }
+
+    private boolean applyAt(NumberOp op, int i) {
+        int packed = cells[i];
+        if (!numberMode || !isEditable(packed)) {
+            return false;
+        }
+        int oldValue = valueOf(packed);
+        int newValue = op.apply(oldValue);
+        if (newValue == oldValue) {
+            return false;
+        }
+        set(i, withValue(packed, newValue));
+        return true;
+    }
+
+    private boolean doubleAt(int i) {
+        int packed = cells[i];
+        int newValue = valueOf(packed) * 2;
+        if (!numberMode || newValue == 0 || newValue > NumberOp.MAX_VALUE) {
+            return false;
+        }
+        set(i, withValue(packed, newValue));
+        return true;
+    }
+
+    // A number-mode cell at 0 renders black, so it becomes blocked like any other black cell
+    private static int withValue(int packed, int value) {
+        int flags = packed & EDITABLE;
+        if (value == 0) {
+            flags |= BLOCKED;
+        }
+        return value | flags;
+    }
+
+    // Writes a cell and keeps the match counter and hash in sync
+    private void set(int i, int packed) {
+        if (((cells[i] ^ target[i]) & VALUE_MASK) == 0) {
+            matches--;
+        }
+        hash ^= zobristKey(i, cells[i]) ^ zobristKey(i, packed);
+        cells[i] = packed;
+        if (((packed ^ target[i]) & VALUE_MASK) == 0) {
+            matches++;
+        }
+    }
+
+    /**
+     * Copies the current cells into a caller-provided buffer.
+     *
+     * @param dest Buffer of at least size * size ints
+     */
+    public void saveCells(int[] dest) {
+        System.arraycopy(cells, 0, dest, 0, cells.length);
+    }
+
+    /**
+     * Restores cells previously captured with {@link #saveCells(int[])}.
+     *
+     * @param src Buffer of at least size * size ints
+     */
+    public void restoreCells(int[] src) {
+        System.arraycopy(src, 0, cells, 0, cells.length);
+        recount();
+    }
+
+    private void recount() {
+        matches = 0;
+        hash = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (((cells[i] ^ target[i]) & VALUE_MASK) == 0) {
+                matches++;
+            }
+            hash ^= zobristKey(i, cells[i]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board)) return false;
+        Board other = (Board) o;
+        return size == other.size && Arrays.equals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+}
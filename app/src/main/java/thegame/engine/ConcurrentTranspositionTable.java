@@ -0,0 +1,66 @@
+package thegame.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free transposition table shared by parallel search workers.
+ * Open addressing over 64-bit entries, with slots claimed by compare-and-set.
+ * Each entry packs the iteration it was written in above the low bits of the key,
+ * so entries from earlier bounds read as free and moving to the next bound does not
+ * have to clear the table.
+ */
+final class ConcurrentTranspositionTable implements TranspositionTable {
+    /** Bytes per entry: one long holding the stamp and key. */
+    static final int ENTRY_BYTES = 8;
+
+    private static final int MAX_PROBES = 8;
+    private static final int KEY_BITS = 48;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    private static final int MAX_STAMP = (1 << (64 - KEY_BITS)) - 1;
+
+    private final AtomicLongArray entries;
+    private final int mask;
+    // Only changed between searches; starting the pool's tasks publishes it to the workers
+    private long stamp = 1;
+
+    ConcurrentTranspositionTable(int capacity) {
+        this.entries = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public boolean visit(long key) {
+        long entry = (stamp << KEY_BITS) | (key & KEY_MASK); // Never zero, as stamps start at 1
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            long current = entries.get(i);
+            if (current == entry) {
+                return false;
+            }
+            if (current >>> KEY_BITS != stamp) {
+                // Free, or left over from an earlier bound
+                if (entries.compareAndSet(i, current, entry)) {
+                    return true;
+                }
+                // Another worker claimed the slot first, possibly for the same state
+                if (entries.get(i) == entry) {
+                    return false;
+                }
+            }
+        }
+        return true; // Table region full, search without pruning
+    }
+
+    @Override
+    public void nextIteration() {
+        if (stamp == MAX_STAMP) {
+            // Stamps are about to repeat, which only happens after tens of thousands of bounds
+            for (int i = 0; i < entries.length(); i++) {
+                entries.set(i, 0L);
+            }
+            stamp = 0;
+        }
+        stamp++;
+    }
+}
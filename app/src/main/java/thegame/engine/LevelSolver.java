@@ -0,0 +1,412 @@
+package thegame.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import thegame.utils.LevelConfig;
+import thegame.utils.LevelConfig.MoveType;
+
+/**
+ * Finds the shortest solution of a level within its move limits.
+ *
+ * Runs an iterative-deepening A* (IDA*) search over every move the game screen
+ * allows, honoring the per-type limits and the overall maximum move count. States
+ * already expanded at the current depth bound are skipped through a transposition
+ * table keyed on the board's Zobrist hash combined with the depth and remaining budget.
+ *
+ * The search stops when it runs out of time or is cancelled. The transposition
+ * table is sized from a memory budget; once full it simply stops pruning.
+ *
+ * With a parallelism above one, each bound is searched on a ForkJoinPool: the
+ * first {@link #SPLIT_DEPTH} levels of the tree are forked into subtree tasks that
+ * idle workers steal, all workers share a lock-free transposition table, and every
+ * worker stops as soon as one of them finds a solution. Any solution found under a
+ * bound is minimal, so the parallel mode returns the same length as the sequential one.
+ */
+public class LevelSolver {
+    /** Tree depth down to which the parallel mode forks one task per move. */
+    public static final int SPLIT_DEPTH = 2;
+
+    private static final int FOUND = SearchWorker.FOUND;
+    private static final int ABORTED = SearchWorker.ABORTED;
+    private static final int NOT_FOUND = SearchWorker.NOT_FOUND;
+
+    /**
+     * Move budget for a search, mirroring the limits enforced by the game screen.
+     */
+    public static class Limits {
+        private final int swaps;
+        private final int rowFlips;
+        private final int columnFlips;
+        private final int numberOps;
+        private final int total;
+
+        public Limits(int swaps, int rowFlips, int columnFlips, int numberOps, int total) {
+            this.swaps = swaps;
+            this.rowFlips = rowFlips;
+            this.columnFlips = columnFlips;
+            this.numberOps = numberOps;
+            this.total = total;
+        }
+
+        /**
+         * Reads the limits from level settings. Number operations count against
+         * the ROTATE limit, as they do in the game screen.
+         *
+         * @param settings The level settings
+         * @return The move budget for the level
+         */
+        public static Limits fromSettings(LevelConfig.Settings settings) {
+            return new Limits(
+                settings.getMoveLimit(MoveType.SWAP),
+                settings.getMoveLimit(MoveType.FLIP_ROW),
+                settings.getMoveLimit(MoveType.FLIP_COLUMN),
+                settings.getMoveLimit(MoveType.ROTATE),
+                settings.getMaxMoves()
+            );
+        }
+
+        public int getSwaps() { return swaps; }
+        public int getRowFlips() { return rowFlips; }
+        public int getColumnFlips() { return columnFlips; }
+        public int getNumberOps() { return numberOps; }
+        public int getTotal() { return total; }
+    }
+
+    /**
+     * Outcome of a search.
+     */
+    public static class Result {
+        public enum Status {
+            SOLVED,          // A minimal solution was found
+            UNSOLVABLE,      // The whole space within the limits was searched
+            BUDGET_EXCEEDED  // Time ran out or the search was cancelled
+        }
+
+        private final Status status;
+        private final int[] moves;
+        private final long nodes;
+        private final long elapsedMillis;
+
+        Result(Status status, int[] moves, long nodes, long elapsedMillis) {
+            this.status = status;
+            this.moves = moves;
+            this.nodes = nodes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Status getStatus() { return status; }
+        public boolean isSolved() { return status == Status.SOLVED; }
+
+        /**
+         * Gets the moves of the solution, encoded with {@link Moves}.
+         *
+         * @return The solution moves, or an empty array if none was found
+         */
+        public int[] getMoves() { return moves.clone(); }
+
+        /**
+         * Gets the length of the minimal solution.
+         *
+         * @return The number of moves, or -1 if no solution was found
+         */
+        public int getSolutionLength() { return isSolved() ? moves.length : -1; }
+
+        public long getNodes() { return nodes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%s in %d moves (%d nodes, %d ms)",
+                status, getSolutionLength(), nodes, elapsedMillis);
+        }
+    }
+
+    private final Board board;
+    private final Limits limits;
+    private final long timeBudgetNanos;
+    private final long memoryBudgetBytes;
+    private int parallelism = 1;
+
+    private volatile boolean cancelled = false;
+    private volatile SearchControl control;
+
+    /**
+     * Creates a solver for a board.
+     *
+     * @param board The starting board; it is copied and never modified
+     * @param limits The move budget
+     * @param timeBudgetMillis Maximum search time in milliseconds
+     * @param memoryBudgetBytes Approximate memory to spend on the transposition table
+     */
+    public LevelSolver(Board board, Limits limits, long timeBudgetMillis, long memoryBudgetBytes) {
+        this.board = board.copy();
+        this.limits = limits;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Creates a solver for a level using its own move limits.
+     *
+     * @param levelConfig The level to solve
+     * @param timeBudgetMillis Maximum search time in milliseconds
+     * @param memoryBudgetBytes Approximate memory to spend on the transposition table
+     * @return A new solver
+     */
+    public static LevelSolver forLevel(LevelConfig levelConfig, long timeBudgetMillis, long memoryBudgetBytes) {
+        return new LevelSolver(Board.fromLevel(levelConfig),
+                               Limits.fromSettings(levelConfig.getSettings()),
+                               timeBudgetMillis, memoryBudgetBytes);
+    }
+
+    /**
+     * Sets how many threads the search may use. One runs the sequential search.
+     *
+     * @param parallelism Number of worker threads, at least 1
+     * @return This solver
+     */
+    public LevelSolver withParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * Requests the running search to stop. The search returns BUDGET_EXCEEDED.
+     */
+    public void cancel() {
+        cancelled = true;
+        SearchControl current = control;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @return The search result
+     */
+    public Result solve() {
+        long start = System.nanoTime();
+        SearchControl searchControl = new SearchControl(start + timeBudgetNanos);
+        control = searchControl;
+        if (cancelled) {
+            searchControl.cancel();
+        }
+
+        if (board.isSolved()) {
+            return result(Result.Status.SOLVED, new int[0], searchControl, start);
+        }
+        if (!board.isNumberMode() && !sameColors()) {
+            // Swaps and flips only permute cells, so the colors can never line up
+            return result(Result.Status.UNSOLVABLE, new int[0], searchControl, start);
+        }
+
+        return parallelism > 1 ? solveParallel(searchControl, start) : solveSequential(searchControl, start);
+    }
+
+    private Result solveSequential(SearchControl searchControl, long start) {
+        TranspositionTable table = new LocalTranspositionTable(
+            tableCapacity(LocalTranspositionTable.ENTRY_BYTES));
+        SearchWorker worker = new SearchWorker(board.copy(), limits, table, searchControl);
+
+        int bound = initialBound();
+        while (bound <= limits.getTotal()) {
+            table.nextIteration();
+            worker.setBound(bound);
+            int next = worker.run(0, limits.getSwaps(), limits.getRowFlips(),
+                                  limits.getColumnFlips(), limits.getNumberOps());
+            if (next == FOUND || next == ABORTED || next == NOT_FOUND) {
+                break;
+            }
+            bound = next;
+        }
+        return finish(searchControl, start);
+    }
+
+    private Result solveParallel(SearchControl searchControl, long start) {
+        TranspositionTable table = new ConcurrentTranspositionTable(
+            tableCapacity(ConcurrentTranspositionTable.ENTRY_BYTES));
+        ThreadLocal<SearchWorker> workers = ThreadLocal.withInitial(
+            () -> new SearchWorker(board.copy(), limits, table, searchControl));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            int[] rootCells = new int[board.getSize() * board.getSize()];
+            board.saveCells(rootCells);
+
+            int bound = initialBound();
+            while (bound <= limits.getTotal()) {
+                table.nextIteration();
+                SubtreeTask root = new SubtreeTask(new Context(table, workers, searchControl, bound),
+                    rootCells, new int[0], 0, limits.getSwaps(), limits.getRowFlips(),
+                    limits.getColumnFlips(), limits.getNumberOps());
+                int next = pool.invoke(root);
+                if (next == FOUND || next == ABORTED || next == NOT_FOUND) {
+                    break;
+                }
+                bound = next;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return finish(searchControl, start);
+    }
+
+    private int initialBound() {
+        return SearchWorker.heuristic(board, limits, limits.getSwaps(), limits.getRowFlips(),
+                                      limits.getColumnFlips(), limits.getNumberOps());
+    }
+
+    // Round the table down to a power of two that fits the memory budget
+    private int tableCapacity(int entryBytes) {
+        long entries = Math.max(1024, memoryBudgetBytes / entryBytes);
+        return Integer.highestOneBit((int) Math.min(entries, 1 << 28));
+    }
+
+    private Result finish(SearchControl searchControl, long start) {
+        int[] solution = searchControl.getSolution();
+        if (solution != null) {
+            return result(Result.Status.SOLVED, solution, searchControl, start);
+        }
+        if (searchControl.shouldStop()) {
+            return result(Result.Status.BUDGET_EXCEEDED, new int[0], searchControl, start);
+        }
+        return result(Result.Status.UNSOLVABLE, new int[0], searchControl, start);
+    }
+
+    private Result result(Result.Status status, int[] moves, SearchControl searchControl, long start) {
+        return new Result(status, moves, searchControl.getNodes(), (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    // Shared state of one parallel iteration
+    private static final class Context {
+        final TranspositionTable table;
+        final ThreadLocal<SearchWorker> workers;
+        final SearchControl control;
+        final int bound;
+
+        Context(TranspositionTable table, ThreadLocal<SearchWorker> workers, SearchControl control, int bound) {
+            this.table = table;
+            this.workers = workers;
+            this.control = control;
+            this.bound = bound;
+        }
+    }
+
+    // Expands one node near the root; below SPLIT_DEPTH hands the subtree to the thread's worker.
+    // Tasks are never serialized, so they declare no serialVersionUID.
+    @SuppressWarnings("serial")
+    private final class SubtreeTask extends RecursiveTask<Integer> {
+        private final Context context;
+        private final int[] cells;
+        private final int[] prefix;
+        private final int depth;
+        private final int swaps, rows, cols, ops;
+
+        SubtreeTask(Context context, int[] cells, int[] prefix, int depth,
+                    int swaps, int rows, int cols, int ops) {
+            this.context = context;
+            this.cells = cells;
+            this.prefix = prefix;
+            this.depth = depth;
+            this.swaps = swaps;
+            this.rows = rows;
+            this.cols = cols;
+            this.ops = ops;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (context.control.shouldStop()) {
+                return ABORTED;
+            }
+
+            if (depth >= SPLIT_DEPTH) {
+                SearchWorker worker = context.workers.get();
+                worker.load(cells, prefix, depth, context.bound);
+                return worker.run(depth, swaps, rows, cols, ops);
+            }
+
+            Board node = board.copy();
+            node.restoreCells(cells);
+
+            if (node.isSolved()) {
+                context.control.offerSolution(prefix, depth);
+                return FOUND;
+            }
+            int f = depth + SearchWorker.heuristic(node, limits, swaps, rows, cols, ops);
+            if (f > context.bound) {
+                return f;
+            }
+            context.control.addNodes(1);
+            if (!context.table.visit(SearchWorker.stateKey(node, depth, swaps, rows, cols, ops))) {
+                return NOT_FOUND;
+            }
+
+            int[] moves = new int[Moves.maxMoveCount(node.getSize())];
+            int count = Moves.generate(node.getSize(), node.isNumberMode(),
+                                       swaps > 0, rows > 0, cols > 0, ops > 0, moves);
+            List<SubtreeTask> children = new ArrayList<>(count);
+            for (int m = 0; m < count; m++) {
+                int move = moves[m];
+                if (!Moves.apply(node, move)) {
+                    continue;
+                }
+
+                int[] childCells = new int[cells.length];
+                node.saveCells(childCells);
+                int[] childPrefix = Arrays.copyOf(prefix, depth + 1);
+                childPrefix[depth] = move;
+                int kind = Moves.kind(move);
+                children.add(new SubtreeTask(context, childCells, childPrefix, depth + 1,
+                    kind <= Moves.SWAP_DOWN ? swaps - 1 : swaps,
+                    kind == Moves.FLIP_ROW ? rows - 1 : rows,
+                    kind == Moves.FLIP_COLUMN ? cols - 1 : cols,
+                    kind >= Moves.CELL_OP ? ops - 1 : ops));
+
+                node.restoreCells(cells);
+            }
+
+            // Forked subtrees are stolen by idle workers
+            invokeAll(children);
+
+            int min = NOT_FOUND;
+            boolean aborted = false;
+            for (SubtreeTask child : children) {
+                int next = child.join();
+                if (next == FOUND) {
+                    return FOUND;
+                }
+                if (next == ABORTED) {
+                    aborted = true;
+                } else {
+                    min = Math.min(min, next);
+                }
+            }
+            return aborted ? ABORTED : min;
+        }
+    }
+
+    // Checks that the grid and target use the same multiset of colors
+    private boolean sameColors() {
+        int size = board.getSize();
+        int[] counts = new int[Board.VALUE_MASK + 1];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                counts[Board.valueOf(board.getCell(row, col))]++;
+                counts[Board.valueOf(board.getTargetCell(row, col))]--;
+            }
+        }
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+package thegame.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import thegame.utils.LevelConfig;
+
+/**
+ * Runs level solvability checks on a background thread so the editor stays responsive.
+ * The search itself is spread over all available cores.
+ */
+public class LevelVerifier {
+    /** Default search time before giving up. */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 10_000;
+    /** Default memory for the solver's transposition table. */
+    public static final long DEFAULT_MEMORY_BUDGET_BYTES = 64L * 1024 * 1024;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-verifier");
+        thread.setDaemon(true); // Never keep the game alive on exit
+        return thread;
+    });
+
+    private LevelVerifier() {}
+
+    /**
+     * Verifies a level with the default time and memory budget.
+     *
+     * @param levelConfig The level to verify
+     * @return A future completed with the solver result
+     */
+    public static CompletableFuture<LevelSolver.Result> verify(LevelConfig levelConfig) {
+        return verify(levelConfig, DEFAULT_TIME_BUDGET_MILLIS, DEFAULT_MEMORY_BUDGET_BYTES);
+    }
+
+    /**
+     * Verifies a level on the background executor.
+     *
+     * @param levelConfig The level to verify
+     * @param timeBudgetMillis Maximum search time in milliseconds
+     * @param memoryBudgetBytes Approximate memory for the transposition table
+     * @return A future completed with the solver result; cancelling it stops the search
+     * @throws IllegalArgumentException if the level grids are malformed
+     */
+    public static CompletableFuture<LevelSolver.Result> verify(LevelConfig levelConfig,
+                                                             long timeBudgetMillis, long memoryBudgetBytes) {
+        LevelSolver solver = LevelSolver.forLevel(levelConfig, timeBudgetMillis, memoryBudgetBytes)
+                                        .withParallelism(Runtime.getRuntime().availableProcessors());
+        CompletableFuture<LevelSolver.Result> future = CompletableFuture.supplyAsync(solver::solve, executor);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                solver.cancel();
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,45 @@
+package thegame.engine;
+
+/**
+ * Single-threaded transposition table. Entries are stamped with the iteration
+ * they were written in, so moving to the next bound does not have to clear the arrays.
+ */
+final class LocalTranspositionTable implements TranspositionTable {
+    /** Bytes per entry: one long key and one int stamp. */
+    static final int ENTRY_BYTES = 12;
+
+    private static final int MAX_PROBES = 8;
+
+    private final long[] keys;
+    private final int[] stamps;
+    private final int mask;
+    private int stamp = 1;
+
+    LocalTranspositionTable(int capacity) {
+        this.keys = new long[capacity];
+        this.stamps = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public boolean visit(long key) {
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int i = (slot + probe) & mask;
+            if (stamps[i] != stamp) {
+                keys[i] = key;
+                stamps[i] = stamp;
+                return true;
+            }
+            if (keys[i] == key) {
+                return false;
+            }
+        }
+        return true; // Table region full, search without pruning
+    }
+
+    @Override
+    public void nextIteration() {
+        stamp++;
+    }
+}
@@ -0,0 +1,210 @@
+package thegame.engine;
+
+import thegame.utils.LevelConfig.MoveType;
+
+/**
+ * Compact int encoding of the moves a player can make on a {@link Board}.
+ *
+ * A move is packed as kind (8 bits) | a (8 bits) | b (8 bits) | c (8 bits), where
+ * a and b are row/column indices and c holds the {@link NumberOp} ordinal for
+ * number operations. Solvers store and replay moves in this form without allocating.
+ */
+public final class Moves {
+    // Move kinds
+    public static final int SWAP_RIGHT = 0;    // Swap (a, b) with (a, b + 1)
+    public static final int SWAP_DOWN = 1;     // Swap (a, b) with (a + 1, b)
+    public static final int FLIP_ROW = 2;      // Swap rows a and b
+    public static final int FLIP_COLUMN = 3;   // Swap columns a and b
+    public static final int CELL_OP = 4;       // Apply op c to cell (a, b)
+    public static final int ROW_OP = 5;        // Apply op c to row a
+    public static final int COLUMN_OP = 6;     // Apply op c to column a
+    public static final int DOUBLE_ROW = 7;    // Multiply mode on row a
+    public static final int DOUBLE_COLUMN = 8; // Multiply mode on column a
+
+    private static final NumberOp[] OPS = NumberOp.values();
+
+    private Moves() {}
+
+    /**
+     * Packs a move into an int.
+     */
+    public static int encode(int kind, int a, int b, int c) {
+        return (kind << 24) | (a << 16) | (b << 8) | c;
+    }
+
+    public static int kind(int move) { return move >>> 24; }
+    public static int a(int move) { return (move >>> 16) & 0xFF; }
+    public static int b(int move) { return (move >>> 8) & 0xFF; }
+    public static int c(int move) { return move & 0xFF; }
+
+    /**
+     * Gets the move type whose limit a move counts against, using the same
+     * mapping as the game screen (all number operations count as ROTATE).
+     *
+     * @param move The encoded move
+     * @return The move type charged for this move
+     */
+    public static MoveType typeOf(int move) {
+        switch (kind(move)) {
+            case SWAP_RIGHT:
+            case SWAP_DOWN:
+                return MoveType.SWAP;
+            case FLIP_ROW:
+                return MoveType.FLIP_ROW;
+            case FLIP_COLUMN:
+                return MoveType.FLIP_COLUMN;
+            default:
+                return MoveType.ROTATE;
+        }
+    }
+
+    /**
+     * Checks if undoing the move by applying it again restores the board.
+     *
+     * @param move The encoded move
+     * @return true for swaps and flips, false for number operations
+     */
+    public static boolean isSelfInverse(int move) {
+        return kind(move) <= FLIP_COLUMN;
+    }
+
+    /**
+     * Applies an encoded move to a board.
+     *
+     * @param board The board to modify
+     * @param move The encoded move
+     * @return true if the board changed
+     */
+    public static boolean apply(Board board, int move) {
+        int a = a(move);
+        int b = b(move);
+        switch (kind(move)) {
+            case SWAP_RIGHT:
+                return board.swapCells(a, b, a, b + 1);
+            case SWAP_DOWN:
+                return board.swapCells(a, b, a + 1, b);
+            case FLIP_ROW:
+                return board.swapRows(a, b);
+            case FLIP_COLUMN:
+                return board.swapColumns(a, b);
+            case CELL_OP:
+                return board.applyToCell(OPS[c(move)], a, b);
+            case ROW_OP:
+                return board.applyToRow(OPS[c(move)], a);
+            case COLUMN_OP:
+                return board.applyToColumn(OPS[c(move)], a);
+            case DOUBLE_ROW:
+                return board.doubleRow(a);
+            case DOUBLE_COLUMN:
+                return board.doubleColumn(a);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes every candidate move for a board into a buffer. Moves of a type
+     * with no remaining budget are left out; candidates may still turn out to
+     * be no-ops when applied.
+     *
+     * @param size The board size
+     * @param numberMode Whether number operations are available
+     * @param swaps Whether swaps are allowed
+     * @param rowFlips Whether row flips are allowed
+     * @param columnFlips Whether column flips are allowed
+     * @param numberOps Whether number operations are allowed
+     * @param out Buffer of at least {@link #maxMoveCount(int)} ints
+     * @return The number of moves written
+     */
+    public static int generate(int size, boolean numberMode, boolean swaps, boolean rowFlips,
+                               boolean columnFlips, boolean numberOps, int[] out) {
+        int count = 0;
+        if (swaps) {
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    if (col + 1 < size) out[count++] = encode(SWAP_RIGHT, row, col, 0);
+                    if (row + 1 < size) out[count++] = encode(SWAP_DOWN, row, col, 0);
+                }
+            }
+        }
+        if (rowFlips) {
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    out[count++] = encode(FLIP_ROW, i, j, 0);
+                }
+            }
+        }
+        if (columnFlips) {
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    out[count++] = encode(FLIP_COLUMN, i, j, 0);
+                }
+            }
+        }
+        if (numberMode && numberOps) {
+            for (int op = 0; op < OPS.length; op++) {
+                for (int i = 0; i < size; i++) {
+                    out[count++] = encode(ROW_OP, i, 0, op);
+                    out[count++] = encode(COLUMN_OP, i, 0, op);
+                }
+                for (int row = 0; row < size; row++) {
+                    for (int col = 0; col < size; col++) {
+                        out[count++] = encode(CELL_OP, row, col, op);
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                out[count++] = encode(DOUBLE_ROW, i, 0, 0);
+                out[count++] = encode(DOUBLE_COLUMN, i, 0, 0);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the largest number of moves {@link #generate} can produce.
+     *
+     * @param size The board size
+     * @return The buffer size needed for move generation
+     */
+    public static int maxMoveCount(int size) {
+        int pairs = size * (size - 1) / 2;
+        return 2 * size * (size - 1)               // Swaps
+             + 2 * pairs                           // Row and column flips
+             + OPS.length * (2 * size + size * size) // Number operations
+             + 2 * size;                           // Multiply mode
+    }
+
+    /**
+     * Formats a move for logs and debugging output.
+     *
+     * @param move The encoded move
+     * @return A human-readable description
+     */
+    public static String describe(int move) {
+        int a = a(move);
+        int b = b(move);
+        switch (kind(move)) {
+            case SWAP_RIGHT:
+                return String.format("Swap (%d,%d) with (%d,%d)", a, b, a, b + 1);
+            case SWAP_DOWN:
+                return String.format("Swap (%d,%d) with (%d,%d)", a, b, a + 1, b);
+            case FLIP_ROW:
+                return String.format("Swap rows %d and %d", a, b);
+            case FLIP_COLUMN:
+                return String.format("Swap columns %d and %d", a, b);
+            case CELL_OP:
+                return String.format("%s cell (%d,%d)", OPS[c(move)], a, b);
+            case ROW_OP:
+                return String.format("%s row %d", OPS[c(move)], a);
+            case COLUMN_OP:
+                return String.format("%s column %d", OPS[c(move)], a);
+            case DOUBLE_ROW:
+                return String.format("Multiply row %d", a);
+            case DOUBLE_COLUMN:
+                return String.format("Multiply column %d", a);
+            default:
+                return "Unknown move";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package thegame.engine;
+
+/**
+ * Arithmetic operations available on number-mode cells.
+ * Values are kept in the 0-9 range used by number-mode levels.
+ */
+public enum NumberOp {
+    ADD,        // Add 1, max 9
+    SUBTRACT,   // Subtract 1, min 0
+    MULTIPLY,   // Multiply by 2, max 9
+    DIVIDE;     // Divide by 2, integer division
+
+    /** Highest value a number-mode cell can hold. */
+    public static final int MAX_VALUE = 9;
+
+    /**
+     * Applies this operation to a cell value.
+     *
+     * @param value The current cell value
+     * @return The new cell value, clamped to 0-9
+     */
+    public int apply(int value) {
+        switch (this) {
+            case ADD:
+                return Math.min(MAX_VALUE, value + 1);
+            case SUBTRACT:
+                return Math.max(0, value - 1);
+            case MULTIPLY:
+                return Math.min(MAX_VALUE, value * 2);
+            case DIVIDE:
+                return value / 2;
+            default:
+                return value;
+        }
+    }
+}
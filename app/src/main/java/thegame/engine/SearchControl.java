@@ -0,0 +1,58 @@
+package thegame.engine;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State shared by every worker of one search: deadline, cancellation, node count
+ * and the first solution found.
+ */
+final class SearchControl {
+    private final long deadline;
+    private final AtomicReference<int[]> solution = new AtomicReference<>();
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean cancelled = false;
+
+    SearchControl(long deadline) {
+        this.deadline = deadline;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether workers should stop: cancelled, out of time, or already solved.
+     */
+    boolean shouldStop() {
+        return cancelled || solution.get() != null || System.nanoTime() > deadline;
+    }
+
+    /**
+     * Records a solution unless another worker got there first.
+     *
+     * @param path Moves leading to the solved board
+     * @param length Number of moves in the path
+     */
+    void offerSolution(int[] path, int length) {
+        int[] moves = new int[length];
+        System.arraycopy(path, 0, moves, 0, length);
+        solution.compareAndSet(null, moves);
+    }
+
+    int[] getSolution() {
+        return solution.get();
+    }
+
+    void addNodes(long count) {
+        nodes.add(count);
+    }
+
+    long getNodes() {
+        return nodes.sum();
+    }
+}
@@ -0,0 +1,161 @@
+package thegame.engine;
+
+/**
+ * Depth-first IDA* search over one board, shared by the sequential and parallel
+ * solver modes. A worker owns its board and scratch buffers, so one worker must
+ * only ever be used by one thread at a time.
+ */
+final class SearchWorker {
+    static final int FOUND = -1;
+    static final int ABORTED = -2;
+    static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    // How often, in nodes, to check the deadline and cancellation
+    private static final int CHECK_INTERVAL_MASK = 1023;
+
+    private final Board board;
+    private final LevelSolver.Limits limits;
+    private final TranspositionTable table;
+    private final SearchControl control;
+
+    // Per-depth scratch buffers
+    private final int[][] moveBuffers;
+    private final int[][] snapshots;
+    private final int[] path;
+
+    private int bound;
+    private long nodes;
+
+    SearchWorker(Board board, LevelSolver.Limits limits, TranspositionTable table, SearchControl control) {
+        this.board = board;
+        this.limits = limits;
+        this.table = table;
+        this.control = control;
+
+        int depth = Math.max(0, limits.getTotal());
+        int cellCount = board.getSize() * board.getSize();
+        this.moveBuffers = new int[depth][Moves.maxMoveCount(board.getSize())];
+        this.snapshots = new int[depth][cellCount];
+        this.path = new int[depth];
+    }
+
+    /**
+     * Loads a search start point: the board cells and the moves that led to them.
+     */
+    void load(int[] cells, int[] prefix, int depth, int bound) {
+        board.restoreCells(cells);
+        System.arraycopy(prefix, 0, path, 0, depth);
+        this.bound = bound;
+    }
+
+    /**
+     * Sets the depth bound for the next search from the worker's current board.
+     */
+    void setBound(int bound) {
+        this.bound = bound;
+    }
+
+    /**
+     * Searches from the current board and adds the expanded nodes to the shared count.
+     *
+     * @return FOUND, ABORTED, or the smallest f-cost that exceeded the bound
+     */
+    int run(int depth, int swaps, int rows, int cols, int ops) {
+        nodes = 0;
+        int result = search(depth, swaps, rows, cols, ops);
+        control.addNodes(nodes);
+        return result;
+    }
+
+    private int search(int depth, int swaps, int rows, int cols, int ops) {
+        if (board.isSolved()) {
+            control.offerSolution(path, depth);
+            return FOUND;
+        }
+
+        int f = depth + heuristic(board, limits, swaps, rows, cols, ops);
+        if (f > bound) {
+            return f;
+        }
+
+        if ((++nodes & CHECK_INTERVAL_MASK) == 0 && control.shouldStop()) {
+            return ABORTED;
+        }
+
+        // Skip states already expanded under this bound with the same remaining budget
+        if (!table.visit(stateKey(board, depth, swaps, rows, cols, ops))) {
+            return NOT_FOUND;
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = Moves.generate(board.getSize(), board.isNumberMode(),
+                                   swaps > 0, rows > 0, cols > 0, ops > 0, moves);
+        int[] snapshot = snapshots[depth];
+        boolean saved = false;
+        int min = NOT_FOUND;
+
+        for (int m = 0; m < count; m++) {
+            int move = moves[m];
+            boolean selfInverse = Moves.isSelfInverse(move);
+            if (!selfInverse && !saved) {
+                board.saveCells(snapshot);
+                saved = true;
+            }
+            if (!Moves.apply(board, move)) {
+                continue;
+            }
+
+            path[depth] = move;
+            int kind = Moves.kind(move);
+            int next = search(depth + 1,
+                kind <= Moves.SWAP_DOWN ? swaps - 1 : swaps,
+                kind == Moves.FLIP_ROW ? rows - 1 : rows,
+                kind == Moves.FLIP_COLUMN ? cols - 1 : cols,
+                kind >= Moves.CELL_OP ? ops - 1 : ops);
+
+            if (next == FOUND || next == ABORTED) {
+                return next;
+            }
+
+            // Undo the move
+            if (selfInverse) {
+                Moves.apply(board, move);
+            } else {
+                board.restoreCells(snapshot);
+            }
+            min = Math.min(min, next);
+        }
+        return min;
+    }
+
+    /**
+     * Lower bound on the moves still needed: each move fixes a bounded number of cells.
+     */
+    static int heuristic(Board board, LevelSolver.Limits limits, int swaps, int rows, int cols, int ops) {
+        int size = board.getSize();
+        int mismatched = size * size - board.getMatchCount();
+        if (mismatched == 0) {
+            return 0;
+        }
+
+        int perMove = 0;
+        if (swaps > 0) perMove = 2;
+        if (ops > 0 && board.isNumberMode()) perMove = Math.max(perMove, size);
+        if (rows > 0 || cols > 0) perMove = Math.max(perMove, 2 * size);
+        if (perMove == 0) {
+            return limits.getTotal() + 1; // No moves left, so never within the bound
+        }
+        return (mismatched + perMove - 1) / perMove;
+    }
+
+    /**
+     * Gets the transposition key of a state: the board hash combined with the depth and
+     * remaining budget, so a state is only skipped when its subtree would be identical.
+     */
+    static long stateKey(Board board, int depth, int swaps, int rows, int cols, int ops) {
+        return board.getHash()
+             ^ Board.zobristKey(-3, depth)
+             ^ Board.zobristKey(-1, (swaps & 0xFFFF) | rows << 16)
+             ^ Board.zobristKey(-2, (cols & 0xFFFF) | ops << 16);
+    }
+}
@@ -0,0 +1,19 @@
+package thegame.engine;
+
+/**
+ * Set of search states already expanded under the current IDA* bound.
+ */
+interface TranspositionTable {
+    /**
+     * Records a state.
+     *
+     * @param key The state key (board hash combined with the remaining budget)
+     * @return true if the state is new and should be expanded, false if it was seen before
+     */
+    boolean visit(long key);
+
+    /**
+     * Forgets every state before the next depth bound. Only called while no search is running.
+     */
+    void nextIteration();
+}
@@ -1,35 +1,28 @@
 package thegame.onScreenObjects;
 
-import java.nio.FloatBuffer;
-
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
-import org.lwjgl.system.MemoryUtil;
-
+import thegame.render.Renderer2D;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
-import thegame.utils.GLDebugger;
 
 /**
  * A button UI component that can be clicked.
  * Provides visual feedback when hovered and supports text captions.
+ * Buttons own no OpenGL objects; they are drawn as quads in the shared
+ * {@link Renderer2D} batch, so creating them is cheap.
  */
 public class Button {
     private float x, y, width, height;
     private float[] baseColor;
     private float[] hoverColor;
     private float[] pressColor;
-    private int vaoId, vboId;
-    private int shaderProgram;
     private boolean isHovered = false; // Track hover state
     private boolean isPressed = false; // Track press state
     
     // Caption properties
     private String caption;
+    private String[] captionLines; // Caption split at newlines, kept for rendering
     private float captionScale = 1.0f;
     private float textR = 1.0f, textG = 1.0f, textB = 1.0f, textA = 1.0f;
-    private static FontRenderer sharedFontRenderer; // Static shared font renderer
     private FontRenderer fontRenderer;
     private float lineSpacing = 5.0f; // Spacing between lines for multiline text
 
@@ -61,111 +54,10 @@ public class Button {
             Math.max(g - 0.2f, 0.0f), 
             Math.max(b - 0.2f, 0.0f)
         };
-        this.caption = caption;
+        setCaption(caption);
         
-        // Use shared font renderer or create one if needed
-        // This ensures we only create font resources on the main thread
-        if (sharedFontRenderer == null) {
-            sharedFontRenderer = new FontRenderer();
-            sharedFontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
-        }
-        
-        this.fontRenderer = sharedFontRenderer;
-        setup();
-    }
-
-    private void setup() {
-        // Vertex data for a rectangle (two triangles)
-        float left = x;
-        float right = x + width;
-        float top = y;
-        float bottom = y + height;
-
-        // Convert to normalized device coordinates (-1 to 1)
-        float nx = (left / 640.0f) - 1.0f;
-        float ny = 1.0f - (top / 360.0f);
-        float nwidth = (width / 640.0f);
-        float nheight = (height / 360.0f);
-
-        float[] vertices = {
-            // x, y
-            nx, ny,
-            nx + nwidth, ny,
-            nx + nwidth, ny - nheight,
-            nx, ny - nheight
-        };
-
-        vaoId = GL30.glGenVertexArrays();
-        vboId = GL15.glGenBuffers();
-
-        GL30.glBindVertexArray(vaoId);
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
-
-        FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(vertices.length);
-        vertexBuffer.put(vertices).flip();
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
-
-        GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 2 * Float.BYTES, 0);
-        GL20.glEnableVertexAttribArray(0);
-
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-        GL30.glBindVertexArray(0);
-
-        MemoryUtil.memFree(vertexBuffer);
-
-        // Simple shader
-        String vertexShaderSource =
-            "#version 330 core\n" +
-            "layout (location = 0) in vec2 position;\n" +
-            "void main() {\n" +
-            "    gl_Position = vec4(position, 0.0, 1.0);\n" +
-            "}";
-
-        String fragmentShaderSource =
-            "#version 330 core\n" +
-            "uniform vec3 color;\n" +
-            "out vec4 fragColor;\n" +
-            "void main() {\n" +
-            "    fragColor = vec4(color, 1.0);\n" +
-            "}";
-
-        GLDebugger.clearErrors();
-
-        // Create and compile vertex shader
-        int vertexShader = GL20.glCreateShader(GL20.GL_VERTEX_SHADER);
-        GL20.glShaderSource(vertexShader, vertexShaderSource);
-        GL20.glCompileShader(vertexShader);
-
-        // Check for vertex shader errors using our debugger
-        if (!GLDebugger.checkShaderCompilation(vertexShader, "Vertex Shader")) {
-            throw new RuntimeException("Vertex shader compilation failed");
-        }
-
-        // Create and compile fragment shader
-        int fragmentShader = GL20.glCreateShader(GL20.GL_FRAGMENT_SHADER);
-        GL20.glShaderSource(fragmentShader, fragmentShaderSource);
-        GL20.glCompileShader(fragmentShader);
-
-        // Check for fragment shader errors using our debugger
-        if (!GLDebugger.checkShaderCompilation(fragmentShader, "Fragment Shader")) {
-            throw new RuntimeException("Fragment shader compilation failed");
-        }
-
-        // Create shader program
-        shaderProgram = GL20.glCreateProgram();
-        GL20.glAttachShader(shaderProgram, vertexShader);
-        GL20.glAttachShader(shaderProgram, fragmentShader);
-        GL20.glLinkProgram(shaderProgram);
-
-        // Check for linking errors using our debugger
-        if (!GLDebugger.checkProgramLinking(shaderProgram)) {
-            throw new RuntimeException("Shader program linking failed");
-        }
-
-        GL20.glDeleteShader(vertexShader);
-        GL20.glDeleteShader(fragmentShader);
-        
-        GLDebugger.checkError("Button setup completed");
+        // Fonts are shared through the registry and created on the main thread
+        this.fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
     }
 
     /**
@@ -176,11 +68,7 @@ public class Button {
      */
     public void render(float mouseX, float mouseY) {
         try {
-            // Clear any existing errors before we start rendering
-            GLDebugger.clearErrors();
-            
             // Update hover state
-            boolean previousHover = isHovered;
             isHovered = isInside(mouseX, mouseY);
             
             // Only change color when hover state changes
@@ -191,29 +79,8 @@ public class Button {
                 drawB = hoverColor[2];
             }
             
-            // Use shader program
-            GL20.glUseProgram(shaderProgram);
-            
-            // Set uniform
-            int colorLoc = GL20.glGetUniformLocation(shaderProgram, "color");
-            
-            // Check if uniform exists
-            if (colorLoc == -1) {
-                System.out.println("ERROR: Uniform 'color' not found in shader!");
-            } else {
-                GL20.glUniform3f(colorLoc, drawR, drawG, drawB);
-            }
-            
-            // Draw
-            GL30.glBindVertexArray(vaoId);
-            
-            GL20.glEnableVertexAttribArray(0);
-            
-            GL11.glDrawArrays(GL11.GL_TRIANGLE_FAN, 0, 4);
-            
-            GL20.glDisableVertexAttribArray(0);
-            GL30.glBindVertexArray(0); // Use 0 instead of App.defaultVao to reset to default VAO
-            GL20.glUseProgram(0); // Unbind program
+            // Draw button background
+            Renderer2D.fillRect(x, y, width, height, drawR, drawG, drawB);
             
             // Render caption text if there is one
             if (caption != null && !caption.isEmpty()) {
@@ -222,9 +89,8 @@ public class Button {
                 float centerY = y + height / 2;
                 
                 // Check if caption contains newlines
-                if (caption.contains("\n")) {
-                    // Split the text by newline character
-                    String[] lines = caption.split("\n");
+                if (captionLines.length > 1) {
+                    String[] lines = captionLines;
                     int numLines = lines.length;
                     
                     // Calculate line height and spacing
@@ -272,9 +138,6 @@ public class Button {
                             mouseY >= scaledY && mouseY <= scaledY + scaledHeight);
         
         try {
-            // Clear any existing errors before we start rendering
-            GLDebugger.clearErrors();
-            
             // Determine color based on state
             float[] currentColor = baseColor;
             if (isPressed) {
@@ -283,32 +146,18 @@ public class Button {
                 currentColor = hoverColor;
             }
             
-            // Skip the shader program and use immediate mode for scaled rendering
-            // This ensures compatibility with scale factors
-            GL11.glColor3f(currentColor[0], currentColor[1], currentColor[2]);
-            
             // Draw button background
-            GL11.glBegin(GL11.GL_QUADS);
-            GL11.glVertex2f(scaledX, scaledY);
-            GL11.glVertex2f(scaledX + scaledWidth, scaledY);
-            GL11.glVertex2f(scaledX + scaledWidth, scaledY + scaledHeight);
-            GL11.glVertex2f(scaledX, scaledY + scaledHeight);
-            GL11.glEnd();
+            Renderer2D.fillRect(scaledX, scaledY, scaledWidth, scaledHeight,
+                                currentColor[0], currentColor[1], currentColor[2]);
             
             // Draw button border
-            GL11.glLineWidth(2.0f);
-            GL11.glColor3f(currentColor[0] * 0.7f, currentColor[1] * 0.7f, currentColor[2] * 0.7f);
-            GL11.glBegin(GL11.GL_LINE_LOOP);
-            GL11.glVertex2f(scaledX, scaledY);
-            GL11.glVertex2f(scaledX + scaledWidth, scaledY);
-            GL11.glVertex2f(scaledX + scaledWidth, scaledY + scaledHeight);
-            GL11.glVertex2f(scaledX, scaledY + scaledHeight);
-            GL11.glEnd();
+            Renderer2D.strokeRect(scaledX, scaledY, scaledWidth, scaledHeight, 2.0f,
+                                  currentColor[0] * 0.7f, currentColor[1] * 0.7f, currentColor[2] * 0.7f, 1.0f);
             
             // Draw button caption
             if (caption != null && !caption.isEmpty()) {
                 // Center the text
-                String[] lines = caption.split("\n");
+                String[] lines = captionLines;
                 float lineHeight = fontRenderer.getTextHeight(captionScale * scaleY);
                 float startY = scaledY + (scaledHeight - (lines.length * lineHeight)) / 2;
                 
@@ -416,8 +265,9 @@ public class Button {
      *
      * @param caption The text to display on the button
      */
-    public void setCaption(String caption) {
+    public final void setCaption(String caption) {
         this.caption = caption;
+        this.captionLines = caption != null ? caption.split("\n") : new String[0];
     }
     
     /**
@@ -426,7 +276,7 @@ public class Button {
      * @param text The text to display on the button
      */
     public void setText(String text) {
-        this.caption = text;
+        setCaption(text);
     }
 
     /**
@@ -1,6 +1,6 @@
 package thegame.onScreenObjects;
 
-import static org.lwjgl.opengl.GL11.*;
+import thegame.render.Renderer2D;
 
 /**
  * A slider UI component that allows users to select a value within a range.
@@ -90,51 +90,20 @@ public class Slider {
         float scaledKnobRadius = knobRadius * Math.min(scaleX, scaleY);
         
         // Draw slider background (track)
-        glColor3f(backgroundR, backgroundG, backgroundB);
-        glBegin(GL_QUADS);
-        glVertex2f(scaledX, scaledY);
-        glVertex2f(scaledX + scaledWidth, scaledY);
-        glVertex2f(scaledX + scaledWidth, scaledY + scaledHeight);
-        glVertex2f(scaledX, scaledY + scaledHeight);
-        glEnd();
+        Renderer2D.fillRect(scaledX, scaledY, scaledWidth, scaledHeight, backgroundR, backgroundG, backgroundB);
         
         // Draw filled part of slider
-        glColor3f(fillR, fillG, fillB);
-        glBegin(GL_QUADS);
-        glVertex2f(scaledX, scaledY);
-        glVertex2f(scaledX + scaledWidth * value, scaledY);
-        glVertex2f(scaledX + scaledWidth * value, scaledY + scaledHeight);
-        glVertex2f(scaledX, scaledY + scaledHeight);
-        glEnd();
+        Renderer2D.fillRect(scaledX, scaledY, scaledWidth * value, scaledHeight, fillR, fillG, fillB);
         
         // Draw slider knob
         float knobX = scaledX + scaledWidth * value;
         float knobY = scaledY + scaledHeight / 2;
         
-        glColor3f(knobR, knobG, knobB);
-        glBegin(GL_TRIANGLE_FAN);
-        glVertex2f(knobX, knobY); // Center
-        for (int i = 0; i <= 20; i++) {
-            float angle = (float) (i / 20.0 * Math.PI * 2);
-            glVertex2f(
-                knobX + (float) Math.cos(angle) * scaledKnobRadius,
-                knobY + (float) Math.sin(angle) * scaledKnobRadius
-            );
-        }
-        glEnd();
+        Renderer2D.fillEllipse(knobX, knobY, scaledKnobRadius, scaledKnobRadius, 20, knobR, knobG, knobB, 1.0f);
         
         // Draw knob border
-        glColor3f(0.0f, 0.0f, 0.0f);
-        glLineWidth(1.0f);
-        glBegin(GL_LINE_LOOP);
-        for (int i = 0; i <= 20; i++) {
-            float angle = (float) (i / 20.0 * Math.PI * 2);
-            glVertex2f(
-                knobX + (float) Math.cos(angle) * scaledKnobRadius,
-                knobY + (float) Math.sin(angle) * scaledKnobRadius
-            );
-        }
-        glEnd();
+        Renderer2D.strokeEllipse(knobX, knobY, scaledKnobRadius, scaledKnobRadius, 20, 1.0f,
+                                 0.0f, 0.0f, 0.0f, 1.0f);
     }
 
     /**
@@ -3,15 +3,9 @@ package thegame.onScreenObjects;
 import static org.lwjgl.glfw.GLFW.GLFW_KEY_BACKSPACE;
 import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
 import static org.lwjgl.glfw.GLFW.GLFW_REPEAT;
-import static org.lwjgl.opengl.GL11.GL_LINES;
-import static org.lwjgl.opengl.GL11.GL_LINE_LOOP;
-import static org.lwjgl.opengl.GL11.GL_QUADS;
-import static org.lwjgl.opengl.GL11.glBegin;
-import static org.lwjgl.opengl.GL11.glColor3f;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glLineWidth;
-import static org.lwjgl.opengl.GL11.glVertex2f;
 
+import thegame.render.Renderer2D;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 
 /**
@@ -25,12 +19,12 @@ public class TextBox {
     private String placeholder;
     private boolean isFocused = false;
     private boolean isPasswordMode = false;
-    private static FontRenderer fontRenderer;
+    private final FontRenderer fontRenderer;
     
     // Cursor blinking
-    private long lastBlinkTime = System.currentTimeMillis();
+    private double blinkTime = 0; // Seconds since the cursor last toggled
     private boolean showCursor = true;
-    private static final int BLINK_RATE = 500; // in milliseconds
+    private static final double BLINK_RATE = 0.5; // in seconds
     
     /**
      * Creates a new text box with the specified position, size, and placeholder text.
@@ -48,88 +42,71 @@ public class TextBox {
         this.height = height;
         this.placeholder = placeholder;
         
-        // Create shared FontRenderer if it doesn't exist
-        if (fontRenderer == null) {
-            fontRenderer = new FontRenderer();
-            fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
+    }
+    
+    /**
+     * Advances the cursor blink.
+     *
+     * @param dt The step length in seconds
+     */
+    public void update(double dt) {
+        blinkTime += dt;
+        if (blinkTime > BLINK_RATE) {
+            showCursor = !showCursor;
+            blinkTime = 0;
         }
     }
     
     /**
      * Renders the text box with appropriate styling based on its state (focused, hovered).
-     * Also handles cursor blinking when the text box is focused.
      *
      * @param mouseX The current x-coordinate of the mouse
      * @param mouseY The current y-coordinate of the mouse
      */
     public void render(float mouseX, float mouseY) {
-        // Update cursor blink
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastBlinkTime > BLINK_RATE) {
-            showCursor = !showCursor;
-            lastBlinkTime = currentTime;
-        }
-        
         // Check if mouse is over the textbox
         boolean isHovered = mouseX >= x && mouseX <= x + width &&
                           mouseY >= y && mouseY <= y + height;
         
         // Draw background
         if (isFocused) {
-            glColor3f(0.2f, 0.2f, 0.3f);
+            Renderer2D.fillRect(x, y, width, height, 0.2f, 0.2f, 0.3f);
         } else if (isHovered) {
-            glColor3f(0.15f, 0.15f, 0.2f);
+            Renderer2D.fillRect(x, y, width, height, 0.15f, 0.15f, 0.2f);
         } else {
-            glColor3f(0.1f, 0.1f, 0.15f);
+            Renderer2D.fillRect(x, y, width, height, 0.1f, 0.1f, 0.15f);
         }
         
-        glBegin(GL_QUADS);
-        glVertex2f(x, y);
-        glVertex2f(x + width, y);
-        glVertex2f(x + width, y + height);
-        glVertex2f(x, y + height);
-        glEnd();
-        
         // Draw border
-        glColor3f(0.5f, 0.5f, 0.6f);
-        glLineWidth(1.0f);
-        glBegin(GL_LINE_LOOP);
-        glVertex2f(x, y);
-        glVertex2f(x + width, y);
-        glVertex2f(x + width, y + height);
-        glVertex2f(x, y + height);
-        glEnd();
+        Renderer2D.strokeRect(x, y, width, height, 1.0f, 0.5f, 0.5f, 0.6f, 1.0f);
         
         // Draw text or placeholder
         String displayText;
+        float textColor;
         if (text.isEmpty()) {
             displayText = placeholder;
-            glColor3f(0.5f, 0.5f, 0.5f); // Gray for placeholder
+            textColor = 0.5f; // Gray for placeholder
         } else {
             if (isPasswordMode) {
                 displayText = "*".repeat(text.length());
             } else {
                 displayText = text;
             }
-            glColor3f(0.9f, 0.9f, 0.9f); // White for actual text
+            textColor = 0.9f; // White for actual text
         }
         
         float textX = x + 10; // Padding
         float textY = y + (height - fontRenderer.getTextHeight(1.0f)) / 2; // Center vertically
         
-        fontRenderer.renderText(displayText, textX, textY, 1.0f);
+        fontRenderer.renderText(displayText, textX, textY, 1.0f, textColor, textColor, textColor, 1.0f);
         
         // Draw cursor if focused
         if (isFocused && showCursor) {
             String visibleText = isPasswordMode ? "*".repeat(text.length()) : text;
             float cursorX = textX + (text.isEmpty() ? 0 : fontRenderer.getTextWidth(visibleText, 1.0f));
             
-            glColor3f(0.9f, 0.9f, 0.9f);
-            glLineWidth(2.0f);
-            glBegin(GL_LINES);
-            glVertex2f(cursorX, y + 5);
-            glVertex2f(cursorX, y + height - 5);
-            glEnd();
+            Renderer2D.line(cursorX, y + 5, cursorX, y + height - 5, 2.0f, 0.9f, 0.9f, 0.9f, 1.0f);
         }
     }
     
@@ -0,0 +1,191 @@
+package thegame.render;
+
+import java.util.Arrays;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import thegame.utils.Profiler;
+
+/**
+ * Shadow copy of the OpenGL state the game changes while drawing.
+ * Binding a program, vertex array or texture, or setting blending or the line width,
+ * goes through here. A call is only passed to the driver if the value differs from
+ * what is already set. Every change is counted as issued or skipped for the
+ * {@link Profiler}. Code that changes this state behind the tracker's back must call
+ * {@link #invalidate()} afterwards. Must only be used on the render thread.
+ */
+public final class GLState {
+    private static final int TEXTURE_UNITS = 8;
+    private static final int UNKNOWN = -1;
+
+    private static int program = UNKNOWN;
+    private static int vertexArray = UNKNOWN;
+    private static int activeUnit = UNKNOWN;
+    private static final int[] textures = new int[TEXTURE_UNITS];
+    private static int blend = UNKNOWN; // 1 enabled, 0 disabled
+    private static int blendSrc = UNKNOWN;
+    private static int blendDst = UNKNOWN;
+    private static float lineWidth = Float.NaN;
+
+    static {
+        invalidate();
+    }
+
+    private GLState() {}
+
+    /**
+     * Forgets the shadowed state, so the next call of each kind reaches the driver.
+     */
+    public static void invalidate() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        activeUnit = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+        blend = UNKNOWN;
+        blendSrc = UNKNOWN;
+        blendDst = UNKNOWN;
+        lineWidth = Float.NaN;
+    }
+
+    /**
+     * Makes a shader program current.
+     *
+     * @param id The program, or 0 for none
+     */
+    public static void useProgram(int id) {
+        if (count(program != id)) {
+            GL20.glUseProgram(id);
+            program = id;
+        }
+    }
+
+    /**
+     * Binds a vertex array object.
+     *
+     * @param id The vertex array, or 0 for none
+     */
+    public static void bindVertexArray(int id) {
+        if (count(vertexArray != id)) {
+            GL30.glBindVertexArray(id);
+            vertexArray = id;
+        }
+    }
+
+    /**
+     * Selects the texture unit that {@link #bindTexture(int)} binds to.
+     *
+     * @param unit The unit index, starting at 0
+     */
+    public static void activeTexture(int unit) {
+        if (count(activeUnit != unit)) {
+            GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+            activeUnit = unit;
+        }
+    }
+
+    /**
+     * Binds a 2D texture to the active texture unit.
+     *
+     * @param id The texture, or 0 for none
+     */
+    public static void bindTexture(int id) {
+        if (activeUnit == UNKNOWN) {
+            activeTexture(0);
+        }
+        if (count(textures[activeUnit] != id)) {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+            textures[activeUnit] = id;
+            Profiler.countTextureBind();
+        }
+    }
+
+    /**
+     * Enables or disables blending.
+     *
+     * @param enabled true to enable blending
+     */
+    public static void setBlend(boolean enabled) {
+        int value = enabled ? 1 : 0;
+        if (count(blend != value)) {
+            if (enabled) {
+                GL11.glEnable(GL11.GL_BLEND);
+            } else {
+                GL11.glDisable(GL11.GL_BLEND);
+            }
+            blend = value;
+        }
+    }
+
+    /**
+     * Sets the blend function.
+     *
+     * @param src The source factor
+     * @param dst The destination factor
+     */
+    public static void blendFunc(int src, int dst) {
+        if (count(blendSrc != src || blendDst != dst)) {
+            GL11.glBlendFunc(src, dst);
+            blendSrc = src;
+            blendDst = dst;
+        }
+    }
+
+    /**
+     * Sets the width of lines drawn as GL lines.
+     *
+     * @param width The line width in pixels
+     */
+    public static void lineWidth(float width) {
+        if (count(lineWidth != width)) {
+            GL11.glLineWidth(width);
+            lineWidth = width;
+        }
+    }
+
+    /**
+     * Deletes a texture, unbinding it from the shadowed units as OpenGL does.
+     *
+     * @param id The texture
+     */
+    public static void deleteTexture(int id) {
+        GL11.glDeleteTextures(id);
+        for (int unit = 0; unit < TEXTURE_UNITS; unit++) {
+            if (textures[unit] == id) {
+                textures[unit] = 0;
+            }
+        }
+    }
+
+    /**
+     * Deletes a vertex array object, unbinding it if it is bound.
+     *
+     * @param id The vertex array
+     */
+    public static void deleteVertexArray(int id) {
+        GL30.glDeleteVertexArrays(id);
+        if (vertexArray == id) {
+            vertexArray = 0;
+        }
+    }
+
+    /**
+     * Deletes a shader program. A current program stays in use until another one is
+     * made current, so the shadow is reset instead of assuming program 0.
+     *
+     * @param id The program
+     */
+    public static void deleteProgram(int id) {
+        GL20.glDeleteProgram(id);
+        if (program == id) {
+            program = UNKNOWN;
+        }
+    }
+
+    private static boolean count(boolean changed) {
+        Profiler.countStateChange(changed);
+        return changed;
+    }
+}
@@ -0,0 +1,221 @@
+package thegame.render;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import thegame.App;
+import thegame.engine.Board;
+import thegame.utils.Profiler;
+
+/**
+ * Draws a puzzle grid with one instanced draw call.
+ *
+ * Each cell is an instance holding its color and a few flags. The shader
+ * draws the padded fill, the grid lines, the darker inset of locked cells and the
+ * selection highlight from those values. The instance buffer is only re-uploaded when
+ * the board's cells or the highlighted cells change, so a grid that is just being
+ * looked at costs one small draw per frame. Numbers are not drawn here; number mode
+ * draws them as text on top.
+ */
+public final class GridRenderer {
+    // RGBA8 color plus a flags byte, padded to keep instances 4-byte aligned
+    private static final int INSTANCE_BYTES = 8;
+    private static final int FLAG_EDITABLE = 1;
+    private static final int FLAG_HIGHLIGHT = 2;
+
+    private static final String VERTEX_SHADER =
+        "#version 330 core\n" +
+        "layout (location = 0) in vec4 cellColor;\n" +
+        "layout (location = 1) in uint cellFlags;\n" +
+        "uniform vec2 screenSize;\n" +
+        "uniform vec2 origin;\n" +
+        "uniform float cellSize;\n" +
+        "uniform int gridSize;\n" +
+        "out vec2 local;\n" +
+        "out vec4 color;\n" +
+        "flat out uint flags;\n" +
+        "void main() {\n" +
+        "    vec2 corner = vec2(gl_VertexID & 1, gl_VertexID >> 1);\n" +
+        "    vec2 cell = vec2(gl_InstanceID % gridSize, gl_InstanceID / gridSize);\n" +
+        "    // Reach half a pixel past the cell so the shared grid lines are covered\n" +
+        "    local = corner * (cellSize + 1.0) - 0.5;\n" +
+        "    vec2 position = origin + cell * cellSize + local;\n" +
+        "    gl_Position = vec4(position.x / screenSize.x * 2.0 - 1.0, 1.0 - position.y / screenSize.y * 2.0, 0.0, 1.0);\n" +
+        "    color = cellColor;\n" +
+        "    flags = cellFlags;\n" +
+        "}\n";
+
+    private static final String FRAGMENT_SHADER =
+        "#version 330 core\n" +
+        "in vec2 local;\n" +
+        "in vec4 color;\n" +
+        "flat in uint flags;\n" +
+        "out vec4 FragColor;\n" +
+        "uniform float cellSize;\n" +
+        "void main() {\n" +
+        "    if (any(lessThan(local, vec2(0.5))) || any(greaterThanEqual(local, vec2(cellSize - 0.5)))) {\n" +
+        "        FragColor = vec4(1.0);\n" + // Grid line
+        "        return;\n" +
+        "    }\n" +
+        "    float inset = min(min(local.x, local.y), min(cellSize - local.x, cellSize - local.y));\n" +
+        "    if (inset < 2.0) {\n" +
+        "        discard;\n" + // Padding shows the grid background
+        "    }\n" +
+        "    vec4 fill = color;\n" +
+        "    if ((flags & 2u) != 0u && inset < 5.0) {\n" +
+        "        fill = vec4(1.0, 1.0, 0.0, 1.0);\n" + // Selection highlight
+        "    } else if ((flags & 1u) == 0u && inset >= 5.0) {\n" +
+        "        fill.rgb *= 0.5;\n" + // Locked cells get a dark inset
+        "    }\n" +
+        "    FragColor = fill;\n" +
+        "}\n";
+
+    private final int vao;
+    private final int instanceVbo;
+    private ByteBuffer instances;
+    private int instanceCount;
+
+    // What the uploaded instances were built from
+    private Board uploadedBoard;
+    private boolean uploadedTarget;
+    private long uploadedHash;
+    private int uploadedHighlightRow = -1;
+    private int uploadedHighlightCol = -1;
+    private int uploadedHighlightCell = -1;
+
+    /**
+     * Creates the instance buffer. Must be called on the render thread.
+     */
+    public GridRenderer() {
+        vao = GL30.glGenVertexArrays();
+        instanceVbo = GL15.glGenBuffers();
+        GLState.bindVertexArray(vao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        GL20.glVertexAttribPointer(0, 4, GL11.GL_UNSIGNED_BYTE, true, INSTANCE_BYTES, 0);
+        GL20.glEnableVertexAttribArray(0);
+        GL33.glVertexAttribDivisor(0, 1);
+        GL30.glVertexAttribIPointer(1, 1, GL11.GL_UNSIGNED_BYTE, INSTANCE_BYTES, 4);
+        GL20.glEnableVertexAttribArray(1);
+        GL33.glVertexAttribDivisor(1, 1);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Updates the cells to draw, uploading them only if something changed since the
+     * last call.
+     *
+     * @param board The board
+     * @param target true to draw the target pattern, false for the current cells
+     * @param highlightRow Row to highlight, or -1
+     * @param highlightCol Column to highlight, or -1
+     * @param highlightCell Index (row * size + col) of a single cell to highlight, or -1
+     */
+    public void update(Board board, boolean target, int highlightRow, int highlightCol, int highlightCell) {
+        // The target pattern never changes; the current cells change with the board hash
+        long hash = target ? 0 : board.getHash();
+        if (board == uploadedBoard && target == uploadedTarget && hash == uploadedHash
+                && highlightRow == uploadedHighlightRow && highlightCol == uploadedHighlightCol
+                && highlightCell == uploadedHighlightCell) {
+            return;
+        }
+        Profiler.begin(Profiler.Section.GRID);
+
+        int size = board.getSize();
+        instanceCount = size * size;
+        if (instances == null || instances.capacity() < instanceCount * INSTANCE_BYTES) {
+            if (instances != null) {
+                MemoryUtil.memFree(instances);
+            }
+            instances = MemoryUtil.memAlloc(instanceCount * INSTANCE_BYTES);
+        }
+        instances.clear();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = target ? board.getTargetCell(row, col) : board.getCell(row, col);
+                float r, g, b;
+                if (board.isNumberMode()) {
+                    // For number mode, use grayscale background based on value
+                    r = g = b = Math.min(0.8f, Board.valueOf(cell) * 0.1f);
+                } else {
+                    r = board.getRed(cell);
+                    g = board.getGreen(cell);
+                    b = board.getBlue(cell);
+                }
+                int flags = 0;
+                if (Board.isEditable(cell)) {
+                    flags |= FLAG_EDITABLE;
+                }
+                if (row == highlightRow || col == highlightCol || row * size + col == highlightCell) {
+                    flags |= FLAG_HIGHLIGHT;
+                }
+                instances.put(toByte(r)).put(toByte(g)).put(toByte(b)).put((byte) 0xFF)
+                         .put((byte) flags).put((byte) 0).put((byte) 0).put((byte) 0);
+            }
+        }
+        instances.flip();
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceVbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, instances, GL15.GL_DYNAMIC_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        uploadedBoard = board;
+        uploadedTarget = target;
+        uploadedHash = hash;
+        uploadedHighlightRow = highlightRow;
+        uploadedHighlightCol = highlightCol;
+        uploadedHighlightCell = highlightCell;
+        Profiler.end(Profiler.Section.GRID);
+    }
+
+    /**
+     * Draws the grid. Shapes batched in {@link Renderer2D} so far are drawn first,
+     * so they end up underneath.
+     *
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param cellSize Size of each cell in pixels
+     */
+    public void render(float x, float y, float cellSize) {
+        if (instanceCount == 0) {
+            return;
+        }
+        Renderer2D.flush();
+        Profiler.begin(Profiler.Section.GRID);
+
+        ShaderCache.Program program = ShaderCache.get("grid", VERTEX_SHADER, FRAGMENT_SHADER);
+        GLState.useProgram(program.getId());
+        GL20.glUniform2f(program.getUniformLocation("screenSize"), App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
+        GL20.glUniform2f(program.getUniformLocation("origin"), x, y);
+        GL20.glUniform1f(program.getUniformLocation("cellSize"), cellSize);
+        GL20.glUniform1i(program.getUniformLocation("gridSize"), uploadedBoard.getSize());
+
+        GLState.bindVertexArray(vao);
+        GL31.glDrawArraysInstanced(GL11.GL_TRIANGLE_STRIP, 0, 4, instanceCount);
+        Profiler.countDraw(4 * instanceCount);
+        Profiler.end(Profiler.Section.GRID);
+    }
+
+    /**
+     * Releases the instance buffer.
+     */
+    public void cleanup() {
+        GLState.deleteVertexArray(vao);
+        GL15.glDeleteBuffers(instanceVbo);
+        if (instances != null) {
+            MemoryUtil.memFree(instances);
+            instances = null;
+        }
+        instanceCount = 0;
+    }
+
+    private static byte toByte(float component) {
+        return (byte) Math.round(Math.max(0.0f, Math.min(1.0f, component)) * 255.0f);
+    }
+}
@@ -0,0 +1,519 @@
+package thegame.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+import thegame.App;
+import thegame.utils.GLDebugger;
+import thegame.utils.Profiler;
+
+/**
+ * Batched 2D renderer for shapes and textured quads.
+ *
+ * Draw calls only append triangles to a client-side vertex array; the batch is
+ * uploaded into a streamed VBO (orphaned on every flush so the driver never waits on
+ * the GPU) and drawn with one core-profile shader. A flush happens when the texture
+ * changes, the buffer fills up, another shader is about to draw, or the frame ends.
+ * Untextured shapes sample a white texel, either from a 1x1 white texture or from the
+ * bound texture when it has one registered (the font atlas does), so shapes and text
+ * interleave without breaking the batch. Textures registered as distance fields (the
+ * font atlas) are drawn by thresholding their red channel, which keeps edges sharp at
+ * any scale.
+ *
+ * Coordinates are window pixels with the origin at the top-left, matching the rest
+ * of the UI. Must only be used on the render thread.
+ */
+public final class Renderer2D {
+    private static final int MAX_VERTICES = 6 * 8192;
+    // x, y, u, v as floats plus an RGBA8 color
+    private static final int VERTEX_BYTES = 4 * Float.BYTES + 4;
+
+    private static final float[] WHITE_TEXTURE_TEXEL = { 0.5f, 0.5f };
+
+    private static int program;
+    private static int screenSizeLoc;
+    private static int textureLoc;
+    private static int distanceFieldLoc;
+    private static int vao;
+    private static int vbo;
+    private static int whiteTexture;
+
+    // Textures with an opaque white texel, keyed by id; shapes sample it to stay in their batch
+    private static final Map<Integer, float[]> whiteTexels = new HashMap<>();
+    // Single-channel textures storing distance to a glyph outline
+    private static final Set<Integer> distanceFields = new HashSet<>();
+
+    private static ByteBuffer vertices;
+    private static int vertexCount = 0;
+    private static int currentTexture = 0;
+    private static float solidU = 0.5f;
+    private static float solidV = 0.5f;
+
+    private static int drawCalls = 0;
+    private static int drawCallsLastFrame = 0;
+
+    private Renderer2D() {}
+
+    /**
+     * Creates the shader, vertex buffer and white texture. Must be called once
+     * after the OpenGL context is current.
+     */
+    public static void init() {
+        String vertexShaderSrc =
+            "#version 330 core\n" +
+            "layout (location = 0) in vec2 position;\n" +
+            "layout (location = 1) in vec2 texCoord;\n" +
+            "layout (location = 2) in vec4 color;\n" +
+            "out vec2 TexCoord;\n" +
+            "out vec4 Color;\n" +
+            "uniform vec2 screenSize;\n" +
+            "void main() {\n" +
+            "    gl_Position = vec4(position.x / screenSize.x * 2.0 - 1.0, 1.0 - position.y / screenSize.y * 2.0, 0.0, 1.0);\n" +
+            "    TexCoord = texCoord;\n" +
+            "    Color = color;\n" +
+            "}\n";
+
+        String fragmentShaderSrc =
+            "#version 330 core\n" +
+            "in vec2 TexCoord;\n" +
+            "in vec4 Color;\n" +
+            "out vec4 FragColor;\n" +
+            "uniform sampler2D tex;\n" +
+            "uniform bool distanceField;\n" +
+            "void main() {\n" +
+            "    vec4 texel = texture(tex, TexCoord);\n" +
+            "    if (distanceField) {\n" +
+            "        // Antialias over about one screen pixel around the outline\n" +
+            "        float edge = max(fwidth(texel.r) * 0.7, 0.001);\n" +
+            "        FragColor = vec4(Color.rgb, Color.a * smoothstep(0.5 - edge, 0.5 + edge, texel.r));\n" +
+            "    } else {\n" +
+            "        FragColor = texel * Color;\n" +
+            "    }\n" +
+            "}\n";
+
+        ShaderCache.Program shader = ShaderCache.get("renderer2d", vertexShaderSrc, fragmentShaderSrc);
+        program = shader.getId();
+        screenSizeLoc = shader.getUniformLocation("screenSize");
+        textureLoc = shader.getUniformLocation("tex");
+        distanceFieldLoc = shader.getUniformLocation("distanceField");
+
+        vao = GL30.glGenVertexArrays();
+        vbo = GL15.glGenBuffers();
+        GLState.bindVertexArray(vao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) MAX_VERTICES * VERTEX_BYTES, GL15.GL_STREAM_DRAW);
+        GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, VERTEX_BYTES, 0);
+        GL20.glEnableVertexAttribArray(0);
+        GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, VERTEX_BYTES, 2 * Float.BYTES);
+        GL20.glEnableVertexAttribArray(1);
+        GL20.glVertexAttribPointer(2, 4, GL11.GL_UNSIGNED_BYTE, true, VERTEX_BYTES, 4 * Float.BYTES);
+        GL20.glEnableVertexAttribArray(2);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        // Untextured shapes sample this so everything shares one shader
+        whiteTexture = GL11.glGenTextures();
+        GLState.bindTexture(whiteTexture);
+        ByteBuffer white = MemoryUtil.memAlloc(4);
+        white.put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).put((byte) 0xFF).flip();
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, 1, 1, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, white);
+        MemoryUtil.memFree(white);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+
+        vertices = MemoryUtil.memAlloc(MAX_VERTICES * VERTEX_BYTES);
+        currentTexture = whiteTexture;
+
+        GLDebugger.checkError("Renderer2D init");
+    }
+
+    /**
+     * Starts a new frame.
+     */
+    public static void beginFrame() {
+        drawCallsLastFrame = drawCalls;
+        drawCalls = 0;
+    }
+
+    /**
+     * Draws everything still batched at the end of a frame.
+     */
+    public static void endFrame() {
+        flush();
+    }
+
+    /**
+     * Draws the current batch. Call before drawing with another shader so the
+     * batched shapes end up underneath.
+     */
+    public static void flush() {
+        if (vertexCount == 0) {
+            return;
+        }
+        vertices.flip();
+
+        // Only state that differs from the previous batch reaches the driver
+        GLState.setBlend(true);
+        GLState.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+        GLState.useProgram(program);
+        GL20.glUniform2f(screenSizeLoc, App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
+        GL20.glUniform1i(textureLoc, 0);
+        GL20.glUniform1i(distanceFieldLoc, distanceFields.contains(currentTexture) ? 1 : 0);
+        GLState.activeTexture(0);
+        GLState.bindTexture(currentTexture);
+
+        GLState.bindVertexArray(vao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+        // Orphan the previous storage so this upload never waits on an in-flight draw
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) MAX_VERTICES * VERTEX_BYTES, GL15.GL_STREAM_DRAW);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, vertices);
+        GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, vertexCount);
+        Profiler.countDraw(vertexCount);
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        vertices.clear();
+        vertexCount = 0;
+        drawCalls++;
+    }
+
+    /**
+     * Registers an opaque white texel inside a texture. Untextured shapes drawn while
+     * this texture is batched sample the texel instead of forcing a flush.
+     *
+     * @param textureId The OpenGL texture
+     * @param u Horizontal texture coordinate of the texel center
+     * @param v Vertical texture coordinate of the texel center
+     */
+    public static void registerWhiteTexel(int textureId, float u, float v) {
+        whiteTexels.put(textureId, new float[] { u, v });
+    }
+
+    /**
+     * Marks a single-channel texture as a signed distance field, with the outline at
+     * a value of one half.
+     *
+     * @param textureId The OpenGL texture
+     */
+    public static void registerDistanceField(int textureId) {
+        distanceFields.add(textureId);
+    }
+
+    /**
+     * Forgets everything registered for a texture. Call before deleting it, since
+     * OpenGL may reuse the id.
+     *
+     * @param textureId The OpenGL texture
+     */
+    public static void unregisterTexture(int textureId) {
+        whiteTexels.remove(textureId);
+        distanceFields.remove(textureId);
+    }
+
+    /**
+     * Gets the number of batches drawn during the previous frame.
+     *
+     * @return The draw call count
+     */
+    public static int getDrawCallCount() {
+        return drawCallsLastFrame;
+    }
+
+    /**
+     * Fills an opaque rectangle.
+     *
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     */
+    public static void fillRect(float x, float y, float width, float height, float r, float g, float b) {
+        fillRect(x, y, width, height, r, g, b, 1.0f);
+    }
+
+    /**
+     * Fills a rectangle.
+     *
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void fillRect(float x, float y, float width, float height, float r, float g, float b, float a) {
+        useSolid();
+        reserve(6);
+        int color = pack(r, g, b, a);
+        float x1 = x + width;
+        float y1 = y + height;
+        vertex(x, y, solidU, solidV, color);
+        vertex(x1, y, solidU, solidV, color);
+        vertex(x1, y1, solidU, solidV, color);
+        vertex(x, y, solidU, solidV, color);
+        vertex(x1, y1, solidU, solidV, color);
+        vertex(x, y1, solidU, solidV, color);
+    }
+
+    /**
+     * Outlines a rectangle with a line centered on its edges.
+     *
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     * @param lineWidth Width of the outline in pixels
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void strokeRect(float x, float y, float width, float height, float lineWidth,
+                                  float r, float g, float b, float a) {
+        float half = lineWidth / 2;
+        fillRect(x - half, y - half, width + lineWidth, lineWidth, r, g, b, a);
+        fillRect(x - half, y + height - half, width + lineWidth, lineWidth, r, g, b, a);
+        if (height > lineWidth) {
+            fillRect(x - half, y + half, lineWidth, height - lineWidth, r, g, b, a);
+            fillRect(x + width - half, y + half, lineWidth, height - lineWidth, r, g, b, a);
+        }
+    }
+
+    /**
+     * Draws a line segment.
+     *
+     * @param x1 X coordinate of the start
+     * @param y1 Y coordinate of the start
+     * @param x2 X coordinate of the end
+     * @param y2 Y coordinate of the end
+     * @param lineWidth Width of the line in pixels
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void line(float x1, float y1, float x2, float y2, float lineWidth,
+                            float r, float g, float b, float a) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        if (length == 0) {
+            return;
+        }
+        // Offset both ends perpendicular to the line by half its width
+        float nx = -dy / length * lineWidth / 2;
+        float ny = dx / length * lineWidth / 2;
+
+        useSolid();
+        reserve(6);
+        int color = pack(r, g, b, a);
+        vertex(x1 + nx, y1 + ny, solidU, solidV, color);
+        vertex(x2 + nx, y2 + ny, solidU, solidV, color);
+        vertex(x2 - nx, y2 - ny, solidU, solidV, color);
+        vertex(x1 + nx, y1 + ny, solidU, solidV, color);
+        vertex(x2 - nx, y2 - ny, solidU, solidV, color);
+        vertex(x1 - nx, y1 - ny, solidU, solidV, color);
+    }
+
+    /**
+     * Fills a triangle.
+     *
+     * @param x1 X coordinate of the first corner
+     * @param y1 Y coordinate of the first corner
+     * @param x2 X coordinate of the second corner
+     * @param y2 Y coordinate of the second corner
+     * @param x3 X coordinate of the third corner
+     * @param y3 Y coordinate of the third corner
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3,
+                                    float r, float g, float b, float a) {
+        useSolid();
+        reserve(3);
+        int color = pack(r, g, b, a);
+        vertex(x1, y1, solidU, solidV, color);
+        vertex(x2, y2, solidU, solidV, color);
+        vertex(x3, y3, solidU, solidV, color);
+    }
+
+    /**
+     * Fills an axis-aligned ellipse.
+     *
+     * @param centerX X coordinate of the center
+     * @param centerY Y coordinate of the center
+     * @param radiusX Horizontal radius
+     * @param radiusY Vertical radius
+     * @param segments Number of edge segments
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void fillEllipse(float centerX, float centerY, float radiusX, float radiusY, int segments,
+                                   float r, float g, float b, float a) {
+        useSolid();
+        reserve(segments * 3);
+        int color = pack(r, g, b, a);
+        float prevX = centerX + radiusX;
+        float prevY = centerY;
+        for (int i = 1; i <= segments; i++) {
+            double angle = i * 2.0 * Math.PI / segments;
+            float nextX = centerX + (float) Math.cos(angle) * radiusX;
+            float nextY = centerY + (float) Math.sin(angle) * radiusY;
+            vertex(centerX, centerY, solidU, solidV, color);
+            vertex(prevX, prevY, solidU, solidV, color);
+            vertex(nextX, nextY, solidU, solidV, color);
+            prevX = nextX;
+            prevY = nextY;
+        }
+    }
+
+    /**
+     * Outlines an axis-aligned ellipse.
+     *
+     * @param centerX X coordinate of the center
+     * @param centerY Y coordinate of the center
+     * @param radiusX Horizontal radius
+     * @param radiusY Vertical radius
+     * @param segments Number of edge segments
+     * @param lineWidth Width of the outline in pixels
+     * @param r Red component (0-1)
+     * @param g Green component (0-1)
+     * @param b Blue component (0-1)
+     * @param a Alpha component (0-1)
+     */
+    public static void strokeEllipse(float centerX, float centerY, float radiusX, float radiusY, int segments,
+                                     float lineWidth, float r, float g, float b, float a) {
+        float prevX = centerX + radiusX;
+        float prevY = centerY;
+        for (int i = 1; i <= segments; i++) {
+            double angle = i * 2.0 * Math.PI / segments;
+            float nextX = centerX + (float) Math.cos(angle) * radiusX;
+            float nextY = centerY + (float) Math.sin(angle) * radiusY;
+            line(prevX, prevY, nextX, nextY, lineWidth, r, g, b, a);
+            prevX = nextX;
+            prevY = nextY;
+        }
+    }
+
+    /**
+     * Draws a whole texture stretched over a rectangle.
+     *
+     * @param textureId The OpenGL texture
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     * @param r Red tint (0-1)
+     * @param g Green tint (0-1)
+     * @param b Blue tint (0-1)
+     * @param a Alpha (0-1)
+     */
+    public static void drawTexture(int textureId, float x, float y, float width, float height,
+                                   float r, float g, float b, float a) {
+        drawQuad(textureId, x, y, width, height, 0, 0, 1, 1, r, g, b, a);
+    }
+
+    /**
+     * Draws part of a texture over a rectangle.
+     *
+     * @param textureId The OpenGL texture
+     * @param x X coordinate of the top-left corner
+     * @param y Y coordinate of the top-left corner
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     * @param u0 Left texture coordinate
+     * @param v0 Top texture coordinate
+     * @param u1 Right texture coordinate
+     * @param v1 Bottom texture coordinate
+     * @param r Red tint (0-1)
+     * @param g Green tint (0-1)
+     * @param b Blue tint (0-1)
+     * @param a Alpha (0-1)
+     */
+    public static void drawQuad(int textureId, float x, float y, float width, float height,
+                                float u0, float v0, float u1, float v1,
+                                float r, float g, float b, float a) {
+        useTexture(textureId);
+        reserve(6);
+        int color = pack(r, g, b, a);
+        float x1 = x + width;
+        float y1 = y + height;
+        vertex(x, y, u0, v0, color);
+        vertex(x1, y, u1, v0, color);
+        vertex(x1, y1, u1, v1, color);
+        vertex(x, y, u0, v0, color);
+        vertex(x1, y1, u1, v1, color);
+        vertex(x, y1, u0, v1, color);
+    }
+
+    /**
+     * Releases the renderer's OpenGL resources.
+     */
+    public static void cleanup() {
+        if (vertices != null) {
+            MemoryUtil.memFree(vertices);
+            vertices = null;
+        }
+        if (vao != 0) GLState.deleteVertexArray(vao);
+        if (vbo != 0) GL15.glDeleteBuffers(vbo);
+        if (whiteTexture != 0) GLState.deleteTexture(whiteTexture);
+        vao = vbo = whiteTexture = program = 0;
+    }
+
+    private static void useTexture(int textureId) {
+        if (textureId != currentTexture) {
+            flush();
+            currentTexture = textureId;
+        }
+    }
+
+    private static void useSolid() {
+        float[] texel = whiteTexels.get(currentTexture);
+        if (texel == null) {
+            useTexture(whiteTexture);
+            texel = WHITE_TEXTURE_TEXEL;
+        }
+        solidU = texel[0];
+        solidV = texel[1];
+    }
+
+    private static void reserve(int count) {
+        if (vertexCount + count > MAX_VERTICES) {
+            flush();
+        }
+    }
+
+    private static void vertex(float x, float y, float u, float v, int color) {
+        vertices.putFloat(x).putFloat(y).putFloat(u).putFloat(v).putInt(color);
+        vertexCount++;
+    }
+
+    // Packs a color as RGBA8 in memory order, as the normalized byte attribute reads it
+    private static int pack(float r, float g, float b, float a) {
+        int packed = toByte(r) | (toByte(g) << 8) | (toByte(b) << 16) | (toByte(a) << 24);
+        return vertices.order() == ByteOrder.LITTLE_ENDIAN ? packed : Integer.reverseBytes(packed);
+    }
+
+    private static int toByte(float component) {
+        return Math.round(Math.max(0.0f, Math.min(1.0f, component)) * 255.0f);
+    }
+}
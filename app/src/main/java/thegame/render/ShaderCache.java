@@ -0,0 +1,123 @@
+package thegame.render;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.lwjgl.opengl.GL20;
+
+import thegame.utils.GLDebugger;
+
+/**
+ * Compiles each shader program once and shares it between everything that draws
+ * with it. Programs are looked up by name, and uniform locations are resolved on
+ * first use and remembered, so widgets never compile shaders or query the driver
+ * while a screen is being built or drawn. Must only be used on the render thread.
+ */
+public final class ShaderCache {
+    private static final Map<String, Program> programs = new HashMap<>();
+
+    private ShaderCache() {}
+
+    /**
+     * A linked shader program with cached uniform locations.
+     */
+    public static final class Program {
+        private final int id;
+        private final Map<String, Integer> uniforms = new HashMap<>();
+
+        private Program(int id) {
+            this.id = id;
+        }
+
+        /**
+         * Gets the OpenGL program object.
+         *
+         * @return The program id
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Gets the location of a uniform, querying the driver only the first time.
+         *
+         * @param name The uniform name
+         * @return The uniform location, or -1 if the program has no such active uniform
+         */
+        public int getUniformLocation(String name) {
+            Integer location = uniforms.get(name);
+            if (location == null) {
+                location = GL20.glGetUniformLocation(id, name);
+                if (location == -1) {
+                    System.err.println("Uniform '" + name + "' not found in shader program " + id);
+                }
+                uniforms.put(name, location);
+            }
+            return location;
+        }
+    }
+
+    /**
+     * Gets a program, compiling and linking it the first time the name is requested.
+     *
+     * @param name A name identifying the program
+     * @param vertexSrc The vertex shader source
+     * @param fragmentSrc The fragment shader source
+     * @return The shared program
+     */
+    public static Program get(String name, String vertexSrc, String fragmentSrc) {
+        Program program = programs.get(name);
+        if (program == null) {
+            program = new Program(link(name, vertexSrc, fragmentSrc));
+            programs.put(name, program);
+        }
+        return program;
+    }
+
+    /**
+     * Gets the number of programs compiled so far.
+     *
+     * @return The program count
+     */
+    public static int size() {
+        return programs.size();
+    }
+
+    /**
+     * Deletes every cached program. Called once when the game exits.
+     */
+    public static void cleanup() {
+        for (Program program : programs.values()) {
+            GLState.deleteProgram(program.id);
+        }
+        programs.clear();
+    }
+
+    private static int link(String name, String vertexSrc, String fragmentSrc) {
+        int vertexShader = GL20.glCreateShader(GL20.GL_VERTEX_SHADER);
+        GL20.glShaderSource(vertexShader, vertexSrc);
+        GL20.glCompileShader(vertexShader);
+        if (!GLDebugger.checkShaderCompilation(vertexShader, name + " vertex shader")) {
+            throw new RuntimeException(name + " vertex shader compilation failed");
+        }
+
+        int fragmentShader = GL20.glCreateShader(GL20.GL_FRAGMENT_SHADER);
+        GL20.glShaderSource(fragmentShader, fragmentSrc);
+        GL20.glCompileShader(fragmentShader);
+        if (!GLDebugger.checkShaderCompilation(fragmentShader, name + " fragment shader")) {
+            throw new RuntimeException(name + " fragment shader compilation failed");
+        }
+
+        int linked = GL20.glCreateProgram();
+        GL20.glAttachShader(linked, vertexShader);
+        GL20.glAttachShader(linked, fragmentShader);
+        GL20.glLinkProgram(linked);
+        if (!GLDebugger.checkProgramLinking(linked)) {
+            throw new RuntimeException(name + " shader program linking failed");
+        }
+
+        GL20.glDeleteShader(vertexShader);
+        GL20.glDeleteShader(fragmentShader);
+        return linked;
+    }
+}
@@ -1,51 +1,36 @@
 package thegame.screens;
 
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.bson.Document;
 import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
 import org.lwjgl.opengl.GL;
-import org.lwjgl.opengl.GL11;
 import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_LINES;
-import static org.lwjgl.opengl.GL11.GL_LINE_LOOP;
-import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
-import static org.lwjgl.opengl.GL11.GL_PROJECTION;
-import static org.lwjgl.opengl.GL11.GL_QUADS;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.glBegin;
-import static org.lwjgl.opengl.GL11.glBindTexture;
-import static org.lwjgl.opengl.GL11.glBlendFunc;
 import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glClearColor;
-import static org.lwjgl.opengl.GL11.glColor3f;
-import static org.lwjgl.opengl.GL11.glColor4f;
-import static org.lwjgl.opengl.GL11.glDeleteTextures;
-import static org.lwjgl.opengl.GL11.glDisable;
-import static org.lwjgl.opengl.GL11.glEnable;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glLineWidth;
-import static org.lwjgl.opengl.GL11.glLoadIdentity;
-import static org.lwjgl.opengl.GL11.glMatrixMode;
-import static org.lwjgl.opengl.GL11.glOrtho;
-import static org.lwjgl.opengl.GL11.glTexCoord2f;
-import static org.lwjgl.opengl.GL11.glVertex2f;
 
-import com.google.gson.Gson;
-import com.mongodb.client.MongoCollection;
 
 import thegame.App;
 import thegame.Screen;
+import thegame.engine.Board;
+import thegame.engine.NumberOp;
 import thegame.onScreenObjects.Button;
+import thegame.render.GridRenderer;
+import thegame.render.Renderer2D;
+import thegame.utils.CellGrid;
 import thegame.utils.CloudBackground;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
+import thegame.utils.LevelCodec;
 import thegame.utils.LevelConfig;
+import thegame.utils.LevelPack;
 import thegame.utils.LevelConfig.MoveType; // Add this import if not already present
-import thegame.utils.MongoDBConnection;
-import thegame.utils.TextureLoader;
+import thegame.utils.LevelStatsService;
+import thegame.utils.TextureCache;
 
 /**
  * The main game screen where the user plays the puzzle game.
@@ -58,15 +43,8 @@ public class GameScreen implements Screen {
     private static final int MOVE_COLUMN = 2;
     private static final int MOVE_MULTIPLY = 3; // Only for number mode
     
-    // Number operation constants
-    private static final int NUM_OP_ADD = 0;
-    private static final int NUM_OP_SUBTRACT = 1;
-    private static final int NUM_OP_MULTIPLY = 2;
-    private static final int NUM_OP_DIVIDE = 3;
-
     private final int gridSize;
-    private final LevelConfig.Cell[][] grid;
-    private final LevelConfig.Cell[][] targetPattern;
+    private final Board board; // Packed puzzle state driven by the headless engine
     private final int maxMoves; // Keep for backward compatibility
     private Map<String, Integer> moveLimits; // New: Move limits per type
     private Map<String, Integer> movesUsedPerType; // New: Track moves used per type
@@ -88,7 +66,7 @@ public class GameScreen implements Screen {
     private boolean isNumberMode;
     private boolean numberControlsActive = false; // Toggle between movement and number controls
     private int currentMoveType = MOVE_SWAP;
-    private int currentNumberOp = NUM_OP_ADD; // Default number operation
+    private NumberOp currentNumberOp = NumberOp.ADD; // Default number operation
     private int selectedRow = -1;
     private int selectedCol = -1;
     private boolean selectingRow = false;
@@ -124,10 +102,15 @@ public class GameScreen implements Screen {
     // Cloud background
     private CloudBackground cloudBackground;
 
+    // Instanced renderers for the current grid and the target pattern
+    private GridRenderer mainGridRenderer;
+    private GridRenderer targetGridRenderer;
+
     // Add fields for tutorial sprite
     private boolean isFirstLevel = false;
-    private int tutorialSpriteTexture = -1;
-    private TextureLoader textureLoader;
+    private static final String TUTORIAL_SPRITE = "/tutorialSprite.png";
+    private boolean tutorialSpriteRequested;
+    private TextureCache.Region tutorialSprite; // Null until loaded
     
     // Tutorial state tracking
     private int tutorialState = 0; // 0: Initial, 1: Click instruction, 2: Completed
@@ -160,20 +143,18 @@ public class GameScreen implements Screen {
 
         this.gridSize = levelConfig.getSettings().getGridSize();
 
-        this.grid = levelConfig.getGrid();
-        if (grid == null || grid.length != gridSize || grid[0].length != gridSize) {
+        CellGrid grid = levelConfig.getGrid();
+        if (grid == null || grid.getRows() != gridSize || grid.getCols() != gridSize) {
             throw new IllegalArgumentException(
                 String.format("Invalid grid dimensions. Expected %dx%d, got %dx%d", 
                     gridSize, gridSize,
-                    grid == null ? 0 : grid.length,
-                    grid == null ? 0 : grid[0].length)
+                    grid == null ? 0 : grid.getRows(),
+                    grid == null ? 0 : grid.getCols())
             );
         }
 
-        this.targetPattern = levelConfig.getTargetPattern();
-        if (targetPattern == null || targetPattern.length != gridSize || targetPattern[0].length != gridSize) {
-            throw new IllegalArgumentException("Invalid target pattern dimensions");
-        }
+        // Board validates the target pattern dimensions against the grid
+        this.board = Board.fromLevel(levelConfig);
 
         this.maxMoves = levelConfig.getSettings().getMaxMoves();
         this.movesUsed = 0;
@@ -192,19 +173,26 @@ public class GameScreen implements Screen {
         // Initialize cloud background
         cloudBackground = new CloudBackground(CloudBackground.RenderStyle.SIMPLE_BLOTS);
         
+        mainGridRenderer = new GridRenderer();
+        targetGridRenderer = new GridRenderer();
+        
         // Load tutorial sprite if this is the first level
         if (isFirstLevel) {
-            try {
-                textureLoader = new TextureLoader();
-                tutorialSpriteTexture = textureLoader.loadTexture("/tutorialSprite.png");
-                tutorialActive = true; // Activate tutorial for first level
-                
-                // Position at bottom middle
-                tutorialSpriteX = (App.WINDOW_WIDTH - tutorialSpriteWidth) / 2;
-                tutorialSpriteY = App.WINDOW_HEIGHT - tutorialSpriteHeight - 20; // 20px from bottom
-            } catch (Exception e) {
-                System.err.println("Error loading tutorial sprite: " + e.getMessage());
-            }
+            // Drawn at 200x150, so a quarter of the original resolution is plenty.
+            // The sprite appears once it has loaded; without it there is no tutorial.
+            tutorialActive = true; // Activate tutorial for first level
+            tutorialSpriteRequested = true;
+            TextureCache.acquire(TUTORIAL_SPRITE, 512).whenComplete((sprite, error) -> {
+                if (error != null) {
+                    tutorialActive = false;
+                } else {
+                    tutorialSprite = sprite;
+                }
+            });
+            
+            // Position at bottom middle
+            tutorialSpriteX = (App.WINDOW_WIDTH - tutorialSpriteWidth) / 2;
+            tutorialSpriteY = App.WINDOW_HEIGHT - tutorialSpriteHeight - 20; // 20px from bottom
         }
         
         initUI();
@@ -218,6 +206,11 @@ public class GameScreen implements Screen {
      * @return A new GameScreen instance with the loaded level
      */
     public static GameScreen fromLevelNumber(App app, int levelNumber) {
+        // Built-in levels come precompiled; the JSON is only read if the pack lacks the level
+        LevelConfig packed = LevelPack.load(levelNumber);
+        if (packed != null) {
+            return new GameScreen(app, packed);
+        }
         try {
             String resourcePath = "/levels/level" + levelNumber + ".json";
             
@@ -243,9 +236,10 @@ public class GameScreen implements Screen {
                 }
             }
             
-            String jsonContent = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            
-            LevelConfig levelConfig = new Gson().fromJson(jsonContent, LevelConfig.class);
+            LevelConfig levelConfig;
+            try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                levelConfig = LevelCodec.read(reader);
+            }
             
             return new GameScreen(app, levelConfig);
             
@@ -291,8 +285,7 @@ public class GameScreen implements Screen {
      */
     private void initUI() {
         // Initialize font renderer
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Create back button
         backButton = new Button(20, App.WINDOW_HEIGHT - 60, 200, 40, 0.7f, 0.3f, 0.6f, "Back to Level Select"); // Dark pink
@@ -371,11 +364,25 @@ public class GameScreen implements Screen {
                               160, 40, 1.0f, 0.4f, 0.7f, "Like Level"); // Accent pink
     }
 
+    /**
+     * Moves the clouds.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        if (cloudBackground != null) {
+            cloudBackground.update(dt);
+        }
+    }
+    
     /**
      * Renders the game screen, including grids, buttons, and UI elements.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
+    public void render(float alpha) {
         try {
             // Re-verify OpenGL context
             if (GL.getCapabilities() == null) {
@@ -384,30 +391,16 @@ public class GameScreen implements Screen {
                 if (GL.getCapabilities() == null) return;
             }
             
-            // Set up 2D projection
-            glMatrixMode(GL_PROJECTION);
-            glLoadIdentity();
-            glOrtho(0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0, -1, 1);
-            glMatrixMode(GL_MODELVIEW);
-            glLoadIdentity();
-            
             // Clear screen with a pink background
             glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
             glClear(GL_COLOR_BUFFER_BIT);
             
-            // Update and render clouds (with simple white blots style)
-            cloudBackground.update();
-            cloudBackground.render();
+            // Render clouds (with simple white blots style)
+            cloudBackground.render(alpha);
             
             // Draw border to verify rendering
-            glColor3f(0.9f, 0.5f, 0.8f); // Secondary pink
-            glLineWidth(2.0f);
-            glBegin(GL_LINE_LOOP);
-            glVertex2f(10, 10);
-            glVertex2f(App.WINDOW_WIDTH - 10, 10);
-            glVertex2f(App.WINDOW_WIDTH - 10, App.WINDOW_HEIGHT - 10);
-            glVertex2f(10, App.WINDOW_HEIGHT - 10);
-            glEnd();
+            Renderer2D.strokeRect(10, 10, App.WINDOW_WIDTH - 20, App.WINDOW_HEIGHT - 20, 2.0f,
+                                  0.9f, 0.5f, 0.8f, 1.0f); // Secondary pink
             
             // Render level name
             if (fontRenderer != null) {
@@ -469,10 +462,10 @@ public class GameScreen implements Screen {
                     
                     String opText = "";
                     switch (currentNumberOp) {
-                        case NUM_OP_ADD: opText = "Add 1"; break;
-                        case NUM_OP_SUBTRACT: opText = "Subtract 1"; break;
-                        case NUM_OP_MULTIPLY: opText = "Multiply by 2"; break;
-                        case NUM_OP_DIVIDE: opText = "Divide by 2"; break;
+                        case ADD: opText = "Add 1"; break;
+                        case SUBTRACT: opText = "Subtract 1"; break;
+                        case MULTIPLY: opText = "Multiply by 2"; break;
+                        case DIVIDE: opText = "Divide by 2"; break;
                     }
                     
                     fontRenderer.renderText("Number Controls: " + modeText, 
@@ -496,8 +489,8 @@ public class GameScreen implements Screen {
                     0.8f, 0.4f, 0.7f); // Accent pink
             
             // Render grids
-            renderGrid(grid, mainGridX, mainGridY, mainGridCellSize);
-            renderGrid(targetPattern, targetGridX, targetGridY, targetGridCellSize);
+            renderGrid(false, mainGridX, mainGridY, mainGridCellSize);
+            renderGrid(true, targetGridX, targetGridY, targetGridCellSize);
             
             // Render buttons
             backButton.render((float)currentMouseX, (float)currentMouseY);
@@ -516,7 +509,7 @@ public class GameScreen implements Screen {
             } else {
                 // Number-based operation controls
                 for (int i = 0; i < numberOpButtons.length; i++) {
-                    if (i == currentNumberOp) {
+                    if (i == currentNumberOp.ordinal()) {
                         numberOpButtons[i].setCaptionColor(1.0f, 1.0f, 0.0f, 1.0f);
                     } else {
                         numberOpButtons[i].setCaptionColor(1.0f, 1.0f, 1.0f, 1.0f);
@@ -550,8 +543,8 @@ public class GameScreen implements Screen {
                 renderTutorialOverlay();
             } else {
                 // Render tutorial sprite only if not in tutorial mode
-                if (isFirstLevel && tutorialSpriteTexture != -1) {
-                    renderSprite(tutorialSpriteTexture, tutorialSpriteX, tutorialSpriteY, tutorialSpriteWidth, tutorialSpriteHeight);
+                if (isFirstLevel && tutorialSprite != null) {
+                    renderSprite(tutorialSprite, tutorialSpriteX, tutorialSpriteY, tutorialSpriteWidth, tutorialSpriteHeight);
                 }
             }
             
@@ -642,25 +635,12 @@ public class GameScreen implements Screen {
      * Renders the tutorial overlay with greyed out screen except for the sprite.
      */
     private void renderTutorialOverlay() {
- // Enable alpha blending for transparency
-    glEnable(GL11.GL_BLEND);
-    glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-    
     // Draw semi-transparent grey overlay for the entire screen
-    glColor4f(0.2f, 0.2f, 0.2f, 0.3f);
-    glBegin(GL_QUADS);
-    glVertex2f(0, 0);
-    glVertex2f(App.WINDOW_WIDTH, 0);
-    glVertex2f(App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
-    glVertex2f(0, App.WINDOW_HEIGHT);
-    glEnd();
-    
-    // Disable blending after drawing the overlay
-    glDisable(GL11.GL_BLEND);
+    Renderer2D.fillRect(0, 0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0.2f, 0.2f, 0.2f, 0.3f);
     
     // Render the tutorial sprite
-    if (tutorialSpriteTexture != -1) {
-        renderSprite(tutorialSpriteTexture, tutorialSpriteX, tutorialSpriteY, tutorialSpriteWidth, tutorialSpriteHeight);        }
+    if (tutorialSprite != null) {
+        renderSprite(tutorialSprite, tutorialSpriteX, tutorialSpriteY, tutorialSpriteWidth, tutorialSpriteHeight);        }
         
         // Draw tutorial text based on state
         if (fontRenderer != null) {
@@ -678,14 +658,9 @@ public class GameScreen implements Screen {
                         1.0f, 1.0f, 1.0f, 1.0f);
                     
                     // Draw highlight around the sprite
-                    glColor4f(1.0f, 1.0f, 0.0f, 0.7f);
-                    glLineWidth(3.0f);
-                    glBegin(GL_LINE_LOOP);
-                    glVertex2f(tutorialSpriteX - 10, tutorialSpriteY - 10);
-                    glVertex2f(tutorialSpriteX + tutorialSpriteWidth + 10, tutorialSpriteY - 10);
-                    glVertex2f(tutorialSpriteX + tutorialSpriteWidth + 10, tutorialSpriteY + tutorialSpriteHeight + 10);
-                    glVertex2f(tutorialSpriteX - 10, tutorialSpriteY + tutorialSpriteHeight + 10);
-                    glEnd();
+                    Renderer2D.strokeRect(tutorialSpriteX - 10, tutorialSpriteY - 10,
+                                          tutorialSpriteWidth + 20, tutorialSpriteHeight + 20, 3.0f,
+                                          1.0f, 1.0f, 0.0f, 0.7f);
                     break;
             }
         }
@@ -694,24 +669,11 @@ public class GameScreen implements Screen {
     /**
      * Renders a sprite at the specified position and size.
      */
-    private void renderSprite(int textureId, float x, float y, float width, float height) {
-        if (textureId < 0) return;
-        
-        // Enable texturing
-        glEnable(GL_TEXTURE_2D);
-        glBindTexture(GL_TEXTURE_2D, textureId);
-        
-        // Draw textured quad
-        glColor4f(1.0f, 1.0f, 1.0f, 1.0f); // White to preserve texture colors
-        glBegin(GL_QUADS);
-        glTexCoord2f(0, 0); glVertex2f(x, y);
-        glTexCoord2f(1, 0); glVertex2f(x + width, y);
-        glTexCoord2f(1, 1); glVertex2f(x + width, y + height);
-        glTexCoord2f(0, 1); glVertex2f(x, y + height);
-        glEnd();
-        
-        // Disable texturing
-        glDisable(GL_TEXTURE_2D);
+    private void renderSprite(TextureCache.Region sprite, float x, float y, float width, float height) {
+        // White tint to preserve texture colors
+        Renderer2D.drawQuad(sprite.getTexture(), x, y, width, height,
+                            sprite.getU0(), sprite.getV0(), sprite.getU1(), sprite.getV1(),
+                            1.0f, 1.0f, 1.0f, 1.0f);
     }
 
     /**
@@ -723,13 +685,7 @@ public class GameScreen implements Screen {
         float panelX = App.WINDOW_WIDTH / 2 - panelWidth / 2;
         float panelY = App.WINDOW_HEIGHT / 2 - panelHeight / 2;
         
-        glColor4f(0.9f, 0.5f, 0.8f, 0.8f); // Semi-transparent pink
-        glBegin(GL_QUADS);
-        glVertex2f(panelX, panelY);
-        glVertex2f(panelX + panelWidth, panelY);
-        glVertex2f(panelX + panelWidth, panelY + panelHeight);
-        glVertex2f(panelX, panelY + panelHeight);
-        glEnd();
+        Renderer2D.fillRect(panelX, panelY, panelWidth, panelHeight, 0.9f, 0.5f, 0.8f, 0.8f); // Semi-transparent pink
     }
     
     /**
@@ -744,115 +700,53 @@ public class GameScreen implements Screen {
      * @param b Blue component (0.0-1.0)
      */
     private void drawRect(float x, float y, float width, float height, float r, float g, float b) {
-        glColor3f(r, g, b);
-        glBegin(GL_QUADS);
-        glVertex2f(x, y);
-        glVertex2f(x + width, y);
-        glVertex2f(x + width, y + height);
-        glVertex2f(x, y + height);
-        glEnd();
+        Renderer2D.fillRect(x, y, width, height, r, g, b);
     }
     
     /**
-     * Renders a grid of cells at the specified position.
+     * Renders the current grid or the target pattern at the specified position.
      * 
-     * @param gridToRender The grid data to render
+     * @param target true to render the target pattern, false for the current grid
      * @param posX X coordinate of the top-left corner
      * @param posY Y coordinate of the top-left corner
      * @param cellSize Size of each cell
      */
-    private void renderGrid(LevelConfig.Cell[][] gridToRender, float posX, float posY, float cellSize) {
-        if (gridToRender == null) {
-            return;
-        }
-        
+    private void renderGrid(boolean target, float posX, float posY, float cellSize) {
         try {
-            // Draw cells
-            for (int row = 0; row < gridToRender.length; row++) {
-                for (int col = 0; col < gridToRender[row].length; col++) {
-                    LevelConfig.Cell cell = gridToRender[row][col];
-                    
-                    float x = posX + col * cellSize;
-                    float y = posY + row * cellSize;
-                    
-                    if (isNumberMode) {
-                        // For number mode, use grayscale background based on value
-                        int value = cell.getNumericValue();
-                        float grayValue = Math.min(0.8f, value * 0.1f);
-                        glColor3f(grayValue, grayValue, grayValue);
-                    } else {
-                        // For color mode, use the RGB values
-                        glColor3f(cell.red, cell.green, cell.blue);
-                    }
-                    
-                    // Draw cell with padding
-                    glBegin(GL_QUADS);
-                    glVertex2f(x + 2, y + 2);
-                    glVertex2f(x + cellSize - 2, y + 2);
-                    glVertex2f(x + cellSize - 2, y + cellSize - 2);
-                    glVertex2f(x + 2, y + cellSize - 2);
-                    glEnd();
-                    
-                    // Draw cell border
-                    glColor3f(0.0f, 0.0f, 0.0f);
-                    glLineWidth(1.0f);
-                    glBegin(GL_LINE_LOOP);
-                    glVertex2f(x, y);
-                    glVertex2f(x + cellSize, y);
-                    glVertex2f(x + cellSize, y + cellSize);
-                    glVertex2f(x, y + cellSize);
-                    glEnd();
-                    
-                    // Draw number if in number mode
-                    if (isNumberMode) {
-                        int number = cell.getNumericValue();
-                        if (fontRenderer != null) {
-                            String numStr = String.valueOf(number);
-                            float textWidth = fontRenderer.getTextWidth(numStr, 1.0f);
-                            
-                            // Use a high contrast color for text that will stand out on gray
-                            float r = 0.9f;
-                            float g = 0.2f;
-                            float b = 0.2f;
-                            
-                            fontRenderer.renderText(numStr, 
-                                            x + (cellSize - textWidth) / 2, 
-                                            y + (cellSize - fontRenderer.getTextHeight(1.0f)) / 2, 
-                                            1.0f, r, g, b, 1.0f);
-                        }
-                    }
-                    
-                    // Optionally add visual indicator for non-editable cells
-                    if (!cell.editable) {
-                        glColor4f(0.0f, 0.0f, 0.0f, 0.5f);
-                        glBegin(GL_QUADS);
-                        glVertex2f(x + 5, y + 5);
-                        glVertex2f(x + cellSize - 5, y + 5);
-                        glVertex2f(x + cellSize - 5, y + cellSize - 5);
-                        glVertex2f(x + 5, y + cellSize - 5);
-                        glEnd();
-                    }
-                    
-                }
+            // Cells and grid lines are one instanced draw, re-uploaded only after a move
+            GridRenderer grid = target ? targetGridRenderer : mainGridRenderer;
+            if (target) {
+                grid.update(board, true, -1, -1, -1);
+            } else {
+                int dragCell = isDragging ? dragStartRow * gridSize + dragStartCol : -1;
+                grid.update(board, false, selectedRow, selectedCol, dragCell);
             }
+            grid.render(posX, posY, cellSize);
             
-            // Draw grid lines
-            glColor3f(1.0f, 1.0f, 1.0f);
-            glLineWidth(1.0f);
-            glBegin(GL_LINES);
-            // Vertical lines
-            for (int i = 0; i <= gridSize; i++) {
-                float x = posX + i * cellSize;
-                glVertex2f(x, posY);
-                glVertex2f(x, posY + gridSize * cellSize);
-            }
-            // Horizontal lines
-            for (int i = 0; i <= gridSize; i++) {
-                float y = posY + i * cellSize;
-                glVertex2f(posX, y);
-                glVertex2f(posX + gridSize * cellSize, y);
+            // Draw numbers if in number mode
+            if (isNumberMode && fontRenderer != null) {
+                for (int row = 0; row < gridSize; row++) {
+                    for (int col = 0; col < gridSize; col++) {
+                        int cell = target ? board.getTargetCell(row, col) : board.getCell(row, col);
+                        int number = Board.valueOf(cell);
+                        float x = posX + col * cellSize;
+                        float y = posY + row * cellSize;
+                        float textWidth = fontRenderer.getNumberWidth(number, 1.0f);
+                        
+                        // Use a high contrast color for text that will stand out on gray,
+                        // dimmed like the rest of the cell when it is not editable
+                        float shade = Board.isEditable(cell) ? 1.0f : 0.5f;
+                        float r = 0.9f * shade;
+                        float g = 0.2f * shade;
+                        float b = 0.2f * shade;
+                        
+                        fontRenderer.renderNumber(number, 
+                                          x + (cellSize - textWidth) / 2, 
+                                          y + (cellSize - fontRenderer.getTextHeight(1.0f)) / 2, 
+                                          1.0f, r, g, b, 1.0f);
+                    }
+                }
             }
-            glEnd();
             
         } catch (Exception e) {
             // Handle exception silently
@@ -908,7 +802,7 @@ public class GameScreen implements Screen {
             // Check number operation buttons
             for (int i = 0; i < numberOpButtons.length; i++) {
                 if (numberOpButtons[i].handleMouseClick(mx, my)) {
-                    currentNumberOp = i;
+                    currentNumberOp = NumberOp.values()[i];
                     return;
                 }
             }
@@ -969,6 +863,11 @@ public class GameScreen implements Screen {
             } else if (victoryButtons.length > 2 && victoryButtons[2].handleMouseClick(mx, my)) {
                 // Next level - only for built-in levels
                 app.setCurrentScreen(fromLevelNumber(app, currentLevelNumber + 1));
+            } else if (!hasLiked && (currentLevelNumber > 1000 || levelConfig.isCustomLevel())
+                       && likeButton.handleMouseClick(mx, my)) {
+                // Like - once per play
+                updateLevelStatistics(false, true);
+                hasLiked = true;
             }
             return;
         }
@@ -1010,19 +909,15 @@ public class GameScreen implements Screen {
         
         if (selectingRow) {
             // Apply operation to entire row
-            for (int c = 0; c < gridSize; c++) {
-                operationPerformed |= applyNumberOperation(grid[row][c]);
-            }
+            operationPerformed = board.applyToRow(currentNumberOp, row);
             
         } else if (selectingColumn) {
             // Apply operation to entire column
-            for (int r = 0; r < gridSize; r++) {
-                operationPerformed |= applyNumberOperation(grid[r][col]);
-            }
+            operationPerformed = board.applyToColumn(currentNumberOp, col);
             
         } else if (selectingCell) {
             // Apply operation to single cell
-            operationPerformed = applyNumberOperation(grid[row][col]);
+            operationPerformed = board.applyToCell(currentNumberOp, row, col);
         }
         
         if (operationPerformed) {
@@ -1030,56 +925,6 @@ public class GameScreen implements Screen {
             checkVictory();
         }
     }
-    
-    /**
-     * Applies a number operation to a single cell.
-     * 
-     * @param cell The cell to modify
-     * @return true if the operation changed the cell value, false otherwise
-     */
-    private boolean applyNumberOperation(LevelConfig.Cell cell) {
-        if (cell == null || !cell.editable) return false;
-        
-        int oldValue = cell.getNumericValue();
-        int newValue = oldValue;
-        
-        switch (currentNumberOp) {
-            case NUM_OP_ADD:
-                newValue = Math.min(9, oldValue + 1); // Add 1, max 9
-                break;
-            case NUM_OP_SUBTRACT:
-                newValue = Math.max(0, oldValue - 1); // Subtract 1, min 0
-                break;
-            case NUM_OP_MULTIPLY:
-                newValue = Math.min(9, oldValue * 2); // Multiply by 2, max 9
-                break;
-            case NUM_OP_DIVIDE:
-                newValue = oldValue / 2; // Divide by 2, integer division
-                break;
-        }
-        
-        // If value didn't change, return false
-        if (newValue == oldValue) {
-            return false;
-        }
-        
-        // Update the cell value (both numeric value and RGB for consistency)
-        float normalized = Math.min(1.0f, Math.max(0.0f, newValue / 9.0f));
-        cell.red = normalized;
-        cell.green = normalized;
-        cell.blue = normalized;
-        
-        // Set numeric value using reflection (since it's private)
-        try {
-            java.lang.reflect.Field field = LevelConfig.Cell.class.getDeclaredField("numericValue");
-            field.setAccessible(true);
-            field.set(cell, newValue);
-        } catch (Exception e) {
-            System.err.println("Error setting numericValue: " + e.getMessage());
-        }
-        
-        return true;
-    }
 
     /**
      * Handles clicks on grid cells based on the current move type.
@@ -1155,8 +1000,7 @@ public class GameScreen implements Screen {
      * @param col Column index of the selected cell
      */
     private void handleSwapMode(int row, int col) {
-        LevelConfig.Cell clickedCell = grid[row][col];
-        if (clickedCell.editable && !isBlackCell(clickedCell)) {
+        if (board.canSwapFrom(row, col)) {
             dragStartRow = row;
             dragStartCol = col;
             isDragging = true;
@@ -1173,30 +1017,11 @@ public class GameScreen implements Screen {
             // First selection, just highlight the row
             selectedRow = row;
         } else {
-            // Only perform the operation if:
-            // 1. Selecting a different row
-            // 2. At least one cell in both rows is editable
-            if (selectedRow != row) {
-                boolean canSwap = false;
-                
-                // Check if at least one cell in both rows is editable
-                for (int col = 0; col < gridSize; col++) {
-                    if (grid[selectedRow][col].editable && grid[row][col].editable) {
-                        canSwap = true;
-                        break;
-                    }
-                }
-                
-                if (canSwap) {
-                    // Swap entire rows
-                    LevelConfig.Cell[] tempRow = grid[selectedRow].clone();
-                    grid[selectedRow] = grid[row].clone();
-                    grid[row] = tempRow;
-                    
-                    // Only count the move if we actually did something
-                    incrementMoveUsed(MoveType.FLIP_ROW.name());
-                    checkVictory();
-                }
+            // The board only swaps different rows sharing at least one editable column
+            if (board.swapRows(selectedRow, row)) {
+                // Only count the move if we actually did something
+                incrementMoveUsed(MoveType.FLIP_ROW.name());
+                checkVictory();
             }
             // Reset selection regardless of whether swap occurred
             selectedRow = -1;
@@ -1208,32 +1033,11 @@ public class GameScreen implements Screen {
             // First selection, just highlight the column
             selectedCol = col;
         } else {
-            // Only perform the operation if:
-            // 1. Selecting a different column
-            // 2. At least one cell in both columns is editable
-            if (selectedCol != col) {
-                boolean canSwap = false;
-                
-                // Check if at least one cell in both columns is editable
-                for (int row = 0; row < gridSize; row++) {
-                    if (grid[row][selectedCol].editable && grid[row][col].editable) {
-                        canSwap = true;
-                        break;
-                    }
-                }
-                
-                if (canSwap) {
-                    // Swap entire columns
-                    for (int i = 0; i < gridSize; i++) {
-                        LevelConfig.Cell temp = grid[i][selectedCol];
-                        grid[i][selectedCol] = grid[i][col];
-                        grid[i][col] = temp;
-                    }
-                    
-                    // Only count the move if we actually did something
-                    incrementMoveUsed(MoveType.FLIP_COLUMN.name());
-                    checkVictory();
-                }
+            // The board only swaps different columns sharing at least one editable row
+            if (board.swapColumns(selectedCol, col)) {
+                // Only count the move if we actually did something
+                incrementMoveUsed(MoveType.FLIP_COLUMN.name());
+                checkVictory();
             }
             // Reset selection regardless of whether swap occurred
             selectedCol = -1;
@@ -1256,21 +1060,11 @@ public class GameScreen implements Screen {
             } else {
                 // Second click - perform multiplication
                 if (selectedRow == row) {
-                    // Multiply row
-                    for (int i = 0; i < gridSize; i++) {
-                        float newValue = grid[row][i].red * 2;
-                        if (newValue <= 1.0f) { // Keep within valid range
-                            grid[row][i].red = newValue;
-                        }
-                    }
+                    // Multiply row, keeping values within range
+                    board.doubleRow(row);
                 } else if (selectedCol == col) {
                     // Multiply column
-                    for (int i = 0; i < gridSize; i++) {
-                        float newValue = grid[i][col].red * 2;
-                        if (newValue <= 1.0f) {
-                            grid[i][col].red = newValue;
-                        }
-                    }
+                    board.doubleColumn(col);
                 }
                 selectedRow = -1;
                 selectedCol = -1;
@@ -1294,16 +1088,8 @@ public class GameScreen implements Screen {
         if (cellPos != null && 
             (cellPos[0] != dragStartRow || cellPos[1] != dragStartCol)) { // Don't swap with self
             
-            // Check if cells are adjacent (not diagonal)
-            boolean isAdjacent = areAdjacentCells(dragStartRow, dragStartCol, cellPos[0], cellPos[1]);
-            
-            LevelConfig.Cell targetCell = grid[cellPos[0]][cellPos[1]];
-            if (targetCell.editable && !isBlackCell(targetCell) && isAdjacent) {
-                // Swap cells
-                LevelConfig.Cell temp = grid[dragStartRow][dragStartCol];
-                grid[dragStartRow][dragStartCol] = grid[cellPos[0]][cellPos[1]];
-                grid[cellPos[0]][cellPos[1]] = temp;
-                
+            // The board only swaps adjacent (not diagonal), editable, non-black cells
+            if (board.swapCells(dragStartRow, dragStartCol, cellPos[0], cellPos[1])) {
                 incrementMoveUsed(MoveType.SWAP.name());
                 checkVictory();
             }
@@ -1314,44 +1100,6 @@ public class GameScreen implements Screen {
         dragStartCol = -1;
     }
 
-    /**
-     * Check if two cells are adjacent (up, down, left, right)
-     * @return true if cells are adjacent, false otherwise
-     */
-    private boolean areAdjacentCells(int row1, int col1, int row2, int col2) {
-        // Same row, columns differ by 1 (left/right adjacency)
-        if (row1 == row2 && Math.abs(col1 - col2) == 1) {
-            return true;
-        }
-        
-        // Same column, rows differ by 1 (up/down adjacency)
-        if (col1 == col2 && Math.abs(row1 - row2) == 1) {
-            return true;
-        }
-        
-        // Not adjacent
-        return false;
-    }
-
-    /**
-     * Checks if two cells have matching colors or values.
-     * 
-     * @param cell1 The first cell
-     * @param cell2 The second cell
-     * @return true if the cells match, false otherwise
-     */
-    private boolean checkMatch(LevelConfig.Cell cell1, LevelConfig.Cell cell2) {
-        if (isNumberMode) {
-            // Compare numeric values for number mode instead of just the red channel
-            return cell1.getNumericValue() == cell2.getNumericValue();
-        } else {
-            // Compare all channels for colors
-            return Math.abs(cell1.red - cell2.red) < 0.01f &&
-                   Math.abs(cell1.green - cell2.green) < 0.01f &&
-                   Math.abs(cell1.blue - cell2.blue) < 0.01f;
-        }
-    }
-
     /**
      * Checks if the player has won or lost the level.
      * Updates hasWon or hasLost flags accordingly.
@@ -1374,15 +1122,10 @@ public class GameScreen implements Screen {
             return;
         }
         
-        for (int row = 0; row < gridSize; row++) {
-            for (int col = 0; col < gridSize; col++) {
-                if (!checkMatch(grid[row][col], targetPattern[row][col])) {
-                    return; // Grid doesn't match target yet
-                }
-            }
+        // The board tracks matching cells incrementally, so this is O(1)
+        if (board.isSolved()) {
+            hasWon = true;
         }
-        // If we get here, all cells match
-        hasWon = true;
     }
 
     /**
@@ -1420,16 +1163,6 @@ public class GameScreen implements Screen {
         return null;
     }
     
-    /**
-     * Checks if a cell is a black/empty cell.
-     * 
-     * @param cell The cell to check
-     * @return true if the cell is black (all RGB values are 0), false otherwise
-     */
-    private boolean isBlackCell(LevelConfig.Cell cell) {
-        return cell.red == 0.0f && cell.green == 0.0f && cell.blue == 0.0f;
-    }
-
     /**
      * Handles key press events.
      * 
@@ -1472,93 +1205,12 @@ public class GameScreen implements Screen {
             return;
         }
         
-        new Thread(() -> {
-            try (MongoDBConnection mongodb = new MongoDBConnection()) {
-                // Find the level owner
-                MongoCollection<Document> usersCollection = mongodb.getDatabase().getCollection("data");
-                String levelIdStr = String.valueOf(currentLevelNumber);
-                String levelKey = "level" + levelIdStr;
-                
-                // Search for the level in all users
-                for (Document userDoc : usersCollection.find()) {
-                    Object levelsObj = userDoc.get("Levels");
-                    if (!(levelsObj instanceof Document)) {
-                        continue;
-                    }
-                    
-                    Document levelsDoc = (Document) levelsObj;
-                    if (!levelsDoc.containsKey(levelKey)) {
-                        continue;
-                    }
-                    
-                    // Found the level, now update its statistics
-                    Document levelDoc = (Document) levelsDoc.get(levelKey);
-                    Document statisticsDoc = levelDoc.get("statistics", new Document());
-                    
-                    // Create statistics object if it doesn't exist
-                    if (statisticsDoc == null) {
-                        statisticsDoc = new Document();
-                    }
-                    
-                    // Update statistics
-                    int timeplayed = statisticsDoc.getInteger("timeplayed", 0);
-                    int likes = statisticsDoc.getInteger("likes", 0);
-                    
-                    if (incrementPlays) {
-                        timeplayed++;
-                    }
-                    
-                    if (incrementLikes) {
-                        likes++;
-                    }
-                    
-                    // Store updated values
-                    statisticsDoc.put("timeplayed", timeplayed);
-                    statisticsDoc.put("likes", likes);
-                    levelDoc.put("statistics", statisticsDoc);
-                    
-                    // Update in database
-                    Document updateDoc = new Document("$set", 
-                                      new Document("Levels." + levelKey, levelDoc));
-                    usersCollection.updateOne(new Document("_id", userDoc.get("_id")), updateDoc);
-                    
-                    // Update statistics in memory using reflection since setter methods aren't available
-                    try {
-                        if (levelConfig.getStatistics() == null) {
-                            // Create a new Statistics object using reflection
-                            Class<?> statsClass = Class.forName("thegame.utils.LevelConfig$Statistics");
-                            java.lang.reflect.Constructor<?> constructor = statsClass.getDeclaredConstructor(int.class, int.class);
-                            Object statsObj = constructor.newInstance(timeplayed, likes);
-                            
-                            // Set the statistics field in levelConfig
-                            java.lang.reflect.Field statsField = levelConfig.getClass().getDeclaredField("statistics");
-                            statsField.setAccessible(true);
-                            statsField.set(levelConfig, statsObj);
-                        } else {
-                            // Update existing Statistics object fields
-                            Object statsObj = levelConfig.getStatistics();
-                            if (incrementPlays) {
-                                java.lang.reflect.Field timePlayedField = statsObj.getClass().getDeclaredField("timePlayed");
-                                timePlayedField.setAccessible(true);
-                                timePlayedField.set(statsObj, timeplayed);
-                            }
-                            
-                            if (incrementLikes) {
-                                java.lang.reflect.Field likesField = statsObj.getClass().getDeclaredField("likes");
-                                likesField.setAccessible(true);
-                                likesField.set(statsObj, likes);
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Handle silently
-                    }
-                    
-                    break;
-                }
-            } catch (Exception e) {
-                // Handle silently
-            }
-        }).start();
+        if (incrementPlays) {
+            LevelStatsService.recordPlay(levelConfig);
+        }
+        if (incrementLikes) {
+            LevelStatsService.recordLike(levelConfig);
+        }
     }
     
     /**
@@ -1578,9 +1230,20 @@ public class GameScreen implements Screen {
         }
     }
 
+    /**
+     * Between moves the board is static; only the clouds keep drifting.
+     *
+     * @return The cloud drift interval
+     */
+    @Override
+    public double getRedrawInterval() {
+        return CloudBackground.DRIFT_INTERVAL;
+    }
+
     /**
      * Cleans up resources used by the game screen.
      */
+    @Override
     public void cleanup() {
         // Clean up cloud background
         if (cloudBackground != null) {
@@ -1588,10 +1251,21 @@ public class GameScreen implements Screen {
             cloudBackground = null;
         }
         
-        // Clean up tutorial sprite if loaded
-        if (tutorialSpriteTexture != -1) {
-            glDeleteTextures(tutorialSpriteTexture);
-            tutorialSpriteTexture = -1;
+        // Clean up grid instance buffers
+        if (mainGridRenderer != null) {
+            mainGridRenderer.cleanup();
+            mainGridRenderer = null;
+        }
+        if (targetGridRenderer != null) {
+            targetGridRenderer.cleanup();
+            targetGridRenderer = null;
+        }
+        
+        // Give back the tutorial sprite, loaded or not
+        if (tutorialSpriteRequested) {
+            TextureCache.release(TUTORIAL_SPRITE);
+            tutorialSpriteRequested = false;
+            tutorialSprite = null;
         }
     }
     
@@ -2,20 +2,24 @@ package thegame.screens;
 
 import static org.lwjgl.opengl.GL11.*;
 
-import org.bson.Document;
-import com.mongodb.client.MongoCollection;
-
 import thegame.App;
 import thegame.Screen;
+import thegame.engine.LevelSolver;
+import thegame.engine.LevelVerifier;
 import thegame.onScreenObjects.Button;
+import thegame.render.Renderer2D;
+import thegame.utils.CellGrid;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 import thegame.utils.LevelConfig;
+import thegame.utils.LevelRepository;
 import thegame.utils.MongoDBConnection;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Screen for creating and editing game levels.
@@ -76,7 +80,7 @@ public class LevelEditorScreen implements Screen {
     private String levelNameInput = "Custom Level";
     private boolean isEditingName = false;
     private boolean showCursor = false;
-    private long lastCursorBlink = 0;
+    private double cursorBlinkTime = 0; // Seconds since the cursor last toggled
     
     // Success dialog
     private boolean showSaveSuccess = false;
@@ -89,6 +93,12 @@ public class LevelEditorScreen implements Screen {
     private Button skipVerificationButton;
     private LevelConfig pendingLevel;
     private String pendingLevelKey;
+    
+    // Automatic verification state
+    private CompletableFuture<LevelSolver.Result> verification; // Running solver, null when idle
+    private String verificationMessage = null;
+    private boolean offerManualVerification = false; // Set when the solver runs out of time
+    private int verifiedSolutionLength = -1;
 
     /**
      * Constructs a new LevelEditorScreen for creating a new level.
@@ -132,18 +142,18 @@ public class LevelEditorScreen implements Screen {
      */
     private void copyLevelData(LevelConfig existingLevel) {
         // Copy the grid data
-        LevelConfig.Cell[][] sourceGrid = existingLevel.getGrid();
-        LevelConfig.Cell[][] sourceTarget = existingLevel.getTargetPattern();
+        CellGrid sourceGrid = existingLevel.getGrid();
+        CellGrid sourceTarget = existingLevel.getTargetPattern();
         
         for (int i = 0; i < gridSize; i++) {
             for (int j = 0; j < gridSize; j++) {
-                if (sourceGrid != null && i < sourceGrid.length && j < sourceGrid[i].length) {
-                    LevelConfig.Cell cell = sourceGrid[i][j];
+                if (sourceGrid != null && i < sourceGrid.getRows() && j < sourceGrid.getCols()) {
+                    LevelConfig.Cell cell = sourceGrid.get(i, j);
                     grid[i][j] = new LevelConfig.Cell(cell.red, cell.green, cell.blue, cell.editable);
                 }
                 
-                if (sourceTarget != null && i < sourceTarget.length && j < sourceTarget[i].length) {
-                    LevelConfig.Cell cell = sourceTarget[i][j];
+                if (sourceTarget != null && i < sourceTarget.getRows() && j < sourceTarget.getCols()) {
+                    LevelConfig.Cell cell = sourceTarget.get(i, j);
                     targetPattern[i][j] = new LevelConfig.Cell(cell.red, cell.green, cell.blue, cell.editable);
                 }
             }
@@ -156,10 +166,11 @@ public class LevelEditorScreen implements Screen {
     private void initializeGrids() {
         grid = new LevelConfig.Cell[gridSize][gridSize];
         targetPattern = new LevelConfig.Cell[gridSize][gridSize];
+        LevelConfig.Cell black = new LevelConfig.Cell(0, 0, 0, true); // Cells are immutable, so one can be shared
         for (int i = 0; i < gridSize; i++) {
             for (int j = 0; j < gridSize; j++) {
-                grid[i][j] = new LevelConfig.Cell(0, 0, 0, true);
-                targetPattern[i][j] = new LevelConfig.Cell(0, 0, 0, true);
+                grid[i][j] = black;
+                targetPattern[i][j] = black;
             }
         }
     }
@@ -169,8 +180,7 @@ public class LevelEditorScreen implements Screen {
      */
     private void initUI() {
         // Initialize font renderer
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Bottom buttons
         backButton = new Button(20, App.WINDOW_HEIGHT - 60, 100, 40, 0.7f, 0.3f, 0.6f, "Back"); // Dark pink
@@ -368,45 +378,10 @@ public class LevelEditorScreen implements Screen {
                 field.set(pendingLevel, true);
             }
             
-            // Convert to MongoDB document
-            Document levelDoc = pendingLevel.toDocument();
-            levelDoc.append("id", String.valueOf(pendingLevel.getLevelNumber()));
-            levelDoc.append("isVerified", verified);
-            
             try (MongoDBConnection mongodb = new MongoDBConnection()) {
-                if (app.isLoggedIn() && app.getUserData() != null) {
-                    // User is logged in, save/update under their profile
-                    String username = app.getUsername();
-                    Document user = app.getUserData();
-                    
-                    // Get or create Levels subdocument
-                    Document levelsDoc = user.get("Levels", Document.class);
-                    if (levelsDoc == null) {
-                        levelsDoc = new Document();
-                    }
-                    
-                    // Add/update the level using the preserved key
-                    levelsDoc.put(pendingLevelKey, levelDoc);
-                    
-                    // Update user document
-                    Document filter = new Document("username", username);
-                    Document update = new Document("$set", new Document("Levels", levelsDoc));
-                    
-                    mongodb.getDatabase().getCollection("data").updateOne(filter, update);
-                    
-                    // Update cached user data
-                    app.setLoggedInUser(mongodb.getDatabase().getCollection("data").find(filter).first());
-                } else {
-                    // Fallback - save as standalone level
-                    if (isEditingExistingLevel) {
-                        mongodb.getDatabase().getCollection("levels").replaceOne(
-                            new Document("id", String.valueOf(pendingLevel.getLevelNumber())),
-                            levelDoc
-                        );
-                    } else {
-                        mongodb.getDatabase().getCollection("levels").insertOne(levelDoc);
-                    }
-                }
+                // Save/update the level in the levels collection under its creator
+                String creator = app.isLoggedIn() && app.getUsername() != null ? app.getUsername() : "anonymous";
+                new LevelRepository(mongodb).save(pendingLevel, creator, verified);
                 
                 // After successful save, store ID and show success dialog
                 savedLevelId = String.valueOf(pendingLevel.getLevelNumber());
@@ -427,26 +402,33 @@ public class LevelEditorScreen implements Screen {
      */
     private int getNextLevelId() {
         try (MongoDBConnection mongodb = new MongoDBConnection()) {
-            MongoCollection<Document> collection = mongodb.getDatabase()
-                .getCollection("data");
-
-            Document maxDoc = collection
-                .find()
-                .sort(new Document("id", -1))
-                .limit(1)
-                .first();
-
-            return maxDoc != null ? maxDoc.getInteger("id", 0) + 1 : 1;
+            return new LevelRepository(mongodb).nextLevelId();
         } catch (Exception e) {
             return 1;
         }
     }
 
+    /**
+     * Advances the name field's cursor blink.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        cursorBlinkTime += dt;
+        if (cursorBlinkTime > 0.5) {
+            showCursor = !showCursor;
+            cursorBlinkTime = 0;
+        }
+    }
+    
     /**
      * Renders the level editor screen.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
+    public void render(float alpha) {
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
         
@@ -456,13 +438,7 @@ public class LevelEditorScreen implements Screen {
         // If showing save success dialog, render that and nothing else
         if (showSaveSuccess) {
             // Draw overlay
-            glColor4f(0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
-            glBegin(GL_QUADS);
-            glVertex2f(0, 0);
-            glVertex2f(App.WINDOW_WIDTH, 0);
-            glVertex2f(App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
-            glVertex2f(0, App.WINDOW_HEIGHT);
-            glEnd();
+            Renderer2D.fillRect(0, 0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
             
             // Draw dialog box
             float boxWidth = 400;
@@ -470,19 +446,17 @@ public class LevelEditorScreen implements Screen {
             float boxX = App.WINDOW_WIDTH / 2 - boxWidth / 2;
             float boxY = App.WINDOW_HEIGHT / 2 - boxHeight / 2;
             
-            glColor3f(0.8f, 0.4f, 0.7f); // Hot pink
-            glBegin(GL_QUADS);
-            glVertex2f(boxX, boxY);
-            glVertex2f(boxX + boxWidth, boxY);
-            glVertex2f(boxX + boxWidth, boxY + boxHeight);
-            glVertex2f(boxX, boxY + boxHeight);
-            glEnd();
+            Renderer2D.fillRect(boxX, boxY, boxWidth, boxHeight, 0.8f, 0.4f, 0.7f); // Hot pink
             
             // Draw success message - properly centered
             fontRenderer.renderCenteredText("Level Saved Successfully!", 
                                           App.WINDOW_WIDTH / 2, boxY + 50, 1.4f);
             fontRenderer.renderCenteredText("Level ID: " + savedLevelId, 
                                           App.WINDOW_WIDTH / 2, boxY + 100, 1.2f);
+            if (verifiedSolutionLength >= 0) {
+                fontRenderer.renderCenteredText("Verified: solvable in " + verifiedSolutionLength + " moves", 
+                                              App.WINDOW_WIDTH / 2, boxY + 130, 1.0f);
+            }
             
             // Draw continue button
             continueButton.render((float)currentMouseX, (float)currentMouseY);
@@ -492,13 +466,7 @@ public class LevelEditorScreen implements Screen {
         // If showing verification dialog, render that instead of success dialog
         if (showVerificationDialog) {
             // Draw overlay
-            glColor4f(0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
-            glBegin(GL_QUADS);
-            glVertex2f(0, 0);
-            glVertex2f(App.WINDOW_WIDTH, 0);
-            glVertex2f(App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
-            glVertex2f(0, App.WINDOW_HEIGHT);
-            glEnd();
+            Renderer2D.fillRect(0, 0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
             
             // Draw dialog box
             float boxWidth = 400;
@@ -506,39 +474,39 @@ public class LevelEditorScreen implements Screen {
             float boxX = App.WINDOW_WIDTH / 2 - boxWidth / 2;
             float boxY = App.WINDOW_HEIGHT / 2 - boxHeight / 2;
             
-            glColor3f(0.8f, 0.4f, 0.7f); // Hot pink
-            glBegin(GL_QUADS);
-            glVertex2f(boxX, boxY);
-            glVertex2f(boxX + boxWidth, boxY);
-            glVertex2f(boxX + boxWidth, boxY + boxHeight);
-            glVertex2f(boxX, boxY + boxHeight);
-            glEnd();
+            Renderer2D.fillRect(boxX, boxY, boxWidth, boxHeight, 0.8f, 0.4f, 0.7f); // Hot pink
             
             // Draw message
             fontRenderer.renderCenteredText("Verify Your Level", 
                                          App.WINDOW_WIDTH / 2 - 130, boxY - 40, 1.4f);
-            fontRenderer.renderCenteredText("Play through your level to verify it's solvable", 
-                                         App.WINDOW_WIDTH / 2, boxY + 80, 1.0f);
-            fontRenderer.renderCenteredText("or skip verification\n(level will be marked as unverified)", 
-                                         App.WINDOW_WIDTH / 2, boxY + 110, 1.0f);
+            if (verificationMessage != null) {
+                fontRenderer.renderCenteredText(verificationMessage, 
+                                             App.WINDOW_WIDTH / 2, boxY + 80, 1.0f);
+            } else {
+                fontRenderer.renderCenteredText("Search for a solution within your move limits", 
+                                             App.WINDOW_WIDTH / 2, boxY + 80, 1.0f);
+                fontRenderer.renderCenteredText("or skip verification\n(level will be marked as unverified)", 
+                                             App.WINDOW_WIDTH / 2, boxY + 110, 1.0f);
+            }
             
-            // Draw buttons
-            verifyButton.render((float)currentMouseX, (float)currentMouseY);
+            // Draw buttons, hiding verify while the solver is running
+            if (verification == null) {
+                verifyButton.render((float)currentMouseX, (float)currentMouseY);
+            }
             skipVerificationButton.render((float)currentMouseX, (float)currentMouseY);
             
+            // Pick up the solver result once it is ready
+            if (verification != null && verification.isDone()) {
+                handleVerificationResult();
+            }
+            
             return;
         }
         
         // Draw left panel background
         float leftPanelWidth = App.WINDOW_WIDTH * 0.2f;
         float leftPanelHeight = App.WINDOW_HEIGHT - 100;
-        glColor4f(0.9f, 0.5f, 0.8f, 1.0f); // Secondary pink
-        glBegin(GL_QUADS);
-        glVertex2f(10, 50);
-        glVertex2f(10 + leftPanelWidth, 50);
-        glVertex2f(10 + leftPanelWidth, 50 + leftPanelHeight);
-        glVertex2f(10, 50 + leftPanelHeight);
-        glEnd();
+        Renderer2D.fillRect(10, 50, leftPanelWidth, leftPanelHeight, 0.9f, 0.5f, 0.8f); // Secondary pink
         
         // Render settings section
         fontRenderer.renderText("Level Settings", 20, 40, 1.2f);
@@ -569,13 +537,8 @@ public class LevelEditorScreen implements Screen {
             float moveSection_x = 15;
             float moveSection_y = 175;
             
-            glColor3f(0.8f, 0.4f, 0.7f); // Hot pink
-            glBegin(GL_QUADS);
-            glVertex2f(moveSection_x, moveSection_y);
-            glVertex2f(moveSection_x + moveSection_width, moveSection_y);
-            glVertex2f(moveSection_x + moveSection_width, moveSection_y + moveSection_height);
-            glVertex2f(moveSection_x, moveSection_y + moveSection_height);
-            glEnd();
+            Renderer2D.fillRect(moveSection_x, moveSection_y, moveSection_width, moveSection_height,
+                                0.8f, 0.4f, 0.7f); // Hot pink
             
             // Render move limits controls
             float moveTextY = 185;
@@ -630,15 +593,9 @@ public class LevelEditorScreen implements Screen {
                             color[1] == selectedColor[1] && 
                             color[2] == selectedColor[2]) {
                             // Draw outline around selected color
-                            glColor3f(1.0f, 1.0f, 1.0f);
-                            glLineWidth(2.0f);
-                            glBegin(GL_LINE_LOOP);
-                            glVertex2f(button.getX() - 2, button.getY() - 2);
-                            glVertex2f(button.getX() + button.getWidth() + 2, button.getY() - 2);
-                            glVertex2f(button.getX() + button.getWidth() + 2, button.getY() + button.getHeight() + 2);
-                            glVertex2f(button.getX() - 2, button.getY() + button.getHeight() + 2);
-                            glEnd();
-                            glLineWidth(1.0f);
+                            Renderer2D.strokeRect(button.getX() - 2, button.getY() - 2,
+                                                  button.getWidth() + 4, button.getHeight() + 4, 2.0f,
+                                                  1.0f, 1.0f, 1.0f, 1.0f);
                         }
                     }
                 }
@@ -677,43 +634,23 @@ public class LevelEditorScreen implements Screen {
         float nameFieldHeight = 30;
         
         // Draw name field background with border
-        glColor3f(0.7f, 0.3f, 0.6f); // Dark pink
-        glBegin(GL_QUADS);
-        glVertex2f(nameFieldX, nameFieldY);
-        glVertex2f(nameFieldX + nameFieldWidth, nameFieldY);
-        glVertex2f(nameFieldX + nameFieldWidth, nameFieldY + nameFieldHeight);
-        glVertex2f(nameFieldX, nameFieldY + nameFieldHeight);
-        glEnd();
+        Renderer2D.fillRect(nameFieldX, nameFieldY, nameFieldWidth, nameFieldHeight, 0.7f, 0.3f, 0.6f); // Dark pink
         
         // Draw border, highlight if active
         if (isEditingName) {
-            glColor3f(1.0f, 0.4f, 0.7f); // Accent pink
+            Renderer2D.strokeRect(nameFieldX, nameFieldY, nameFieldWidth, nameFieldHeight, 2.0f,
+                                  1.0f, 0.4f, 0.7f, 1.0f); // Accent pink
         } else {
-            glColor3f(0.8f, 0.4f, 0.7f); // Hot pink
+            Renderer2D.strokeRect(nameFieldX, nameFieldY, nameFieldWidth, nameFieldHeight, 2.0f,
+                                  0.8f, 0.4f, 0.7f, 1.0f); // Hot pink
         }
         
-        glLineWidth(2.0f);
-        glBegin(GL_LINE_LOOP);
-        glVertex2f(nameFieldX, nameFieldY);
-        glVertex2f(nameFieldX + nameFieldWidth, nameFieldY);
-        glVertex2f(nameFieldX + nameFieldWidth, nameFieldY + nameFieldHeight);
-        glVertex2f(nameFieldX, nameFieldY + nameFieldHeight);
-        glEnd();
-        glLineWidth(1.0f);
-        
         // Draw label
         fontRenderer.renderText("Level Name:", nameFieldX - 200, nameFieldY + 8, 1.0f);
         
         // Draw text with cursor if editing
         String displayText = levelNameInput;
         if (isEditingName) {
-            // Handle cursor blinking
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - lastCursorBlink > 500) {
-                showCursor = !showCursor;
-                lastCursorBlink = currentTime;
-            }
-            
             if (showCursor) {
                 displayText += "|";
             }
@@ -729,13 +666,7 @@ public class LevelEditorScreen implements Screen {
             float dialogY = App.WINDOW_HEIGHT / 2 - dialogHeight / 2;
             
             // Dialog background
-            glColor4f(0.1f, 0.1f, 0.1f, 0.9f);
-            glBegin(GL_QUADS);
-            glVertex2f(dialogX, dialogY);
-            glVertex2f(dialogX + dialogWidth, dialogY);
-            glVertex2f(dialogX + dialogWidth, dialogY + dialogHeight);
-            glVertex2f(dialogX, dialogY + dialogHeight);
-            glEnd();
+            Renderer2D.fillRect(dialogX, dialogY, dialogWidth, dialogHeight, 0.1f, 0.1f, 0.1f, 0.9f);
             
             // Dialog text
             fontRenderer.renderCenteredText("Level Saved!", dialogX, dialogY + dialogHeight - 40, 1.2f);
@@ -758,25 +689,12 @@ public class LevelEditorScreen implements Screen {
         float gridTotalSize = CELL_SIZE * gridSize;
         
         // Draw grid background
-        glColor3f(0.7f, 0.3f, 0.6f); // Dark pink
-        glBegin(GL_QUADS);
-        glVertex2f(startX - 5, startY - 5);
-        glVertex2f(startX + gridTotalSize + 5, startY - 5);
-        glVertex2f(startX + gridTotalSize + 5, startY + gridTotalSize + 5);
-        glVertex2f(startX - 5, startY + gridTotalSize + 5);
-        glEnd();
+        Renderer2D.fillRect(startX - 5, startY - 5, gridTotalSize + 10, gridTotalSize + 10, 0.7f, 0.3f, 0.6f); // Dark pink
         
         // Draw highlight around active grid
         if (isActive) {
-            glColor3f(1.0f, 0.4f, 0.7f); // Accent pink
-            glLineWidth(2.0f);
-            glBegin(GL_LINE_LOOP);
-            glVertex2f(startX - 8, startY - 8);
-            glVertex2f(startX + gridTotalSize + 8, startY - 8);
-            glVertex2f(startX + gridTotalSize + 8, startY + gridTotalSize + 8);
-            glVertex2f(startX - 8, startY + gridTotalSize + 8);
-            glEnd();
-            glLineWidth(1.0f);
+            Renderer2D.strokeRect(startX - 8, startY - 8, gridTotalSize + 16, gridTotalSize + 16, 2.0f,
+                                  1.0f, 0.4f, 0.7f, 1.0f); // Accent pink
         }
         
         // Draw each cell
@@ -789,38 +707,23 @@ public class LevelEditorScreen implements Screen {
                 // Cell background color
                 if (isNumberMode) {
                     // Gray background for number mode
-                    glColor3f(0.3f, 0.3f, 0.3f);
+                    Renderer2D.fillRect(x, y, CELL_SIZE - 2, CELL_SIZE - 2, 0.3f, 0.3f, 0.3f);
                 } else {
                     // Use cell's color
-                    glColor3f(cell.red, cell.green, cell.blue);
+                    Renderer2D.fillRect(x, y, CELL_SIZE - 2, CELL_SIZE - 2, cell.red, cell.green, cell.blue);
                 }
                 
-                // Draw cell
-                glBegin(GL_QUADS);
-                glVertex2f(x, y);
-                glVertex2f(x + CELL_SIZE - 2, y);
-                glVertex2f(x + CELL_SIZE - 2, y + CELL_SIZE - 2);
-                glVertex2f(x, y + CELL_SIZE - 2);
-                glEnd();
-                
                 // Draw cell border
-                glColor3f(0.5f, 0.5f, 0.5f);
-                glLineWidth(1.0f);
-                glBegin(GL_LINE_LOOP);
-                glVertex2f(x, y);
-                glVertex2f(x + CELL_SIZE - 2, y);
-                glVertex2f(x + CELL_SIZE - 2, y + CELL_SIZE - 2);
-                glVertex2f(x, y + CELL_SIZE - 2);
-                glEnd();
+                Renderer2D.strokeRect(x, y, CELL_SIZE - 2, CELL_SIZE - 2, 1.0f, 0.5f, 0.5f, 0.5f, 1.0f);
                 
                 // Draw number if in number mode
                 if (isNumberMode) {
                     int number = (int)(cell.red * 9);
                     if (number > 0) {
-                        fontRenderer.renderCenteredText(String.valueOf(number), 
-                                                      x + CELL_SIZE/2, 
-                                                      y + CELL_SIZE/2, 
-                                                      1.0f);
+                        fontRenderer.renderCenteredNumber(number, 
+                                                          x + CELL_SIZE/2, 
+                                                          y + CELL_SIZE/2, 
+                                                          1.0f, 1.0f, 1.0f, 1.0f, 1.0f);
                     }
                 }
                 
@@ -829,18 +732,60 @@ public class LevelEditorScreen implements Screen {
                     currentMouseX >= x && currentMouseX < x + CELL_SIZE && 
                     currentMouseY >= y && currentMouseY < y + CELL_SIZE) {
                     // Show hover effect
-                    glColor4f(1.0f, 1.0f, 1.0f, 0.3f);
-                    glBegin(GL_QUADS);
-                    glVertex2f(x, y);
-                    glVertex2f(x + CELL_SIZE - 2, y);
-                    glVertex2f(x + CELL_SIZE - 2, y + CELL_SIZE - 2);
-                    glVertex2f(x, y + CELL_SIZE - 2);
-                    glEnd();
+                    Renderer2D.fillRect(x, y, CELL_SIZE - 2, CELL_SIZE - 2, 1.0f, 1.0f, 1.0f, 0.3f);
                 }
             }
         }
     }
     
+    /**
+     * Starts searching for a solution to the pending level on the verifier thread.
+     */
+    private void startVerification() {
+        try {
+            verification = LevelVerifier.verify(pendingLevel);
+            verificationMessage = "Searching for a solution...";
+        } catch (IllegalArgumentException e) {
+            verificationMessage = "Level grid is incomplete, cannot verify";
+        }
+    }
+    
+    /**
+     * Applies the result of a finished verification search.
+     */
+    private void handleVerificationResult() {
+        LevelSolver.Result result;
+        try {
+            result = verification.join();
+        } catch (Exception e) {
+            System.err.println("Error verifying level: " + e.getMessage());
+            result = null;
+        }
+        verification = null;
+        
+        if (result == null) {
+            verificationMessage = "Verification failed, try again or skip";
+            return;
+        }
+        
+        switch (result.getStatus()) {
+            case SOLVED:
+                verifiedSolutionLength = result.getSolutionLength();
+                verificationMessage = null;
+                finalizeLevel(true);
+                break;
+            case UNSOLVABLE:
+                verificationMessage = "No solution exists within the move limits";
+                break;
+            case BUDGET_EXCEEDED:
+                // Fall back to the manual play-through for levels too large to search
+                verificationMessage = "Search timed out, play through to verify";
+                offerManualVerification = true;
+                verifyButton.setCaption("Play to Verify");
+                break;
+        }
+    }
+    
     /**
      * Gets the pending level key.
      * 
@@ -872,7 +817,16 @@ public class LevelEditorScreen implements Screen {
         
         // Check verification dialog buttons first
         if (showVerificationDialog) {
-            if (verifyButton.handleMouseClick(mx, my)) {
+            if (verification == null && !offerManualVerification && verifyButton.handleMouseClick(mx, my)) {
+                if (pendingLevel != null) {
+                    startVerification();
+                } else {
+                    System.err.println("ERROR: Pending level is null, cannot verify");
+                }
+                return;
+            }
+            
+            if (verification == null && offerManualVerification && verifyButton.handleMouseClick(mx, my)) {
                 // Save the level to DB first (unverified) before launching verification
                 if (pendingLevel != null) {
                     // Save level to database with unverified status first
@@ -893,7 +847,11 @@ public class LevelEditorScreen implements Screen {
             }
             
             if (skipVerificationButton.handleMouseClick(mx, my)) {
-                // Save the level without verification
+                // Save the level without verification, discarding any running search
+                if (verification != null) {
+                    verification.cancel(false);
+                    verification = null;
+                }
                 finalizeLevel(false);
                 return;
             }
@@ -1123,34 +1081,10 @@ public class LevelEditorScreen implements Screen {
      */
     private void saveLevelBeforeVerification() {
         try {
-            // Convert to MongoDB document
-            Document levelDoc = pendingLevel.toDocument();
-            levelDoc.append("id", String.valueOf(pendingLevel.getLevelNumber()));
-            levelDoc.append("isVerified", false); // Initially unverified
-            
             try (MongoDBConnection mongodb = new MongoDBConnection()) {
                 if (app.isLoggedIn() && app.getUserData() != null) {
-                    // User is logged in, save under their profile
-                    String username = app.getUsername();
-                    Document user = app.getUserData();
-                    
-                    // Get or create Levels subdocument
-                    Document levelsDoc = user.get("Levels", Document.class);
-                    if (levelsDoc == null) {
-                        levelsDoc = new Document();
-                    }
-                    
-                    // Add the level using the preserved key
-                    levelsDoc.put(pendingLevelKey, levelDoc);
-                    
-                    // Update user document
-                    Document filter = new Document("username", username);
-                    Document update = new Document("$set", new Document("Levels", levelsDoc));
-                    
-                    mongodb.getDatabase().getCollection("data").updateOne(filter, update);
-                    
-                    // Update cached user data to reflect the new level
-                    app.setLoggedInUser(mongodb.getDatabase().getCollection("data").find(filter).first());
+                    // User is logged in, save under their name as initially unverified
+                    new LevelRepository(mongodb).save(pendingLevel, app.getUsername(), false);
                 }
             }
         } catch (Exception e) {
@@ -10,6 +10,7 @@ import org.lwjgl.opengl.GL;
 
 import thegame.App;
 import thegame.Screen;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 import thegame.utils.CloudBackground;
 import thegame.onScreenObjects.Button;
@@ -50,8 +51,7 @@ public class LevelSelect implements Screen {
      * Initializes the user interface elements.
      */
     private void initUI() {
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Keep the back button where it was since it works correctly
         backButton = new Button(20, App.WINDOW_HEIGHT - 60, 200, 40, 0.7f, 0.3f, 0.6f, "Back to Main Menu"); // Dark pink
@@ -88,25 +88,37 @@ public class LevelSelect implements Screen {
         }
     }
     
+    /**
+     * Moves the clouds.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        cloudBackground.update(dt);
+    }
+    
+    /**
+     * Gives the cloud images back to the texture cache.
+     */
+    @Override
+    public void cleanup() {
+        cloudBackground.cleanup();
+    }
+    
     /**
      * Renders the level selection screen with all buttons and UI elements.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
-        // Set up 2D projection
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        glOrtho(0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0, -1, 1);
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-        
+    public void render(float alpha) {
         // Clear screen with a pink background
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
         
-        // Update and render clouds
-        cloudBackground.update();
-        cloudBackground.render();
+        // Render clouds
+        cloudBackground.render(alpha);
         
         // Render title text higher up on screen
         float titleY = App.WINDOW_HEIGHT * 0.15f; // Move title higher
@@ -215,4 +227,14 @@ public class LevelSelect implements Screen {
     public void handleCharInput(int codepoint) {
         // Not needed for level select as it has no text input fields
     }
-}
\ No newline at end of file
+
+    /**
+     * Only the clouds move on their own; everything else changes on input.
+     *
+     * @return The cloud drift interval
+     */
+    @Override
+    public double getRedrawInterval() {
+        return CloudBackground.DRIFT_INTERVAL;
+    }
+}
@@ -5,13 +5,13 @@ import static org.lwjgl.glfw.GLFW.*;
 
 import org.lwjgl.opengl.GL;
 import org.bson.Document;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoCollection;
 
 import thegame.App;
 import thegame.Screen;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
+import thegame.utils.MongoDBConnection;
+import thegame.utils.UserRepository;
 import thegame.onScreenObjects.Button;
 import thegame.onScreenObjects.TextBox;
 
@@ -36,9 +36,8 @@ public class LoginScreen implements Screen {
     private double currentMouseX = 0;
     private double currentMouseY = 0;
     
-    // MongoDB connection
-    private MongoClient mongoClient;
-    private MongoCollection<Document> usersCollection;
+    // Accounts, read through the shared database client
+    private UserRepository users;
     
     // Transition timer for safe screen changes
     private float transitionTimer = -1;
@@ -54,8 +53,7 @@ public class LoginScreen implements Screen {
         
         // Initialize MongoDB
         try {
-            this.mongoClient = MongoClients.create("mongodb://localhost:27017");
-            this.usersCollection = mongoClient.getDatabase("theGame").getCollection("data");
+            this.users = new UserRepository(new MongoDBConnection());
         } catch (Exception e) {
             statusMessage = "DB Connection Failed!";
         }
@@ -67,8 +65,7 @@ public class LoginScreen implements Screen {
      * Initializes the user interface elements.
      */
     private void initUI() {
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         int inputWidth = 300;
         int inputHeight = 40;
@@ -93,14 +90,25 @@ public class LoginScreen implements Screen {
     }
     
     @Override
-    public void render() {
-        // Set up 2D projection
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        glOrtho(0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0, -1, 1);
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
+    public void update(double dt) {
+        usernameBox.update(dt);
+        passwordBox.update(dt);
         
+        if (statusMessageTimer > 0) {
+            statusMessageTimer -= (float) dt;
+        }
+        
+        // Check if we need to transition to level select screen
+        if (transitionTimer > 0) {
+            transitionTimer -= (float) dt;
+            if (transitionTimer <= 0) {
+                app.setCurrentScreen(new LevelSelect(app));
+            }
+        }
+    }
+    
+    @Override
+    public void render(float alpha) {
         // Clear screen with a purple background
         glClearColor(0.2f, 0.1f, 0.3f, 1.0f);
         glClear(GL_COLOR_BUFFER_BIT);
@@ -132,16 +140,6 @@ public class LoginScreen implements Screen {
                 0.2f,
                 1.0f
             );
-            statusMessageTimer -= 0.016; // Assuming 60fps
-        }
-        
-        // Check if we need to transition to level select screen
-        if (transitionTimer > 0) {
-            transitionTimer -= 0.016f; // Assuming ~60fps
-            if (transitionTimer <= 0) {
-                app.setCurrentScreen(new LevelSelect(app));
-                return;
-            }
         }
     }
     
@@ -182,8 +180,7 @@ public class LoginScreen implements Screen {
     private void validateLogin(String username, String password) {
         try {
             // Query the database for the user
-            Document query = new Document("username", username).append("password", password);
-            Document user = usersCollection.find(query).first();
+            Document user = users.findByCredentials(username, password);
             
             if (user != null) {
                 // Login successful
@@ -254,13 +251,5 @@ public class LoginScreen implements Screen {
             passwordBox.handleCharInput(codepoint);
         }
     }
-    
-    /**
-     * Cleans up resources when screen is closed.
-     */
-    public void close() {
-        if (mongoClient != null) {
-            mongoClient.close();
-        }
-    }
+
 }
\ No newline at end of file
@@ -4,36 +4,75 @@ import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.glfw.GLFW.*;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.bson.Document;
-import com.mongodb.client.FindIterable;
-import com.mongodb.client.MongoCollection;
 
 import thegame.App;
 import thegame.Screen;
 import thegame.onScreenObjects.Button;
+import thegame.render.Renderer2D;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 import thegame.utils.LevelConfig;
+import thegame.utils.LevelRepository;
+import thegame.utils.LevelSummary;
 import thegame.utils.MongoDBConnection;
 import thegame.utils.CloudBackground;
 
 /**
  * Screen for browsing, selecting, and managing online user-created levels.
  * Provides functionality for listing, filtering, and sorting levels.
+ * Only the page currently shown is fetched from the database.
  */
 public class OnlineLevelSelectScreen implements Screen {
-    private List<LevelConfig> onlineLevels;
-    private Map<String, String> levelCreators; // Maps level ID to creator username
+    private volatile List<LevelSummary> onlineLevels; // Summaries of the levels on the current page
     private final App app;
-    private String statusMessage = "";
-    private boolean isLoading = false;
+    private volatile String statusMessage = "";
+    private volatile boolean isLoading = false;
     private int currentPage = 0;
     private static final int LEVELS_PER_PAGE = 12;
     
+    // Keyset pagination: entry N is the cursor page N starts after (null for the first page)
+    private final List<LevelRepository.Cursor> pageCursors = new ArrayList<>();
+    private volatile LevelRepository.Cursor nextPageCursor;
+    private volatile boolean hasNextPage = false;
+    private long totalLevels = 0;
+    private final AtomicInteger loadGeneration = new AtomicInteger(); // Ignores results of loads that were superseded
+    
+    // A page loaded in the background, shown on the render thread by update()
+    private final AtomicReference<LoadedPage> pendingPage = new AtomicReference<>();
+    // Set by background work that changed the listed levels, reloaded by update()
+    private volatile boolean reloadRequested;
+    
+    // The following page, fetched in the background so Next shows it at once, keyed by its query
+    private volatile Map.Entry<String, LevelRepository.Page> prefetchedPage;
+    // Part of the page keys; bumped when levels change so pages prefetched before no longer match
+    private final AtomicInteger prefetchEpoch = new AtomicInteger();
+    
+    // A level fetched in the background, opened on the render thread
+    private volatile LevelConfig levelToOpen;
+    private volatile boolean openForEditing;
+    
+    /**
+     * A page loaded by a background thread, with the load it belongs to.
+     */
+    private static final class LoadedPage {
+        final int generation;
+        final LevelRepository.Page page;
+        final long total;
+        
+        LoadedPage(int generation, LevelRepository.Page page, long total) {
+            this.generation = generation;
+            this.page = page;
+            this.total = total;
+        }
+    }
+    
     // Layout constants
     private static final int GRID_COLS = 4;
     private static final float BUTTON_WIDTH = 180.0f;
@@ -49,6 +88,7 @@ public class OnlineLevelSelectScreen implements Screen {
     private Button nextPageButton;
     private Button prevPageButton;
     private Button toggleViewButton;
+    private Button verifiedFilterButton;
     private Button searchButton;
     
     // Mouse position
@@ -59,7 +99,7 @@ public class OnlineLevelSelectScreen implements Screen {
     private boolean levelsLoaded = false;
     private boolean needsButtonCreation = false;
     private boolean showingUserLevelsOnly = false;
-    private List<LevelConfig> filteredLevels = new ArrayList<>();
+    private boolean showingVerifiedOnly = false;
     private Map<Integer, Button> editButtons = new HashMap<>(); // Edit buttons for user's own levels
     private Map<Integer, Button> deleteButtons = new HashMap<>(); // New: delete buttons for user's own levels
     private boolean showingDeleteConfirmation = false;
@@ -69,19 +109,25 @@ public class OnlineLevelSelectScreen implements Screen {
     
     // Sort options
     private enum SortType {
-        BY_ID("Sort: Default"),
-        BY_PLAYS("Sort: Most Played"),
-        BY_LIKES("Sort: Most Liked");
+        BY_ID("Sort: Default", LevelRepository.SortOrder.BY_ID),
+        BY_PLAYS("Sort: Most Played", LevelRepository.SortOrder.BY_PLAYS),
+        BY_LIKES("Sort: Most Liked", LevelRepository.SortOrder.BY_LIKES);
         
         private final String label;
+        private final LevelRepository.SortOrder order;
         
-        SortType(String label) {
+        SortType(String label, LevelRepository.SortOrder order) {
             this.label = label;
+            this.order = order;
         }
         
         public String getLabel() {
             return label;
         }
+        
+        public LevelRepository.SortOrder getOrder() {
+            return order;
+        }
     }
     
     private SortType currentSortType = SortType.BY_ID;
@@ -103,6 +149,7 @@ public class OnlineLevelSelectScreen implements Screen {
 
     // Add cloud background
     private CloudBackground cloudBackground;
+    private double animationTime; // Seconds of animation, advanced by update
 
     /**
      * Creates a new OnlineLevelSelectScreen with default settings.
@@ -133,7 +180,6 @@ public class OnlineLevelSelectScreen implements Screen {
     public OnlineLevelSelectScreen(App app, boolean editorMode, boolean verificationSuccess) {
         this.app = app;
         this.onlineLevels = new ArrayList<>();
-        this.levelCreators = new HashMap<>();
         this.editorMode = editorMode;
         this.verificationSuccess = verificationSuccess;
         
@@ -161,13 +207,13 @@ public class OnlineLevelSelectScreen implements Screen {
         }
         
         // Initialize UI
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Initialize UI with pink theme
         initUI();
         
-        // Load levels from database
+        // Load the first page from the database
+        resetPaging();
         loadOnlineLevels();
     }
 
@@ -203,6 +249,10 @@ public class OnlineLevelSelectScreen implements Screen {
         toggleViewButton = new Button(App.WINDOW_WIDTH / 2 - 90, 15, 180, 30, 
                                     0.4f, 0.6f, 0.4f, 
                                     showingUserLevelsOnly ? "Show All Levels" : "Show My Levels");
+        
+        // Add verified-only filter button next to the sort button
+        verifiedFilterButton = new Button(210, 20, 150, 30,
+                                          0.9f, 0.5f, 0.8f, "Verified Only"); // Secondary pink
                                     
         // Initialize confirmation buttons - make them taller to accommodate multiline text
         confirmDeleteButton = new Button(App.WINDOW_WIDTH/2 - 100, App.WINDOW_HEIGHT/2, 90, 50, 
@@ -216,303 +266,183 @@ public class OnlineLevelSelectScreen implements Screen {
     }
 
     /**
-     * Loads online levels from the database.
+     * Starts paging again from the first page, e.g. after the sort or view changes.
+     */
+    private void resetPaging() {
+        currentPage = 0;
+        pageCursors.clear();
+        pageCursors.add(null);
+        prefetchedPage = null;
+    }
+
+    /**
+     * Loads the current page of online level summaries from the database,
+     * or takes it from the prefetched page when that matches.
      */
     private void loadOnlineLevels() {
+        // Capture the query on the UI thread
+        SortType sortType = currentSortType;
+        String creator = showingUserLevelsOnly && app.isLoggedIn() ? app.getUsername() : null;
+        boolean verifiedOnly = showingVerifiedOnly;
+        int page = currentPage;
+        LevelRepository.Cursor after = page < pageCursors.size() ? pageCursors.get(page) : null;
+        int epoch = prefetchEpoch.get();
+        String key = pageKey(sortType, creator, verifiedOnly, page, epoch);
+        int generation = loadGeneration.incrementAndGet();
+        
+        Map.Entry<String, LevelRepository.Page> prefetched = prefetchedPage;
+        if (prefetched != null && key.equals(prefetched.getKey())) {
+            prefetchedPage = null;
+            isLoading = false; // A superseded load still running leaves the flag to this one
+            showPage(new LoadedPage(generation, prefetched.getValue(), totalLevels));
+            prefetchNextPage(sortType, creator, verifiedOnly, page, epoch, prefetched.getValue());
+            return;
+        }
+        
         isLoading = true;
         statusMessage = "Loading levels...";
         
         new Thread(() -> {
             try (MongoDBConnection mongodb = new MongoDBConnection()) {
-                onlineLevels.clear();
-                levelCreators.clear();
-                
-                // Always load from user collection since that's the only source
-                loadUserLevels(mongodb);
+                LevelRepository repository = new LevelRepository(mongodb);
+                repository.prepare();
                 
-                // Sort levels by ID
-                Collections.sort(onlineLevels, (a, b) -> Integer.compare(a.getLevelNumber(), b.getLevelNumber()));
-                
-                // Sort levels based on current sort method
-                sortLevels();
-                
-                // Don't create buttons here - just set the flag that data is ready
-                levelsLoaded = true;
-                needsButtonCreation = true;
-                
-                statusMessage = onlineLevels.isEmpty() ? 
-                    "No levels found" : 
-                    "Found " + onlineLevels.size() + " levels";
-                    
+                // Sorting and filtering run in the database; only tile fields come back
+                LevelRepository.Page result = repository.findPage(sortType.getOrder(), creator, verifiedOnly,
+                                                                  after, LEVELS_PER_PAGE);
+                long total = repository.count(creator, verifiedOnly);
+                // Buttons are only built on the render thread, so hand the page over
+                pendingPage.set(new LoadedPage(generation, result, total));
+                prefetchNextPage(sortType, creator, verifiedOnly, page, epoch, result);
             } catch (Exception e) {
-                statusMessage = "Error: " + e.getMessage();
+                if (generation == loadGeneration.get()) {
+                    statusMessage = "Error: " + e.getMessage();
+                }
                 e.printStackTrace();
             } finally {
-                isLoading = false;
+                // A newer load owns the spinner and status once it has started
+                if (generation == loadGeneration.get()) {
+                    isLoading = false;
+                }
+                app.requestRedraw();
             }
         }).start();
     }
     
     /**
-     * Loads user-created levels from all users in the database.
-     * 
-     * @param mongodb Connection to the MongoDB instance
-     */
-    private void loadUserLevels(MongoDBConnection mongodb) {
-        MongoCollection<Document> usersCollection = mongodb.getDatabase().getCollection("data");
-        FindIterable<Document> userDocs = usersCollection.find();
-
-        for (Document userDoc : userDocs) {
-            try {
-                String username = userDoc.getString("username");
-                if (username == null) {
-                    continue;
-                }
-                
-                Object levelsObj = userDoc.get("Levels");
-                if (levelsObj == null) {
-                    continue;
-                }
-                
-                Document levelsDoc;
-                if (levelsObj instanceof Document) {
-                    levelsDoc = (Document) levelsObj;
-                } else {
-                    continue;
-                }
-                
-                // Extract each level from the user's Levels object
-                for (String levelKey : levelsDoc.keySet()) {
-                    try {
-                        Object levelObj = levelsDoc.get(levelKey);
-                        Document levelDoc;
-                        
-                        if (levelObj instanceof Document) {
-                            levelDoc = (Document) levelObj;
-                        } else {
-                            continue;
-                        }
-                        
-                        // Get ID from document - handle both string and numeric formats
-                        String levelId = null;
-                        if (levelDoc.containsKey("id")) {
-                            if (levelDoc.get("id") instanceof Integer) {
-                                levelId = String.valueOf(levelDoc.getInteger("id"));
-                            } else {
-                                levelId = levelDoc.getString("id");
-                            }
-                        }
-                        
-                        // If no ID in document, use the key from Levels object
-                        if (levelId == null) {
-                            levelId = levelKey.replaceAll("level", "");
-                        }
-                        
-                        // Convert MongoDB Document to LevelConfig
-                        LevelConfig level = documentToLevelConfig(levelDoc);
-                        
-                        // Store the creator's username
-                        levelCreators.put(levelId, username);
-                        
-                        // Add to our list
-                        onlineLevels.add(level);
-                    } catch (Exception e) {
-                        // Skip this level
-                    }
-                }
-            } catch (Exception e) {
-                // Skip this user
-            }
-        }
-    }
-
-    /**
-     * Converts a MongoDB document to a LevelConfig object.
+     * Shows a loaded page unless a newer load has started since. Called on the render thread.
      * 
-     * @param doc The document to convert
-     * @return A new LevelConfig object
+     * @param loaded The loaded page
      */
-    @SuppressWarnings("unchecked")
-    private LevelConfig documentToLevelConfig(Document doc) {
-        LevelConfig.Builder builder = new LevelConfig.Builder();
-        
-        // Set ID and name
-        int id = 0;
-        if (doc.containsKey("id")) {
-            if (doc.get("id") instanceof Integer) {
-                id = doc.getInteger("id");
-            } else if (doc.get("id") instanceof String) {
-                try {
-                    id = Integer.parseInt(doc.getString("id"));
-                } catch (NumberFormatException e) {
-                    // Use hash code of the string ID as a fallback numeric ID
-                    id = Math.abs(doc.getString("id").hashCode());
-                }
-            }
-        }
-        
-        if (id <= 0) {
-            // Generate a unique ID to ensure display
-            id = (int) (System.currentTimeMillis() % 100000);
-        }
-        
-        // Ensure we have name
-        String name = doc.getString("name");
-        if (name == null || name.isEmpty()) {
-            name = "Unnamed Level";
+    private void showPage(LoadedPage loaded) {
+        if (loaded.generation != loadGeneration.get()) {
+            return;
         }
         
-        builder.withId(id);
-        builder.withName(name);
+        LevelRepository.Page page = loaded.page;
+        totalLevels = loaded.total;
+        onlineLevels = page.getLevels();
+        nextPageCursor = page.getNext();
+        hasNextPage = page.hasMore();
         
-        // Process statistics if present
-        Document statsDoc = doc.get("statistics", Document.class);
-        if (statsDoc != null) {
-            int timePlayed = statsDoc.getInteger("timeplayed", 0);
-            int likes = statsDoc.getInteger("likes", 0);
-            LevelConfig.Statistics stats = new LevelConfig.Statistics(timePlayed, likes);
-            builder.withStatistics(stats);
-        }
+        // Don't create buttons here - just set the flag that data is ready
+        levelsLoaded = true;
+        needsButtonCreation = true;
         
-        // Process creator info
-        String creator = doc.getString("creator");
-        if (creator != null) {
-            builder.withCreator(creator);
-        }
-        
-        // Set description
-        String description = doc.getString("description");
-        if (description != null) {
-            builder.withDescription(description);
+        statusMessage = onlineLevels.isEmpty() ? 
+            "No levels found" : 
+            "Found " + totalLevels + " levels";
+    }
+    
+    /**
+     * Fetches the summaries of the page after a loaded one in the background.
+     */
+    private void prefetchNextPage(SortType sortType, String creator, boolean verifiedOnly,
+                                  int page, int epoch, LevelRepository.Page loaded) {
+        if (!loaded.hasMore()) {
+            return;
         }
+        String key = pageKey(sortType, creator, verifiedOnly, page + 1, epoch);
         
-        // Process settings
-        Document settingsDoc = doc.get("settings", Document.class);
-        if (settingsDoc != null) {
-            int gridSize = settingsDoc.getInteger("gridSize", 4);
-            
-            // Create move limits map
-            Map<String, Integer> moveLimits = new HashMap<>();
-            Document moveLimitsDoc = settingsDoc.get("moveLimits", Document.class);
-            if (moveLimitsDoc != null) {
-                for (String moveType : moveLimitsDoc.keySet()) {
-                    Integer limit = moveLimitsDoc.getInteger(moveType);
-                    if (limit != null) {
-                        moveLimits.put(moveType, limit);
-                    }
-                }
+        new Thread(() -> {
+            try (MongoDBConnection mongodb = new MongoDBConnection()) {
+                LevelRepository.Page next = new LevelRepository(mongodb).findPage(
+                    sortType.getOrder(), creator, verifiedOnly, loaded.getNext(), LEVELS_PER_PAGE);
+                prefetchedPage = Map.entry(key, next);
+            } catch (Exception e) {
+                // Prefetching is best effort; the page is loaded normally when shown
             }
-            
-            String difficulty = settingsDoc.getString("difficulty");
-            boolean isNumberMode = settingsDoc.getBoolean("isNumberMode", false);
-            
-            // Build settings object
-            LevelConfig.Settings settings = new LevelConfig.Settings(
-                gridSize, moveLimits, difficulty != null ? difficulty : "custom", isNumberMode);
-            
-            builder.withSettings(settings);
-            
-            String creatorSetting = settingsDoc.getString("creator");
-            if (creatorSetting != null) {
-                builder.withCreator(creatorSetting);
+        }).start();
+    }
+    
+    /**
+     * Builds the key identifying a page of a particular query, fetched in a particular epoch.
+     */
+    private static String pageKey(SortType sortType, String creator, boolean verifiedOnly, int page, int epoch) {
+        return sortType + "|" + creator + "|" + verifiedOnly + "|" + page + "|" + epoch;
+    }
+    
+    /**
+     * Moves to another page and loads it.
+     * 
+     * @param page The page index to show
+     */
+    private void goToPage(int page) {
+        if (page > currentPage) {
+            // Remember where the new page starts so Previous can come back to it
+            if (pageCursors.size() <= page) {
+                pageCursors.add(nextPageCursor);
             }
         }
+        currentPage = page;
+        loadOnlineLevels();
+    }
 
-        // Process grid (handle both number and color formats)
-        Object gridObj = doc.get("grid");
-        LevelConfig.Cell[][] processedGrid = null; // Save processed grid for later
-        if (gridObj instanceof List) {
-            List<List<Document>> gridDocs = (List<List<Document>>) gridObj;
-            int gridSize = gridDocs.size();
-            LevelConfig.Cell[][] grid = new LevelConfig.Cell[gridSize][gridSize];
-            
-            for (int i = 0; i < gridSize; i++) {
-                List<Document> row = gridDocs.get(i);
-                for (int j = 0; j < row.size(); j++) {
-                    Document cellDoc = row.get(j);
-                    boolean editable = cellDoc.getBoolean("editable", true);
-                    
-                    // Handle number format (value property)
-                    if (cellDoc.containsKey("value")) {
-                        int value = cellDoc.getInteger("value");
-                        grid[i][j] = new LevelConfig.Cell(value, editable);
-                    } 
-                    // Handle color format (RGB properties)
-                    else if (cellDoc.containsKey("red")) {
-                        grid[i][j] = new LevelConfig.Cell(
-                            getFloatValue(cellDoc, "red"),
-                            getFloatValue(cellDoc, "green"),
-                            getFloatValue(cellDoc, "blue"),
-                            editable
-                        );
-                    }
-                    // Default empty cell
-                    else {
-                        grid[i][j] = new LevelConfig.Cell(0, 0, 0, editable);
-                    }
-                }
-            }
-            // Store the processed grid for later use with targetPattern
-            processedGrid = grid;
-            builder.withGrid(grid);
-        }
-        
-        // Process target pattern
-        Object targetObj = doc.get("targetPattern");
-        if (targetObj instanceof List) {
-            List<List<Document>> targetDocs = (List<List<Document>>) targetObj;
-            int gridSize = targetDocs.size();
-            LevelConfig.Cell[][] target = new LevelConfig.Cell[gridSize][gridSize];
-            
-            for (int i = 0; i < gridSize; i++) {
-                List<Document> row = targetDocs.get(i);
-                for (int j = 0; j < row.size(); j++) {
-                    Document cellDoc = row.get(j);
-                    boolean editable = cellDoc.getBoolean("editable", true);
-                    
-                    // Handle number format
-                    if (cellDoc.containsKey("value")) {
-                        int value = cellDoc.getInteger("value");
-                        target[i][j] = new LevelConfig.Cell(value, editable);
-                    } 
-                    // Handle color format
-                    else if (cellDoc.containsKey("red")) {
-                        target[i][j] = new LevelConfig.Cell(
-                            getFloatValue(cellDoc, "red"),
-                            getFloatValue(cellDoc, "green"),
-                            getFloatValue(cellDoc, "blue"),
-                            editable
-                        );
-                    }
-                    // Default empty cell
-                    else {
-                        target[i][j] = new LevelConfig.Cell(0, 0, 0, editable);
-                    }
-                }
-            }
-            builder.withTargetPattern(target);
-        } else if (processedGrid != null) {
-            // If target pattern is missing and we have a grid, use it as the target
-            builder.withTargetPattern(processedGrid);
+    /**
+     * Shows pages loaded in the background, reloads the page after background changes,
+     * and moves the clouds and advances the spinner and cursor animations.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        LoadedPage loaded = pendingPage.getAndSet(null);
+        if (loaded != null) {
+            showPage(loaded);
         }
-
-        // Check for isVerified field and handle it properly
-        boolean isVerified = false;
-        if (doc.containsKey("isVerified")) {
-            isVerified = doc.getBoolean("isVerified", false);
+        if (reloadRequested) {
+            reloadRequested = false;
+            prefetchedPage = null;
+            loadOnlineLevels();
         }
         
-        // Add isVerified status to the builder
-        builder.withVerified(isVerified);
-        
-        return builder.build();
+        cloudBackground.update(dt);
+        animationTime += dt;
     }
-
+    
+    /**
+     * Gives the cloud images back to the texture cache.
+     */
+    @Override
+    public void cleanup() {
+        cloudBackground.cleanup();
+    }
+    
     /**
      * Renders the level selection screen.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
+    public void render(float alpha) {
+        // Open a level fetched in the background (screens must be created on the main thread)
+        LevelConfig level = levelToOpen;
+        if (level != null) {
+            levelToOpen = null;
+            app.setCurrentScreen(openForEditing ? new LevelEditorScreen(app, level) : new GameScreen(app, level));
+            return;
+        }
+        
         // Check if we need to create buttons (only on main thread)
         if (levelsLoaded && needsButtonCreation) {
             createLevelButtons();
@@ -521,9 +451,8 @@ public class OnlineLevelSelectScreen implements Screen {
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
         
-        // Update and render clouds
-        cloudBackground.update();
-        cloudBackground.render();
+        // Render clouds
+        cloudBackground.render(alpha);
         
         // Draw title
         String title = showingUserLevelsOnly ? "My Levels" : "Online User Levels";
@@ -537,13 +466,7 @@ public class OnlineLevelSelectScreen implements Screen {
         if (showSortOptions) {
             // Draw dropdown background
             float dropdownHeight = sortOptionButtons.size() * 35;
-            glColor4f(0.9f, 0.5f, 0.8f, 0.9f); // Semi-transparent pink
-            glBegin(GL_QUADS);
-            glVertex2f(20, 55);
-            glVertex2f(200, 55);
-            glVertex2f(200, 55 + dropdownHeight);
-            glVertex2f(20, 55 + dropdownHeight);
-            glEnd();
+            Renderer2D.fillRect(20, 55, 180, dropdownHeight, 0.9f, 0.5f, 0.8f, 0.9f); // Semi-transparent pink
             
             // Draw options
             for (Button optionButton : sortOptionButtons) {
@@ -551,6 +474,10 @@ public class OnlineLevelSelectScreen implements Screen {
             }
         }
         
+        // Draw verified filter button
+        verifiedFilterButton.setCaption(showingVerifiedOnly ? "Show Unverified" : "Verified Only");
+        verifiedFilterButton.render((float)currentMouseX, (float)currentMouseY);
+        
         // Draw toggle view button
         if (app.isLoggedIn()) {
             toggleViewButton.render((float)currentMouseX, (float)currentMouseY);
@@ -566,24 +493,13 @@ public class OnlineLevelSelectScreen implements Screen {
         float searchBoxHeight = 30;
         
         // Draw search box background
-        glColor3f(0.7f, 0.3f, 0.6f); // Dark pink
-        glBegin(GL_QUADS);
-        glVertex2f(searchBoxX, searchBoxY);
-        glVertex2f(searchBoxX + searchBoxWidth, searchBoxY);
-        glVertex2f(searchBoxX + searchBoxWidth, searchBoxY + searchBoxHeight);
-        glVertex2f(searchBoxX, searchBoxY + searchBoxHeight);
-        glEnd();
+        Renderer2D.fillRect(searchBoxX, searchBoxY, searchBoxWidth, searchBoxHeight, 0.7f, 0.3f, 0.6f); // Dark pink
         
         // Draw search box border (thicker when active)
         float borderWidth = isTypingSearch ? 2.0f : 1.0f;
-        glLineWidth(borderWidth);
-        glColor3f(isTypingSearch ? 1.0f : 0.8f, isTypingSearch ? 0.4f : 0.2f, isTypingSearch ? 0.7f : 0.5f); // Pink border
-        glBegin(GL_LINE_LOOP);
-        glVertex2f(searchBoxX, searchBoxY);
-        glVertex2f(searchBoxX + searchBoxWidth, searchBoxY);
-        glVertex2f(searchBoxX + searchBoxWidth, searchBoxY + searchBoxHeight);
-        glVertex2f(searchBoxX, searchBoxY + searchBoxHeight);
-        glEnd();
+        Renderer2D.strokeRect(searchBoxX, searchBoxY, searchBoxWidth, searchBoxHeight, borderWidth,
+                              isTypingSearch ? 1.0f : 0.8f, isTypingSearch ? 0.4f : 0.2f, isTypingSearch ? 0.7f : 0.5f,
+                              1.0f); // Pink border
         
         // Draw search text
         String displayText = searchText.isEmpty() ? "Enter Level ID..." : searchText;
@@ -592,24 +508,20 @@ public class OnlineLevelSelectScreen implements Screen {
                                textColor, textColor, textColor, 1.0f);
         
         // Draw blinking cursor when typing
-        if (isTypingSearch && System.currentTimeMillis() % 1000 < 500) {
+        if (isTypingSearch && animationTime % 1.0 < 0.5) {
             float cursorX = searchBoxX + 10 + fontRenderer.getTextWidth(searchText, 1.0f);
             if (cursorX > searchBoxX + searchBoxWidth - 10) {
                 cursorX = searchBoxX + searchBoxWidth - 10;
             }
-            glLineWidth(1.0f);
-            glColor3f(1.0f, 1.0f, 1.0f);
-            glBegin(GL_LINES);
-            glVertex2f(cursorX, searchBoxY + 5);
-            glVertex2f(cursorX, searchBoxY + searchBoxHeight - 5);
-            glEnd();
+            Renderer2D.line(cursorX, searchBoxY + 5, cursorX, searchBoxY + searchBoxHeight - 5, 1.0f,
+                            1.0f, 1.0f, 1.0f, 1.0f);
         }
         
         // Draw status message and page info
         fontRenderer.renderCenteredText(statusMessage, App.WINDOW_WIDTH / 2, 60, 1.0f, 0.9f, 0.7f, 0.7f, 1.0f);
         
         if (!onlineLevels.isEmpty()) {
-            int totalPages = (onlineLevels.size() - 1) / LEVELS_PER_PAGE + 1;
+            int totalPages = Math.max(currentPage + 1, (int) ((totalLevels - 1) / LEVELS_PER_PAGE + 1));
             String pageInfo = String.format("Page %d of %d", currentPage + 1, totalPages);
             fontRenderer.renderCenteredText(pageInfo, App.WINDOW_WIDTH / 2, 85, 1.0f);
         }
@@ -644,29 +556,20 @@ public class OnlineLevelSelectScreen implements Screen {
         backButton.render((float)currentMouseX, (float)currentMouseY);
         createLevelButton.render((float)currentMouseX, (float)currentMouseY);
         
-        // Calculate total pages based on filtered levels
-        int totalPages = filteredLevels.isEmpty() ? 1 : (filteredLevels.size() - 1) / LEVELS_PER_PAGE + 1;
-        
         // Only show Previous button if we're not on the first page
         if (currentPage > 0) {
             prevPageButton.render((float)currentMouseX, (float)currentMouseY);
         }
         
         // Only show Next button if we're not on the last page
-        if (currentPage < totalPages - 1) {
+        if (hasNextPage) {
             nextPageButton.render((float)currentMouseX, (float)currentMouseY);
         }
         
         // Draw delete confirmation dialog if active
         if (showingDeleteConfirmation) {
             // Draw overlay
-            glColor4f(0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
-            glBegin(GL_QUADS);
-            glVertex2f(0, 0);
-            glVertex2f(App.WINDOW_WIDTH, 0);
-            glVertex2f(App.WINDOW_WIDTH, App.WINDOW_HEIGHT);
-            glVertex2f(0, App.WINDOW_HEIGHT);
-            glEnd();
+            Renderer2D.fillRect(0, 0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0.9f, 0.5f, 0.8f, 0.7f); // Semi-transparent pink
             
             // Draw confirmation box
             float boxWidth = 300;
@@ -674,13 +577,7 @@ public class OnlineLevelSelectScreen implements Screen {
             float boxX = App.WINDOW_WIDTH/2 - boxWidth/2;
             float boxY = App.WINDOW_HEIGHT/2 - boxHeight/2;
             
-            glColor3f(0.8f, 0.4f, 0.7f); // Hot pink
-            glBegin(GL_QUADS);
-            glVertex2f(boxX, boxY);
-            glVertex2f(boxX + boxWidth, boxY);
-            glVertex2f(boxX + boxWidth, boxY + boxHeight);
-            glVertex2f(boxX, boxY + boxHeight);
-            glEnd();
+            Renderer2D.fillRect(boxX, boxY, boxWidth, boxHeight, 0.8f, 0.4f, 0.7f); // Hot pink
             
             // Draw text
             fontRenderer.renderCenteredText("Confirm Deletion", App.WINDOW_WIDTH/3 + 45, boxY /1.5f + 30, 1.5f);
@@ -700,14 +597,11 @@ public class OnlineLevelSelectScreen implements Screen {
         float centerX = App.WINDOW_WIDTH / 2;
         float centerY = App.WINDOW_HEIGHT / 2;
         float size = 30;
-        float time = (float)System.currentTimeMillis() / 200.0f; // Animation speed
-        
-        glPushMatrix();
-        glTranslatef(centerX, centerY, 0);
-        glRotatef(time % 360, 0, 0, 1);
+        float time = (float)(animationTime * 5.0); // Animation speed
+        float rotation = (float)Math.toRadians(time % 360);
         
         for (int i = 0; i < 8; i++) {
-            float angle = (float)(i * Math.PI / 4.0);
+            float angle = (float)(i * Math.PI / 4.0) + rotation;
             float alpha = 0.2f + 0.8f * ((i + (int)(time / 45)) % 8) / 8.0f;
             
             // Pink spinner
@@ -715,20 +609,15 @@ public class OnlineLevelSelectScreen implements Screen {
             float g = 0.2f + (i % 3) * 0.2f; // Varying pink shades
             float b = 0.7f;
             
-            float x1 = (float)Math.cos(angle) * size;
-            float y1 = (float)Math.sin(angle) * size;
-            float x2 = (float)Math.cos(angle) * (size * 0.5f);
-            float y2 = (float)Math.sin(angle) * (size * 0.5f);
+            float x1 = centerX + (float)Math.cos(angle) * size;
+            float y1 = centerY + (float)Math.sin(angle) * size;
+            float x2 = centerX + (float)Math.cos(angle) * (size * 0.5f);
+            float y2 = centerY + (float)Math.sin(angle) * (size * 0.5f);
+            float x3 = centerX + (float)Math.cos(angle + 0.3) * size;
+            float y3 = centerY + (float)Math.sin(angle + 0.3) * size;
             
-            glColor4f(r, g, b, alpha);
-            glBegin(GL_TRIANGLES);
-            glVertex2f(x1, y1);
-            glVertex2f(x2, y2);
-            glVertex2f((float)Math.cos(angle + 0.3) * size, (float)Math.sin(angle + 0.3) * size);
-            glEnd();
+            Renderer2D.fillTriangle(x1, y1, x2, y2, x3, y3, r, g, b, alpha);
         }
-        
-        glPopMatrix();
     }
 
     /**
@@ -775,8 +664,8 @@ public class OnlineLevelSelectScreen implements Screen {
                 if (sortOptionButtons.get(i).handleMouseClick(mx, my)) {
                     currentSortType = SortType.values()[i];
                     showSortOptions = false;
-                    sortLevels();
-                    needsButtonCreation = true;
+                    resetPaging();
+                    loadOnlineLevels();
                     return;
                 }
             }
@@ -794,27 +683,31 @@ public class OnlineLevelSelectScreen implements Screen {
             return;
         }
         
+        // Handle verified filter button
+        if (verifiedFilterButton.handleMouseClick(mx, my)) {
+            showingVerifiedOnly = !showingVerifiedOnly;
+            resetPaging();
+            loadOnlineLevels();
+            return;
+        }
+        
         // Handle toggle view button
         if (app.isLoggedIn() && toggleViewButton.handleMouseClick(mx, my)) {
             showingUserLevelsOnly = !showingUserLevelsOnly;
             toggleViewButton.setCaption(showingUserLevelsOnly ? "Show All Levels" : "Show My Levels");
-            needsButtonCreation = true;
-            currentPage = 0; // Reset to first page when switching views
+            resetPaging(); // Reset to first page when switching views
+            loadOnlineLevels();
             return;
         }
         
         // Check pagination buttons
-        int totalPages = filteredLevels.isEmpty() ? 1 : (filteredLevels.size() - 1) / LEVELS_PER_PAGE + 1;
-        
-        if (currentPage > 0 && prevPageButton.handleMouseClick(mx, my)) {
-            currentPage--;
-            needsButtonCreation = true;  // Set flag instead of directly creating buttons
+        if (!isLoading && currentPage > 0 && prevPageButton.handleMouseClick(mx, my)) {
+            goToPage(currentPage - 1);
             return;
         }
         
-        if (currentPage < totalPages - 1 && nextPageButton.handleMouseClick(mx, my)) {
-            currentPage++;
-            needsButtonCreation = true;  // Set flag instead of directly creating buttons
+        if (!isLoading && hasNextPage && nextPageButton.handleMouseClick(mx, my)) {
+            goToPage(currentPage + 1);
             return;
         }
         
@@ -841,7 +734,7 @@ public class OnlineLevelSelectScreen implements Screen {
                 for (Map.Entry<Integer, Button> entry : deleteButtons.entrySet()) {
                     if (entry.getValue().handleMouseClick(mx, my)) {
                         // Show confirmation dialog instead of deleting immediately
-                        levelToDelete = currentPage * LEVELS_PER_PAGE + entry.getKey();
+                        levelToDelete = entry.getKey();
                         showingDeleteConfirmation = true;
                         return;
                     }
@@ -852,11 +745,9 @@ public class OnlineLevelSelectScreen implements Screen {
             if (showingUserLevelsOnly && app.isLoggedIn()) {
                 for (Map.Entry<Integer, Button> entry : editButtons.entrySet()) {
                     if (entry.getValue().handleMouseClick(mx, my)) {
-                        int levelIndex = currentPage * LEVELS_PER_PAGE + entry.getKey();
-                        if (levelIndex < filteredLevels.size()) {
-                            // Go to Level Editor with the selected level for editing
-                            LevelConfig levelToEdit = filteredLevels.get(levelIndex);
-                            app.setCurrentScreen(new LevelEditorScreen(app, levelToEdit));
+                        // Go to Level Editor with the selected level for editing
+                        if (entry.getKey() < onlineLevels.size()) {
+                            openLevel(onlineLevels.get(entry.getKey()).getId(), true);
                         }
                         return;
                     }
@@ -866,9 +757,8 @@ public class OnlineLevelSelectScreen implements Screen {
             // Then check regular level buttons
             for (int i = 0; i < levelButtons.size(); i++) {
                 if (levelButtons.get(i).handleMouseClick(mx, my)) {
-                    int levelIndex = currentPage * LEVELS_PER_PAGE + i;
-                    if (levelIndex < filteredLevels.size()) {
-                        app.setCurrentScreen(new GameScreen(app, filteredLevels.get(levelIndex)));
+                    if (i < onlineLevels.size()) {
+                        openLevel(onlineLevels.get(i).getId(), false);
                     }
                     return;
                 }
@@ -876,6 +766,39 @@ public class OnlineLevelSelectScreen implements Screen {
         }
     }
     
+    /**
+     * Fetches and decodes a complete level in the background; listings only hold
+     * summaries. The level is opened by the next {@link #render(float)} call.
+     * 
+     * @param levelId The id of the level to open
+     * @param forEditing Whether to open the level in the editor instead of playing it
+     */
+    private void openLevel(int levelId, boolean forEditing) {
+        if (isLoading) {
+            return;
+        }
+        isLoading = true;
+        statusMessage = "Loading level...";
+        
+        new Thread(() -> {
+            try (MongoDBConnection mongodb = new MongoDBConnection()) {
+                // Look the level up by its indexed id
+                LevelConfig level = new LevelRepository(mongodb).findLevel(levelId);
+                if (level != null) {
+                    openForEditing = forEditing;
+                    levelToOpen = level;
+                } else {
+                    statusMessage = "Level ID " + levelId + " not found";
+                }
+            } catch (Exception e) {
+                statusMessage = "Error: " + e.getMessage();
+            } finally {
+                isLoading = false;
+                app.requestRedraw();
+            }
+        }).start();
+    }
+
     /**
      * Searches for a level by its ID.
      */
@@ -885,22 +808,8 @@ public class OnlineLevelSelectScreen implements Screen {
         }
         
         try {
-            int levelId = Integer.parseInt(searchText);
-            boolean found = false;
-            
-            for (int i = 0; i < onlineLevels.size(); i++) {
-                LevelConfig level = onlineLevels.get(i);
-                if (level.getLevelNumber() == levelId) {
-                    // Found the level, start playing it
-                    app.setCurrentScreen(new GameScreen(app, level));
-                    found = true;
-                    break;
-                }
-            }
-            
-            if (!found) {
-                statusMessage = "Level ID " + levelId + " not found";
-            }
+            // Found levels are played
+            openLevel(Integer.parseInt(searchText), false);
         } catch (NumberFormatException e) {
             statusMessage = "Invalid level ID";
         }
@@ -916,36 +825,14 @@ public class OnlineLevelSelectScreen implements Screen {
         levelButtons.clear();
         editButtons.clear();
         deleteButtons.clear(); // Clear delete buttons
+        needsButtonCreation = false;
         
-        // Filter levels based on view mode
-        filteredLevels.clear();
-        
-        if (showingUserLevelsOnly && app.isLoggedIn()) {
-            // Only show levels created by the logged-in user
-            String currentUser = app.getUsername();
-            for (LevelConfig level : onlineLevels) {
-                String levelId = String.valueOf(level.getLevelNumber());
-                String creator = levelCreators.getOrDefault(levelId, "Unknown");
-                
-                if (creator.equals(currentUser)) {
-                    filteredLevels.add(level);
-                }
-            }
-        } else {
-            // Show all levels
-            filteredLevels.addAll(onlineLevels);
-        }
-        
-        if (filteredLevels.isEmpty()) {
-            return;
-        }
-        
-        int startIndex = currentPage * LEVELS_PER_PAGE;
-        int endIndex = Math.min(startIndex + LEVELS_PER_PAGE, filteredLevels.size());
+        // The page was already sorted and filtered in the database query
+        List<LevelSummary> pageLevels = onlineLevels;
         
-        for (int i = startIndex; i < endIndex; i++) {
-            LevelConfig level = filteredLevels.get(i);
-            int relativeIndex = i - startIndex;
+        for (int i = 0; i < pageLevels.size(); i++) {
+            LevelSummary level = pageLevels.get(i);
+            int relativeIndex = i;
             
             int row = relativeIndex / GRID_COLS;
             int col = relativeIndex % GRID_COLS;
@@ -953,16 +840,16 @@ public class OnlineLevelSelectScreen implements Screen {
             float x = 50 + col * (BUTTON_WIDTH + BUTTON_SPACING_X);
             float y = 120 + row * (BUTTON_HEIGHT + BUTTON_SPACING_Y);
             
-            String creator = levelCreators.getOrDefault(String.valueOf(level.getLevelNumber()), "Unknown");
+            String creator = level.getCreator();
             
             // Add verification status to button caption
             String verificationStatus = level.isVerified() ? "" : "\n[Unverified]";
             String buttonText = level.getName() + verificationStatus + "\nBy: " + creator;
             
             // Color based on level properties and verification
-            float r = level.getSettings().isNumberMode() ? 0.9f : 1.0f;
-            float g = level.getSettings().isNumberMode() ? 0.5f : 0.4f;
-            float b = level.getSettings().isNumberMode() ? 0.8f : 0.7f;
+            float r = level.isNumberMode() ? 0.9f : 1.0f;
+            float g = level.isNumberMode() ? 0.5f : 0.4f;
+            float b = level.isNumberMode() ? 0.8f : 0.7f;
             
             // Dim unverified levels but keep pink theme
             if (!level.isVerified()) {
@@ -1006,142 +893,57 @@ public class OnlineLevelSelectScreen implements Screen {
                 deleteButtons.put(relativeIndex, deleteButton);
             }
         }
-        
-        needsButtonCreation = false;
     }
 
     /**
-     * Sorts the list of levels based on the current sort type.
-     */
-    private void sortLevels() {
-        switch (currentSortType) {
-            case BY_PLAYS:
-                Collections.sort(onlineLevels, (a, b) -> {
-                    int playsA = a.getStatistics() != null ? a.getStatistics().getTimePlayed() : 0;
-                    int playsB = b.getStatistics() != null ? b.getStatistics().getTimePlayed() : 0;
-                    return Integer.compare(playsB, playsA); // Descending
-                });
-                break;
-            case BY_LIKES:
-                Collections.sort(onlineLevels, (a, b) -> {
-                    int likesA = a.getStatistics() != null ? a.getStatistics().getLikes() : 0;
-                    int likesB = b.getStatistics() != null ? b.getStatistics().getLikes() : 0;
-                    return Integer.compare(likesB, likesA); // Descending
-                });
-                break;
-            case BY_ID:
-            default:
-                Collections.sort(onlineLevels, (a, b) -> Integer.compare(a.getLevelNumber(), b.getLevelNumber()));
-                break;
-        }
-    }
-    
-    /**
-     * Safely extracts a float value from a document, handling different numeric types.
-     * 
-     * @param doc The document to extract from
-     * @param key The key to extract
-     * @return The float value, or 0.0f if not found or invalid
-     */
-    private float getFloatValue(Document doc, String key) {
-        Object value = doc.get(key);
-        if (value instanceof Integer) {
-            return ((Integer) value).floatValue();
-        } else if (value instanceof Double) {
-            return ((Double) value).floatValue();
-        } else if (value instanceof Long) {
-            return ((Long) value).floatValue();
-        } else {
-            return 0.0f; // Default value if type is not numeric or null
-        }
-    }
-    
-    /**
-     * Deletes a level from the database.
+     * Deletes a level from the database in the background.
      * 
-     * @param levelIndex The index of the level to delete in the filtered levels list
+     * @param levelIndex The index of the level to delete on the current page
      */
     private void deleteLevel(int levelIndex) {
-        if (levelIndex < 0 || levelIndex >= filteredLevels.size()) {
+        List<LevelSummary> pageLevels = onlineLevels;
+        if (levelIndex < 0 || levelIndex >= pageLevels.size()) {
             return;
         }
         
-        LevelConfig levelToDelete = filteredLevels.get(levelIndex);
-        String levelKey = "level" + levelToDelete.getLevelNumber();
-        String levelCreator = levelCreators.getOrDefault(String.valueOf(levelToDelete.getLevelNumber()), null);
+        LevelSummary levelToDelete = pageLevels.get(levelIndex);
+        int levelId = levelToDelete.getId();
+        String levelCreator = levelToDelete.getCreator();
         
-        try (MongoDBConnection mongodb = new MongoDBConnection()) {
-            if (app.isLoggedIn() && app.getUserData() != null) {
-                String username = app.getUsername();
-                boolean isOwner = levelCreator != null && levelCreator.equals(username);
-                
-                // Only allow if user is owner or admin
-                if (!isOwner && !isAdmin) {
-                    statusMessage = "Error: You don't have permission to delete this level";
-                    return;
-                }
-                
-                if (isAdmin && !isOwner) {
-                    // Admin deleting someone else's level
-                    
-                    // Find the level owner's document
-                    Document creatorFilter = new Document("username", levelCreator);
-                    Document creatorDoc = mongodb.getDatabase().getCollection("data").find(creatorFilter).first();
-                    
-                    if (creatorDoc != null && creatorDoc.containsKey("Levels")) {
-                        Document levelsDoc = creatorDoc.get("Levels", Document.class);
-                        if (levelsDoc != null && levelsDoc.containsKey(levelKey)) {
-                            // Remove the level
-                            levelsDoc.remove(levelKey);
-                            
-                            // Update database
-                            Document update = new Document("$set", new Document("Levels", levelsDoc));
-                            mongodb.getDatabase().getCollection("data").updateOne(creatorFilter, update);
-                            
-                            // Reload levels
-                            loadOnlineLevels();
-                            statusMessage = "Level deleted successfully (admin action)";
-                        } else {
-                            statusMessage = "Error: Level not found in user's data";
-                        }
-                    } else {
-                        statusMessage = "Error: Could not find level owner's data";
-                    }
+        if (!app.isLoggedIn() || app.getUserData() == null) {
+            statusMessage = "Error: You must be logged in to delete levels";
+            return;
+        }
+        String username = app.getUsername();
+        boolean isOwner = levelCreator != null && levelCreator.equals(username);
+        
+        // Only allow if user is owner or admin
+        if (!isOwner && !isAdmin) {
+            statusMessage = "Error: You don't have permission to delete this level";
+            return;
+        }
+        
+        statusMessage = "Deleting level...";
+        new Thread(() -> {
+            try (MongoDBConnection mongodb = new MongoDBConnection()) {
+                // Admins may delete any level; everyone else only their own
+                LevelRepository repository = new LevelRepository(mongodb);
+                if (repository.delete(levelId, isOwner ? username : null)) {
+                    // Drop prefetched pages that may still list the level, and reload on the render thread
+                    prefetchEpoch.incrementAndGet();
+                    statusMessage = isOwner ? "Level deleted successfully" : "Level deleted successfully (admin action)";
+                    reloadRequested = true;
                 } else {
-                    // Normal deletion of own level
-                    Document user = app.getUserData();
-                    
-                    // Get Levels subdocument
-                    Document levelsDoc = user.get("Levels", Document.class);
-                    if (levelsDoc == null || !levelsDoc.containsKey(levelKey)) {
-                        statusMessage = "Error: Level not found or you don't have permission to delete it";
-                        return;
-                    }
-                    
-                    // Remove the level from the Levels document
-                    levelsDoc.remove(levelKey);
-                    
-                    // Update database
-                    Document filter = new Document("username", username);
-                    Document update = new Document("$set", new Document("Levels", levelsDoc));
-                    
-                    mongodb.getDatabase().getCollection("data").updateOne(filter, update);
-                    
-                    // Update cached user data
-                    app.setLoggedInUser(mongodb.getDatabase().getCollection("data").find(filter).first());
-                    
-                    // Reload levels
-                    loadOnlineLevels();
-                    statusMessage = "Level deleted successfully";
+                    statusMessage = "Error: Level not found or you don't have permission to delete it";
                 }
-            } else {
-                statusMessage = "Error: You must be logged in to delete levels";
+            } catch (Exception e) {
+                statusMessage = "Error deleting level: " + e.getMessage();
+                System.err.println("Error deleting level: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                app.requestRedraw();
             }
-        } catch (Exception e) {
-            statusMessage = "Error deleting level: " + e.getMessage();
-            System.err.println("Error deleting level: " + e.getMessage());
-            e.printStackTrace();
-        }
+        }).start();
     }
     
     /**
@@ -1150,43 +952,14 @@ public class OnlineLevelSelectScreen implements Screen {
      * @param levelId The ID of the level to update
      */
     private void updateLevelVerificationStatus(int levelId) {
+        String username = app.getUsername();
         new Thread(() -> {
             try (MongoDBConnection mongodb = new MongoDBConnection()) {
-                // Find the user who owns this level
-                MongoCollection<Document> usersCollection = mongodb.getDatabase().getCollection("data");
-                String username = app.getUsername();
-                
-                // Create a query to find the user's document
-                Document query = new Document("username", username);
-                Document userDoc = usersCollection.find(query).first();
-                
-                if (userDoc != null) {
-                    if (userDoc.containsKey("Levels")) {
-                        Document levelsDoc = userDoc.get("Levels", Document.class);
-                        
-                        if (levelsDoc != null && levelsDoc.containsKey("level" + levelId)) {
-                            // Update the isVerified field to true
-                            Document update = new Document("$set", 
-                                new Document("Levels.level" + levelId + ".isVerified", true));
-                            
-                            usersCollection.updateOne(query, update);
-                            
-                            // Also update the app's user data to reflect the change
-                            if (app.getUserData() != null) {
-                                Document userData = app.getUserData();
-                                Document userLevels = userData.get("Levels", Document.class);
-                                if (userLevels != null && userLevels.containsKey("level" + levelId)) {
-                                    Document levelDoc2 = userLevels.get("level" + levelId, Document.class);
-                                    if (levelDoc2 != null) {
-                                        levelDoc2.put("isVerified", true);
-                                    }
-                                }
-                            }
-                            
-                            // Also reload online levels to reflect changes
-                            loadOnlineLevels();
-                        }
-                    }
+                // Only the owner's level is updated
+                if (new LevelRepository(mongodb).setVerified(levelId, username)) {
+                    // Reload on the render thread to reflect the change
+                    reloadRequested = true;
+                    app.requestRedraw();
                 }
             } catch (Exception e) {
                 System.err.println("Error updating level verification status: " + e.getMessage());
@@ -1255,4 +1028,17 @@ public class OnlineLevelSelectScreen implements Screen {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The loading spinner and the search caret animate every frame; otherwise only the
+     * clouds move.
+     *
+     * @return The redraw interval for the current state
+     */
+    @Override
+    public double getRedrawInterval() {
+        // Keep stepping while background results wait for update() to pick them up
+        boolean pending = pendingPage.get() != null || reloadRequested;
+        return isLoading || isTypingSearch || pending ? REDRAW_EVERY_FRAME : CloudBackground.DRIFT_INTERVAL;
+    }
+}
@@ -1,24 +1,14 @@
 package thegame.screens;
 
-import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
-import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
-import static org.lwjgl.opengl.GL11.GL_PROJECTION;
-import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
-import static org.lwjgl.opengl.GL11.glBlendFunc;
 import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glClearColor;
-import static org.lwjgl.opengl.GL11.glEnable;
-import static org.lwjgl.opengl.GL11.glLineWidth;
-import static org.lwjgl.opengl.GL11.glLoadIdentity;
-import static org.lwjgl.opengl.GL11.glMatrixMode;
-import static org.lwjgl.opengl.GL11.glOrtho;
 
 import thegame.App;
 import thegame.Screen;
 import thegame.onScreenObjects.Button;
 import thegame.onScreenObjects.Slider;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 import thegame.utils.SettingsManager;
 
@@ -62,8 +52,7 @@ public class SettingsScreen implements Screen {
         antiAliasing = SettingsManager.getAntiAliasing();
         
         // Initialize font renderer
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Create sliders with pink theme
         int sliderWidth = 250;
@@ -105,16 +94,11 @@ public class SettingsScreen implements Screen {
 
     /**
      * Renders the settings screen with all sliders, toggles, and buttons.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
-        // Set up 2D projection
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        glOrtho(0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0, -1, 1);
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-        
+    public void render(float alpha) {
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
         
@@ -122,11 +106,6 @@ public class SettingsScreen implements Screen {
         float scaleX = app.getWidthScale();
         float scaleY = app.getHeightScale();
         
-        // Ensure proper OpenGL state for drawing
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        glLineWidth(2.0f);
-        
         // Scale all rendering coordinates
         float titleX = app.denormalizeX(0.5f) - 50 * scaleX;
         float titleY = 50 * scaleY;
@@ -307,4 +286,14 @@ public class SettingsScreen implements Screen {
     public void handleCharInput(int codepoint) {
         // Not needed for this screen
     }
+
+    /**
+     * The settings screen only changes on input.
+     *
+     * @return {@link #REDRAW_ON_DEMAND}
+     */
+    @Override
+    public double getRedrawInterval() {
+        return REDRAW_ON_DEMAND;
+    }
 }
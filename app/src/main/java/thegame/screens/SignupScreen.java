@@ -4,18 +4,19 @@ import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.glfw.GLFW.*;
 
 import org.bson.Document;
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoCollection;
 
 import java.util.Random;
 
 import thegame.App;
 import thegame.Screen;
 import thegame.onScreenObjects.Button;
+import thegame.render.Renderer2D;
 import thegame.utils.EmailSender;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
+import thegame.utils.MongoDBConnection;
 import thegame.utils.TextInput;
+import thegame.utils.UserRepository;
 
 /**
  * Screen for new user registration.
@@ -39,9 +40,8 @@ public class SignupScreen implements Screen {
     private float transitionTimer = -1;
     private static final float TRANSITION_DELAY = 1.5f; // 1.5 seconds delay
     
-    // MongoDB
-    private MongoClient mongoClient;
-    private MongoCollection<Document> usersCollection;
+    // Accounts, stored through the shared database client
+    private UserRepository users;
     
     // UI elements
     private FontRenderer fontRenderer;
@@ -63,16 +63,14 @@ public class SignupScreen implements Screen {
 
         // Initialize MongoDB
         try {
-            this.mongoClient = MongoClients.create("mongodb://localhost:27017");
-            this.usersCollection = mongoClient.getDatabase("theGame").getCollection("data");
+            this.users = new UserRepository(new MongoDBConnection());
         } catch (Exception e) {
             statusMessage = "DB Connection Failed!";
             e.printStackTrace();
         }
         
         // Initialize UI
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Create text inputs
         emailInput = new TextInput(App.WINDOW_WIDTH/2 - 120, 230, 400, 40);
@@ -94,11 +92,34 @@ public class SignupScreen implements Screen {
         resendButton = new Button(App.WINDOW_WIDTH/2 - 60, 310, 120, 30, 0.8f, 0.4f, 0.7f, "Resend Code"); // Hot pink
     }
 
+    /**
+     * Advances the cursor blink of the text inputs and the delay before moving on to login.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        emailInput.update(dt);
+        usernameInput.update(dt);
+        passwordInput.update(dt);
+        verificationInput.update(dt);
+        
+        // Check if we need to transition to login screen
+        if (transitionTimer > 0) {
+            transitionTimer -= (float) dt;
+            if (transitionTimer <= 0) {
+                app.setCurrentScreen(new LoginScreen(app));
+            }
+        }
+    }
+
     /**
      * Renders the signup screen with appropriate UI elements based on the current state.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
+    public void render(float alpha) {
         // Draw background
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
@@ -109,13 +130,7 @@ public class SignupScreen implements Screen {
         float panelX = App.WINDOW_WIDTH/2 - panelWidth/2;
         float panelY = App.WINDOW_HEIGHT/2 - panelHeight/2;
         
-        glColor4f(0.9f, 0.5f, 0.8f, 1.0f); // Secondary pink
-        glBegin(GL_QUADS);
-        glVertex2f(panelX, panelY);
-        glVertex2f(panelX + panelWidth, panelY);
-        glVertex2f(panelX + panelWidth, panelY + panelHeight);
-        glVertex2f(panelX, panelY + panelHeight);
-        glEnd();
+        Renderer2D.fillRect(panelX, panelY, panelWidth, panelHeight, 0.9f, 0.5f, 0.8f); // Secondary pink
         
         // Title varies based on state
         String title = currentState == SignupState.INITIAL_INFO ? 
@@ -123,13 +138,8 @@ public class SignupScreen implements Screen {
         fontRenderer.renderCenteredText(title, App.WINDOW_WIDTH/2 - 150, panelY -20 , 1.5f, 0.8f, 0.2f, 0.5f, 1.0f); // Pink-hued text
         
         // Draw separator
-        glColor4f(0.7f, 0.3f, 0.6f, 1.0f); // Dark pink
-        glLineWidth(2.0f);
-        glBegin(GL_LINES);
-        glVertex2f(panelX + 20, panelY + 70);
-        glVertex2f(panelX + panelWidth - 20, panelY + 70);
-        glEnd();
-        glLineWidth(1.0f);
+        Renderer2D.line(panelX + 20, panelY + 70, panelX + panelWidth - 20, panelY + 70, 2.0f,
+                        0.7f, 0.3f, 0.6f, 1.0f); // Dark pink
         
         if (currentState == SignupState.INITIAL_INFO) {
             // Draw initial signup fields
@@ -179,15 +189,6 @@ public class SignupScreen implements Screen {
         // Draw buttons
         submitButton.render((float)currentMouseX, (float)currentMouseY);
         backButton.render((float)currentMouseX, (float)currentMouseY);
-        
-        // Check if we need to transition to login screen
-        if (transitionTimer > 0) {
-            transitionTimer -= 0.016f; // Assuming ~60fps
-            if (transitionTimer <= 0) {
-                app.setCurrentScreen(new LoginScreen(app));
-                return;
-            }
-        }
     }
 
     /**
@@ -209,16 +210,14 @@ public class SignupScreen implements Screen {
 
         try {
             // Check if username already exists
-            Document existingUser = usersCollection.find(new Document("username", usernameInput.getText())).first();
-            if (existingUser != null) {
+            if (users.usernameExists(usernameInput.getText())) {
                 statusMessage = "Username already exists!";
                 isSuccess = false;
                 return;
             }
             
             // Check if email already exists
-            existingUser = usersCollection.find(new Document("email", emailInput.getText())).first();
-            if (existingUser != null) {
+            if (users.emailExists(emailInput.getText())) {
                 statusMessage = "Email already registered!";
                 isSuccess = false;
                 return;
@@ -288,7 +287,7 @@ public class SignupScreen implements Screen {
                 .append("emailVerified", true)
                 .append("levels", new Document()); // Empty levels
 
-            usersCollection.insertOne(newUser);
+            users.insert(newUser);
             statusMessage = "Account created successfully!";
             isSuccess = true;
             
@@ -309,17 +308,12 @@ public class SignupScreen implements Screen {
      */
     private String generateNextUserId() {
         try {
-            // Query to find the highest existing user ID
-            Document highestIdDoc = usersCollection
-                .find()
-                .sort(new Document("userId", -1)) // Sort by userId in descending order
-                .limit(1)                         // Get only the highest one
-                .first();
+            // Find the highest existing user ID
+            String highestId = users.findHighestUserId();
             
             int nextId = 0; // Default starting ID
             
-            if (highestIdDoc != null && highestIdDoc.containsKey("userId")) {
-                String highestId = highestIdDoc.getString("userId");
+            if (highestId != null) {
                 try {
                     // Parse the existing highest ID and increment by 1
                     nextId = Integer.parseInt(highestId) + 1;
@@ -360,15 +354,6 @@ public class SignupScreen implements Screen {
         }
     }
 
-    /**
-     * Cleans up resources used by the screen.
-     */
-    public void cleanup() {
-        if (mongoClient != null) {
-            mongoClient.close();
-        }
-    }
-
     /**
      * Handles mouse click events on buttons and input fields.
      * 
@@ -1,27 +1,14 @@
 package thegame.screens;
 
 import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
-import static org.lwjgl.opengl.GL11.GL_LINES;
-import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
-import static org.lwjgl.opengl.GL11.GL_PROJECTION;
-import static org.lwjgl.opengl.GL11.glBegin;
 import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glClearColor;
-import static org.lwjgl.opengl.GL11.glColor4f;
-import static org.lwjgl.opengl.GL11.glEnd;
-import static org.lwjgl.opengl.GL11.glLineWidth;
-import static org.lwjgl.opengl.GL11.glLoadIdentity;
-import static org.lwjgl.opengl.GL11.glMatrixMode;
-import static org.lwjgl.opengl.GL11.glOrtho;
-import static org.lwjgl.opengl.GL11.glPopMatrix;
-import static org.lwjgl.opengl.GL11.glPushMatrix;
-import static org.lwjgl.opengl.GL11.glRotatef;
-import static org.lwjgl.opengl.GL11.glTranslatef;
-import static org.lwjgl.opengl.GL11.glVertex2f;
 
 import thegame.App;
 import thegame.Screen;
 import thegame.onScreenObjects.Button;
+import thegame.render.Renderer2D;
+import thegame.utils.FontRegistry;
 import thegame.utils.FontRenderer;
 
 /**
@@ -36,7 +23,10 @@ public class TitleScreen implements Screen {
     private Button settingsButton;
     private Button quitButton;
     
-    private float backgroundRotation = 0;
+    // Background animation, advanced by update
+    private static final float ROTATION_SPEED = 3.0f; // Degrees per second
+    private double animationTime = 0;
+    private double lastStep = 0;
     private double currentMouseX = 0, currentMouseY = 0;
 
     /**
@@ -48,8 +38,7 @@ public class TitleScreen implements Screen {
         this.app = app;
         
         // Initialize font renderer
-        fontRenderer = new FontRenderer();
-        fontRenderer.loadFont("/fonts/pf_tempesta_seven_bold.ttf");
+        fontRenderer = FontRegistry.get(FontRegistry.DEFAULT_FONT);
         
         // Create buttons
         int buttonWidth = 250;
@@ -68,25 +57,31 @@ public class TitleScreen implements Screen {
         quitButton = new Button(centerX, startY + spacing * 3, buttonWidth, buttonHeight, 0.8f, 0.2f, 0.5f, "Quit Game"); // Dark accent
     }
 
+    /**
+     * Advances the background animation.
+     * 
+     * @param dt The step length in seconds
+     */
+    @Override
+    public void update(double dt) {
+        animationTime += dt;
+        lastStep = dt;
+    }
+    
     /**
      * Renders the title screen, including animated background, 
      * title text, and buttons.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed
      */
     @Override
-    public void render() {
-        // Set up 2D projection
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        glOrtho(0, App.WINDOW_WIDTH, App.WINDOW_HEIGHT, 0, -1, 1);
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-        
+    public void render(float alpha) {
         // Clear screen with a pink background
         glClearColor(1.0f, 0.7f, 0.9f, 1.0f); // Primary pink
         glClear(GL_COLOR_BUFFER_BIT);
         
         // Draw animated background
-        drawBackground();
+        drawBackground((float)(animationTime + alpha * lastStep));
         
         // Draw title - repositioned even more to the upper-left
         String title = "FLAULISS AUDITS";
@@ -107,44 +102,32 @@ public class TitleScreen implements Screen {
         loginButton.render((float)currentMouseX, (float)currentMouseY);
         settingsButton.render((float)currentMouseX, (float)currentMouseY);
         quitButton.render((float)currentMouseX, (float)currentMouseY);
-        
-        // Increase rotation for next frame
-        backgroundRotation += 0.05f;
     }
     
     /**
      * Draws an animated background with radiating lines.
+     * 
+     * @param time Seconds of animation to draw
      */
-    private void drawBackground() {
-        // Calculate time-based animation
-        float time = (float)System.currentTimeMillis() / 1000.0f;
-        
-        // Draw animated background pattern
-        glPushMatrix();
-        glTranslatef(App.WINDOW_WIDTH / 2, App.WINDOW_HEIGHT / 2, 0);
-        glRotatef(backgroundRotation, 0, 0, 1);
+    private void drawBackground(float time) {
+        // Draw animated background pattern around the screen center
+        float centerX = App.WINDOW_WIDTH / 2;
+        float centerY = App.WINDOW_HEIGHT / 2;
+        float rotation = (float)Math.toRadians(time * ROTATION_SPEED);
         
         // Draw radiating lines
         int numLines = 24;
         float radius = Math.max(App.WINDOW_WIDTH, App.WINDOW_HEIGHT) * 0.8f;
-        glLineWidth(1.0f);
         
         for (int i = 0; i < numLines; i++) {
-            float angle = (float)i / numLines * (float)Math.PI * 2.0f;
-            float x = (float)Math.cos(angle) * radius;
-            float y = (float)Math.sin(angle) * radius;
+            float angle = (float)i / numLines * (float)Math.PI * 2.0f + rotation;
+            float x = centerX + (float)Math.cos(angle) * radius;
+            float y = centerY + (float)Math.sin(angle) * radius;
             
             // Make the lines pulse with time - pink hues
             float pulseIntensity = 0.3f + 0.2f * (float)Math.sin(time * 2.0f + i * 0.2f);
-            glColor4f(0.9f, 0.5f, 0.8f, pulseIntensity); // Secondary pink
-            
-            glBegin(GL_LINES);
-            glVertex2f(0, 0);
-            glVertex2f(x, y);
-            glEnd();
+            Renderer2D.line(centerX, centerY, x, y, 1.0f, 0.9f, 0.5f, 0.8f, pulseIntensity); // Secondary pink
         }
-        
-        glPopMatrix();
     }
     
     /**
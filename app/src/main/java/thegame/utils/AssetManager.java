@@ -0,0 +1,164 @@
+package thegame.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+/**
+ * Loads assets without stalling the render thread.
+ *
+ * Reading and decoding run on a small pool of worker threads, each asset behind a
+ * future. Decoded data that has to go to the GPU is queued as a {@link PendingUpload}
+ * and handed over on the render thread by {@link #processUploads()}, a limited number
+ * of bytes per frame, so a batch of new images is spread over several frames instead
+ * of causing a hitch. Pixel data is copied into a pixel buffer object, so the driver
+ * can transfer it to the texture without blocking the frame.
+ */
+public final class AssetManager {
+    // Bytes handed to the GPU per frame; a 512x512 RGBA image is 1 MB
+    private static final int UPLOAD_BUDGET_BYTES = 4 * 1024 * 1024;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)), runnable -> {
+        Thread thread = new Thread(runnable, "asset-loader-" + threadCount.incrementAndGet());
+        thread.setDaemon(true); // Never keep the game alive on exit
+        return thread;
+    });
+
+    private static final Queue<PendingUpload> uploads = new ConcurrentLinkedQueue<>();
+    private static volatile Runnable wakeUp = () -> {};
+    private static int pixelBuffer;
+
+    /**
+     * Decoded data waiting to be moved to the GPU.
+     */
+    public interface PendingUpload {
+        /**
+         * Gets the number of bytes the upload transfers, counted against the frame budget.
+         *
+         * @return The size in bytes
+         */
+        int size();
+
+        /**
+         * Moves the data to the GPU and releases it. Called on the render thread.
+         */
+        void upload();
+
+        /**
+         * Releases the data without uploading it, when the game exits first.
+         */
+        void discard();
+    }
+
+    private AssetManager() {}
+
+    /**
+     * Sets what to call when there is work for the render thread, so a loop that is
+     * waiting for input wakes up to upload finished assets.
+     *
+     * @param wake Called from worker threads when an upload is queued
+     */
+    public static void init(Runnable wake) {
+        wakeUp = wake;
+    }
+
+    /**
+     * Runs loading work on the worker pool.
+     *
+     * @param <T> The type of the loaded asset
+     * @param loader Reads and decodes the asset; must not use OpenGL
+     * @return A future completed with the loader's result
+     */
+    public static <T> CompletableFuture<T> load(Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(loader, workers);
+    }
+
+    /**
+     * Queues decoded data for upload on the render thread. May be called from any thread.
+     *
+     * @param upload The pending upload
+     */
+    public static void queueUpload(PendingUpload upload) {
+        uploads.add(upload);
+        wakeUp.run();
+    }
+
+    /**
+     * Performs queued uploads until this frame's budget is used up. At least one
+     * upload is performed, so uploads larger than the budget still get through.
+     * Called once per frame on the render thread.
+     */
+    public static void processUploads() {
+        int budget = UPLOAD_BUDGET_BYTES;
+        PendingUpload upload;
+        while (budget > 0 && (upload = uploads.poll()) != null) {
+            budget -= upload.size();
+            try {
+                upload.upload();
+            } catch (RuntimeException e) {
+                System.err.println("Error uploading asset: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        if (!uploads.isEmpty()) {
+            // Come back next frame for the rest
+            wakeUp.run();
+        }
+    }
+
+    /**
+     * Copies pixel data into the pixel buffer object and leaves it bound as the unpack
+     * buffer, so the following glTexSubImage2D call reads from buffer offset 0.
+     * Must be paired with {@link #endStaging()}. Render thread only.
+     *
+     * @param pixels The pixel data, from its position to its limit
+     */
+    static void beginStaging(ByteBuffer pixels) {
+        if (pixelBuffer == 0) {
+            pixelBuffer = GL15.glGenBuffers();
+        }
+        int size = pixels.remaining();
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, pixelBuffer);
+        // Orphan the previous contents so the driver need not wait for the last transfer
+        GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, size, GL15.GL_STREAM_DRAW);
+        ByteBuffer mapped = GL30.glMapBufferRange(GL21.GL_PIXEL_UNPACK_BUFFER, 0, size,
+                GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_INVALIDATE_BUFFER_BIT);
+        MemoryUtil.memCopy(pixels, mapped);
+        GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER);
+    }
+
+    /**
+     * Unbinds the pixel buffer object after a staged upload.
+     */
+    static void endStaging() {
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    /**
+     * Stops the workers and drops uploads that never happened. Called once when the
+     * game exits, on the render thread.
+     */
+    public static void shutdown() {
+        workers.shutdownNow();
+        PendingUpload upload;
+        while ((upload = uploads.poll()) != null) {
+            upload.discard();
+        }
+        if (pixelBuffer != 0) {
+            GL15.glDeleteBuffers(pixelBuffer);
+            pixelBuffer = 0;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package thegame.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * A rectangular grid of level cells stored as one byte per cell.
+ *
+ * The distinct cells of a level are interned into a {@link Palette} of at most
+ * {@value #MAX_PALETTE_SIZE} shared {@link LevelConfig.Cell} objects, and a grid only
+ * keeps each cell's palette index. The grid and target pattern of a level share one
+ * palette, so comparing them is a comparison of two byte arrays. In JSON a grid keeps
+ * the nested format of the level files and the database.
+ */
+@JsonAdapter(LevelCodec.GridAdapter.class)
+public final class CellGrid {
+    /** The most distinct cells a palette can hold. */
+    public static final int MAX_PALETTE_SIZE = 256;
+
+    private final Palette palette;
+    private final int rows;
+    private final int cols;
+    private final byte[] cells;
+
+    /**
+     * The distinct cells of a level. Cells are compared by color, numeric value and
+     * editable flag; an empty (null) cell takes a slot of its own.
+     */
+    public static final class Palette {
+        // Open addressing table of entry index + 1, kept at most half full
+        private static final int TABLE_BITS = 9;
+        private static final int TABLE_MASK = (1 << TABLE_BITS) - 1;
+
+        private LevelConfig.Cell[] entries = new LevelConfig.Cell[16];
+        private int size;
+        private final short[] table = new short[TABLE_MASK + 1];
+
+        /**
+         * Gets the index of a cell, adding it if the palette does not hold it yet.
+         *
+         * @param cell The cell, or null for an empty cell
+         * @return The palette index
+         * @throws IllegalArgumentException if the palette is full
+         */
+        public int indexOf(LevelConfig.Cell cell) {
+            int slot = slot(Objects.hashCode(cell));
+            for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & TABLE_MASK) {
+                if (Objects.equals(entries[entry - 1], cell)) {
+                    return entry - 1;
+                }
+            }
+            return add(slot, cell);
+        }
+
+        // Same as indexOf(Cell), without creating a cell to look up
+        int indexOf(float red, float green, float blue, boolean editable, Integer value) {
+            int slot = slot(LevelConfig.Cell.hash(red, green, blue, editable, value));
+            for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & TABLE_MASK) {
+                LevelConfig.Cell cell = entries[entry - 1];
+                if (cell != null && cell.matches(red, green, blue, editable, value)) {
+                    return entry - 1;
+                }
+            }
+            return add(slot, new LevelConfig.Cell(red, green, blue, editable, value));
+        }
+
+        // Fibonacci hashing spreads the nearby float bits of similar colors over the table
+        private static int slot(int hash) {
+            return (hash * 0x9E3779B9) >>> (32 - TABLE_BITS);
+        }
+
+        private int add(int slot, LevelConfig.Cell cell) {
+            if (size == MAX_PALETTE_SIZE) {
+                throw new IllegalArgumentException("A level can have at most " + MAX_PALETTE_SIZE + " distinct cells");
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            entries[size] = cell;
+            table[slot] = (short) (size + 1);
+            return size++;
+        }
+
+        /**
+         * Gets the palette's copy of a cell, so equal cells share one object.
+         *
+         * @param cell The cell
+         * @return The shared cell
+         * @throws IllegalArgumentException if the palette is full
+         */
+        public LevelConfig.Cell intern(LevelConfig.Cell cell) {
+            return entries[indexOf(cell)];
+        }
+
+        /**
+         * Gets a cell by index.
+         *
+         * @param index The palette index
+         * @return The cell, or null for an empty cell
+         */
+        public LevelConfig.Cell get(int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("Palette index " + index + " out of " + size);
+            }
+            return entries[index];
+        }
+
+        /**
+         * Gets the number of distinct cells.
+         *
+         * @return The palette size
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Interns the cells of a grid.
+         *
+         * @param cells The cells, with rows of equal length
+         * @return The grid, using this palette
+         * @throws IllegalArgumentException if the rows differ in length or the palette overflows
+         */
+        public CellGrid grid(LevelConfig.Cell[][] cells) {
+            int rows = cells.length;
+            int cols = rows > 0 ? cells[0].length : 0;
+            byte[] indices = new byte[rows * cols];
+            for (int row = 0; row < rows; row++) {
+                if (cells[row].length != cols) {
+                    throw new IllegalArgumentException("Grid rows must have the same length");
+                }
+                for (int col = 0; col < cols; col++) {
+                    indices[row * cols + col] = (byte) indexOf(cells[row][col]);
+                }
+            }
+            return new CellGrid(this, rows, cols, indices);
+        }
+    }
+
+    // Takes ownership of the index array
+    CellGrid(Palette palette, int rows, int cols, byte[] cells) {
+        this.palette = palette;
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = cells;
+    }
+
+    public Palette getPalette() { return palette; }
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    /**
+     * Gets the palette index of a cell.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return The palette index
+     */
+    public int indexAt(int row, int col) {
+        return cells[row * cols + col] & 0xFF;
+    }
+
+    /**
+     * Gets a cell.
+     *
+     * @param row Row index
+     * @param col Column index
+     * @return The shared palette cell, or null for an empty cell
+     */
+    public LevelConfig.Cell get(int row, int col) {
+        return palette.get(indexAt(row, col));
+    }
+
+    /**
+     * Copies the grid into a cell array, for editing. The cells are the shared palette cells.
+     *
+     * @return A new array of the grid's shape
+     */
+    public LevelConfig.Cell[][] toCells() {
+        LevelConfig.Cell[][] result = new LevelConfig.Cell[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                result[row][col] = get(row, col);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compares the cells of two grids. Grids sharing a palette compare their index
+     * arrays; others compare cell by cell.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CellGrid)) {
+            return false;
+        }
+        CellGrid grid = (CellGrid) other;
+        if (rows != grid.rows || cols != grid.cols) {
+            return false;
+        }
+        if (palette == grid.palette) {
+            return Arrays.equals(cells, grid.cells);
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (!Objects.equals(palette.get(cells[i] & 0xFF), grid.palette.get(grid.cells[i] & 0xFF))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Hash the cells rather than the indices, so equal grids with different palettes agree
+        int[] entryHashes = new int[palette.size()];
+        for (int i = 0; i < entryHashes.length; i++) {
+            entryHashes[i] = Objects.hashCode(palette.get(i));
+        }
+        int hash = 31 * rows + cols;
+        for (byte cell : cells) {
+            hash = 31 * hash + entryHashes[cell & 0xFF];
+        }
+        return hash;
+    }
+}
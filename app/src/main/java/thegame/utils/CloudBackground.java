@@ -1,32 +1,40 @@
 package thegame.utils;
 
-import static org.lwjgl.opengl.GL11.*;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
 import org.lwjgl.BufferUtils;
-import org.lwjgl.stb.STBImage;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 import thegame.App;
+import thegame.render.GLState;
+import thegame.render.Renderer2D;
 
 /**
  * Provides animated cloud backgrounds for various screens.
  * Can render detailed clouds with textures or simple white blots.
  */
 public class CloudBackground {
+    /**
+     * Seconds between redraws that still look smooth; the fastest clouds move
+     * about a pixel and a half per tick. Screens whose only animation is the clouds
+     * use this as their redraw interval.
+     */
+    public static final double DRIFT_INTERVAL = 1.0 / 30.0;
+    
+    // Clouds are drawn at most 300 pixels wide, so the 2000 pixel images are shrunk when loaded
+    private static final int CLOUD_TEXTURE_SIZE = 512;
+    
     private List<Cloud> clouds = new ArrayList<>();
-    private int[] cloudTextures;
+    private TextureCache.Region[] cloudRegions;
+    private String[] cloudPaths; // Paths acquired from the cache, or null if none were found
+    private int[] placeholderTextures; // Drawn while the images load; 0 once replaced
     private Random random = new Random();
-    private long lastUpdateTime;
+    private float lastStep; // Length of the last update step, for extrapolating between steps
     
     /** Defines the rendering style for the clouds */
     public enum RenderStyle {
@@ -68,8 +76,6 @@ public class CloudBackground {
         
         // Create initial clouds with random properties
         initializeClouds(15); // Create 15 clouds
-        
-        lastUpdateTime = System.currentTimeMillis();
     }
     
     /**
@@ -92,11 +98,12 @@ public class CloudBackground {
     }
     
     /**
-     * Loads cloud textures from resources.
+     * Starts loading the cloud textures. Placeholder clouds are drawn until the
+     * images are ready, and for good if they cannot be found.
      */
     private void loadCloudTextures() {
-        cloudTextures = new int[3];
-        boolean loadedAnyTexture = false;
+        cloudRegions = new TextureCache.Region[3];
+        placeholderTextures = new int[3];
         
         String[][] pathsToTry = {
             {"/images/cloud1.png", "/images/cloud2.png", "/images/cloud3.png"},
@@ -107,124 +114,41 @@ public class CloudBackground {
             {"assets/cloud1.png", "assets/cloud2.png", "assets/cloud3.png"}
         };
         
-        // Try each set of paths
+        // Use the first set of paths where all three images exist
         for (String[] paths : pathsToTry) {
-            try {
-                boolean allLoaded = true;
-                for (int i = 0; i < 3; i++) {
-                    try {
-                        cloudTextures[i] = loadTexture(paths[i]);
-                    } catch (Exception e) {
-                        allLoaded = false;
-                        break;
-                    }
-                }
-                
-                if (allLoaded) {
-                    loadedAnyTexture = true;
-                    break;
-                }
-            } catch (Exception e) {
-                // Continue to next path set
+            boolean allFound = true;
+            for (String path : paths) {
+                allFound &= TextureCache.exists(path);
             }
-        }
-        
-        // If no textures could be loaded, create placeholder textures
-        if (!loadedAnyTexture) {
-            for (int i = 0; i < 3; i++) {
-                cloudTextures[i] = createPlaceholderTexture(128, 64, (i+1) * 0.2f);
+            if (allFound) {
+                cloudPaths = paths;
+                break;
             }
         }
-    }
-    
-    /**
-     * Loads a texture from a resource path.
-     * 
-     * @param resourcePath Path to the texture file
-     * @return The OpenGL texture ID
-     * @throws IOException If the texture cannot be loaded
-     */
-    private int loadTexture(String resourcePath) throws IOException {
-        ByteBuffer imageBuffer = ioResourceToByteBuffer(resourcePath, 8 * 1024 * 1024);
-        
-        IntBuffer w = BufferUtils.createIntBuffer(1);
-        IntBuffer h = BufferUtils.createIntBuffer(1);
-        IntBuffer comp = BufferUtils.createIntBuffer(1);
         
-        // Don't flip the image vertically - clouds should be upright
-        STBImage.stbi_set_flip_vertically_on_load(false);
-        
-        ByteBuffer image = STBImage.stbi_load_from_memory(imageBuffer, w, h, comp, 4);
-        if (image == null) {
-            throw new RuntimeException("Failed to decode image: " + STBImage.stbi_failure_reason());
-        }
-        
-        int width = w.get(0);
-        int height = h.get(0);
-        
-        // Create OpenGL texture
-        int textureID = GL11.glGenTextures();
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
-        
-        // Setup texture parameters
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-        
-        // Upload texture data
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, image);
-        
-        // Free the image memory
-        STBImage.stbi_image_free(image);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        
-        return textureID;
-    }
-    
-    /**
-     * Loads a resource into a ByteBuffer using the same approach as FontRenderer.
-     * 
-     * @param resource The resource path to load
-     * @param bufferSize The buffer size to allocate
-     * @return A ByteBuffer containing the resource data
-     * @throws IOException If the resource cannot be loaded
-     */
-    private static ByteBuffer ioResourceToByteBuffer(String resource, int bufferSize) throws IOException {
-        ByteBuffer buffer;
-        
-        // Check if resource path starts with "/" for class resource loading
-        if (resource.startsWith("/")) {
-            // Load from classpath resource
-            try (java.io.InputStream is = CloudBackground.class.getResourceAsStream(resource)) {
-                if (is == null) {
-                    throw new IOException("Resource not found: " + resource);
-                }
-                
-                // Read resource data into a byte array
-                java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
-                byte[] buf = new byte[8192];
-                int read;
-                while ((read = is.read(buf)) != -1) {
-                    os.write(buf, 0, read);
-                }
-                
-                // Convert to ByteBuffer
-                byte[] bytes = os.toByteArray();
-                buffer = BufferUtils.createByteBuffer(bytes.length + 1);
-                buffer.put(bytes);
-                buffer.flip();
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<TextureCache.Region> loading =
+                cloudPaths != null ? TextureCache.acquire(cloudPaths[i], CLOUD_TEXTURE_SIZE) : null;
+            if (loading != null && loading.isDone() && !loading.isCompletedExceptionally()) {
+                // Already in the cache
+                cloudRegions[i] = loading.join();
+                continue;
             }
-        } else {
-            // Original file loading code (kept for backward compatibility)
-            try (FileChannel fc = (FileChannel) Files.newByteChannel(Paths.get(resource), StandardOpenOption.READ)) {
-                buffer = BufferUtils.createByteBuffer((int) fc.size() + 1);
-                while (fc.read(buffer) != -1);
-                buffer.flip();
+            
+            placeholderTextures[i] = createPlaceholderTexture(128, 64, (i+1) * 0.2f);
+            cloudRegions[i] = new TextureCache.Region(placeholderTextures[i], 0, 0, 1, 1, 128, 64);
+            if (loading != null) {
+                int index = i;
+                // Completes on the render thread, so the placeholder can go right away
+                loading.thenAccept(region -> {
+                    if (placeholderTextures[index] != 0) {
+                        cloudRegions[index] = region;
+                        GLState.deleteTexture(placeholderTextures[index]);
+                        placeholderTextures[index] = 0;
+                    }
+                });
             }
         }
-        
-        return buffer;
     }
     
     /**
@@ -266,18 +190,17 @@ public class CloudBackground {
         
         // Create OpenGL texture
         int textureID = GL11.glGenTextures();
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        GLState.bindTexture(textureID);
         
         // Setup texture parameters
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
         
         // Upload texture data
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
         
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
         return textureID;
     }
     
@@ -315,7 +238,7 @@ public class CloudBackground {
         float speed = 10f + (1.0f - scale) * 30f + random.nextFloat() * 5f;
         
         // Random texture
-        int textureIndex = random.nextInt(cloudTextures.length);
+        int textureIndex = random.nextInt(cloudRegions.length);
         
         // Random transparency
         float alpha = 0.4f + random.nextFloat() * 0.4f;
@@ -324,16 +247,13 @@ public class CloudBackground {
     }
     
     /**
-     * Updates the cloud positions based on elapsed time.
-     * Should be called once per frame before rendering.
+     * Moves the clouds forward by one update step.
+     * 
+     * @param dt The step length in seconds
      */
-    public void update() {
-        long currentTime = System.currentTimeMillis();
-        float deltaTime = (currentTime - lastUpdateTime) / 1000.0f;
-        lastUpdateTime = currentTime;
-        
-        // Limit delta time to prevent large jumps if app is paused
-        if (deltaTime > 0.1f) deltaTime = 0.1f;
+    public void update(double dt) {
+        float deltaTime = (float) dt;
+        lastStep = deltaTime;
         
         // Update cloud positions
         for (int i = 0; i < clouds.size(); i++) {
@@ -353,56 +273,49 @@ public class CloudBackground {
     
     /**
      * Renders the clouds using the current render style.
+     * 
+     * @param alpha Fraction of the next update step that has elapsed (0-1)
      */
-    public void render() {
+    public void render(float alpha) {
+        // Clouds move at a constant speed, so their position between steps is exact
+        float elapsed = alpha * lastStep;
+        Profiler.begin(Profiler.Section.BACKGROUND);
         if (currentStyle == RenderStyle.SIMPLE_BLOTS) {
-            renderSimple();
+            renderSimple(elapsed);
         } else {
-            renderTextured();
+            renderTextured(elapsed);
         }
+        // Clouds are batched, so this is the cost of building their vertices
+        Profiler.end(Profiler.Section.BACKGROUND);
     }
     
     /**
      * Renders clouds as detailed textured quads.
      * This is the standard rendering style for menu screens.
+     * 
+     * @param elapsed Seconds since the last update step
      */
-    private void renderTextured() {
-        // Enable texturing and blending
-        glEnable(GL_TEXTURE_2D);
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        
-        // Render each cloud
+    private void renderTextured(float elapsed) {
+        // Draw each cloud as a textured quad; the cloud images share an atlas page, so they batch together
         for (Cloud cloud : clouds) {
-            // Bind the cloud texture
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, cloudTextures[cloud.textureIndex]);
-            
-            // Draw the cloud as a textured quad
-            glColor4f(1.0f, 1.0f, 1.0f, cloud.alpha);
-            glBegin(GL_QUADS);
-            glTexCoord2f(0, 0); glVertex2f(cloud.x, cloud.y);
-            glTexCoord2f(1, 0); glVertex2f(cloud.x + cloud.width, cloud.y);
-            glTexCoord2f(1, 1); glVertex2f(cloud.x + cloud.width, cloud.y + cloud.height);
-            glTexCoord2f(0, 1); glVertex2f(cloud.x, cloud.y + cloud.height);
-            glEnd();
+            TextureCache.Region region = cloudRegions[cloud.textureIndex];
+            Renderer2D.drawQuad(region.getTexture(), cloud.x - cloud.speed * elapsed, cloud.y, cloud.width, cloud.height,
+                                region.getU0(), region.getV0(), region.getU1(), region.getV1(),
+                                1.0f, 1.0f, 1.0f, cloud.alpha);
         }
-        
-        // Reset state
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        glDisable(GL_TEXTURE_2D);
     }
     
     /**
      * Renders clouds as simple white blots.
      * This is a more subtle rendering style for gameplay screens.
+     * 
+     * @param elapsed Seconds since the last update step
      */
-    private void renderSimple() {
-        // Enable blending
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
-        
+    private void renderSimple(float elapsed) {
         // Render each cloud as a simple white shape with gradient
         for (Cloud cloud : clouds) {
+            float x = cloud.x - cloud.speed * elapsed;
+
             // Use a much lower alpha for simple blots
             float alpha = cloud.alpha * 0.3f;
             
@@ -414,27 +327,10 @@ public class CloudBackground {
                 float width = cloud.width * scaleFactor;
                 float height = cloud.height * 0.7f * scaleFactor;
                 
-                glColor4f(1.0f, 1.0f, 1.0f, alpha * alphaFactor);
-                glBegin(GL_TRIANGLE_FAN);
-                
-                // Center point
-                glVertex2f(cloud.x + width/2, cloud.y + height/2);
-                
-                // Edge points
-                int segments = 16;
-                for (int j = 0; j <= segments; j++) {
-                    double angle = j * 2.0 * Math.PI / segments;
-                    float x = (float)(Math.cos(angle) * width/2);
-                    float y = (float)(Math.sin(angle) * height/2);
-                    glVertex2f(cloud.x + width/2 + x, cloud.y + height/2 + y);
-                }
-                
-                glEnd();
+                Renderer2D.fillEllipse(x + width/2, cloud.y + height/2, width/2, height/2, 16,
+                                       1.0f, 1.0f, 1.0f, alpha * alphaFactor);
             }
         }
-        
-        // Reset state
-        glDisable(GL_BLEND);
     }
     
     /**
@@ -442,9 +338,19 @@ public class CloudBackground {
      * Should be called when the cloud background is no longer needed.
      */
     public void cleanup() {
-        // Delete cloud textures
-        for (int textureId : cloudTextures) {
-            GL11.glDeleteTextures(textureId);
+        if (cloudPaths != null) {
+            for (String path : cloudPaths) {
+                TextureCache.release(path);
+            }
+            cloudPaths = null;
+        }
+        
+        // Delete placeholders that were never replaced
+        for (int i = 0; i < placeholderTextures.length; i++) {
+            if (placeholderTextures[i] != 0) {
+                GLState.deleteTexture(placeholderTextures[i]);
+                placeholderTextures[i] = 0;
+            }
         }
     }
 }
@@ -0,0 +1,124 @@
+package thegame.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+/**
+ * Collects connection pool metrics from the MongoDB driver: how long checkouts
+ * take and how many threads are waiting for a connection.
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolListener {
+    private final AtomicInteger waitQueueDepth = new AtomicInteger();
+    private final AtomicInteger maxWaitQueueDepth = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong failedCheckouts = new AtomicLong();
+    private final AtomicLong totalCheckoutNanos = new AtomicLong();
+    private final AtomicLong maxCheckoutNanos = new AtomicLong();
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        int depth = waitQueueDepth.incrementAndGet();
+        maxWaitQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitQueueDepth.decrementAndGet();
+        checkedOut.incrementAndGet();
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        checkouts.incrementAndGet();
+        totalCheckoutNanos.addAndGet(nanos);
+        maxCheckoutNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitQueueDepth.decrementAndGet();
+        failedCheckouts.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    /**
+     * Gets the number of threads currently waiting for a connection.
+     *
+     * @return The current wait queue depth
+     */
+    public int getWaitQueueDepth() {
+        return waitQueueDepth.get();
+    }
+
+    /**
+     * Gets the largest wait queue depth seen so far.
+     *
+     * @return The peak wait queue depth
+     */
+    public int getMaxWaitQueueDepth() {
+        return maxWaitQueueDepth.get();
+    }
+
+    /**
+     * Gets the number of connections currently in use.
+     *
+     * @return The number of checked out connections
+     */
+    public int getCheckedOutCount() {
+        return checkedOut.get();
+    }
+
+    /**
+     * Gets the number of successful checkouts.
+     *
+     * @return The checkout count
+     */
+    public long getCheckoutCount() {
+        return checkouts.get();
+    }
+
+    /**
+     * Gets the number of checkouts that failed, e.g. because the wait timed out.
+     *
+     * @return The failed checkout count
+     */
+    public long getFailedCheckoutCount() {
+        return failedCheckouts.get();
+    }
+
+    /**
+     * Gets the mean checkout latency.
+     *
+     * @return The average checkout time in milliseconds
+     */
+    public double getAverageCheckoutMillis() {
+        long count = checkouts.get();
+        return count == 0 ? 0 : totalCheckoutNanos.get() / 1e6 / count;
+    }
+
+    /**
+     * Gets the slowest checkout seen so far.
+     *
+     * @return The maximum checkout time in milliseconds
+     */
+    public double getMaxCheckoutMillis() {
+        return maxCheckoutNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("checkouts=%d failed=%d avg=%.2fms max=%.2fms inUse=%d waiting=%d peakWaiting=%d",
+                             getCheckoutCount(), getFailedCheckoutCount(), getAverageCheckoutMillis(),
+                             getMaxCheckoutMillis(), getCheckedOutCount(), getWaitQueueDepth(),
+                             getMaxWaitQueueDepth());
+    }
+}
@@ -0,0 +1,412 @@
+package thegame.utils;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTruetype;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import thegame.render.GLState;
+import thegame.render.Renderer2D;
+
+/**
+ * Signed distance field atlas holding several font faces.
+ * Each glyph is baked once at a large size with {@code stbtt_GetCodepointSDF} and packed
+ * into single-channel pages. A texel stores the distance to the glyph outline rather
+ * than its coverage, so one bake stays sharp at every text scale. Baked pages and
+ * metrics can be cached on disk, keyed by a checksum of the fonts, so later runs skip
+ * the bake entirely.
+ */
+final class FontAtlas {
+    /** First character baked; glyph indices count from here. */
+    static final int FIRST_CHAR = 32;
+    /** Number of glyphs per face: printable ASCII. */
+    static final int GLYPH_COUNT = 96;
+    /** Font size the metrics are expressed in; text drawn at scale 1 has this height. */
+    static final int FONT_HEIGHT = 24;
+
+    // Bake at twice the nominal size so large titles keep sharp corners
+    private static final int BAKE_HEIGHT = 48;
+    // Distance range in bake pixels on each side of the outline
+    private static final int PADDING = 6;
+    private static final int ON_EDGE = 128;
+    private static final int PAGE_SIZE = 1024;
+    // Side of the opaque block in each page's top-left corner, sampled by shapes
+    private static final int WHITE_BLOCK = 4;
+    private static final int GLYPH_GAP = 1;
+
+    private static final int CACHE_MAGIC = 0x53444641;
+    private static final int CACHE_VERSION = 1;
+
+    /**
+     * Glyph metrics of one face, in {@link #FONT_HEIGHT} pixels.
+     * Offsets are relative to the pen on the baseline.
+     */
+    static final class Face {
+        final int[] page = new int[GLYPH_COUNT];
+        final int[] texture = new int[GLYPH_COUNT];
+        final float[] offsetX = new float[GLYPH_COUNT];
+        final float[] offsetY = new float[GLYPH_COUNT];
+        final float[] width = new float[GLYPH_COUNT];
+        final float[] height = new float[GLYPH_COUNT];
+        final float[] s0 = new float[GLYPH_COUNT];
+        final float[] t0 = new float[GLYPH_COUNT];
+        final float[] s1 = new float[GLYPH_COUNT];
+        final float[] t1 = new float[GLYPH_COUNT];
+        final float[] advance = new float[GLYPH_COUNT];
+    }
+
+    // A glyph's distance field before packing
+    private static final class GlyphBitmap {
+        final int width;
+        final int height;
+        final byte[] pixels;
+
+        GlyphBitmap(int width, int height, byte[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+    }
+
+    private final Map<String, Face> faces = new LinkedHashMap<>();
+    private final List<byte[]> pages = new ArrayList<>();
+    private int[] textures = new int[0];
+
+    // Shelf packer state for the last page
+    private int packX;
+    private int packY;
+    private int shelfHeight;
+
+    private FontAtlas() {}
+
+    /**
+     * Loads the atlas for a set of fonts from the disk cache, or bakes it and refreshes
+     * the cache. Uses no OpenGL, so it may run on a loader thread; the pages reach the
+     * GPU with {@link #upload()}.
+     *
+     * @param paths Font files or classpath resources (prefix "/")
+     * @param cachePath Cache file, or null to always bake
+     * @return The atlas, not yet uploaded
+     */
+    static FontAtlas prepare(List<String> paths, Path cachePath) {
+        List<ByteBuffer> fonts = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+        for (String path : paths) {
+            try {
+                ByteBuffer ttf = ioResourceToByteBuffer(path, 160 * 1024);
+                checksum.update(path.getBytes());
+                checksum.update(ttf.duplicate());
+                fonts.add(ttf);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load font: " + path, e);
+            }
+        }
+        long key = checksum.getValue() ^ ((long) BAKE_HEIGHT << 32) ^ ((long) PADDING << 48);
+
+        FontAtlas atlas = cachePath != null ? readCache(cachePath, key, paths) : null;
+        if (atlas == null) {
+            long start = System.nanoTime();
+            atlas = new FontAtlas();
+            for (int i = 0; i < paths.size(); i++) {
+                atlas.bake(paths.get(i), fonts.get(i));
+            }
+            System.out.println(String.format("Baked font atlas: %d faces on %d pages in %.0f ms",
+                                             paths.size(), atlas.pages.size(), (System.nanoTime() - start) / 1e6));
+            if (cachePath != null) {
+                atlas.writeCache(cachePath, key);
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Gets the metrics of a face.
+     *
+     * @param path The path the face was loaded from
+     * @return The face, or null if it is not in this atlas
+     */
+    Face getFace(String path) {
+        return faces.get(path);
+    }
+
+    /**
+     * Deletes the page textures.
+     */
+    void cleanup() {
+        for (int texture : textures) {
+            Renderer2D.unregisterTexture(texture);
+            GLState.deleteTexture(texture);
+        }
+        textures = new int[0];
+    }
+
+    private void bake(String path, ByteBuffer ttf) {
+        STBTTFontinfo info = STBTTFontinfo.create();
+        if (!STBTruetype.stbtt_InitFont(info, ttf)) {
+            throw new RuntimeException("Failed to read font: " + path);
+        }
+        float bakeScale = STBTruetype.stbtt_ScaleForPixelHeight(info, BAKE_HEIGHT);
+        float toFontPixels = FONT_HEIGHT / (float) BAKE_HEIGHT;
+
+        IntBuffer width = BufferUtils.createIntBuffer(1);
+        IntBuffer height = BufferUtils.createIntBuffer(1);
+        IntBuffer xoff = BufferUtils.createIntBuffer(1);
+        IntBuffer yoff = BufferUtils.createIntBuffer(1);
+        IntBuffer advance = BufferUtils.createIntBuffer(1);
+        IntBuffer leftBearing = BufferUtils.createIntBuffer(1);
+
+        Face face = new Face();
+        GlyphBitmap[] bitmaps = new GlyphBitmap[GLYPH_COUNT];
+        for (int i = 0; i < GLYPH_COUNT; i++) {
+            int codepoint = FIRST_CHAR + i;
+            STBTruetype.stbtt_GetCodepointHMetrics(info, codepoint, advance, leftBearing);
+            face.advance[i] = advance.get(0) * bakeScale * toFontPixels;
+
+            ByteBuffer sdf = STBTruetype.stbtt_GetCodepointSDF(info, bakeScale, codepoint, PADDING, (byte) ON_EDGE,
+                                                               ON_EDGE / (float) PADDING, width, height, xoff, yoff);
+            if (sdf == null) {
+                continue; // No outline, e.g. the space character
+            }
+            byte[] pixels = new byte[width.get(0) * height.get(0)];
+            sdf.get(pixels);
+            STBTruetype.stbtt_FreeSDF(sdf);
+
+            bitmaps[i] = new GlyphBitmap(width.get(0), height.get(0), pixels);
+            face.offsetX[i] = xoff.get(0) * toFontPixels;
+            face.offsetY[i] = yoff.get(0) * toFontPixels;
+            face.width[i] = width.get(0) * toFontPixels;
+            face.height[i] = height.get(0) * toFontPixels;
+        }
+
+        // Keep each face on one page so its text never switches textures mid-string
+        if (pages.isEmpty() || !pack(face, bitmaps, false)) {
+            newPage();
+            if (!pack(face, bitmaps, false)) {
+                throw new RuntimeException("Font does not fit on an atlas page: " + path);
+            }
+        }
+        pack(face, bitmaps, true);
+        faces.put(path, face);
+    }
+
+    private void newPage() {
+        byte[] page = new byte[PAGE_SIZE * PAGE_SIZE];
+        for (int row = 0; row < WHITE_BLOCK; row++) {
+            for (int col = 0; col < WHITE_BLOCK; col++) {
+                page[row * PAGE_SIZE + col] = (byte) 0xFF;
+            }
+        }
+        pages.add(page);
+        packX = WHITE_BLOCK + GLYPH_GAP;
+        packY = 0;
+        shelfHeight = WHITE_BLOCK;
+    }
+
+    // Places the glyphs on the last page in rows; without commit only checks that they fit
+    private boolean pack(Face face, GlyphBitmap[] bitmaps, boolean commit) {
+        int x = packX;
+        int y = packY;
+        int shelf = shelfHeight;
+        byte[] page = pages.get(pages.size() - 1);
+        for (int i = 0; i < GLYPH_COUNT; i++) {
+            GlyphBitmap bitmap = bitmaps[i];
+            if (bitmap == null) {
+                continue;
+            }
+            if (x + bitmap.width > PAGE_SIZE) {
+                x = 0;
+                y += shelf + GLYPH_GAP;
+                shelf = 0;
+            }
+            if (y + bitmap.height > PAGE_SIZE) {
+                return false;
+            }
+            if (commit) {
+                for (int row = 0; row < bitmap.height; row++) {
+                    System.arraycopy(bitmap.pixels, row * bitmap.width, page, (y + row) * PAGE_SIZE + x, bitmap.width);
+                }
+                face.page[i] = pages.size() - 1;
+                face.s0[i] = x / (float) PAGE_SIZE;
+                face.t0[i] = y / (float) PAGE_SIZE;
+                face.s1[i] = (x + bitmap.width) / (float) PAGE_SIZE;
+                face.t1[i] = (y + bitmap.height) / (float) PAGE_SIZE;
+            }
+            x += bitmap.width + GLYPH_GAP;
+            shelf = Math.max(shelf, bitmap.height);
+        }
+        if (commit) {
+            packX = x;
+            packY = y;
+            shelfHeight = shelf;
+        }
+        return true;
+    }
+
+    /**
+     * Uploads the pages prepared by {@link #prepare(List, Path)}. Must be called on the
+     * render thread.
+     */
+    void upload() {
+        textures = new int[pages.size()];
+        for (int i = 0; i < pages.size(); i++) {
+            ByteBuffer pixels = BufferUtils.createByteBuffer(PAGE_SIZE * PAGE_SIZE);
+            pixels.put(pages.get(i)).flip();
+
+            textures[i] = GL11.glGenTextures();
+            GLState.bindTexture(textures[i]);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R8, PAGE_SIZE, PAGE_SIZE, 0, GL11.GL_RED, GL11.GL_UNSIGNED_BYTE, pixels);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR_MIPMAP_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+            GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
+
+            Renderer2D.registerDistanceField(textures[i]);
+            Renderer2D.registerWhiteTexel(textures[i], WHITE_BLOCK / 2.0f / PAGE_SIZE, WHITE_BLOCK / 2.0f / PAGE_SIZE);
+        }
+        for (Face face : faces.values()) {
+            for (int i = 0; i < GLYPH_COUNT; i++) {
+                face.texture[i] = textures[face.page[i]];
+            }
+        }
+        // The GPU has the pages now
+        pages.clear();
+    }
+
+    private static FontAtlas readCache(Path cachePath, long key, List<String> paths) {
+        if (!Files.isRegularFile(cachePath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(cachePath))))) {
+            if (in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION || in.readLong() != key) {
+                return null;
+            }
+            FontAtlas atlas = new FontAtlas();
+            int pageCount = in.readInt();
+            for (int i = 0; i < pageCount; i++) {
+                byte[] page = new byte[PAGE_SIZE * PAGE_SIZE];
+                in.readFully(page);
+                atlas.pages.add(page);
+            }
+            int faceCount = in.readInt();
+            for (int f = 0; f < faceCount; f++) {
+                String path = in.readUTF();
+                Face face = new Face();
+                for (int i = 0; i < GLYPH_COUNT; i++) {
+                    face.page[i] = in.readInt();
+                    face.offsetX[i] = in.readFloat();
+                    face.offsetY[i] = in.readFloat();
+                    face.width[i] = in.readFloat();
+                    face.height[i] = in.readFloat();
+                    face.s0[i] = in.readFloat();
+                    face.t0[i] = in.readFloat();
+                    face.s1[i] = in.readFloat();
+                    face.t1[i] = in.readFloat();
+                    face.advance[i] = in.readFloat();
+                }
+                atlas.faces.put(path, face);
+            }
+            return atlas.faces.keySet().containsAll(paths) ? atlas : null;
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable font atlas cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(Path cachePath, long key) {
+        try {
+            Files.createDirectories(cachePath.getParent());
+            Path temp = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(CACHE_MAGIC);
+                out.writeInt(CACHE_VERSION);
+                out.writeLong(key);
+                out.writeInt(pages.size());
+                for (byte[] page : pages) {
+                    out.write(page);
+                }
+                out.writeInt(faces.size());
+                for (Map.Entry<String, Face> entry : faces.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    Face face = entry.getValue();
+                    for (int i = 0; i < GLYPH_COUNT; i++) {
+                        out.writeInt(face.page[i]);
+                        out.writeFloat(face.offsetX[i]);
+                        out.writeFloat(face.offsetY[i]);
+                        out.writeFloat(face.width[i]);
+                        out.writeFloat(face.height[i]);
+                        out.writeFloat(face.s0[i]);
+                        out.writeFloat(face.t0[i]);
+                        out.writeFloat(face.s1[i]);
+                        out.writeFloat(face.t1[i]);
+                        out.writeFloat(face.advance[i]);
+                    }
+                }
+            }
+            Files.move(temp, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing font atlas cache: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer ioResourceToByteBuffer(String resource, int bufferSize) throws IOException {
+        ByteBuffer buffer;
+
+        // Check if resource path starts with "/" for class resource loading
+        if (resource.startsWith("/")) {
+            // Load from classpath resource
+            try (java.io.InputStream is = FontAtlas.class.getResourceAsStream(resource)) {
+                if (is == null) {
+                    throw new IOException("Resource not found: " + resource);
+                }
+
+                // Read resource data into a byte array
+                java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream(bufferSize);
+                byte[] buf = new byte[8192];
+                int read;
+                while ((read = is.read(buf)) != -1) {
+                    os.write(buf, 0, read);
+                }
+
+                // Convert to ByteBuffer
+                byte[] bytes = os.toByteArray();
+                buffer = BufferUtils.createByteBuffer(bytes.length + 1);
+                buffer.put(bytes);
+                buffer.flip();
+            }
+        } else {
+            try (FileChannel fc = (FileChannel) Files.newByteChannel(Paths.get(resource), StandardOpenOption.READ)) {
+                buffer = BufferUtils.createByteBuffer((int) fc.size() + 1);
+                while (fc.read(buffer) != -1);
+                buffer.flip();
+            }
+        }
+
+        return buffer;
+    }
+}
@@ -0,0 +1,118 @@
+package thegame.utils;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Process-wide registry of fonts.
+ * The bundled pf_tempesta_seven family is baked into one shared distance field atlas,
+ * started in the background by {@link #preload()} or else when any font is first
+ * requested, and every screen gets the same
+ * {@link FontRenderer} for a given font. Fonts outside the family get an atlas of
+ * their own. Must only be used on the render thread.
+ */
+public final class FontRegistry {
+    /** The font used by the game's screens and widgets. */
+    public static final String DEFAULT_FONT = "/fonts/pf_tempesta_seven_bold.ttf";
+
+    /** Every bundled font variant, all baked into the shared atlas. */
+    public static final List<String> BUNDLED_FONTS = List.of(
+        "/fonts/pf_tempesta_seven.ttf",
+        "/fonts/pf_tempesta_seven_bold.ttf",
+        "/fonts/pf_tempesta_seven_compressed.ttf",
+        "/fonts/pf_tempesta_seven_compressed_bold.ttf",
+        "/fonts/pf_tempesta_seven_condensed.ttf",
+        "/fonts/pf_tempesta_seven_condensed_bold.ttf",
+        "/fonts/pf_tempesta_seven_extended.ttf",
+        "/fonts/pf_tempesta_seven_extended_bold.ttf"
+    );
+
+    private static final Path CACHE_PATH = Path.of(System.getProperty("user.home"), ".thegame", "font-atlas.bin");
+
+    private static FontAtlas bundledAtlas;
+    private static CompletableFuture<FontAtlas> bundledLoading;
+    private static final Map<String, FontAtlas> extraAtlases = new HashMap<>();
+    private static final Map<String, FontRenderer> renderers = new HashMap<>();
+
+    private FontRegistry() {}
+
+    /**
+     * Starts reading the bundled fonts and their atlas cache (or baking the atlas) on
+     * an {@link AssetManager} worker, so the work overlaps window and OpenGL setup.
+     * The first font request waits for it and uploads the pages.
+     */
+    public static void preload() {
+        if (bundledAtlas == null && bundledLoading == null) {
+            bundledLoading = AssetManager.load(() -> FontAtlas.prepare(BUNDLED_FONTS, CACHE_PATH));
+        }
+    }
+
+    /**
+     * Gets the shared renderer for a font, loading it on first use.
+     *
+     * @param path The font file or classpath resource (prefix "/")
+     * @return The font renderer
+     */
+    public static FontRenderer get(String path) {
+        FontRenderer renderer = renderers.get(path);
+        if (renderer == null) {
+            renderer = new FontRenderer();
+            renderer.loadFont(path);
+            renderers.put(path, renderer);
+        }
+        return renderer;
+    }
+
+    /**
+     * Gets the atlas metrics of a font, baking its atlas on first use.
+     *
+     * @param path The font file or classpath resource (prefix "/")
+     * @return The font face
+     */
+    static FontAtlas.Face getFace(String path) {
+        if (BUNDLED_FONTS.contains(path)) {
+            if (bundledAtlas == null) {
+                // Text cannot be drawn without its glyphs, so wait for the preload
+                preload();
+                try {
+                    bundledAtlas = bundledLoading.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                } finally {
+                    bundledLoading = null;
+                }
+                bundledAtlas.upload();
+            }
+            return bundledAtlas.getFace(path);
+        }
+        FontAtlas atlas = extraAtlases.get(path);
+        if (atlas == null) {
+            atlas = FontAtlas.prepare(List.of(path), null);
+            atlas.upload();
+            extraAtlases.put(path, atlas);
+        }
+        return atlas.getFace(path);
+    }
+
+    /**
+     * Releases every font atlas. Called once when the game exits.
+     */
+    public static void cleanup() {
+        for (FontRenderer renderer : renderers.values()) {
+            renderer.cleanup();
+        }
+        renderers.clear();
+        if (bundledAtlas != null) {
+            bundledAtlas.cleanup();
+            bundledAtlas = null;
+        }
+        for (FontAtlas atlas : extraAtlases.values()) {
+            atlas.cleanup();
+        }
+        extraAtlases.clear();
+    }
+}
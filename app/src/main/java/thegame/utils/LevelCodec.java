@@ -0,0 +1,351 @@
+package thegame.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Reads and writes levels in the JSON format of the files in {@code /levels}.
+ *
+ * Levels are read in one pass over a {@link JsonReader}, without building a JSON
+ * tree and without reflection. Cells are interned into the level's palette as they
+ * are read, so a grid is built from palette indices without an object per cell.
+ * Missing fields keep the defaults Gson would give them, unknown fields are skipped,
+ * a cell's editable flag may be named "editable" or "isCenter", and a cell may hold a
+ * "value" (number mode), colors, or both. The writer produces the same format,
+ * leaving out fields that hold their defaults.
+ */
+public final class LevelCodec {
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private LevelCodec() {}
+
+    /**
+     * Palette indices of one grid, row by row, in a growable array.
+     */
+    private static final class IndexBuffer {
+        byte[] indices = new byte[64];
+        int count;
+        int[] rowEnds = new int[8];
+        int rows;
+
+        void add(int index) {
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, count * 2);
+            }
+            indices[count++] = (byte) index;
+        }
+
+        void endRow() {
+            if (rows == rowEnds.length) {
+                rowEnds = Arrays.copyOf(rowEnds, rows * 2);
+            }
+            rowEnds[rows++] = count;
+        }
+
+        CellGrid toGrid(CellGrid.Palette palette) throws IOException {
+            int cols = rows > 0 ? rowEnds[0] : 0;
+            for (int row = 0; row < rows; row++) {
+                if (rowEnds[row] != (row + 1) * cols) {
+                    throw new IOException("Grid rows must have the same length");
+                }
+            }
+            return new CellGrid(palette, rows, cols, Arrays.copyOf(indices, count));
+        }
+    }
+
+    /**
+     * Reads and writes a {@link CellGrid} for Gson, so levels serialized by reflection
+     * keep the nested cell format. Each grid read this way gets a palette of its own.
+     */
+    public static final class GridAdapter extends TypeAdapter<CellGrid> {
+        @Override
+        public void write(JsonWriter out, CellGrid grid) throws IOException {
+            writeGrid(out, grid);
+        }
+
+        @Override
+        public CellGrid read(JsonReader in) throws IOException {
+            return readGrid(in, new CellGrid.Palette());
+        }
+    }
+
+    /**
+     * Reads a level.
+     *
+     * @param reader The JSON source; not closed
+     * @return The level
+     * @throws IOException If the source cannot be read or is not a level
+     */
+    public static LevelConfig read(Reader reader) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        in.setLenient(true); // Accept what Gson's fromJson accepts
+        int id = 0;
+        String name = null;
+        LevelConfig.Settings settings = null;
+        CellGrid grid = null;
+        CellGrid targetPattern = null;
+        String creator = null;
+        long createdAt = 0;
+        boolean isCustomLevel = false;
+        String description = null;
+        boolean isNumberMode = false;
+        LevelConfig.Statistics statistics = null;
+        boolean isVerified = false;
+        CellGrid.Palette palette = new CellGrid.Palette(); // Shared by the grid and target pattern
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (skipNull(in)) {
+                continue;
+            }
+            switch (field) {
+                case "id": id = in.nextInt(); break;
+                case "name": name = in.nextString(); break;
+                case "settings": settings = readSettings(in); break;
+                case "grid": grid = readGrid(in, palette); break;
+                case "targetPattern": targetPattern = readGrid(in, palette); break;
+                case "creator": creator = in.nextString(); break;
+                case "createdAt": createdAt = in.nextLong(); break;
+                case "isCustomLevel": isCustomLevel = in.nextBoolean(); break;
+                case "description": description = in.nextString(); break;
+                case "isNumberMode": isNumberMode = in.nextBoolean(); break;
+                case "statistics": statistics = readStatistics(in); break;
+                case "isVerified": isVerified = in.nextBoolean(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return LevelConfig.restore(id, name, settings, grid, targetPattern, creator, createdAt,
+                                   isCustomLevel, description, isNumberMode, statistics, isVerified);
+    }
+
+    private static LevelConfig.Settings readSettings(JsonReader in) throws IOException {
+        LevelConfig.Settings defaults = new LevelConfig.Settings();
+        int gridSize = defaults.getGridSize();
+        int maxMoves = defaults.getMaxMoves();
+        Map<String, Integer> moveLimits = defaults.getMoveLimits();
+        String difficulty = defaults.getDifficulty();
+        boolean isNumberMode = defaults.isNumberMode();
+        int maxRowEdits = defaults.getMaxRowEdits();
+        int maxColEdits = defaults.getMaxColEdits();
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (skipNull(in)) {
+                continue;
+            }
+            switch (field) {
+                case "gridSize": gridSize = in.nextInt(); break;
+                case "maxMoves": maxMoves = in.nextInt(); break;
+                case "moveLimits":
+                    // Given limits replace the defaults entirely, as with Gson
+                    moveLimits = new LinkedHashMap<>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        String moveType = in.nextName();
+                        if (!skipNull(in)) {
+                            moveLimits.put(moveType, in.nextInt());
+                        }
+                    }
+                    in.endObject();
+                    break;
+                case "difficulty": difficulty = in.nextString(); break;
+                case "isNumberMode": isNumberMode = in.nextBoolean(); break;
+                case "maxRowEdits": maxRowEdits = in.nextInt(); break;
+                case "maxColEdits": maxColEdits = in.nextInt(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new LevelConfig.Settings(gridSize, maxMoves, moveLimits, difficulty, isNumberMode, maxRowEdits, maxColEdits);
+    }
+
+    private static LevelConfig.Statistics readStatistics(JsonReader in) throws IOException {
+        int timePlayed = 0;
+        int likes = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (skipNull(in)) {
+                continue;
+            }
+            switch (field) {
+                case "timePlayed": timePlayed = in.nextInt(); break;
+                case "likes": likes = in.nextInt(); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        return new LevelConfig.Statistics(timePlayed, likes);
+    }
+
+    private static CellGrid readGrid(JsonReader in, CellGrid.Palette palette) throws IOException {
+        IndexBuffer cells = new IndexBuffer();
+        in.beginArray();
+        while (in.hasNext()) {
+            in.beginArray();
+            while (in.hasNext()) {
+                if (skipNull(in)) {
+                    cells.add(palette.indexOf(null));
+                    continue;
+                }
+                // Gson's defaults for absent fields: white, no value, locked
+                float red = 1.0f, green = 1.0f, blue = 1.0f;
+                int value = NO_VALUE;
+                boolean editable = false;
+                in.beginObject();
+                while (in.hasNext()) {
+                    String field = in.nextName();
+                    if (skipNull(in)) {
+                        continue;
+                    }
+                    switch (field) {
+                        case "red": red = (float) in.nextDouble(); break;
+                        case "green": green = (float) in.nextDouble(); break;
+                        case "blue": blue = (float) in.nextDouble(); break;
+                        case "value": value = in.nextInt(); break;
+                        case "editable":
+                        case "isCenter": editable = in.nextBoolean(); break;
+                        default: in.skipValue();
+                    }
+                }
+                in.endObject();
+                try {
+                    cells.add(palette.indexOf(red, green, blue, editable, value == NO_VALUE ? null : value));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+            in.endArray();
+            cells.endRow();
+        }
+        in.endArray();
+        return cells.toGrid(palette);
+    }
+
+    // Consumes a null value, which leaves the field at its default
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes a level, indented like the bundled level files.
+     *
+     * @param level The level
+     * @param writer The destination; flushed but not closed
+     * @throws IOException If writing fails
+     */
+    public static void write(LevelConfig level, Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        out.setIndent("    ");
+        out.beginObject();
+        out.name("id").value(level.getLevelNumber());
+        if (level.getName() != null) {
+            out.name("name").value(level.getName());
+        }
+        if (level.hasSettings()) {
+            writeSettings(out, level.getSettings());
+        }
+        if (level.getGrid() != null) {
+            out.name("grid");
+            writeGrid(out, level.getGrid());
+        }
+        if (level.getTargetPattern() != null) {
+            out.name("targetPattern");
+            writeGrid(out, level.getTargetPattern());
+        }
+        if (level.getCreator() != null) {
+            out.name("creator").value(level.getCreator());
+        }
+        if (level.getCreatedAt() != 0) {
+            out.name("createdAt").value(level.getCreatedAt());
+        }
+        if (level.isCustomLevel()) {
+            out.name("isCustomLevel").value(true);
+        }
+        if (level.getDescription() != null) {
+            out.name("description").value(level.getDescription());
+        }
+        if (level.getNumberModeField()) {
+            out.name("isNumberMode").value(true);
+        }
+        if (level.getStatistics() != null) {
+            out.name("statistics").beginObject()
+               .name("timePlayed").value(level.getStatistics().getTimePlayed())
+               .name("likes").value(level.getStatistics().getLikes())
+               .endObject();
+        }
+        if (level.isVerified()) {
+            out.name("isVerified").value(true);
+        }
+        out.endObject();
+        out.flush();
+    }
+
+    private static void writeSettings(JsonWriter out, LevelConfig.Settings settings) throws IOException {
+        out.name("settings").beginObject();
+        out.name("gridSize").value(settings.getGridSize());
+        out.name("maxMoves").value(settings.getMaxMoves());
+        if (settings.getMoveLimits() != null) {
+            out.name("moveLimits").beginObject();
+            for (Map.Entry<String, Integer> limit : settings.getMoveLimits().entrySet()) {
+                out.name(limit.getKey()).value(limit.getValue());
+            }
+            out.endObject();
+        }
+        if (settings.getDifficulty() != null) {
+            out.name("difficulty").value(settings.getDifficulty());
+        }
+        if (settings.isNumberMode()) {
+            out.name("isNumberMode").value(true);
+        }
+        out.name("maxRowEdits").value(settings.getMaxRowEdits());
+        out.name("maxColEdits").value(settings.getMaxColEdits());
+        out.endObject();
+    }
+
+    private static void writeGrid(JsonWriter out, CellGrid grid) throws IOException {
+        out.beginArray();
+        for (int row = 0; row < grid.getRows(); row++) {
+            out.beginArray();
+            for (int col = 0; col < grid.getCols(); col++) {
+                LevelConfig.Cell cell = grid.get(row, col);
+                if (cell == null) {
+                    out.nullValue();
+                    continue;
+                }
+                out.beginObject();
+                Integer value = cell.getStoredValue();
+                // Number cells usually keep the default white; only other colors are worth writing
+                if (value == null || cell.red != 1.0f || cell.green != 1.0f || cell.blue != 1.0f) {
+                    // Float.toString keeps 0.7 as 0.7 rather than its double expansion
+                    out.name("red").value(Float.valueOf(cell.red));
+                    out.name("green").value(Float.valueOf(cell.green));
+                    out.name("blue").value(Float.valueOf(cell.blue));
+                }
+                if (value != null) {
+                    out.name("value").value(value.intValue());
+                }
+                out.name("editable").value(cell.editable);
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endArray();
+    }
+}
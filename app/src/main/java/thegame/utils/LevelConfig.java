@@ -2,25 +2,20 @@ package thegame.utils;
 
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-import java.lang.reflect.Type;
 import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import org.bson.Document;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 public class LevelConfig {
     private int id;  // This will store the level number
     private String name;
     private Settings settings;
-    private Cell[][] grid;
-    private Cell[][] targetPattern;
+    private CellGrid grid;
+    private CellGrid targetPattern;
 
     // Add new fields for upload metadata
     private String creator;
@@ -52,6 +47,22 @@ public class LevelConfig {
         public int getLikes() {
             return likes;
         }
+        
+        /**
+         * Adds to the play count.
+         * @param delta The number of plays to add
+         */
+        public void addPlays(int delta) {
+            timePlayed += delta;
+        }
+        
+        /**
+         * Adds to the like count.
+         * @param delta The number of likes to add
+         */
+        public void addLikes(int delta) {
+            likes += delta;
+        }
     }
     
     // Define move types enum
@@ -114,6 +125,18 @@ public class LevelConfig {
             }
         }
 
+        // Restores every field as stored in a level pack
+        Settings(int gridSize, int maxMoves, Map<String, Integer> moveLimits, String difficulty,
+                 boolean isNumberMode, int maxRowEdits, int maxColEdits) {
+            this.gridSize = gridSize;
+            this.maxMoves = maxMoves;
+            this.moveLimits = moveLimits;
+            this.difficulty = difficulty;
+            this.isNumberMode = isNumberMode;
+            this.maxRowEdits = maxRowEdits;
+            this.maxColEdits = maxColEdits;
+        }
+
         public Settings(int gridSize, int maxMoves, String difficulty) {
             this(gridSize, maxMoves, difficulty, false);
         }
@@ -162,24 +185,17 @@ public class LevelConfig {
         public void setMaxColEdits(int maxColEdits) { this.maxColEdits = maxColEdits; }
     }
 
-    public static class Cell {
+    /**
+     * One cell of a grid. Cells are immutable values: levels share one object per
+     * distinct cell through their {@link CellGrid.Palette}.
+     */
+    public static final class Cell {
         // Values should be between 0.0f and 1.0f for OpenGL colors
-        @SerializedName("red")
-        public float red = 1.0f;  // Default to white if not specified
-
-        @SerializedName("green")
-        public float green = 1.0f;
-
-        @SerializedName("blue")
-        public float blue = 1.0f;
-
-        @SerializedName(value = "isCenter", alternate = "editable")
-        public boolean editable;
-        
-        @SerializedName("value")
-        private Integer numericValue;
-
-        public Cell() {} // Default constructor for GSON
+        public final float red;
+        public final float green;
+        public final float blue;
+        public final boolean editable;
+        private final Integer numericValue;
 
         public Cell(float red, float green, float blue, boolean editable) {
             // Clamp values between 0 and 1
@@ -187,6 +203,7 @@ public class LevelConfig {
             this.green = Math.max(0.0f, Math.min(1.0f, green));
             this.blue = Math.max(0.0f, Math.min(1.0f, blue));
             this.editable = editable;
+            this.numericValue = null;
         }
         
         // Constructor for number mode
@@ -200,6 +217,52 @@ public class LevelConfig {
             this.editable = editable;
         }
         
+        // Restores a cell exactly as stored in a level pack, without clamping
+        Cell(float red, float green, float blue, boolean editable, Integer numericValue) {
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+            this.editable = editable;
+            this.numericValue = numericValue;
+        }
+        
+        // The explicit numeric value, or null for color cells
+        Integer getStoredValue() {
+            return numericValue;
+        }
+
+        // Exact comparison, as used for interning into a palette
+        boolean matches(float red, float green, float blue, boolean editable, Integer numericValue) {
+            return Float.floatToIntBits(this.red) == Float.floatToIntBits(red)
+                && Float.floatToIntBits(this.green) == Float.floatToIntBits(green)
+                && Float.floatToIntBits(this.blue) == Float.floatToIntBits(blue)
+                && this.editable == editable
+                && Objects.equals(this.numericValue, numericValue);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Cell)) {
+                return false;
+            }
+            Cell cell = (Cell) other;
+            return matches(cell.red, cell.green, cell.blue, cell.editable, cell.numericValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(red, green, blue, editable, numericValue);
+        }
+
+        // Same as hashCode() for a cell with these fields
+        static int hash(float red, float green, float blue, boolean editable, Integer numericValue) {
+            int hash = Float.floatToIntBits(red);
+            hash = hash * 31 + Float.floatToIntBits(green);
+            hash = hash * 31 + Float.floatToIntBits(blue);
+            hash = hash * 31 + (editable ? 1 : 0);
+            return hash * 31 + Objects.hashCode(numericValue);
+        }
+        
         // Get the numeric value, either directly or from red channel
         public int getNumericValue() {
             if (numericValue != null) {
@@ -211,56 +274,40 @@ public class LevelConfig {
         }
     }
 
-    // Custom deserializer for 2D Cell arrays from LevelData
-    private static class CellArrayDeserializer implements JsonDeserializer<Cell[][]> {
-        @Override
-        public Cell[][] deserialize(JsonElement json, Type typeOfT, 
-                                  JsonDeserializationContext context) throws JsonParseException {
-            JsonElement[] rows = json.getAsJsonArray().asList().toArray(new JsonElement[0]);
-            Cell[][] result = new Cell[rows.length][];
-            
-            for (int i = 0; i < rows.length; i++) {
-                JsonElement[] cells = rows[i].getAsJsonArray().asList().toArray(new JsonElement[0]);
-                result[i] = new Cell[cells.length];
-                
-                for (int j = 0; j < cells.length; j++) {
-                    JsonElement cell = cells[j];
-                    boolean isEditable = false;
-                    
-                    // Look for either "isCenter" or "editable" property
-                    if (cell.getAsJsonObject().has("isCenter")) {
-                        isEditable = cell.getAsJsonObject().get("isCenter").getAsBoolean();
-                    } else if (cell.getAsJsonObject().has("editable")) {
-                        isEditable = cell.getAsJsonObject().get("editable").getAsBoolean();
-                    }
-                    
-                    // Check if we have a value property (new number mode)
-                    if (cell.getAsJsonObject().has("value")) {
-                        int value = cell.getAsJsonObject().get("value").getAsInt();
-                        result[i][j] = new Cell(value, isEditable);
-                    } else {
-                        // Use RGB values (legacy mode)
-                        result[i][j] = new Cell(
-                            cell.getAsJsonObject().get("red").getAsFloat(),
-                            cell.getAsJsonObject().get("green").getAsFloat(),
-                            cell.getAsJsonObject().get("blue").getAsFloat(),
-                            isEditable
-                        );
-                    }
-                }
-            }
-            return result;
-        }
+    // Built-in level as read from a level pack; other fields keep their JSON defaults
+    static LevelConfig builtIn(int id, String name, Settings settings, CellGrid grid, CellGrid targetPattern) {
+        return restore(id, name, settings, grid, targetPattern, null, 0, false, null, false, null, false);
+    }
+
+    // Level with every field given, as read by LevelCodec
+    static LevelConfig restore(int id, String name, Settings settings, CellGrid grid, CellGrid targetPattern,
+                               String creator, long createdAt, boolean isCustomLevel, String description,
+                               boolean isNumberMode, Statistics statistics, boolean isVerified) {
+        LevelConfig config = new LevelConfig();
+        config.id = id;
+        config.name = name;
+        config.settings = settings;
+        config.grid = grid;
+        config.targetPattern = targetPattern;
+        config.creator = creator;
+        config.createdAt = createdAt;
+        config.isCustomLevel = isCustomLevel;
+        config.description = description;
+        config.isNumberMode = isNumberMode;
+        config.statistics = statistics;
+        config.isVerified = isVerified;
+        return config;
     }
 
+    // Fields without public getters, for LevelCodec
+    String getCreator() { return creator; }
+    long getCreatedAt() { return createdAt; }
+    boolean getNumberModeField() { return isNumberMode; }
+
     // Load level from file (from LevelData)
     public static LevelConfig fromJsonFile(String filePath) throws Exception {
-        Gson gson = new GsonBuilder()
-            .registerTypeAdapter(Cell[][].class, new CellArrayDeserializer())
-            .create();
-
         try (Reader reader = Files.newBufferedReader(Path.of(filePath))) {
-            return gson.fromJson(reader, LevelConfig.class);
+            return LevelCodec.read(reader);
         }
     }
 
@@ -272,15 +319,15 @@ public class LevelConfig {
 
     /**
      * Gets the initial grid configuration.
-     * @return The 2D array representing the initial state
+     * @return The grid representing the initial state
      */
-    public Cell[][] getGrid() { return grid; }
+    public CellGrid getGrid() { return grid; }
 
     /**
      * Gets the target pattern configuration.
-     * @return The 2D array representing the target state
+     * @return The grid representing the target state, sharing the initial grid's palette
      */
-    public Cell[][] getTargetPattern() { return targetPattern; }
+    public CellGrid getTargetPattern() { return targetPattern; }
 
     /**
      * Gets the level settings.
@@ -290,6 +337,11 @@ public class LevelConfig {
         return settings != null ? settings : new Settings(); // Return default settings if null
     }
 
+    // Whether settings were given, as getSettings() substitutes defaults
+    boolean hasSettings() {
+        return settings != null;
+    }
+
     /**
      * Prints debugging information about the grid to the console.
      */
@@ -298,9 +350,9 @@ public class LevelConfig {
             System.out.println("Grid is null!");
             return;
         }
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[i].length; j++) {
-                Cell cell = grid[i][j];
+        for (int i = 0; i < grid.getRows(); i++) {
+            for (int j = 0; j < grid.getCols(); j++) {
+                Cell cell = grid.get(i, j);
                 System.out.printf("Cell[%d][%d]: RGB(%.2f, %.2f, %.2f) Editable: %b%n",
                     i, j, cell.red, cell.green, cell.blue, cell.editable);
             }
@@ -313,6 +365,7 @@ public class LevelConfig {
         private boolean isNumberMode;
         private Map<String, Integer> moveLimits = new HashMap<>();
         private Cell[][] grid; // Add a field to store the grid
+        private Cell[][] targetPattern;
         
         private int maxRowEdits = 3;
         private int maxColEdits = 3;
@@ -343,13 +396,12 @@ public class LevelConfig {
         }
 
         public Builder withGrid(Cell[][] grid) {
-            level.grid = grid;
-            this.grid = grid; // Store reference in the builder too
+            this.grid = grid; // Interned into the level's palette by build()
             return this;
         }
 
         public Builder withTargetPattern(Cell[][] targetPattern) {
-            level.targetPattern = targetPattern;
+            this.targetPattern = targetPattern;
             return this;
         }
 
@@ -409,7 +461,7 @@ public class LevelConfig {
             // Create settings if not already set
             if (level.settings == null) {
                 // Use default grid size (4) if not set elsewhere
-                int gridSize = level.grid != null ? level.grid.length : 4;
+                int gridSize = grid != null ? grid.length : 4;
                 level.settings = new Settings(gridSize, moveLimits, "custom", isNumberMode);
             } else {
                 // Update existing settings with move limits
@@ -432,8 +484,10 @@ public class LevelConfig {
             LevelConfig config = new LevelConfig();
             config.id = level.id;
             config.name = level.name;
-            config.grid = level.grid;
-            config.targetPattern = level.targetPattern;
+            // Both grids share one palette, so their cells are stored as indices into it
+            CellGrid.Palette palette = new CellGrid.Palette();
+            config.grid = grid != null ? palette.grid(grid) : null;
+            config.targetPattern = targetPattern != null ? palette.grid(targetPattern) : null;
             config.creator = level.creator;
             config.createdAt = level.createdAt;
             config.isCustomLevel = level.isCustomLevel;
@@ -550,6 +604,17 @@ public class LevelConfig {
         return statistics;
     }
 
+    /**
+     * Gets the level statistics, creating empty ones if the level has none yet.
+     * @return The statistics object
+     */
+    public Statistics getOrCreateStatistics() {
+        if (statistics == null) {
+            statistics = new Statistics(0, 0);
+        }
+        return statistics;
+    }
+
     /**
      * Checks if the level has been verified as solvable.
      * @return true if the level is verified, false otherwise
@@ -0,0 +1,381 @@
+package thegame.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * The built-in levels compiled into one binary file.
+ *
+ * The JSON files in {@code /levels} stay the authoring format. The build runs
+ * {@link #main(String[])} to compile them into {@value #RESOURCE}, which opens with an
+ * index of level offsets, so a level is decoded straight from the buffer without
+ * parsing text. Each level stores its cells as indices into a small table of distinct
+ * cell values.
+ *
+ * The index also keeps a checksum of each level's JSON source. When the game runs from
+ * a build directory rather than a jar, the pack is memory-mapped and checked against
+ * the JSON next to it, and levels edited since the pack was built are read from their
+ * JSON instead. A missing or damaged pack makes {@link #load(int)} return null.
+ *
+ * <pre>
+ * header: int magic, short version, short count, int crc of everything after the index
+ * index:  count x (int level number, int offset, int length, int source crc)
+ * level:  int id, string name, byte flags, [settings], grid, target pattern
+ * settings: short gridSize, short maxMoves, string difficulty, short maxRowEdits,
+ *           short maxColEdits, byte n, n x (string move type, short limit)
+ * grids:  short palette size, size x (float r, float g, float b, int value or MIN_VALUE),
+ *         then each grid as short rows, short columns and one short per cell:
+ *         the palette index, with the top bit set for editable cells
+ * string: unsigned short byte length (0xFFFF for null), then UTF-8
+ * </pre>
+ */
+public final class LevelPack {
+    /** Classpath location of the compiled pack. */
+    public static final String RESOURCE = "/levels/levels.pack";
+
+    private static final int MAGIC = 0x4C56504B; // "LVPK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 16;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+    private static final int EDITABLE = 0x8000;
+    private static final int FLAG_SETTINGS = 1;
+    private static final int FLAG_NUMBER_MODE = 2;
+    private static final Pattern LEVEL_FILE = Pattern.compile("level(\\d+)\\.json");
+
+    private static ByteBuffer pack;
+    private static Map<Integer, Integer> indexSlots; // Level number to index slot
+    private static boolean opened;
+
+    private LevelPack() {}
+
+    /**
+     * Decodes a built-in level from the pack.
+     *
+     * @param levelNumber The level number
+     * @return The level, or null if the pack is missing, damaged or lacks an up-to-date copy
+     */
+    public static LevelConfig load(int levelNumber) {
+        ByteBuffer buffer;
+        Integer slot;
+        synchronized (LevelPack.class) {
+            if (!opened) {
+                opened = true;
+                open();
+            }
+            if (pack == null || (slot = indexSlots.get(levelNumber)) == null) {
+                return null;
+            }
+            buffer = pack.duplicate();
+        }
+        int entry = HEADER_BYTES + slot * INDEX_ENTRY_BYTES;
+        buffer.position(buffer.getInt(entry + 4));
+        return readLevel(buffer);
+    }
+
+    /**
+     * Decodes a level from pack contents, finding it by a scan of the index.
+     *
+     * @param pack The pack contents
+     * @param levelNumber The level number
+     * @return The level, or null if the pack does not contain it
+     */
+    static LevelConfig read(ByteBuffer pack, int levelNumber) {
+        int count = pack.getShort(6) & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+            if (pack.getInt(entry) == levelNumber) {
+                ByteBuffer buffer = pack.duplicate();
+                buffer.position(pack.getInt(entry + 4));
+                return readLevel(buffer);
+            }
+        }
+        return null;
+    }
+
+    private static void open() {
+        URL url = LevelPack.class.getResource(RESOURCE);
+        if (url == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer;
+            Path file = null;
+            if ("file".equals(url.getProtocol())) {
+                // Running from a build directory: map the file and check for edited levels
+                file = Path.of(url.toURI());
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            } else {
+                try (InputStream in = url.openStream()) {
+                    buffer = ByteBuffer.wrap(in.readAllBytes());
+                }
+            }
+
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                throw new IOException("not a level pack of version " + VERSION);
+            }
+            int count = buffer.getShort(6) & 0xFFFF;
+            int dataStart = HEADER_BYTES + count * INDEX_ENTRY_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(dataStart));
+            if ((int) crc.getValue() != buffer.getInt(8)) {
+                throw new IOException("checksum mismatch");
+            }
+
+            Map<Integer, Integer> slots = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                int entry = HEADER_BYTES + i * INDEX_ENTRY_BYTES;
+                int levelNumber = buffer.getInt(entry);
+                if (file != null && isStale(file.resolveSibling("level" + levelNumber + ".json"), buffer.getInt(entry + 12))) {
+                    System.err.println("Level pack is out of date for level " + levelNumber + ", using its JSON");
+                    continue;
+                }
+                slots.put(levelNumber, i);
+            }
+            pack = buffer;
+            indexSlots = slots;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            System.err.println("Error reading level pack: " + e.getMessage());
+        }
+    }
+
+    private static boolean isStale(Path source, int packedCrc) throws IOException {
+        if (!Files.isRegularFile(source)) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(Files.readAllBytes(source));
+        return (int) crc.getValue() != packedCrc;
+    }
+
+    private static LevelConfig readLevel(ByteBuffer in) {
+        int id = in.getInt();
+        String name = readString(in);
+        int flags = in.get();
+        LevelConfig.Settings settings = null;
+        if ((flags & FLAG_SETTINGS) != 0) {
+            int gridSize = in.getShort();
+            int maxMoves = in.getShort();
+            String difficulty = readString(in);
+            int maxRowEdits = in.getShort();
+            int maxColEdits = in.getShort();
+            int limitCount = in.get() & 0xFF;
+            Map<String, Integer> moveLimits = new LinkedHashMap<>();
+            for (int i = 0; i < limitCount; i++) {
+                String moveType = readString(in);
+                moveLimits.put(moveType, (int) in.getShort());
+            }
+            settings = new LevelConfig.Settings(gridSize, maxMoves, moveLimits, difficulty,
+                                                (flags & FLAG_NUMBER_MODE) != 0, maxRowEdits, maxColEdits);
+        }
+
+        int paletteSize = in.getShort() & 0xFFFF;
+        float[] reds = new float[paletteSize];
+        float[] greens = new float[paletteSize];
+        float[] blues = new float[paletteSize];
+        int[] values = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            reds[i] = in.getFloat();
+            greens[i] = in.getFloat();
+            blues[i] = in.getFloat();
+            values[i] = in.getInt();
+        }
+        // Pack entries leave out the editable flag, which is part of a level palette entry
+        CellGrid.Palette palette = new CellGrid.Palette();
+        int[] paletteIndices = new int[paletteSize * 2];
+        Arrays.fill(paletteIndices, -1);
+        CellGrid[] grids = new CellGrid[2];
+        for (int g = 0; g < 2; g++) {
+            int rows = in.getShort();
+            int cols = in.getShort();
+            byte[] indices = new byte[rows * cols];
+            for (int i = 0; i < indices.length; i++) {
+                int cell = in.getShort() & 0xFFFF;
+                int index = cell & ~EDITABLE;
+                int slot = index * 2 + ((cell & EDITABLE) != 0 ? 1 : 0);
+                if (paletteIndices[slot] < 0) {
+                    paletteIndices[slot] = palette.indexOf(reds[index], greens[index], blues[index], (cell & EDITABLE) != 0,
+                                                           values[index] == NO_VALUE ? null : values[index]);
+                }
+                indices[i] = (byte) paletteIndices[slot];
+            }
+            grids[g] = new CellGrid(palette, rows, cols, indices);
+        }
+        return LevelConfig.builtIn(id, name, settings, grids[0], grids[1]);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compiles level JSON files into a pack.
+     *
+     * @param sources JSON source of each level, by level number
+     * @return The pack contents
+     * @throws IOException If a level cannot be encoded
+     */
+    static byte[] compile(Map<Integer, byte[]> sources) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(data);
+        List<int[]> index = new ArrayList<>();
+        for (Map.Entry<Integer, byte[]> source : new TreeMap<>(sources).entrySet()) {
+            LevelConfig level = LevelCodec.read(new InputStreamReader(new ByteArrayInputStream(source.getValue()),
+                                                                       StandardCharsets.UTF_8));
+            if (level == null || level.getGrid() == null || level.getTargetPattern() == null) {
+                throw new IOException("Level " + source.getKey() + " has no grid or target pattern");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(source.getValue());
+            int offset = out.size();
+            writeLevel(out, level);
+            index.add(new int[] { source.getKey(), offset, out.size() - offset, (int) crc.getValue() });
+        }
+
+        byte[] levels = data.toByteArray();
+        int dataStart = HEADER_BYTES + index.size() * INDEX_ENTRY_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(levels);
+        ByteBuffer pack = ByteBuffer.allocate(dataStart + levels.length);
+        pack.putInt(MAGIC).putShort((short) VERSION).putShort((short) index.size()).putInt((int) crc.getValue());
+        for (int[] entry : index) {
+            pack.putInt(entry[0]).putInt(dataStart + entry[1]).putInt(entry[2]).putInt(entry[3]);
+        }
+        pack.put(levels);
+        return pack.array();
+    }
+
+    private static void writeLevel(DataOutputStream out, LevelConfig level) throws IOException {
+        out.writeInt(level.getLevelNumber());
+        writeString(out, level.getName());
+        LevelConfig.Settings settings = level.getSettings();
+        boolean hasSettings = level.hasSettings();
+        int flags = (hasSettings ? FLAG_SETTINGS : 0) | (settings.isNumberMode() ? FLAG_NUMBER_MODE : 0);
+        out.writeByte(flags);
+        if (hasSettings) {
+            out.writeShort(settings.getGridSize());
+            out.writeShort(settings.getMaxMoves());
+            writeString(out, settings.getDifficulty());
+            out.writeShort(settings.getMaxRowEdits());
+            out.writeShort(settings.getMaxColEdits());
+            out.writeByte(settings.getMoveLimits().size());
+            for (Map.Entry<String, Integer> limit : settings.getMoveLimits().entrySet()) {
+                writeString(out, limit.getKey());
+                out.writeShort(limit.getValue());
+            }
+        }
+
+        // Table of the distinct cells of both grids
+        Map<List<Object>, Integer> palette = new LinkedHashMap<>();
+        for (CellGrid grid : List.of(level.getGrid(), level.getTargetPattern())) {
+            for (int i = 0; i < grid.getPalette().size(); i++) {
+                LevelConfig.Cell cell = grid.getPalette().get(i);
+                if (cell != null) {
+                    palette.putIfAbsent(paletteKey(cell), palette.size());
+                }
+            }
+        }
+        if (palette.size() >= EDITABLE) {
+            throw new IOException("Level " + level.getLevelNumber() + " has too many distinct cells");
+        }
+        out.writeShort(palette.size());
+        for (List<Object> key : palette.keySet()) {
+            out.writeFloat((Float) key.get(0));
+            out.writeFloat((Float) key.get(1));
+            out.writeFloat((Float) key.get(2));
+            out.writeInt((Integer) key.get(3));
+        }
+        for (CellGrid grid : List.of(level.getGrid(), level.getTargetPattern())) {
+            out.writeShort(grid.getRows());
+            out.writeShort(grid.getCols());
+            for (int row = 0; row < grid.getRows(); row++) {
+                for (int col = 0; col < grid.getCols(); col++) {
+                    LevelConfig.Cell cell = grid.get(row, col);
+                    if (cell == null) {
+                        throw new IOException("Level " + level.getLevelNumber() + " has an empty cell");
+                    }
+                    out.writeShort(palette.get(paletteKey(cell)) | (cell.editable ? EDITABLE : 0));
+                }
+            }
+        }
+    }
+
+    private static List<Object> paletteKey(LevelConfig.Cell cell) {
+        Integer value = cell.getStoredValue();
+        return List.of(cell.red, cell.green, cell.blue, value != null ? value : NO_VALUE);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("String too long for a level pack");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Compiles every {@code levelN.json} in a directory into a pack. Run by the build.
+     *
+     * @param args The level directory and the pack file to write
+     * @throws IOException If a level cannot be read or the pack cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelPack <level directory> <output file>");
+            System.exit(1);
+        }
+        Map<Integer, byte[]> sources = new TreeMap<>();
+        try (Stream<Path> files = Files.list(Path.of(args[0]))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = LEVEL_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    sources.put(Integer.parseInt(matcher.group(1)), Files.readAllBytes(file));
+                }
+            }
+        }
+        byte[] pack = compile(sources);
+        Path output = Path.of(args[1]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, pack);
+        System.out.println("Compiled " + sources.size() + " levels into " + output + " (" + pack.length + " bytes)");
+    }
+}
@@ -0,0 +1,716 @@
+package thegame.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * Stores online levels as documents in their own indexed collection.
+ *
+ * Levels used to live inside each user document under {@code Levels.levelN}, so
+ * listing them meant reading every user. Each level is now one document keyed by a
+ * numeric {@code id}, with its creator's username in {@code creator}, and listings
+ * are fetched a page at a time with keyset pagination: every page query seeks into
+ * an index from the last row of the previous page, so its cost does not depend on
+ * how many levels exist. Sorting, creator and verified filtering and id lookups
+ * all run in the database against compound indexes.
+ */
+public class LevelRepository {
+    /** Name of the levels collection. */
+    public static final String COLLECTION_NAME = "levels";
+
+    private static final String USERS_COLLECTION = UserRepository.COLLECTION_NAME;
+    private static final String META_COLLECTION = "meta";
+    private static final String MIGRATION_MARKER = "levelsMigrated";
+    // Name the server gives the index on "id"
+    private static final String ID_INDEX = "id_1";
+
+    private static final String PLAYS_FIELD = "statistics.timeplayed";
+    private static final String LIKES_FIELD = "statistics.likes";
+
+    /** Fields a level list needs: no grids, so listing stays small regardless of level size. */
+    public static final Bson LISTING_FIELDS = Projections.include(
+        "id", "name", "creator", "isVerified", "statistics",
+        "settings.gridSize", "settings.difficulty", "settings.isNumberMode");
+
+    // Indexes and migration only need to run once per process
+    private static volatile boolean prepared = false;
+
+    /**
+     * Order in which levels are listed. Every order ends with the level id so the
+     * keyset is unique.
+     */
+    public enum SortOrder {
+        BY_ID(null),
+        BY_PLAYS(PLAYS_FIELD),
+        BY_LIKES(LIKES_FIELD);
+
+        private final String statField;
+
+        SortOrder(String statField) {
+            this.statField = statField;
+        }
+
+        private Bson sort() {
+            if (statField == null) {
+                return Sorts.ascending("id");
+            }
+            return Sorts.orderBy(Sorts.descending(statField), Sorts.ascending("id"));
+        }
+    }
+
+    /**
+     * Position after the last level of a page, used to fetch the page that follows it.
+     */
+    public static final class Cursor {
+        private final int id;
+        private final int statValue;
+
+        private Cursor(int id, int statValue) {
+            this.id = id;
+            this.statValue = statValue;
+        }
+
+        private static Cursor after(Document doc, SortOrder order) {
+            int statValue = 0;
+            if (order.statField != null) {
+                Document stats = doc.get("statistics", Document.class);
+                String key = order.statField.substring(order.statField.indexOf('.') + 1);
+                statValue = stats != null ? intValue(stats.get(key)) : 0;
+            }
+            return new Cursor(intValue(doc.get("id")), statValue);
+        }
+
+        private Bson filter(SortOrder order) {
+            if (order.statField == null) {
+                return Filters.gt("id", id);
+            }
+            return Filters.or(
+                Filters.lt(order.statField, statValue),
+                Filters.and(Filters.eq(order.statField, statValue), Filters.gt("id", id)));
+        }
+    }
+
+    /**
+     * One page of level summaries.
+     */
+    public static final class Page {
+        private final List<LevelSummary> levels;
+        private final Cursor next;
+        private final boolean hasMore;
+
+        private Page(List<LevelSummary> levels, Cursor next, boolean hasMore) {
+            this.levels = levels;
+            this.next = next;
+            this.hasMore = hasMore;
+        }
+
+        /** @return The level summaries on this page */
+        public List<LevelSummary> getLevels() { return levels; }
+
+        /** @return The cursor to pass to fetch the following page, or null if the page is empty */
+        public Cursor getNext() { return next; }
+
+        /** @return true if at least one more level follows this page */
+        public boolean hasMore() { return hasMore; }
+    }
+
+    private final MongoDatabase database;
+    private final MongoCollection<Document> levels;
+
+    /**
+     * Creates a repository on an open connection.
+     *
+     * @param connection The database connection
+     */
+    public LevelRepository(MongoDBConnection connection) {
+        this.database = connection.getDatabase();
+        this.levels = database.getCollection(COLLECTION_NAME);
+    }
+
+    /**
+     * Migrates embedded levels and creates the indexes, once per process.
+     */
+    public void prepare() {
+        if (prepared) {
+            return;
+        }
+        synchronized (LevelRepository.class) {
+            if (!prepared) {
+                migrateEmbeddedLevels();
+                ensureIndexes();
+                prepared = true;
+            }
+        }
+    }
+
+    /**
+     * Creates the indexes used by page queries, lookups and ownership checks.
+     * Every filter (none, creator, verified) has an index for every sort order.
+     */
+    public void ensureIndexes() {
+        try {
+            levels.createIndex(Indexes.ascending("id"), new IndexOptions().unique(true));
+        } catch (MongoException e) {
+            // Older data may hold duplicate ids, or an older version left a non-unique id index.
+            // Paging, statistics and ownership checks all address one level by id, so repair
+            // the data and let a second failure propagate rather than run without the constraint.
+            System.err.println("Repairing level ids for the unique index: " + e.getMessage());
+            renumberDuplicateIds();
+            for (Document index : levels.listIndexes()) {
+                if (ID_INDEX.equals(index.getString("name")) && !index.getBoolean("unique", false)) {
+                    levels.dropIndex(ID_INDEX);
+                }
+            }
+            levels.createIndex(Indexes.ascending("id"), new IndexOptions().unique(true));
+        }
+        for (SortOrder order : SortOrder.values()) {
+            if (order.statField != null) {
+                levels.createIndex(order.sort());
+            }
+            levels.createIndex(Indexes.compoundIndex(Indexes.ascending("creator"), order.sort()));
+            levels.createIndex(Indexes.compoundIndex(Indexes.ascending("isVerified"), order.sort()));
+        }
+    }
+
+    /**
+     * Gives every level that shares its id with an older document a new id, keeping
+     * the oldest document under the original id.
+     *
+     * @return The number of levels renumbered
+     */
+    public int renumberDuplicateIds() {
+        int renumbered = 0;
+        List<Bson> pipeline = List.of(
+            Aggregates.sort(Sorts.ascending("_id")),
+            Aggregates.group("$id", Accumulators.push("docs", "$_id"), Accumulators.sum("count", 1)),
+            Aggregates.match(Filters.gt("count", 1)));
+        for (Document group : levels.aggregate(pipeline).into(new ArrayList<>())) {
+            List<?> docIds = group.getList("docs", Object.class);
+            for (Object docId : docIds.subList(1, docIds.size())) {
+                int id = nextLevelId();
+                levels.updateOne(Filters.eq("_id", docId), Updates.set("id", id));
+                System.err.println("Level id " + group.get("_id") + " was used more than once, renumbered a copy to " + id);
+                renumbered++;
+            }
+        }
+        return renumbered;
+    }
+
+    /**
+     * Moves levels embedded in user documents ({@code data.Levels.levelN}) into the
+     * levels collection, removing each from its user document once it is stored.
+     * A level whose id is already taken by another creator's level is stored under
+     * a new id. Runs until every level has been stored, and can be rerun safely if it
+     * was interrupted.
+     *
+     * @return The number of levels migrated
+     */
+    public int migrateEmbeddedLevels() {
+        MongoCollection<Document> meta = database.getCollection(META_COLLECTION);
+        if (meta.find(Filters.eq("_id", MIGRATION_MARKER)).first() != null) {
+            return 0;
+        }
+
+        // Standalone levels saved by older versions stored the id as a string
+        for (Document doc : levels.find(Filters.type("id", BsonType.STRING))) {
+            int id = parseId(doc.get("id"), null);
+            levels.updateOne(Filters.eq("_id", doc.get("_id")), Updates.set("id", id));
+        }
+
+        renumberDuplicateIds();
+
+        MongoCollection<Document> users = database.getCollection(USERS_COLLECTION);
+        int migrated = 0;
+        boolean complete = true;
+        for (Document user : users.find(Filters.exists("Levels"))) {
+            String username = user.getString("username");
+            Object levelsObj = user.get("Levels");
+            if (username == null || !(levelsObj instanceof Document)) {
+                continue; // Leave data we cannot attribute where it is
+            }
+
+            int remaining = 0;
+            for (Map.Entry<String, Object> entry : ((Document) levelsObj).entrySet()) {
+                if (!(entry.getValue() instanceof Document)) {
+                    remaining++;
+                    continue;
+                }
+                Document level = normalize((Document) entry.getValue(), username, entry.getKey());
+                if (!storeMigratedLevel(level, username)) {
+                    remaining++;
+                    complete = false;
+                    continue;
+                }
+                users.updateOne(Filters.eq("_id", user.get("_id")), Updates.unset("Levels." + entry.getKey()));
+                migrated++;
+            }
+            if (remaining == 0) {
+                users.updateOne(Filters.eq("_id", user.get("_id")), Updates.unset("Levels"));
+            }
+        }
+
+        if (complete) {
+            meta.updateOne(Filters.eq("_id", MIGRATION_MARKER),
+                           Updates.set("migratedAt", System.currentTimeMillis()),
+                           new UpdateOptions().upsert(true));
+        }
+        return migrated;
+    }
+
+    // Stores an embedded level, under a new id if its own belongs to another creator's level.
+    // Returns false if the level could not be stored, so its embedded copy is kept.
+    private boolean storeMigratedLevel(Document level, String creator) {
+        int id = level.getInteger("id");
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Document fields = new Document(level);
+            fields.remove("id");
+            UpdateResult result = levels.updateOne(Filters.eq("id", id), new Document("$setOnInsert", fields),
+                                                   new UpdateOptions().upsert(true));
+            if (result.getUpsertedId() != null) {
+                return true;
+            }
+            Document existing = levels.find(Filters.eq("id", id)).projection(Projections.include("creator")).first();
+            if (existing != null && creator.equals(existing.getString("creator"))) {
+                return true; // Stored by an earlier, interrupted run
+            }
+            int newId = nextLevelId();
+            System.err.println("Level id " + id + " of " + creator + " is taken, migrating it as " + newId);
+            id = newId;
+        }
+        System.err.println("Could not find a free id for a level of " + creator + ", keeping it in the user document");
+        return false;
+    }
+
+    /**
+     * Fetches one page of level summaries, projected to {@link #LISTING_FIELDS}.
+     *
+     * @param order The listing order
+     * @param creator Only list levels by this user, or null for all levels
+     * @param verifiedOnly Only list levels verified as solvable
+     * @param after The cursor returned with the previous page, or null for the first page
+     * @param limit The page size
+     * @return The page
+     */
+    public Page findPage(SortOrder order, String creator, boolean verifiedOnly, Cursor after, int limit) {
+        List<Bson> filters = new ArrayList<>();
+        if (after != null) {
+            filters.add(after.filter(order));
+        }
+
+        // Fetch one extra level to learn whether another page follows
+        List<Document> docs = levels.find(filter(creator, verifiedOnly, filters))
+                                    .projection(LISTING_FIELDS)
+                                    .sort(order.sort())
+                                    .limit(limit + 1)
+                                    .into(new ArrayList<>());
+        boolean hasMore = docs.size() > limit;
+        if (hasMore) {
+            docs.remove(limit);
+        }
+        Cursor next = docs.isEmpty() ? null : Cursor.after(docs.get(docs.size() - 1), order);
+
+        List<LevelSummary> summaries = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            summaries.add(LevelSummary.fromDocument(doc));
+        }
+        return new Page(summaries, next, hasMore);
+    }
+
+    /**
+     * Counts levels for page numbering.
+     *
+     * @param creator Only count levels by this user, or null for all levels
+     * @param verifiedOnly Only count levels verified as solvable
+     * @return The number of levels; an estimate from collection metadata when counting all
+     */
+    public long count(String creator, boolean verifiedOnly) {
+        if (creator == null && !verifiedOnly) {
+            return levels.estimatedDocumentCount();
+        }
+        return levels.countDocuments(filter(creator, verifiedOnly, new ArrayList<>()));
+    }
+
+    /**
+     * Finds a level by id.
+     *
+     * @param id The level id
+     * @return The level document, or null if there is none
+     */
+    public Document findById(int id) {
+        return levels.find(Filters.eq("id", id)).first();
+    }
+
+    /**
+     * Fetches and decodes a complete level, including its grids.
+     *
+     * @param id The level id
+     * @return The level, or null if there is none
+     */
+    public LevelConfig findLevel(int id) {
+        Document doc = findById(id);
+        return doc != null ? toLevelConfig(doc) : null;
+    }
+
+    /**
+     * Inserts or updates a level. Play and like counts of an existing level are kept.
+     *
+     * @param level The level to save
+     * @param creator Username of the level's creator
+     * @param verified Whether the level has been verified as solvable
+     */
+    public void save(LevelConfig level, String creator, boolean verified) {
+        Document doc = normalize(level.toDocument(), creator, null);
+        doc.put("isVerified", verified);
+        doc.remove("id");
+        Object statistics = doc.remove("statistics");
+
+        Document update = new Document("$set", doc)
+            .append("$setOnInsert", new Document("statistics", statistics));
+        levels.updateOne(Filters.eq("id", level.getLevelNumber()), update, new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Atomically adds to a level's play and like counts with a single {@code $inc},
+     * so concurrent updates from different players are never lost.
+     *
+     * @param id The level id
+     * @param plays Plays to add
+     * @param likes Likes to add
+     * @return true if the level exists
+     */
+    public boolean incrementStatistics(int id, int plays, int likes) {
+        List<Bson> increments = new ArrayList<>();
+        if (plays != 0) {
+            increments.add(Updates.inc(PLAYS_FIELD, plays));
+        }
+        if (likes != 0) {
+            increments.add(Updates.inc(LIKES_FIELD, likes));
+        }
+        if (increments.isEmpty()) {
+            return true;
+        }
+        return levels.updateOne(Filters.eq("id", id), Updates.combine(increments)).getMatchedCount() > 0;
+    }
+
+    /**
+     * Applies a batch of buffered play and like deltas as one unordered bulk write
+     * of {@code $inc} updates.
+     *
+     * @param deltas The coalesced deltas, one per level
+     */
+    public void incrementStatistics(List<StatsWriteBehindBuffer.Delta> deltas) {
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(deltas.size());
+        for (StatsWriteBehindBuffer.Delta delta : deltas) {
+            updates.add(new UpdateOneModel<>(Filters.eq("id", delta.getLevelId()),
+                Updates.combine(Updates.inc(PLAYS_FIELD, delta.getPlays()),
+                                Updates.inc(LIKES_FIELD, delta.getLikes()))));
+        }
+        if (!updates.isEmpty()) {
+            levels.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        }
+    }
+
+    /**
+     * Marks a level as verified.
+     *
+     * @param id The level id
+     * @param creator Only update the level if it belongs to this user
+     * @return true if a level was updated
+     */
+    public boolean setVerified(int id, String creator) {
+        return levels.updateOne(Filters.and(Filters.eq("id", id), Filters.eq("creator", creator)),
+                                Updates.set("isVerified", true)).getMatchedCount() > 0;
+    }
+
+    /**
+     * Deletes a level.
+     *
+     * @param id The level id
+     * @param creator Only delete the level if it belongs to this user, or null to delete any level
+     * @return true if a level was deleted
+     */
+    public boolean delete(int id, String creator) {
+        Bson filter = creator == null
+            ? Filters.eq("id", id)
+            : Filters.and(Filters.eq("id", id), Filters.eq("creator", creator));
+        return levels.deleteOne(filter).getDeletedCount() > 0;
+    }
+
+    /**
+     * Gets an id one higher than any stored level.
+     *
+     * @return The next free level id
+     */
+    public int nextLevelId() {
+        Document maxDoc = levels.find().sort(Sorts.descending("id")).limit(1).first();
+        return maxDoc != null ? intValue(maxDoc.get("id")) + 1 : 1;
+    }
+
+    /**
+     * Parses a level id stored as a number or string, falling back to the
+     * digits of the legacy {@code levelN} key.
+     *
+     * @param value The stored id
+     * @param key The legacy key, or null
+     * @return The numeric id
+     */
+    public static int parseId(Object value, String key) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        String text = value instanceof String ? (String) value : key;
+        if (text == null) {
+            return 0;
+        }
+        String digits = text.replaceAll("[^0-9]", "");
+        try {
+            return Integer.parseInt(digits);
+        } catch (NumberFormatException e) {
+            // Use hash code of the string ID as a fallback numeric ID
+            return Math.abs(text.hashCode());
+        }
+    }
+
+    /**
+     * Converts a full level document to a LevelConfig object.
+     *
+     * @param doc The document to convert
+     * @return A new LevelConfig object
+     */
+    @SuppressWarnings("unchecked")
+    public static LevelConfig toLevelConfig(Document doc) {
+        LevelConfig.Builder builder = new LevelConfig.Builder();
+
+        // Set ID and name
+        int id = parseId(doc.get("id"), null);
+
+        if (id <= 0) {
+            // Generate a unique ID to ensure display
+            id = (int) (System.currentTimeMillis() % 100000);
+        }
+
+        // Ensure we have name
+        String name = doc.getString("name");
+        if (name == null || name.isEmpty()) {
+            name = "Unnamed Level";
+        }
+
+        builder.withId(id);
+        builder.withName(name);
+
+        // Process statistics if present
+        Document statsDoc = doc.get("statistics", Document.class);
+        if (statsDoc != null) {
+            int timePlayed = statsDoc.getInteger("timeplayed", 0);
+            int likes = statsDoc.getInteger("likes", 0);
+            LevelConfig.Statistics stats = new LevelConfig.Statistics(timePlayed, likes);
+            builder.withStatistics(stats);
+        }
+
+        // Process creator info
+        String creator = doc.getString("creator");
+        if (creator != null) {
+            builder.withCreator(creator);
+        }
+
+        // Set description
+        String description = doc.getString("description");
+        if (description != null) {
+            builder.withDescription(description);
+        }
+
+        // Process settings
+        Document settingsDoc = doc.get("settings", Document.class);
+        if (settingsDoc != null) {
+            int gridSize = settingsDoc.getInteger("gridSize", 4);
+
+            // Create move limits map
+            Map<String, Integer> moveLimits = new HashMap<>();
+            Document moveLimitsDoc = settingsDoc.get("moveLimits", Document.class);
+            if (moveLimitsDoc != null) {
+                for (String moveType : moveLimitsDoc.keySet()) {
+                    Integer limit = moveLimitsDoc.getInteger(moveType);
+                    if (limit != null) {
+                        moveLimits.put(moveType, limit);
+                    }
+                }
+            }
+
+            String difficulty = settingsDoc.getString("difficulty");
+            boolean isNumberMode = settingsDoc.getBoolean("isNumberMode", false);
+
+            // Build settings object
+            LevelConfig.Settings settings = new LevelConfig.Settings(
+                gridSize, moveLimits, difficulty != null ? difficulty : "custom", isNumberMode);
+
+            builder.withSettings(settings);
+
+            String creatorSetting = settingsDoc.getString("creator");
+            if (creatorSetting != null) {
+                builder.withCreator(creatorSetting);
+            }
+        }
+
+        // Process grid (handle both number and color formats)
+        Object gridObj = doc.get("grid");
+        LevelConfig.Cell[][] processedGrid = null; // Save processed grid for later
+        if (gridObj instanceof List) {
+            List<List<Document>> gridDocs = (List<List<Document>>) gridObj;
+            int gridSize = gridDocs.size();
+            LevelConfig.Cell[][] grid = new LevelConfig.Cell[gridSize][gridSize];
+
+            for (int i = 0; i < gridSize; i++) {
+                List<Document> row = gridDocs.get(i);
+                for (int j = 0; j < row.size(); j++) {
+                    Document cellDoc = row.get(j);
+                    boolean editable = cellDoc.getBoolean("editable", true);
+
+                    // Handle number format (value property)
+                    if (cellDoc.containsKey("value")) {
+                        int value = cellDoc.getInteger("value");
+                        grid[i][j] = new LevelConfig.Cell(value, editable);
+                    }
+                    // Handle color format (RGB properties)
+                    else if (cellDoc.containsKey("red")) {
+                        grid[i][j] = new LevelConfig.Cell(
+                            getFloatValue(cellDoc, "red"),
+                            getFloatValue(cellDoc, "green"),
+                            getFloatValue(cellDoc, "blue"),
+                            editable
+                        );
+                    }
+                    // Default empty cell
+                    else {
+                        grid[i][j] = new LevelConfig.Cell(0, 0, 0, editable);
+                    }
+                }
+            }
+            // Store the processed grid for later use with targetPattern
+            processedGrid = grid;
+            builder.withGrid(grid);
+        }
+
+        // Process target pattern
+        Object targetObj = doc.get("targetPattern");
+        if (targetObj instanceof List) {
+            List<List<Document>> targetDocs = (List<List<Document>>) targetObj;
+            int gridSize = targetDocs.size();
+            LevelConfig.Cell[][] target = new LevelConfig.Cell[gridSize][gridSize];
+
+            for (int i = 0; i < gridSize; i++) {
+                List<Document> row = targetDocs.get(i);
+                for (int j = 0; j < row.size(); j++) {
+                    Document cellDoc = row.get(j);
+                    boolean editable = cellDoc.getBoolean("editable", true);
+
+                    // Handle number format
+                    if (cellDoc.containsKey("value")) {
+                        int value = cellDoc.getInteger("value");
+                        target[i][j] = new LevelConfig.Cell(value, editable);
+                    }
+                    // Handle color format
+                    else if (cellDoc.containsKey("red")) {
+                        target[i][j] = new LevelConfig.Cell(
+                            getFloatValue(cellDoc, "red"),
+                            getFloatValue(cellDoc, "green"),
+                            getFloatValue(cellDoc, "blue"),
+                            editable
+                        );
+                    }
+                    // Default empty cell
+                    else {
+                        target[i][j] = new LevelConfig.Cell(0, 0, 0, editable);
+                    }
+                }
+            }
+            builder.withTargetPattern(target);
+        } else if (processedGrid != null) {
+            // If target pattern is missing and we have a grid, use it as the target
+            builder.withTargetPattern(processedGrid);
+        }
+
+        // Check for isVerified field and handle it properly
+        boolean isVerified = false;
+        if (doc.containsKey("isVerified")) {
+            isVerified = doc.getBoolean("isVerified", false);
+        }
+
+        // Add isVerified status to the builder
+        builder.withVerified(isVerified);
+
+        return builder.build();
+    }
+
+    /**
+     * Safely extracts a float value from a document, handling different numeric types.
+     *
+     * @param doc The document to extract from
+     * @param key The key to extract
+     * @return The float value, or 0.0f if not found or invalid
+     */
+    private static float getFloatValue(Document doc, String key) {
+        Object value = doc.get(key);
+        if (value instanceof Integer) {
+            return ((Integer) value).floatValue();
+        } else if (value instanceof Double) {
+            return ((Double) value).floatValue();
+        } else if (value instanceof Long) {
+            return ((Long) value).floatValue();
+        } else {
+            return 0.0f; // Default value if type is not numeric or null
+        }
+    }
+
+    // Combines the listing filters with any extra conditions
+    private static Bson filter(String creator, boolean verifiedOnly, List<Bson> filters) {
+        if (creator != null) {
+            filters.add(Filters.eq("creator", creator));
+        }
+        if (verifiedOnly) {
+            filters.add(Filters.eq("isVerified", true));
+        }
+        return filters.isEmpty() ? new Document() : Filters.and(filters);
+    }
+
+    // Brings a level document into the collection's layout: numeric id, creator and statistics
+    private static Document normalize(Document level, String creator, String key) {
+        Document doc = new Document(level);
+        doc.remove("_id");
+        doc.put("id", parseId(level.get("id"), key));
+        doc.put("creator", creator);
+
+        Object statsObj = level.get("statistics");
+        Document stats = statsObj instanceof Document ? (Document) statsObj : new Document();
+        int plays = intValue(stats.containsKey("timeplayed") ? stats.get("timeplayed") : stats.get("timePlayed"));
+        doc.put("statistics", new Document("timeplayed", plays).append("likes", intValue(stats.get("likes"))));
+
+        doc.put("isVerified", level.getBoolean("isVerified", false));
+        return doc;
+    }
+
+    private static int intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+}
@@ -0,0 +1,100 @@
+package thegame.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records plays and likes of online levels.
+ * The in-memory statistics change immediately; database updates go through a
+ * {@link StatsWriteBehindBuffer} that coalesces them per level and flushes them as
+ * one bulk {@code $inc} every few seconds and on shutdown.
+ */
+public class LevelStatsService {
+    /** Seconds between flushes of buffered statistics. */
+    public static final long FLUSH_INTERVAL_SECONDS = 10;
+    /** Distinct levels buffered before flushing early. */
+    public static final int MAX_BUFFERED_LEVELS = 1000;
+
+    private static final Path JOURNAL_PATH = Path.of(System.getProperty("user.home"), ".thegame", "stats-journal.log");
+
+    private static StatsWriteBehindBuffer buffer;
+
+    // Used when the journal cannot be opened: one $inc per event
+    private static final ExecutorService fallbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-stats");
+        thread.setDaemon(true); // Never keep the game alive on exit
+        return thread;
+    });
+
+    private LevelStatsService() {}
+
+    /**
+     * Starts the write-behind buffer, flushing statistics journaled by a previous run.
+     */
+    public static synchronized void start() {
+        if (buffer != null) {
+            return;
+        }
+        try {
+            buffer = StatsWriteBehindBuffer.open(deltas -> {
+                try (MongoDBConnection mongodb = new MongoDBConnection()) {
+                    new LevelRepository(mongodb).incrementStatistics(deltas);
+                }
+            }, JOURNAL_PATH, FLUSH_INTERVAL_SECONDS, MAX_BUFFERED_LEVELS);
+        } catch (IOException e) {
+            System.err.println("Error opening stats journal, writing statistics directly: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes buffered statistics and stops the write-behind buffer.
+     */
+    public static synchronized void shutdown() {
+        if (buffer != null) {
+            buffer.shutdown();
+            buffer = null;
+        }
+    }
+
+    /**
+     * Records that a level was played to completion.
+     *
+     * @param level The level that was played
+     */
+    public static void recordPlay(LevelConfig level) {
+        level.getOrCreateStatistics().addPlays(1);
+        submit(level.getLevelNumber(), 1, 0);
+    }
+
+    /**
+     * Records that a player liked a level.
+     *
+     * @param level The level that was liked
+     */
+    public static void recordLike(LevelConfig level) {
+        level.getOrCreateStatistics().addLikes(1);
+        submit(level.getLevelNumber(), 0, 1);
+    }
+
+    private static void submit(int levelId, int plays, int likes) {
+        start();
+        StatsWriteBehindBuffer current;
+        synchronized (LevelStatsService.class) {
+            current = buffer;
+        }
+        if (current != null) {
+            current.record(levelId, plays, likes);
+            return;
+        }
+
+        fallbackExecutor.execute(() -> {
+            try (MongoDBConnection mongodb = new MongoDBConnection()) {
+                new LevelRepository(mongodb).incrementStatistics(levelId, plays, likes);
+            } catch (Exception e) {
+                System.err.println("Error updating level statistics: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package thegame.utils;
+
+import org.bson.Document;
+
+/**
+ * Lightweight description of an online level for browsing.
+ * Holds what a level tile shows; the grids are only fetched as a full
+ * {@link LevelConfig} when the level is opened or edited.
+ */
+public class LevelSummary {
+    private final int id;
+    private final String name;
+    private final String creator;
+    private final String difficulty;
+    private final int gridSize;
+    private final boolean isNumberMode;
+    private final int timePlayed;
+    private final int likes;
+    private final boolean isVerified;
+
+    /**
+     * Creates a level summary.
+     *
+     * @param id The level id
+     * @param name The level name
+     * @param creator Username of the level's creator
+     * @param difficulty The difficulty label
+     * @param gridSize The grid size
+     * @param isNumberMode Whether the level uses numbers instead of colors
+     * @param timePlayed How many times the level has been played
+     * @param likes How many likes the level has
+     * @param isVerified Whether the level has been verified as solvable
+     */
+    public LevelSummary(int id, String name, String creator, String difficulty, int gridSize,
+                        boolean isNumberMode, int timePlayed, int likes, boolean isVerified) {
+        this.id = id;
+        this.name = name;
+        this.creator = creator;
+        this.difficulty = difficulty;
+        this.gridSize = gridSize;
+        this.isNumberMode = isNumberMode;
+        this.timePlayed = timePlayed;
+        this.likes = likes;
+        this.isVerified = isVerified;
+    }
+
+    /**
+     * Creates a summary from a level document projected to {@link LevelRepository#LISTING_FIELDS}.
+     *
+     * @param doc The level document
+     * @return A new level summary
+     */
+    public static LevelSummary fromDocument(Document doc) {
+        String name = doc.getString("name");
+        if (name == null || name.isEmpty()) {
+            name = "Unnamed Level";
+        }
+        String creator = doc.getString("creator");
+        if (creator == null) {
+            creator = "Unknown";
+        }
+
+        Document settings = doc.get("settings", Document.class);
+        String difficulty = "custom";
+        int gridSize = 4;
+        boolean isNumberMode = false;
+        if (settings != null) {
+            if (settings.getString("difficulty") != null) {
+                difficulty = settings.getString("difficulty");
+            }
+            gridSize = intValue(settings.get("gridSize"), gridSize);
+            isNumberMode = settings.getBoolean("isNumberMode", false);
+        }
+
+        Document stats = doc.get("statistics", Document.class);
+        int timePlayed = stats != null ? intValue(stats.get("timeplayed"), 0) : 0;
+        int likes = stats != null ? intValue(stats.get("likes"), 0) : 0;
+
+        return new LevelSummary(LevelRepository.parseId(doc.get("id"), null), name, creator, difficulty,
+                                gridSize, isNumberMode, timePlayed, likes, doc.getBoolean("isVerified", false));
+    }
+
+    private static int intValue(Object value, int fallback) {
+        return value instanceof Number ? ((Number) value).intValue() : fallback;
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public String getCreator() { return creator; }
+    public String getDifficulty() { return difficulty; }
+    public int getGridSize() { return gridSize; }
+    public boolean isNumberMode() { return isNumberMode; }
+    public int getTimePlayed() { return timePlayed; }
+    public int getLikes() { return likes; }
+    public boolean isVerified() { return isVerified; }
+}
@@ -1,5 +1,9 @@
 package thegame.utils;
 
+import java.util.concurrent.TimeUnit;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
@@ -7,52 +11,92 @@ import com.mongodb.client.MongoDatabase;
 import org.bson.Document;
 
 /**
- * Manages connections to the MongoDB database.
- * Implements AutoCloseable to allow use with try-with-resources.
+ * Provides access to the MongoDB database.
+ * All connections share one pooled client, created on first use from the database
+ * settings in {@link SettingsManager} and closed by {@link #shutdown()} when the game exits.
+ * Implements AutoCloseable so callers can keep using try-with-resources; closing a
+ * connection leaves the shared client open.
  */
 public class MongoDBConnection implements AutoCloseable {
-    private static final String CONNECTION_STRING = "mongodb://localhost:27017";
-    private static final String DATABASE_NAME = "theGame";
-    private static final String COLLECTION_NAME = "data";
-    
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+    private static MongoClient sharedClient;
+
     private final MongoClient mongoClient;
-    
+
     /**
-     * Creates a new MongoDB connection.
+     * Creates a new MongoDB connection backed by the shared client.
      */
     public MongoDBConnection() {
-        mongoClient = MongoClients.create(CONNECTION_STRING);
+        mongoClient = getClient();
+    }
+
+    /**
+     * Gets the shared client, creating it on first use.
+     *
+     * @return The application-wide MongoDB client
+     */
+    public static synchronized MongoClient getClient() {
+        if (sharedClient == null) {
+            MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(SettingsManager.getMongoUri()))
+                .applyToConnectionPoolSettings(pool -> pool
+                    .minSize(SettingsManager.getMongoMinPoolSize())
+                    .maxSize(SettingsManager.getMongoMaxPoolSize())
+                    .maxConnectionIdleTime(SettingsManager.getMongoMaxIdleTimeMs(), TimeUnit.MILLISECONDS)
+                    .addConnectionPoolListener(poolMetrics))
+                .applyToClusterSettings(cluster -> cluster
+                    .serverSelectionTimeout(SettingsManager.getMongoServerSelectionTimeoutMs(), TimeUnit.MILLISECONDS))
+                .build();
+            sharedClient = MongoClients.create(settings);
+        }
+        return sharedClient;
     }
-    
+
+    /**
+     * Gets the connection pool metrics of the shared client.
+     *
+     * @return The pool metrics
+     */
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /**
+     * Closes the shared client. Called once when the game exits.
+     */
+    public static synchronized void shutdown() {
+        if (sharedClient != null) {
+            System.out.println("MongoDB pool: " + poolMetrics);
+            sharedClient.close();
+            sharedClient = null;
+        }
+    }
+
     /**
      * Gets the MongoDB database.
      *
      * @return The MongoDB database
      */
     public MongoDatabase getDatabase() {
-        return mongoClient.getDatabase(DATABASE_NAME);
+        return mongoClient.getDatabase(SettingsManager.getMongoDatabase());
     }
-    
+
     /**
      * Gets the levels collection.
-     * Note: Levels are stored within user documents, so this returns the main data collection.
+     * Each online level is its own document; see {@link LevelRepository}.
      *
-     * @return The MongoDB collection containing user data and levels
+     * @return The MongoDB collection containing levels
      */
     public MongoCollection<Document> getLevelsCollection() {
-        // Since all levels are within user documents, there's no separate levels collection
-        // This just gives access to the 'data' collection which contains users
-        return getDatabase().getCollection(COLLECTION_NAME);
+        return getDatabase().getCollection(LevelRepository.COLLECTION_NAME);
     }
-    
+
     /**
-     * Closes the MongoDB connection.
+     * Releases this connection. The shared client stays open.
      * Automatically called when used with try-with-resources.
      */
     @Override
     public void close() {
-        if (mongoClient != null) {
-            mongoClient.close();
-        }
+        // Nothing to release; pooled connections are returned after each operation
     }
-}
\ No newline at end of file
+}
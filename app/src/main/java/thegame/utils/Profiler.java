@@ -0,0 +1,493 @@
+package thegame.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+
+import thegame.render.Renderer2D;
+
+/**
+ * Frame profiler for the render thread.
+ *
+ * Code marks sections with {@link #begin(Section)} and {@link #end(Section)}; the
+ * profiler adds up CPU time per section and frame and keeps the individual scopes in
+ * ring buffers, so profiling allocates nothing once running. The screen render is also
+ * timed on the GPU with {@code GL_TIME_ELAPSED} queries, read back a few frames later so
+ * the CPU never waits for them. Renderers report draw calls and vertices, and
+ * {@link thegame.render.GLState} reports texture binds and issued and skipped state
+ * changes. F3 toggles an overlay with a frame time graph and the latest
+ * numbers, and {@link #export} writes the last seconds as CSV and as a Chrome trace
+ * (chrome://tracing or Perfetto).
+ */
+public final class Profiler {
+    /** Profiled sections. Nested scopes of the same section count once. */
+    public enum Section {
+        INPUT("input"),
+        UPLOAD("upload"),
+        UPDATE("update"),
+        RENDER("render"),
+        BACKGROUND("background"),
+        GRID("grid"),
+        TEXT("text");
+
+        private final String label;
+
+        Section(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Section[] SECTIONS = Section.values();
+    private static final int SECTION_COUNT = SECTIONS.length;
+
+    // Ring buffer sizes, powers of two
+    private static final int FRAME_HISTORY = 4096;
+    private static final int SCOPE_HISTORY = 1 << 16;
+    // GPU queries in flight; results are read this many frames late
+    private static final int GPU_QUERIES = 4;
+
+    // Per-frame history
+    private static final long[] frameStart = new long[FRAME_HISTORY];
+    private static final long[] frameInterval = new long[FRAME_HISTORY]; // Since the previous frame started
+    private static final long[] frameCpu = new long[FRAME_HISTORY];      // From beginFrame to endFrame
+    private static final long[] frameGpu = new long[FRAME_HISTORY];      // -1 until the query result arrives
+    private static final long[] sectionTime = new long[FRAME_HISTORY * SECTION_COUNT];
+    private static final int[] drawCalls = new int[FRAME_HISTORY];
+    private static final int[] vertices = new int[FRAME_HISTORY];
+    private static final int[] textureBinds = new int[FRAME_HISTORY];
+    private static final int[] stateChanges = new int[FRAME_HISTORY];
+    private static final int[] stateSkips = new int[FRAME_HISTORY];
+    private static final long[] heapUsed = new long[FRAME_HISTORY];
+    private static final long[] gcCount = new long[FRAME_HISTORY];
+    private static final long[] gcTime = new long[FRAME_HISTORY];
+    private static long frameNumber = -1;
+    private static int frameDrawCalls;
+    private static int frameVertices;
+    private static int frameTextureBinds;
+    private static int frameStateChanges;
+    private static int frameStateSkips;
+
+    // Individual scopes, for the trace
+    private static final int[] scopeSection = new int[SCOPE_HISTORY];
+    private static final long[] scopeStart = new long[SCOPE_HISTORY];
+    private static final long[] scopeEnd = new long[SCOPE_HISTORY];
+    private static long scopeCount;
+
+    // Open scopes
+    private static final long[] openedAt = new long[SECTION_COUNT];
+    private static final int[] depth = new int[SECTION_COUNT];
+
+    // GPU timer queries
+    private static int[] gpuQueries;
+    private static final long[] gpuQueryFrame = new long[GPU_QUERIES];
+    private static int gpuQueryActive = -1;
+
+    private static final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // Overlay
+    private static boolean overlayVisible = false;
+    private static final int GRAPH_FRAMES = 240;
+    private static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+    private static final String[] overlayLines = new String[6];
+    private static long overlayRefreshedAt;
+
+    private Profiler() {}
+
+    /**
+     * Starts a frame. Collects finished GPU timings and resets the per-frame counters.
+     */
+    public static void beginFrame() {
+        long now = System.nanoTime();
+        if (gpuQueries != null) {
+            collectGpuResults();
+        }
+
+        frameNumber++;
+        int slot = frameSlot(frameNumber);
+        frameInterval[slot] = frameNumber == 0 ? 0 : now - frameStart[frameSlot(frameNumber - 1)];
+        frameStart[slot] = now;
+        frameGpu[slot] = -1;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            sectionTime[slot * SECTION_COUNT + i] = 0;
+        }
+        frameDrawCalls = 0;
+        frameVertices = 0;
+        frameTextureBinds = 0;
+        frameStateChanges = 0;
+        frameStateSkips = 0;
+    }
+
+    /**
+     * Ends the frame, recording its counters and memory statistics.
+     * Drawing done after this (such as the overlay) is not counted.
+     */
+    public static void endFrame() {
+        if (frameNumber < 0) {
+            return;
+        }
+        int slot = frameSlot(frameNumber);
+        frameCpu[slot] = System.nanoTime() - frameStart[slot];
+        drawCalls[slot] = frameDrawCalls;
+        vertices[slot] = frameVertices;
+        textureBinds[slot] = frameTextureBinds;
+        stateChanges[slot] = frameStateChanges;
+        stateSkips[slot] = frameStateSkips;
+
+        Runtime runtime = Runtime.getRuntime();
+        heapUsed[slot] = runtime.totalMemory() - runtime.freeMemory();
+        long collections = 0;
+        long collectionTime = 0;
+        for (int i = 0; i < gcBeans.size(); i++) {
+            collections += Math.max(0, gcBeans.get(i).getCollectionCount());
+            collectionTime += Math.max(0, gcBeans.get(i).getCollectionTime());
+        }
+        gcCount[slot] = collections;
+        gcTime[slot] = collectionTime;
+    }
+
+    /**
+     * Opens a scope. Scopes of different sections may nest.
+     *
+     * @param section The section being entered
+     */
+    public static void begin(Section section) {
+        int index = section.ordinal();
+        if (depth[index]++ > 0) {
+            return;
+        }
+        openedAt[index] = System.nanoTime();
+        if (section == Section.RENDER) {
+            beginGpuQuery();
+        }
+    }
+
+    /**
+     * Closes the scope opened by the matching {@link #begin(Section)}.
+     *
+     * @param section The section being left
+     */
+    public static void end(Section section) {
+        int index = section.ordinal();
+        if (depth[index] == 0 || --depth[index] > 0) {
+            return;
+        }
+        if (section == Section.RENDER && gpuQueryActive >= 0) {
+            GL15.glEndQuery(GL33.GL_TIME_ELAPSED);
+            gpuQueryActive = -1;
+        }
+        long now = System.nanoTime();
+        if (frameNumber >= 0) {
+            sectionTime[frameSlot(frameNumber) * SECTION_COUNT + index] += now - openedAt[index];
+        }
+        int scope = (int) (scopeCount++ & (SCOPE_HISTORY - 1));
+        scopeSection[scope] = index;
+        scopeStart[scope] = openedAt[index];
+        scopeEnd[scope] = now;
+    }
+
+    /**
+     * Counts a draw call.
+     *
+     * @param vertexCount Number of vertices drawn
+     */
+    public static void countDraw(int vertexCount) {
+        frameDrawCalls++;
+        frameVertices += vertexCount;
+    }
+
+    /**
+     * Counts a texture bind.
+     */
+    public static void countTextureBind() {
+        frameTextureBinds++;
+    }
+
+    /**
+     * Counts a GL state change requested through the state tracker.
+     *
+     * @param issued true if it reached the driver, false if it was redundant and skipped
+     */
+    public static void countStateChange(boolean issued) {
+        if (issued) {
+            frameStateChanges++;
+        } else {
+            frameStateSkips++;
+        }
+    }
+
+    /**
+     * Shows or hides the overlay.
+     */
+    public static void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+        overlayRefreshedAt = 0;
+    }
+
+    /**
+     * Checks whether the overlay is shown.
+     *
+     * @return true if the overlay is visible
+     */
+    public static boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * Draws the overlay if it is visible. Call after {@link #endFrame()}.
+     */
+    public static void renderOverlay() {
+        if (!overlayVisible || frameNumber < 0) {
+            return;
+        }
+        float x = 10;
+        float y = 10;
+        float width = GRAPH_FRAMES * 2 + 20;
+        float graphHeight = 100;
+        Renderer2D.fillRect(x, y, width, graphHeight + 140, 0.0f, 0.0f, 0.0f, 0.7f);
+
+        // Frame time graph, 3 pixels per millisecond with lines at 60 and 30 fps
+        float graphBottom = y + 10 + graphHeight;
+        int frames = (int) Math.min(GRAPH_FRAMES, frameNumber + 1);
+        for (int i = 0; i < frames; i++) {
+            int slot = frameSlot(frameNumber - frames + 1 + i);
+            float ms = frameInterval[slot] / 1e6f;
+            float barHeight = Math.min(graphHeight, ms * 3.0f);
+            float r = ms > 17.0f ? 1.0f : 0.2f;
+            float g = ms > 34.0f ? 0.2f : 0.9f;
+            Renderer2D.fillRect(x + 10 + i * 2, graphBottom - barHeight, 2, barHeight, r, g, 0.2f, 0.9f);
+            float cpuHeight = Math.min(graphHeight, frameCpu[slot] / 1e6f * 3.0f);
+            Renderer2D.fillRect(x + 10 + i * 2, graphBottom - cpuHeight, 2, cpuHeight, 0.3f, 0.6f, 1.0f, 0.9f);
+        }
+        Renderer2D.line(x + 10, graphBottom - 16.7f * 3, x + width - 10, graphBottom - 16.7f * 3, 1.0f,
+                        1.0f, 1.0f, 1.0f, 0.5f);
+        Renderer2D.line(x + 10, graphBottom - 33.3f * 3, x + width - 10, graphBottom - 33.3f * 3, 1.0f,
+                        1.0f, 1.0f, 1.0f, 0.5f);
+
+        // Numbers are formatted a few times per second rather than every frame
+        long now = System.nanoTime();
+        if (now - overlayRefreshedAt > OVERLAY_REFRESH_NANOS) {
+            refreshOverlayLines();
+            overlayRefreshedAt = now;
+        }
+        FontRenderer font = FontRegistry.get(FontRegistry.DEFAULT_FONT);
+        float scale = 0.7f;
+        for (int i = 0; i < overlayLines.length; i++) {
+            // Text positions are scaled along with the glyphs
+            font.renderText(overlayLines[i], (x + 10) / scale, (graphBottom + 6 + i * 20) / scale, scale);
+        }
+    }
+
+    /**
+     * Writes the frames of the last seconds to a CSV file and a Chrome trace in the
+     * background.
+     *
+     * @param directory The directory to write to
+     * @param seconds How far back to export
+     */
+    public static void export(Path directory, double seconds) {
+        if (frameNumber < 0) {
+            return;
+        }
+        // Copy what is needed on the render thread; writing happens on a worker
+        long newest = frameNumber;
+        long cutoff = frameStart[frameSlot(newest)] - (long) (seconds * 1e9);
+        long oldest = newest;
+        while (oldest > 0 && newest - oldest + 1 < FRAME_HISTORY && frameStart[frameSlot(oldest - 1)] >= cutoff) {
+            oldest--;
+        }
+        String csv = buildCsv(oldest, newest);
+        String trace = buildTrace(oldest, newest, frameStart[frameSlot(oldest)]);
+
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Thread writer = new Thread(() -> {
+            try {
+                Files.createDirectories(directory);
+                Path csvPath = directory.resolve("profile-" + stamp + ".csv");
+                Path tracePath = directory.resolve("profile-" + stamp + ".json");
+                try (BufferedWriter out = Files.newBufferedWriter(csvPath)) {
+                    out.write(csv);
+                }
+                try (BufferedWriter out = Files.newBufferedWriter(tracePath)) {
+                    out.write(trace);
+                }
+                System.out.println("Profile written to " + csvPath + " and " + tracePath);
+            } catch (IOException e) {
+                System.err.println("Error writing profile: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, "profile-export");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Deletes the GPU queries. Called once when the game exits.
+     */
+    public static void cleanup() {
+        if (gpuQueries != null) {
+            GL15.glDeleteQueries(gpuQueries);
+            gpuQueries = null;
+        }
+    }
+
+    private static void beginGpuQuery() {
+        if (gpuQueries == null) {
+            gpuQueries = new int[GPU_QUERIES];
+            GL15.glGenQueries(gpuQueries);
+            Arrays.fill(gpuQueryFrame, -1);
+        }
+        int query = (int) (frameNumber & (GPU_QUERIES - 1));
+        if (gpuQueryFrame[query] >= 0) {
+            // The result from GPU_QUERIES frames ago is still pending; skip rather than wait
+            return;
+        }
+        GL15.glBeginQuery(GL33.GL_TIME_ELAPSED, gpuQueries[query]);
+        gpuQueryFrame[query] = frameNumber;
+        gpuQueryActive = query;
+    }
+
+    private static void collectGpuResults() {
+        for (int query = 0; query < GPU_QUERIES; query++) {
+            long frame = gpuQueryFrame[query];
+            if (frame < 0 || GL15.glGetQueryObjecti(gpuQueries[query], GL15.GL_QUERY_RESULT_AVAILABLE) == 0) {
+                continue;
+            }
+            long elapsed = GL33.glGetQueryObjecti64(gpuQueries[query], GL15.GL_QUERY_RESULT);
+            if (frameNumber - frame < FRAME_HISTORY) {
+                frameGpu[frameSlot(frame)] = elapsed;
+            }
+            gpuQueryFrame[query] = -1;
+        }
+    }
+
+    private static void refreshOverlayLines() {
+        // Average over the last half second of frames
+        long newest = frameNumber;
+        long cutoff = frameStart[frameSlot(newest)] - 500_000_000L;
+        int count = 0;
+        int gpuCount = 0;
+        double interval = 0, cpu = 0, gpu = 0;
+        double[] sections = new double[SECTION_COUNT];
+        for (long frame = newest; frame >= 0 && newest - frame < FRAME_HISTORY; frame--) {
+            int slot = frameSlot(frame);
+            if (frameStart[slot] < cutoff && count > 0) {
+                break;
+            }
+            interval += frameInterval[slot];
+            cpu += frameCpu[slot];
+            if (frameGpu[slot] >= 0) {
+                gpu += frameGpu[slot];
+                gpuCount++;
+            }
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                sections[i] += sectionTime[slot * SECTION_COUNT + i];
+            }
+            count++;
+        }
+        int slot = frameSlot(newest);
+        double frameMs = interval / count / 1e6;
+        overlayLines[0] = String.format(Locale.ROOT, "%.0f fps  frame %.2f ms  cpu %.2f ms  gpu %s",
+                                        frameMs > 0 ? 1000.0 / frameMs : 0.0, frameMs, cpu / count / 1e6,
+                                        gpuCount > 0 ? String.format(Locale.ROOT, "%.2f ms", gpu / gpuCount / 1e6) : "-");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            line.append(SECTIONS[i].label).append(' ')
+                .append(String.format(Locale.ROOT, "%.2f", sections[i] / count / 1e6)).append("  ");
+        }
+        overlayLines[1] = line.toString().trim();
+        overlayLines[2] = "draws " + drawCalls[slot] + "  vertices " + vertices[slot]
+                        + "  texture binds " + textureBinds[slot];
+        overlayLines[3] = "state changes " + stateChanges[slot] + "  skipped " + stateSkips[slot];
+        overlayLines[4] = "heap " + heapUsed[slot] / (1024 * 1024) + " / "
+                        + Runtime.getRuntime().totalMemory() / (1024 * 1024) + " MB  gc "
+                        + gcCount[slot] + " (" + gcTime[slot] + " ms)";
+        overlayLines[5] = "F3 hide  F4 export last 10 s";
+    }
+
+    private static String buildCsv(long oldest, long newest) {
+        StringBuilder csv = new StringBuilder("frame,start_ms,interval_ms,cpu_ms,gpu_ms");
+        for (Section section : SECTIONS) {
+            csv.append(',').append(section.label).append("_ms");
+        }
+        csv.append(",draw_calls,vertices,texture_binds,state_changes,state_skips,heap_bytes,gc_count,gc_ms\n");
+        long origin = frameStart[frameSlot(oldest)];
+        for (long frame = oldest; frame <= newest; frame++) {
+            int slot = frameSlot(frame);
+            csv.append(frame).append(',')
+               .append(millis(frameStart[slot] - origin)).append(',')
+               .append(millis(frameInterval[slot])).append(',')
+               .append(millis(frameCpu[slot])).append(',')
+               .append(frameGpu[slot] >= 0 ? millis(frameGpu[slot]) : "");
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                csv.append(',').append(millis(sectionTime[slot * SECTION_COUNT + i]));
+            }
+            csv.append(',').append(drawCalls[slot])
+               .append(',').append(vertices[slot])
+               .append(',').append(textureBinds[slot])
+               .append(',').append(stateChanges[slot])
+               .append(',').append(stateSkips[slot])
+               .append(',').append(heapUsed[slot])
+               .append(',').append(gcCount[slot])
+               .append(',').append(gcTime[slot]).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static String buildTrace(long oldest, long newest, long origin) {
+        StringBuilder trace = new StringBuilder("{\"traceEvents\":[\n");
+        trace.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"render thread\"}},\n");
+        trace.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"gpu\"}}");
+        for (long frame = oldest; frame <= newest; frame++) {
+            int slot = frameSlot(frame);
+            long start = frameStart[slot] - origin;
+            appendEvent(trace, "frame " + frame, 1, start, frameCpu[slot]);
+            if (frameGpu[slot] >= 0) {
+                // Only the duration is known on the GPU; it is shown from the frame start
+                appendEvent(trace, "gpu render", 2, start, frameGpu[slot]);
+            }
+            trace.append(",\n{\"name\":\"heap\",\"ph\":\"C\",\"pid\":1,\"ts\":").append(micros(start))
+                 .append(",\"args\":{\"MB\":").append(heapUsed[slot] / (1024 * 1024)).append("}}");
+        }
+        // Scopes still in the ring buffer that fall inside the exported frames
+        long firstScope = Math.max(0, scopeCount - SCOPE_HISTORY);
+        long end = frameStart[frameSlot(newest)] + frameCpu[frameSlot(newest)];
+        for (long scope = firstScope; scope < scopeCount; scope++) {
+            int index = (int) (scope & (SCOPE_HISTORY - 1));
+            if (scopeStart[index] < origin || scopeEnd[index] > end) {
+                continue;
+            }
+            appendEvent(trace, SECTIONS[scopeSection[index]].label, 1,
+                        scopeStart[index] - origin, scopeEnd[index] - scopeStart[index]);
+        }
+        trace.append("\n]}\n");
+        return trace.toString();
+    }
+
+    private static void appendEvent(StringBuilder trace, String name, int thread, long start, long duration) {
+        trace.append(",\n{\"name\":\"").append(name).append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(thread)
+             .append(",\"ts\":").append(micros(start)).append(",\"dur\":").append(micros(duration)).append('}');
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e3);
+    }
+
+    private static int frameSlot(long frame) {
+        return (int) (frame & (FRAME_HISTORY - 1));
+    }
+}
@@ -21,6 +21,10 @@ public class SettingsManager {
     private static boolean vsync = true;
     private static int antiAliasing = 4; // Default to 4x MSAA
     
+    // Database defaults, overridable in the settings file
+    private static final String DEFAULT_MONGO_URI = "mongodb://localhost:27017";
+    private static final String DEFAULT_MONGO_DATABASE = "theGame";
+    
     static {
         properties = new Properties();
         loadSettings();
@@ -113,6 +117,12 @@ public class SettingsManager {
      */
     public static void setVsync(boolean vs) { vsync = vs; }
     
+    /**
+     * Gets the frame rate limit used while vsync is off ({@code frameCap}).
+     * @return The maximum frames per second, or 0 for no limit
+     */
+    public static int getFrameCap() { return getIntProperty("frameCap", 144); }
+    
     /**
      * Gets the anti-aliasing level.
      * @return The anti-aliasing level (0=Off, 2=2x, 4=4x, 8=8x)
@@ -124,4 +134,49 @@ public class SettingsManager {
      * @param aa The anti-aliasing level (0=Off, 2=2x, 4=4x, 8=8x)
      */
     public static void setAntiAliasing(int aa) { antiAliasing = aa; }
+    
+    /**
+     * Gets the MongoDB connection string ({@code mongo.uri}).
+     * @return The connection string
+     */
+    public static String getMongoUri() { return properties.getProperty("mongo.uri", DEFAULT_MONGO_URI); }
+    
+    /**
+     * Gets the MongoDB database name ({@code mongo.database}).
+     * @return The database name
+     */
+    public static String getMongoDatabase() { return properties.getProperty("mongo.database", DEFAULT_MONGO_DATABASE); }
+    
+    /**
+     * Gets the number of pooled connections kept open ({@code mongo.minPoolSize}).
+     * @return The minimum pool size
+     */
+    public static int getMongoMinPoolSize() { return getIntProperty("mongo.minPoolSize", 1); }
+    
+    /**
+     * Gets the maximum number of pooled connections ({@code mongo.maxPoolSize}).
+     * @return The maximum pool size
+     */
+    public static int getMongoMaxPoolSize() { return getIntProperty("mongo.maxPoolSize", 8); }
+    
+    /**
+     * Gets how long an idle pooled connection is kept ({@code mongo.maxIdleTimeMs}).
+     * @return The maximum idle time in milliseconds
+     */
+    public static int getMongoMaxIdleTimeMs() { return getIntProperty("mongo.maxIdleTimeMs", 60000); }
+    
+    /**
+     * Gets how long to wait for a reachable server ({@code mongo.serverSelectionTimeoutMs}).
+     * @return The server selection timeout in milliseconds
+     */
+    public static int getMongoServerSelectionTimeoutMs() { return getIntProperty("mongo.serverSelectionTimeoutMs", 5000); }
+    
+    private static int getIntProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,320 @@
+package thegame.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind buffer for level play and like counters.
+ *
+ * Deltas are coalesced in memory per level id and written out periodically as one
+ * batch, so a burst of plays on a popular level costs a single database update.
+ * Every delta is also appended to a local journal, which is replayed on startup so
+ * deltas recorded before a crash are flushed on the next run. A crash during a flush
+ * may replay that batch once more (at-least-once).
+ *
+ * Recording never blocks on I/O: the counters are merged per level without a shared
+ * lock, and journal lines are queued for the buffer's own thread, which writes them and
+ * runs the flushes. A delta recorded in the moment before a crash may miss the journal.
+ */
+public class StatsWriteBehindBuffer {
+    /**
+     * Destination of flushed deltas.
+     */
+    public interface Sink {
+        /**
+         * Writes a batch of deltas.
+         *
+         * @param deltas Coalesced deltas, one per level
+         * @throws Exception if the batch could not be written; it is kept and retried
+         */
+        void write(List<Delta> deltas) throws Exception;
+    }
+
+    /**
+     * Coalesced play and like increments for one level.
+     */
+    public static final class Delta {
+        private final int levelId;
+        private final int plays;
+        private final int likes;
+
+        private Delta(int levelId, int plays, int likes) {
+            this.levelId = levelId;
+            this.plays = plays;
+            this.likes = likes;
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(levelId, plays + other.plays, likes + other.likes);
+        }
+
+        public int getLevelId() { return levelId; }
+        public int getPlays() { return plays; }
+        public int getLikes() { return likes; }
+    }
+
+    private final Sink sink;
+    private final Path journalPath;
+    private final Path pendingPath;
+    private final int maxLevels;
+    private final ScheduledExecutorService scheduler;
+
+    // Replaced per level by merge(), which is atomic per key, so flushes never lose a delta
+    private final ConcurrentHashMap<Integer, Delta> deltas = new ConcurrentHashMap<>();
+    // Lines recorded but not yet written, drained by the buffer's thread
+    private final ConcurrentLinkedQueue<String> journalQueue = new ConcurrentLinkedQueue<>();
+    // Keep a burst of records from queuing a task each
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Guards the journal file; only taken by the buffer's thread and by explicit flushes
+    private final Object journalLock = new Object();
+    private Writer journal;
+
+    /**
+     * Creates a buffer, replays any journal left by a previous run and starts
+     * periodic flushing.
+     *
+     * @param sink Where flushed deltas are written
+     * @param journalPath File for the local journal
+     * @param flushIntervalSeconds Seconds between flushes
+     * @param maxLevels Number of distinct levels buffered before an early flush
+     * @return The running buffer
+     * @throws IOException if the journal cannot be opened
+     */
+    public static StatsWriteBehindBuffer open(Sink sink, Path journalPath, long flushIntervalSeconds, int maxLevels)
+            throws IOException {
+        StatsWriteBehindBuffer buffer = new StatsWriteBehindBuffer(sink, journalPath, maxLevels);
+        // Scheduled only once the buffer is fully constructed, as the flush thread reads its fields
+        buffer.scheduler.scheduleWithFixedDelay(buffer::flushQuietly, flushIntervalSeconds, flushIntervalSeconds,
+                                                TimeUnit.SECONDS);
+        return buffer;
+    }
+
+    private StatsWriteBehindBuffer(Sink sink, Path journalPath, int maxLevels) throws IOException {
+        this.sink = sink;
+        this.journalPath = journalPath;
+        this.pendingPath = journalPath.resolveSibling(journalPath.getFileName() + ".pending");
+        this.maxLevels = maxLevels;
+
+        if (journalPath.getParent() != null) {
+            Files.createDirectories(journalPath.getParent());
+        }
+        recover();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-write-behind");
+            thread.setDaemon(true); // Never keep the game alive on exit
+            return thread;
+        });
+    }
+
+    /**
+     * Records play and like increments for a level. Safe to call from any thread; after
+     * {@link #shutdown()} the increments are no longer kept.
+     *
+     * @param levelId The level id
+     * @param plays Plays to add
+     * @param likes Likes to add
+     */
+    public void record(int levelId, int plays, int likes) {
+        // Count before journaling: a flush in between journals the delta twice, never not at all
+        add(levelId, plays, likes);
+        journalQueue.add(journalLine(levelId, plays, likes));
+
+        // Bound memory use by flushing early when many distinct levels are pending
+        if (deltas.size() >= maxLevels) {
+            if (flushScheduled.compareAndSet(false, true)) {
+                submit(() -> {
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            }
+        } else if (writeScheduled.compareAndSet(false, true)) {
+            submit(() -> {
+                writeScheduled.set(false);
+                writeJournalQuietly();
+            });
+        }
+    }
+
+    /**
+     * Gets the number of levels with pending deltas.
+     *
+     * @return The number of buffered levels
+     */
+    public int getPendingLevelCount() {
+        return deltas.size();
+    }
+
+    /**
+     * Writes all buffered deltas to the sink as one batch.
+     *
+     * @throws Exception if the sink failed; the deltas stay buffered and journaled
+     */
+    public void flush() throws Exception {
+        List<Delta> batch = new ArrayList<>();
+        synchronized (journalLock) {
+            writeJournal();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            // Start a fresh journal; the old one covers at least the batch being flushed
+            try {
+                journal.close();
+                Files.move(journalPath, pendingPath, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                journal = openJournal();
+            }
+
+            for (Integer levelId : deltas.keySet()) {
+                Delta delta = deltas.remove(levelId);
+                if (delta != null) {
+                    batch.add(delta);
+                }
+            }
+        }
+
+        try {
+            sink.write(batch);
+        } catch (Exception e) {
+            // Put the batch back so the next flush retries it
+            synchronized (journalLock) {
+                for (Delta delta : batch) {
+                    journal.write(journalLine(delta.levelId, delta.plays, delta.likes));
+                    deltas.merge(delta.levelId, delta, Delta::plus);
+                }
+                journal.flush();
+            }
+            Files.deleteIfExists(pendingPath);
+            throw e;
+        }
+        Files.deleteIfExists(pendingPath);
+    }
+
+    /**
+     * Stops periodic flushing, flushes what is left and closes the journal.
+     * Deltas that cannot be written stay in the journal for the next run.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        synchronized (journalLock) {
+            try {
+                writeJournal();
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing stats journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Runs a task on the buffer's thread unless the buffer has been shut down
+    private void submit(Runnable task) {
+        if (scheduler.isShutdown()) {
+            return; // The final flush in shutdown() picks up what is left
+        }
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Shut down since the check above
+        }
+    }
+
+    private void writeJournalQuietly() {
+        synchronized (journalLock) {
+            try {
+                writeJournal();
+            } catch (IOException e) {
+                // The deltas are still counted; they are only lost if the game also crashes
+                System.err.println("Error writing stats journal: " + e.getMessage());
+            }
+        }
+    }
+
+    // Writes the queued journal lines; called holding journalLock
+    private void writeJournal() throws IOException {
+        if (journalQueue.isEmpty()) {
+            return;
+        }
+        for (String line; (line = journalQueue.poll()) != null; ) {
+            journal.write(line);
+        }
+        journal.flush();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.err.println("Error flushing level statistics: " + e.getMessage());
+        }
+    }
+
+    private void add(int levelId, int plays, int likes) {
+        deltas.merge(levelId, new Delta(levelId, plays, likes), Delta::plus);
+    }
+
+    private static String journalLine(int levelId, int plays, int likes) {
+        return levelId + " " + plays + " " + likes + "\n";
+    }
+
+    private Writer openJournal() throws IOException {
+        return Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8,
+                                       StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // Loads deltas journaled by a previous run, including a batch whose flush was interrupted
+    private void recover() throws IOException {
+        replay(pendingPath);
+        replay(journalPath);
+
+        // Rewrite the journal as one line per level
+        Files.deleteIfExists(journalPath);
+        journal = openJournal();
+        for (Delta delta : deltas.values()) {
+            journal.write(journalLine(delta.levelId, delta.plays, delta.likes));
+        }
+        journal.flush();
+        Files.deleteIfExists(pendingPath);
+    }
+
+    private void replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length != 3) {
+                    continue; // Torn write at the end of the journal
+                }
+                try {
+                    add(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                } catch (NumberFormatException e) {
+                    // Skip the corrupt line
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package thegame.utils;
 
-import static org.lwjgl.opengl.GL11.*;
+import thegame.render.Renderer2D;
 
 /**
  * A text input field UI component.
@@ -11,7 +11,7 @@ public class TextInput {
     private StringBuilder text = new StringBuilder();
     private boolean isFocused = false;
     private boolean isPasswordMode = false;
-    private long lastBlinkTime = System.currentTimeMillis();
+    private double blinkTime = 0; // Seconds since the cursor last toggled
     private boolean showCursor = true;
     
     /**
@@ -29,6 +29,19 @@ public class TextInput {
         this.height = height;
     }
     
+    /**
+     * Advances the cursor blink.
+     *
+     * @param dt The step length in seconds
+     */
+    public void update(double dt) {
+        blinkTime += dt;
+        if (blinkTime > 0.5) {
+            showCursor = !showCursor;
+            blinkTime = 0;
+        }
+    }
+    
     /**
      * Renders the text input field.
      *
@@ -37,34 +50,14 @@ public class TextInput {
      * @param mouseY The current mouse y-coordinate
      */
     public void render(FontRenderer fontRenderer, float mouseX, float mouseY) {
-        // Update cursor blink
-        if (System.currentTimeMillis() - lastBlinkTime > 500) {
-            showCursor = !showCursor;
-            lastBlinkTime = System.currentTimeMillis();
-        }
-        
         // Draw background
         float borderColor = isFocused ? 0.5f : 0.3f;
         
         // Draw border
-        glColor3f(borderColor, borderColor, borderColor);
-        glLineWidth(2.0f);
-        glBegin(GL_LINE_LOOP);
-        glVertex2f(x, y);
-        glVertex2f(x + width, y);
-        glVertex2f(x + width, y + height);
-        glVertex2f(x, y + height);
-        glEnd();
-        glLineWidth(1.0f);
+        Renderer2D.strokeRect(x, y, width, height, 2.0f, borderColor, borderColor, borderColor, 1.0f);
         
         // Draw background
-        glColor3f(0.1f, 0.1f, 0.15f);
-        glBegin(GL_QUADS);
-        glVertex2f(x + 2, y + 2);
-        glVertex2f(x + width - 2, y + 2);
-        glVertex2f(x + width - 2, y + height - 2);
-        glVertex2f(x + 2, y + height - 2);
-        glEnd();
+        Renderer2D.fillRect(x + 2, y + 2, width - 4, height - 4, 0.1f, 0.1f, 0.15f);
         
         // Draw text
         String displayText = isPasswordMode ? "•".repeat(text.length()) : text.toString();
@@ -74,13 +67,7 @@ public class TextInput {
         // Draw cursor
         if (isFocused && showCursor) {
             float cursorX = x + 10 + fontRenderer.getTextWidth(displayText, 1.0f);
-            glColor3f(1.0f, 1.0f, 1.0f);
-            glLineWidth(2.0f);
-            glBegin(GL_LINES);
-            glVertex2f(cursorX, y + 5);
-            glVertex2f(cursorX, y + height - 5);
-            glEnd();
-            glLineWidth(1.0f);
+            Renderer2D.line(cursorX, y + 5, cursorX, y + height - 5, 2.0f, 1.0f, 1.0f, 1.0f, 1.0f);
         }
     }
     
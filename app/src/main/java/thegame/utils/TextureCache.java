@@ -0,0 +1,418 @@
+package thegame.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryUtil;
+
+import thegame.render.GLState;
+import thegame.render.Renderer2D;
+
+/**
+ * Shared cache of images loaded from resources, keyed by resource path.
+ *
+ * Images are read and decoded with STB straight into native memory on the
+ * {@link AssetManager} workers. Each image is first shrunk by a whole factor until it
+ * fits the size its caller will draw it at, then packed into an atlas page together
+ * with the other small images, so clouds, sprites and untextured shapes drawn between
+ * them share one texture bind. Images that are still too large for a page get a
+ * texture of their own.
+ *
+ * Callers acquire a future for the image and release it when done, whether it has
+ * finished loading or not. A texture of its own is deleted when its last user
+ * releases it; packed images stay in their page until {@link #cleanup()}, so
+ * acquiring them again is free. Must only be used on the render thread.
+ */
+public final class TextureCache {
+    private static final int PAGE_SIZE = 1024;
+    private static final int PACK_LIMIT = 512; // Largest image side that is packed
+    private static final int BORDER = 1; // Edge pixels repeated around packed images against bleeding
+    private static final int WHITE_SIZE = 4;
+
+    /**
+     * Where an image ended up: a texture and the texture coordinates of the image in it.
+     */
+    public static final class Region {
+        private final int texture;
+        private final float u0, v0, u1, v1;
+        private final int width, height;
+
+        Region(int texture, float u0, float v0, float u1, float v1, int width, int height) {
+            this.texture = texture;
+            this.u0 = u0;
+            this.v0 = v0;
+            this.u1 = u1;
+            this.v1 = v1;
+            this.width = width;
+            this.height = height;
+        }
+
+        /** @return The OpenGL texture holding the image */
+        public int getTexture() { return texture; }
+        /** @return Left texture coordinate */
+        public float getU0() { return u0; }
+        /** @return Top texture coordinate */
+        public float getV0() { return v0; }
+        /** @return Right texture coordinate */
+        public float getU1() { return u1; }
+        /** @return Bottom texture coordinate */
+        public float getV1() { return v1; }
+        /** @return Width of the stored image in pixels */
+        public int getWidth() { return width; }
+        /** @return Height of the stored image in pixels */
+        public int getHeight() { return height; }
+    }
+
+    private static class Entry {
+        final CompletableFuture<Region> ready = new CompletableFuture<>();
+        Region region; // Null until uploaded
+        boolean packed;
+        int references;
+    }
+
+    /** An image decoded on a worker, waiting for its upload. */
+    private static class DecodedImage implements AssetManager.PendingUpload {
+        final String path;
+        final Entry entry;
+        ByteBuffer pixels;
+        boolean fromStb; // Freed with stbi_image_free rather than memFree
+        int width, height; // Size of the image, without the border of packed images
+        boolean packed;
+        Exception error;
+
+        DecodedImage(String path, Entry entry) {
+            this.path = path;
+            this.entry = entry;
+        }
+
+        @Override
+        public int size() {
+            return pixels != null ? pixels.remaining() : 0;
+        }
+
+        @Override
+        public void upload() {
+            try {
+                finishLoading(this);
+            } finally {
+                discard();
+            }
+        }
+
+        @Override
+        public void discard() {
+            if (pixels != null) {
+                if (fromStb) {
+                    STBImage.stbi_image_free(pixels);
+                } else {
+                    MemoryUtil.memFree(pixels);
+                }
+                pixels = null;
+            }
+        }
+    }
+
+    /** An atlas page filled shelf by shelf, left to right. */
+    private static class Page {
+        final int texture;
+        int shelfX, shelfY, shelfHeight;
+
+        Page(int texture) {
+            this.texture = texture;
+        }
+    }
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+    private static final List<Page> pages = new ArrayList<>();
+
+    private TextureCache() {}
+
+    /**
+     * Gets an image, starting to load it on first use. Every call must be matched by
+     * a {@link #release(String)}. The size limit only applies when the image is loaded;
+     * later calls get the image as it was first stored.
+     *
+     * @param path Classpath resource (starting with "/") or file path
+     * @param maxSize Longest side the image is drawn at; larger images are shrunk to fit
+     * @return A future completed on the render thread with the region holding the image,
+     *         or exceptionally if the image cannot be read or decoded
+     */
+    public static CompletableFuture<Region> acquire(String path, int maxSize) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(path, entry);
+            DecodedImage image = new DecodedImage(path, entry);
+            AssetManager.load(() -> decode(image, maxSize))
+                        .whenComplete((decoded, error) -> AssetManager.queueUpload(image));
+        }
+        entry.references++;
+        return entry.ready;
+    }
+
+    /**
+     * Checks whether an image exists, without loading it.
+     *
+     * @param path Classpath resource (starting with "/") or file path
+     * @return true if the image can be read
+     */
+    public static boolean exists(String path) {
+        return path.startsWith("/") ? TextureCache.class.getResource(path) != null : Files.isRegularFile(Paths.get(path));
+    }
+
+    /**
+     * Gives back an image obtained from {@link #acquire(String, int)}.
+     *
+     * @param path The path it was acquired with
+     */
+    public static void release(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || --entry.references > 0 || entry.region == null || entry.packed) {
+            // Still in use, still loading, or kept in its page
+            return;
+        }
+        entries.remove(path);
+        Renderer2D.unregisterTexture(entry.region.texture);
+        GLState.deleteTexture(entry.region.texture);
+    }
+
+    /**
+     * Deletes all cached textures and atlas pages.
+     */
+    public static void cleanup() {
+        for (Entry entry : entries.values()) {
+            if (entry.region != null && !entry.packed) {
+                Renderer2D.unregisterTexture(entry.region.texture);
+                GLState.deleteTexture(entry.region.texture);
+            }
+        }
+        entries.clear();
+        for (Page page : pages) {
+            Renderer2D.unregisterTexture(page.texture);
+            GLState.deleteTexture(page.texture);
+        }
+        pages.clear();
+    }
+
+    // Runs on a worker: reads, decodes, shrinks and borders the image
+    private static DecodedImage decode(DecodedImage image, int maxSize) {
+        try {
+            ByteBuffer encoded = readFile(image.path);
+            IntBuffer w = BufferUtils.createIntBuffer(1);
+            IntBuffer h = BufferUtils.createIntBuffer(1);
+            IntBuffer comp = BufferUtils.createIntBuffer(1);
+            ByteBuffer pixels;
+            try {
+                pixels = STBImage.stbi_load_from_memory(encoded, w, h, comp, 4);
+            } finally {
+                MemoryUtil.memFree(encoded);
+            }
+            if (pixels == null) {
+                throw new IOException("Failed to decode " + image.path + ": " + STBImage.stbi_failure_reason());
+            }
+            image.pixels = pixels;
+            image.fromStb = true;
+            image.width = w.get(0);
+            image.height = h.get(0);
+
+            int factor = Math.max(1, (Math.max(image.width, image.height) + maxSize - 1) / maxSize);
+            if (factor > 1) {
+                ByteBuffer shrunk = shrink(pixels, image.width, image.height, factor);
+                image.discard();
+                image.pixels = shrunk;
+                image.fromStb = false;
+                image.width /= factor;
+                image.height /= factor;
+            }
+            if (image.width <= PACK_LIMIT && image.height <= PACK_LIMIT) {
+                ByteBuffer bordered = addBorder(image.pixels, image.width, image.height);
+                image.discard();
+                image.pixels = bordered;
+                image.fromStb = false;
+                image.packed = true;
+            }
+        } catch (Exception e) {
+            image.discard();
+            image.error = e;
+        }
+        return image;
+    }
+
+    // Runs on the render thread: places the image and completes its future
+    private static void finishLoading(DecodedImage image) {
+        Entry entry = image.entry;
+        if (entries.get(image.path) != entry) {
+            return; // The cache was cleaned up meanwhile
+        }
+        if (image.error != null || image.pixels == null) {
+            entries.remove(image.path);
+            System.err.println("Error loading image " + image.path + ": "
+                               + (image.error != null ? image.error.getMessage() : "decoding was interrupted"));
+            entry.ready.completeExceptionally(image.error != null ? image.error
+                                                                  : new IOException("Decoding was interrupted"));
+            return;
+        }
+
+        if (!image.packed && entry.references == 0) {
+            // Everyone let go while it was loading, and it would not be kept
+            entries.remove(image.path);
+            entry.ready.cancel(false);
+            return;
+        }
+        entry.packed = image.packed;
+        if (image.packed) {
+            entry.region = pack(image.pixels, image.width, image.height);
+        } else {
+            int texture = upload(null, image.width, image.height);
+            AssetManager.beginStaging(image.pixels);
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, image.width, image.height,
+                                 GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+            AssetManager.endStaging();
+            entry.region = new Region(texture, 0, 0, 1, 1, image.width, image.height);
+        }
+        entry.ready.complete(entry.region);
+    }
+
+    /**
+     * Shrinks an RGBA image by averaging factor x factor blocks. Colors are weighted
+     * by alpha so the invisible color of transparent pixels doesn't darken soft edges.
+     */
+    private static ByteBuffer shrink(ByteBuffer src, int width, int height, int factor) {
+        int outWidth = width / factor;
+        int outHeight = height / factor;
+        ByteBuffer out = MemoryUtil.memAlloc(outWidth * outHeight * 4);
+        for (int y = 0; y < outHeight; y++) {
+            for (int x = 0; x < outWidth; x++) {
+                long r = 0, g = 0, b = 0, a = 0;
+                for (int sy = y * factor; sy < (y + 1) * factor; sy++) {
+                    int index = (sy * width + x * factor) * 4;
+                    for (int sx = 0; sx < factor; sx++, index += 4) {
+                        int alpha = src.get(index + 3) & 0xFF;
+                        r += (src.get(index) & 0xFF) * alpha;
+                        g += (src.get(index + 1) & 0xFF) * alpha;
+                        b += (src.get(index + 2) & 0xFF) * alpha;
+                        a += alpha;
+                    }
+                }
+                int o = (y * outWidth + x) * 4;
+                if (a > 0) {
+                    out.put(o, (byte) (r / a)).put(o + 1, (byte) (g / a)).put(o + 2, (byte) (b / a));
+                } else {
+                    out.put(o, (byte) 0).put(o + 1, (byte) 0).put(o + 2, (byte) 0);
+                }
+                out.put(o + 3, (byte) (a / (factor * factor)));
+            }
+        }
+        return out;
+    }
+
+    // Repeats the edge pixels around the image, so filtering at its edges never reaches a neighbor
+    private static ByteBuffer addBorder(ByteBuffer image, int width, int height) {
+        int paddedWidth = width + 2 * BORDER;
+        int paddedHeight = height + 2 * BORDER;
+        ByteBuffer padded = MemoryUtil.memAlloc(paddedWidth * paddedHeight * 4);
+        for (int row = 0; row < paddedHeight; row++) {
+            int srcRow = Math.max(0, Math.min(height - 1, row - BORDER));
+            for (int col = 0; col < paddedWidth; col++) {
+                int srcCol = Math.max(0, Math.min(width - 1, col - BORDER));
+                padded.putInt((row * paddedWidth + col) * 4, image.getInt((srcRow * width + srcCol) * 4));
+            }
+        }
+        return padded;
+    }
+
+    // Places a bordered image in the last page, or a new page if it is full
+    private static Region pack(ByteBuffer padded, int width, int height) {
+        int paddedWidth = width + 2 * BORDER;
+        int paddedHeight = height + 2 * BORDER;
+        Page page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        if (page != null && page.shelfX + paddedWidth > PAGE_SIZE) {
+            // Start a new shelf below the current one
+            page.shelfY += page.shelfHeight;
+            page.shelfX = 0;
+            page.shelfHeight = 0;
+        }
+        if (page == null || page.shelfY + paddedHeight > PAGE_SIZE) {
+            page = newPage();
+        }
+        int x = page.shelfX;
+        int y = page.shelfY;
+        page.shelfX += paddedWidth;
+        page.shelfHeight = Math.max(page.shelfHeight, paddedHeight);
+
+        GLState.bindTexture(page.texture);
+        AssetManager.beginStaging(padded);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, paddedWidth, paddedHeight,
+                             GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+        AssetManager.endStaging();
+
+        float scale = 1.0f / PAGE_SIZE;
+        return new Region(page.texture,
+                          (x + BORDER) * scale, (y + BORDER) * scale,
+                          (x + BORDER + width) * scale, (y + BORDER + height) * scale,
+                          width, height);
+    }
+
+    private static Page newPage() {
+        int texture = upload(null, PAGE_SIZE, PAGE_SIZE);
+        Page page = new Page(texture);
+
+        // A white block in the corner lets shapes batch with the images in this page
+        ByteBuffer white = MemoryUtil.memAlloc(WHITE_SIZE * WHITE_SIZE * 4);
+        for (int i = 0; i < WHITE_SIZE * WHITE_SIZE * 4; i++) {
+            white.put(i, (byte) 0xFF);
+        }
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, WHITE_SIZE, WHITE_SIZE,
+                             GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, white);
+        MemoryUtil.memFree(white);
+        float center = (WHITE_SIZE / 2.0f) / PAGE_SIZE;
+        Renderer2D.registerWhiteTexel(texture, center, center);
+        page.shelfX = WHITE_SIZE;
+        page.shelfHeight = WHITE_SIZE;
+
+        pages.add(page);
+        return page;
+    }
+
+    private static int upload(ByteBuffer pixels, int width, int height) {
+        int texture = GL11.glGenTextures();
+        GLState.bindTexture(texture);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0,
+                          GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        return texture;
+    }
+
+    private static ByteBuffer readFile(String path) throws IOException {
+        byte[] bytes;
+        if (path.startsWith("/")) {
+            try (InputStream in = TextureCache.class.getResourceAsStream(path)) {
+                if (in == null) {
+                    throw new IOException("Resource not found: " + path);
+                }
+                bytes = in.readAllBytes();
+            }
+        } else {
+            bytes = Files.readAllBytes(Paths.get(path));
+        }
+        ByteBuffer buffer = MemoryUtil.memAlloc(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+}
@@ -1,73 +0,0 @@
-package thegame.utils;
-
-import java.awt.image.BufferedImage;
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-
-import javax.imageio.ImageIO;
-
-import static org.lwjgl.opengl.GL11.GL_LINEAR;
-import static org.lwjgl.opengl.GL11.GL_RGBA;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
-import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
-import static org.lwjgl.opengl.GL11.glBindTexture;
-import static org.lwjgl.opengl.GL11.glGenTextures;
-import static org.lwjgl.opengl.GL11.glTexImage2D;
-import static org.lwjgl.opengl.GL11.glTexParameteri;
-
-/**
- * Utility class for loading textures from resources.
- */
-public class TextureLoader {
-    
-    /**
-     * Loads a texture from a resource path and returns the OpenGL texture ID.
-     * 
-     * @param resourcePath The path to the resource
-     * @return The OpenGL texture ID
-     * @throws Exception If the texture cannot be loaded
-     */
-    public int loadTexture(String resourcePath) throws Exception {
-        InputStream input = getClass().getResourceAsStream(resourcePath);
-        if (input == null) {
-            throw new Exception("Could not find texture: " + resourcePath);
-        }
-        
-        // Read the image data
-        BufferedImage image = ImageIO.read(input);
-        int width = image.getWidth();
-        int height = image.getHeight();
-        
-        // Get pixel data in RGBA format
-        int[] pixels = new int[width * height];
-        image.getRGB(0, 0, width, height, pixels, 0, width);
-        
-        // Convert to ByteBuffer
-        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * 4);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int pixel = pixels[y * width + x];
-                buffer.put((byte) ((pixel >> 16) & 0xFF)); // Red
-                buffer.put((byte) ((pixel >> 8) & 0xFF));  // Green
-                buffer.put((byte) (pixel & 0xFF));         // Blue
-                buffer.put((byte) ((pixel >> 24) & 0xFF)); // Alpha
-            }
-        }
-        buffer.flip();
-        
-        // Generate texture
-        int textureId = glGenTextures();
-        glBindTexture(GL_TEXTURE_2D, textureId);
-        
-        // Set texture parameters
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-        glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-        
-        // Upload texture data
-        glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buffer);
-        
-        return textureId;
-    }
-}
@@ -0,0 +1,80 @@
+package thegame.utils;
+
+import org.bson.Document;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * Stores player accounts in the {@code data} collection.
+ * Used by the login and signup screens through the shared database client.
+ */
+public class UserRepository {
+    /** Name of the user account collection. */
+    public static final String COLLECTION_NAME = "data";
+
+    private final MongoCollection<Document> users;
+
+    /**
+     * Creates a repository on an open connection.
+     *
+     * @param connection The database connection
+     */
+    public UserRepository(MongoDBConnection connection) {
+        this.users = connection.getDatabase().getCollection(COLLECTION_NAME);
+    }
+
+    /**
+     * Finds the account matching a username and password.
+     *
+     * @param username The username
+     * @param password The password
+     * @return The user document, or null if no account matches
+     */
+    public Document findByCredentials(String username, String password) {
+        return users.find(Filters.and(Filters.eq("username", username), Filters.eq("password", password))).first();
+    }
+
+    /**
+     * Checks whether a username is taken.
+     *
+     * @param username The username
+     * @return true if an account uses this username
+     */
+    public boolean usernameExists(String username) {
+        return users.find(Filters.eq("username", username)).first() != null;
+    }
+
+    /**
+     * Checks whether an email address is registered.
+     *
+     * @param email The email address
+     * @return true if an account uses this email address
+     */
+    public boolean emailExists(String email) {
+        return users.find(Filters.eq("email", email)).first() != null;
+    }
+
+    /**
+     * Gets the highest user id in use.
+     *
+     * @return The highest user id, or null if there are no accounts with an id
+     */
+    public String findHighestUserId() {
+        Document highestIdDoc = users.find(Filters.exists("userId"))
+            .sort(Sorts.descending("userId"))
+            .limit(1)
+            .first();
+        return highestIdDoc != null ? highestIdDoc.getString("userId") : null;
+    }
+
+    /**
+     * Inserts a new account.
+     *
+     * @param user The user document
+     */
+    public void insert(Document user) {
+        users.insertOne(user);
+    }
+}
@@ -0,0 +1,63 @@
+package thegame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InputQueueTest {
+    /** Screen that records the events it receives. */
+    private static class RecordingScreen implements Screen {
+        final List<String> events = new ArrayList<>();
+
+        @Override public void render(float alpha) {}
+        @Override public void handleMouseClick(double x, double y) { events.add("click " + x + "," + y); }
+        @Override public void handleMouseMove(double x, double y) { events.add("move " + x + "," + y); }
+        @Override public void handleMouseRelease(double x, double y) { events.add("release " + x + "," + y); }
+        @Override public void handleKeyPress(int key, int action) { events.add("key " + key + "," + action); }
+        @Override public void handleCharInput(int codepoint) { events.add("char " + codepoint); }
+    }
+
+    private static List<String> replay(InputQueue queue) {
+        RecordingScreen screen = new RecordingScreen();
+        while (queue.poll()) {
+            queue.deliver(screen);
+        }
+        return screen.events;
+    }
+
+    @Test
+    void replaysEventsInOrderAndMergesMoves() {
+        InputQueue queue = new InputQueue(16);
+        queue.pushMouse(InputQueue.MOUSE_MOVE, 1, 1);
+        queue.pushMouse(InputQueue.MOUSE_MOVE, 2, 3);
+        queue.pushMouse(InputQueue.MOUSE_PRESS, 2, 3);
+        queue.pushMouse(InputQueue.MOUSE_MOVE, 4, 5);
+        queue.pushMouse(InputQueue.MOUSE_RELEASE, 4, 5);
+        queue.pushKey(65, 1);
+        queue.pushChar('a');
+
+        assertEquals(List.of("move 2.0,3.0", "click 2.0,3.0", "move 4.0,5.0", "release 4.0,5.0",
+                             "key 65,1", "char 97"), replay(queue));
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    void dropsEventsWhenFullAndWrapsAround() {
+        InputQueue queue = new InputQueue(4);
+        for (int i = 0; i < 6; i++) {
+            queue.pushChar('0' + i);
+        }
+        assertEquals(List.of("char 48", "char 49", "char 50"), replay(queue));
+
+        // Slots are reused after draining
+        for (int i = 0; i < 3; i++) {
+            queue.pushChar('a' + i);
+        }
+        assertEquals(3, queue.size());
+        assertEquals(List.of("char 97", "char 98", "char 99"), replay(queue));
+    }
+}
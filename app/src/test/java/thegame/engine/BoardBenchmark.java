@@ -0,0 +1,26 @@
+package thegame.engine;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Move throughput of the board. Tagged as a benchmark, so it runs with
+ * {@code gradle benchmark} rather than with the unit tests, and reports its numbers
+ * instead of asserting on them.
+ */
+@Tag("benchmark")
+class BoardBenchmark {
+    @Test
+    void swapThroughput() {
+        Board board = BoardTest.largeColorBoard();
+        BoardTest.applySwaps(board, 1_000_000); // Warm up
+
+        int moves = 4_000_000;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            BoardTest.applySwaps(board, moves);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Board swaps: %.1fM moves/s%n", moves / seconds / 1e6);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package thegame.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.jupiter.api.Test;
+
+import thegame.utils.LevelConfig;
+
+class BoardTest {
+    private static LevelConfig.Cell color(float r, float g, float b) {
+        return new LevelConfig.Cell(r, g, b, true);
+    }
+
+    private static Board colorBoard() {
+        LevelConfig.Cell[][] grid = {
+            { color(1, 0, 0), color(0, 1, 0) },
+            { color(0, 0, 1), color(1, 1, 0) }
+        };
+        LevelConfig.Cell[][] target = {
+            { color(0, 1, 0), color(1, 0, 0) },
+            { color(0, 0, 1), color(1, 1, 0) }
+        };
+        return Board.fromCells(grid, target, false);
+    }
+
+    @Test
+    void swapUpdatesMatchCountIncrementally() {
+        Board board = colorBoard();
+        assertEquals(2, board.getMatchCount());
+
+        assertTrue(board.swapCells(0, 0, 0, 1));
+        assertEquals(4, board.getMatchCount());
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    void swapRejectsDiagonalAndLockedCells() {
+        LevelConfig.Cell[][] grid = {
+            { color(1, 0, 0), new LevelConfig.Cell(0, 1, 0, false) },
+            { color(0, 0, 0), color(1, 1, 0) }
+        };
+        Board board = Board.fromCells(grid, grid, false);
+
+        assertFalse(board.swapCells(0, 0, 1, 1)); // Diagonal
+        assertFalse(board.swapCells(0, 0, 0, 1)); // Not editable
+        assertFalse(board.swapCells(0, 0, 1, 0)); // Black cell
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    void numberOperationsOnlyTouchEditableCells() {
+        LevelConfig.Cell[][] grid = {
+            { new LevelConfig.Cell(4, true), new LevelConfig.Cell(4, false) },
+            { new LevelConfig.Cell(1, true), new LevelConfig.Cell(9, true) }
+        };
+        LevelConfig.Cell[][] target = {
+            { new LevelConfig.Cell(8, true), new LevelConfig.Cell(4, false) },
+            { new LevelConfig.Cell(1, true), new LevelConfig.Cell(9, true) }
+        };
+        Board board = Board.fromCells(grid, target, true);
+
+        assertTrue(board.applyToRow(NumberOp.MULTIPLY, 0));
+        assertEquals(8, Board.valueOf(board.getCell(0, 0)));
+        assertEquals(4, Board.valueOf(board.getCell(0, 1)));
+        assertTrue(board.isSolved());
+
+        assertFalse(board.applyToCell(NumberOp.ADD, 1, 1)); // Already at max
+    }
+
+    @Test
+    void restoreRecomputesMatches() {
+        Board board = colorBoard();
+        int[] saved = new int[4];
+        board.saveCells(saved);
+
+        board.swapCells(0, 0, 0, 1);
+        board.restoreCells(saved);
+        assertEquals(2, board.getMatchCount());
+    }
+
+    // An 8x8 board of distinct colors, every cell editable
+    static Board largeColorBoard() {
+        int size = 8;
+        LevelConfig.Cell[][] grid = new LevelConfig.Cell[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                grid[row][col] = color(row / (float) size, col / (float) size, 0.5f);
+            }
+        }
+        return Board.fromCells(grid, grid, false);
+    }
+
+    // Swaps neighbors along the rows, the move mix the throughput benchmark uses
+    static void applySwaps(Board board, int moves) {
+        int size = board.getSize();
+        for (int i = 0; i < moves; i++) {
+            int row = i % size;
+            board.swapCells(row, i % (size - 1), row, i % (size - 1) + 1);
+        }
+    }
+
+    @Test
+    void incrementalCountersMatchARecount() {
+        Board board = largeColorBoard();
+        applySwaps(board, 10_000);
+        board.swapRows(0, 3);
+        board.swapColumns(2, 5);
+
+        // Restoring the same cells into a copy recomputes matches and hash from scratch
+        int[] cells = new int[board.getSize() * board.getSize()];
+        board.saveCells(cells);
+        Board recounted = board.copy();
+        recounted.restoreCells(cells);
+        assertEquals(recounted.getMatchCount(), board.getMatchCount());
+        assertEquals(recounted.getHash(), board.getHash());
+    }
+
+    @Test
+    void movesDoNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean, "allocation counting not supported");
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled(),
+                   "allocation counting not enabled");
+
+        Board board = largeColorBoard();
+        applySwaps(board, 10_000); // Warm up
+        long threadId = Thread.currentThread().threadId();
+        int moves = 100_000;
+        long before = counter.getThreadAllocatedBytes(threadId);
+        applySwaps(board, moves);
+        long allocated = counter.getThreadAllocatedBytes(threadId) - before;
+
+        // A move that allocated anything at all would add at least 16 bytes per move
+        assertTrue(allocated < moves, "Moves allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,72 @@
+package thegame.engine;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import thegame.utils.LevelConfig;
+
+/**
+ * How the parallel solver scales with the number of cores, on a scrambled 6x6 level.
+ * Tagged as a benchmark, so it runs with {@code gradle benchmark} rather than with the
+ * unit tests, and reports its numbers instead of asserting on them.
+ */
+@Tag("benchmark")
+class LevelSolverBenchmark {
+    private static final int SIZE = 6;
+    private static final long TIME_BUDGET = 60_000;
+    private static final long MEMORY_BUDGET = 64L << 20;
+
+    // A 6x6 board of distinct colors whose target is the grid after a few random moves
+    private static Board scrambledBoard(long seed, int moves) {
+        LevelConfig.Cell[][] grid = new LevelConfig.Cell[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                grid[row][col] = new LevelConfig.Cell(row / (float) SIZE, col / (float) SIZE, 0.5f, true);
+            }
+        }
+        Board target = Board.fromCells(grid, grid, false);
+        Random random = new Random(seed);
+        for (int i = 0; i < moves; i++) {
+            int row = random.nextInt(SIZE);
+            int col = random.nextInt(SIZE - 1);
+            if (random.nextBoolean()) {
+                target.swapCells(row, col, row, col + 1);
+            } else {
+                target.swapRows(row, (row + 1 + random.nextInt(SIZE - 1)) % SIZE);
+            }
+        }
+
+        LevelConfig.Cell[][] scrambled = new LevelConfig.Cell[SIZE][SIZE];
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int packed = target.getCell(row, col);
+                scrambled[row][col] = new LevelConfig.Cell(target.getRed(packed), target.getGreen(packed),
+                                                           target.getBlue(packed), true);
+            }
+        }
+        return Board.fromCells(grid, scrambled, false);
+    }
+
+    @Test
+    void parallelScaling() {
+        Board board = scrambledBoard(7, 6);
+        LevelSolver.Limits limits = new LevelSolver.Limits(6, 3, 3, 0, 7);
+        new LevelSolver(board, limits, TIME_BUDGET, MEMORY_BUDGET).solve(); // Warm up
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        double sequentialMillis = 0;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            long start = System.nanoTime();
+            LevelSolver.Result result = new LevelSolver(board, limits, TIME_BUDGET, MEMORY_BUDGET)
+                .withParallelism(threads).solve();
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (threads == 1) {
+                sequentialMillis = millis;
+            }
+            System.out.printf("Solver, %d thread(s): %s, %.0f ms, speedup %.2fx%n",
+                              threads, result, millis, sequentialMillis / millis);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package thegame.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import thegame.utils.LevelConfig;
+
+class LevelSolverTest {
+    private static final long TIME_BUDGET = 5_000;
+    private static final long MEMORY_BUDGET = 1 << 20;
+
+    private static LevelConfig.Cell color(float r, float g, float b) {
+        return new LevelConfig.Cell(r, g, b, true);
+    }
+
+    // Red/green on top, blue/yellow below; the target swaps the two rows
+    private static Board rowSwapBoard() {
+        LevelConfig.Cell[][] grid = {
+            { color(1, 0, 0), color(0, 1, 0) },
+            { color(0, 0, 1), color(1, 1, 0) }
+        };
+        LevelConfig.Cell[][] target = {
+            { color(0, 0, 1), color(1, 1, 0) },
+            { color(1, 0, 0), color(0, 1, 0) }
+        };
+        return Board.fromCells(grid, target, false);
+    }
+
+    @Test
+    void findsMinimalSolution() {
+        LevelSolver.Result result = new LevelSolver(rowSwapBoard(),
+            new LevelSolver.Limits(5, 5, 5, 0, 5), TIME_BUDGET, MEMORY_BUDGET).solve();
+
+        assertEquals(LevelSolver.Result.Status.SOLVED, result.getStatus());
+        assertEquals(1, result.getSolutionLength());
+        assertEquals(Moves.FLIP_ROW, Moves.kind(result.getMoves()[0]));
+    }
+
+    @Test
+    void honorsPerTypeLimits() {
+        // Without row flips the same target needs two swaps
+        LevelSolver.Result result = new LevelSolver(rowSwapBoard(),
+            new LevelSolver.Limits(5, 0, 0, 0, 5), TIME_BUDGET, MEMORY_BUDGET).solve();
+        assertEquals(2, result.getSolutionLength());
+
+        result = new LevelSolver(rowSwapBoard(),
+            new LevelSolver.Limits(1, 0, 0, 0, 5), TIME_BUDGET, MEMORY_BUDGET).solve();
+        assertEquals(LevelSolver.Result.Status.UNSOLVABLE, result.getStatus());
+    }
+
+    @Test
+    void replayedSolutionSolvesBoard() {
+        LevelConfig.Cell[][] grid = {
+            { new LevelConfig.Cell(1, true), new LevelConfig.Cell(2, true) },
+            { new LevelConfig.Cell(3, true), new LevelConfig.Cell(4, true) }
+        };
+        LevelConfig.Cell[][] target = {
+            { new LevelConfig.Cell(4, true), new LevelConfig.Cell(3, true) },
+            { new LevelConfig.Cell(3, true), new LevelConfig.Cell(8, true) }
+        };
+        Board board = Board.fromCells(grid, target, true);
+        LevelSolver.Result result = new LevelSolver(board,
+            new LevelSolver.Limits(3, 3, 3, 3, 6), TIME_BUDGET, MEMORY_BUDGET).solve();
+        assertTrue(result.isSolved());
+
+        for (int move : result.getMoves()) {
+            assertTrue(Moves.apply(board, move), Moves.describe(move));
+        }
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    void parallelSearchFindsSameLength() {
+        LevelConfig.Cell[][] grid = new LevelConfig.Cell[3][3];
+        LevelConfig.Cell[][] target = new LevelConfig.Cell[3][3];
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                grid[row][col] = color(row / 2f, col / 2f, 0);
+                target[2 - row][col] = color(row / 2f, col / 2f, 0);
+            }
+        }
+        // Target is the grid upside down, then two cells swapped
+        LevelConfig.Cell tmp = target[1][1];
+        target[1][1] = target[1][2];
+        target[1][2] = tmp;
+
+        LevelSolver.Limits limits = new LevelSolver.Limits(4, 2, 2, 0, 6);
+        LevelSolver.Result sequential = new LevelSolver(Board.fromCells(grid, target, false),
+            limits, TIME_BUDGET, MEMORY_BUDGET).solve();
+        LevelSolver.Result parallel = new LevelSolver(Board.fromCells(grid, target, false),
+            limits, TIME_BUDGET, MEMORY_BUDGET).withParallelism(4).solve();
+
+        assertTrue(parallel.isSolved());
+        assertEquals(sequential.getSolutionLength(), parallel.getSolutionLength());
+
+        Board board = Board.fromCells(grid, target, false);
+        for (int move : parallel.getMoves()) {
+            assertTrue(Moves.apply(board, move), Moves.describe(move));
+        }
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    void tablesForgetStatesOfEarlierBounds() {
+        for (TranspositionTable table : new TranspositionTable[] {
+                new LocalTranspositionTable(1024), new ConcurrentTranspositionTable(1024) }) {
+            table.nextIteration();
+            assertTrue(table.visit(42));
+            assertFalse(table.visit(42));
+            assertTrue(table.visit(0));
+            assertFalse(table.visit(0));
+
+            table.nextIteration();
+            assertTrue(table.visit(42));
+            assertTrue(table.visit(0));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package thegame.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class CellGridTest {
+    private static LevelConfig.Cell color(float r, float g, float b) {
+        return new LevelConfig.Cell(r, g, b, true);
+    }
+
+    @Test
+    void equalCellsShareOnePaletteEntry() {
+        CellGrid.Palette palette = new CellGrid.Palette();
+        CellGrid grid = palette.grid(new LevelConfig.Cell[][] {
+            { color(1, 0, 0), color(0, 1, 0) },
+            { color(1, 0, 0), new LevelConfig.Cell(1, 0, 0, false) }
+        });
+
+        assertEquals(3, palette.size());
+        assertEquals(grid.indexAt(0, 0), grid.indexAt(1, 0));
+        assertSame(grid.get(0, 0), grid.get(1, 0));
+        assertNotEquals(grid.indexAt(0, 0), grid.indexAt(1, 1));
+    }
+
+    @Test
+    void gridsCompareByCellsAcrossPalettes() {
+        LevelConfig.Cell[][] cells = { { color(1, 0, 0), color(0, 0, 1) } };
+        LevelConfig.Cell[][] swapped = { { color(0, 0, 1), color(1, 0, 0) } };
+        CellGrid.Palette shared = new CellGrid.Palette();
+        CellGrid grid = shared.grid(cells);
+        CellGrid other = new CellGrid.Palette().grid(swapped);
+        CellGrid copy = new CellGrid.Palette().grid(other.toCells());
+
+        assertNotEquals(grid, shared.grid(swapped));
+        assertNotEquals(grid, other);
+        assertEquals(grid, shared.grid(cells));
+        assertEquals(other, copy);
+        assertEquals(other.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    void rejectsMoreCellsThanAPaletteHolds() {
+        CellGrid.Palette palette = new CellGrid.Palette();
+        for (int i = 0; i < CellGrid.MAX_PALETTE_SIZE; i++) {
+            palette.indexOf(new LevelConfig.Cell(i, true));
+        }
+        assertEquals(CellGrid.MAX_PALETTE_SIZE, palette.size());
+        assertThrows(IllegalArgumentException.class, () -> palette.indexOf(new LevelConfig.Cell(-1, true)));
+    }
+}
@@ -0,0 +1,112 @@
+package thegame.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Level parsing speed of the codec against the readers it replaced: the JSON tree
+ * deserializer levels used to go through, and plain reflective Gson. Tagged as a
+ * benchmark, so it runs with {@code gradle benchmark} rather than with the unit
+ * tests, and reports its numbers instead of asserting on them.
+ */
+@Tag("benchmark")
+class LevelCodecBenchmark {
+    private static final int ROUNDS = 10;
+
+    /**
+     * A level read through the tree deserializer.
+     */
+    static class TreeLevel {
+        LevelConfig.Cell[][] grid;
+        LevelConfig.Cell[][] targetPattern;
+    }
+
+    /**
+     * The cell deserializer levels were read with before the codec, walking a JSON tree.
+     */
+    static class TreeCellDeserializer implements JsonDeserializer<LevelConfig.Cell[][]> {
+        @Override
+        public LevelConfig.Cell[][] deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) {
+            JsonArray rows = json.getAsJsonArray();
+            LevelConfig.Cell[][] result = new LevelConfig.Cell[rows.size()][];
+            for (int i = 0; i < rows.size(); i++) {
+                JsonArray cells = rows.get(i).getAsJsonArray();
+                result[i] = new LevelConfig.Cell[cells.size()];
+                for (int j = 0; j < cells.size(); j++) {
+                    JsonObject cell = cells.get(j).getAsJsonObject();
+                    boolean editable = false;
+                    if (cell.has("isCenter")) {
+                        editable = cell.get("isCenter").getAsBoolean();
+                    } else if (cell.has("editable")) {
+                        editable = cell.get("editable").getAsBoolean();
+                    }
+                    if (cell.has("value")) {
+                        result[i][j] = new LevelConfig.Cell(cell.get("value").getAsInt(), editable);
+                    } else {
+                        result[i][j] = new LevelConfig.Cell(cell.get("red").getAsFloat(), cell.get("green").getAsFloat(),
+                                                            cell.get("blue").getAsFloat(), editable);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    // A square level with 240 distinct cells, close to the most a level palette holds
+    private static String largeLevel(int size) {
+        StringBuilder grid = new StringBuilder("[");
+        for (int row = 0; row < size; row++) {
+            grid.append(row == 0 ? "[" : ",[");
+            for (int col = 0; col < size; col++) {
+                grid.append(col == 0 ? "" : ",")
+                    .append("{\"red\": ").append(row % 10 / 10f)
+                    .append(", \"green\": ").append((row * 7 + col) % 12 / 12f)
+                    .append(", \"blue\": 0.5, \"editable\": ").append((row + col) % 7 == 0).append('}');
+            }
+            grid.append(']');
+        }
+        grid.append(']');
+        return "{\"id\": 1, \"grid\": " + grid + ", \"targetPattern\": " + grid + "}";
+    }
+
+    private interface Reader {
+        Object read(String json) throws IOException;
+    }
+
+    private static void time(String name, String json, Reader reader) throws IOException {
+        for (int i = 0; i < 3; i++) {
+            reader.read(json); // Warm up
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            reader.read(json);
+        }
+        System.out.printf("%-16s %6.1f ms per level%n", name, (System.nanoTime() - start) / 1e6 / ROUNDS);
+    }
+
+    @Test
+    void largeLevelParsing() throws IOException {
+        Gson tree = new GsonBuilder().registerTypeAdapter(LevelConfig.Cell[][].class, new TreeCellDeserializer()).create();
+        Gson reflective = new Gson();
+
+        for (int size : new int[] { 100, 300 }) {
+            String json = largeLevel(size);
+            System.out.printf("%dx%d level, %.1f MB of JSON%n", size, size, json.length() / 1e6);
+            time("tree", json, text -> tree.fromJson(text, TreeLevel.class));
+            time("reflective Gson", json, text -> reflective.fromJson(text, RawLevel.class));
+            time("codec", json, text -> LevelCodec.read(new StringReader(text)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package thegame.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+class LevelCodecTest {
+    private static final int BUNDLED_LEVELS = 20;
+
+    private static String source(int levelNumber) throws IOException {
+        try (InputStream in = LevelCodecTest.class.getResourceAsStream("/levels/level" + levelNumber + ".json")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static LevelConfig read(String json) throws IOException {
+        return LevelCodec.read(new StringReader(json));
+    }
+
+    private static String write(LevelConfig level) throws IOException {
+        StringWriter out = new StringWriter();
+        LevelCodec.write(level, out);
+        return out.toString();
+    }
+
+    @Test
+    void readsBundledLevelsLikeGson() throws IOException {
+        Gson gson = new Gson();
+        for (int level = 1; level <= BUNDLED_LEVELS; level++) {
+            String json = source(level);
+            LevelConfig actual = read(json);
+
+            // Cells against plain reflective Gson, which does not go through the codec
+            RawLevel raw = gson.fromJson(json, RawLevel.class);
+            assertArrayEquals(RawLevel.toCells(raw.grid), RawLevel.cellsOf(actual.getGrid()), "level " + level);
+            assertArrayEquals(RawLevel.toCells(raw.targetPattern), RawLevel.cellsOf(actual.getTargetPattern()),
+                              "level " + level);
+
+            // Serializing the other fields through Gson compares them all, including defaults
+            JsonObject expected = gson.toJsonTree(gson.fromJson(json, LevelConfig.class)).getAsJsonObject();
+            JsonObject other = gson.toJsonTree(actual).getAsJsonObject();
+            for (String grid : new String[] { "grid", "targetPattern" }) {
+                expected.remove(grid);
+                other.remove(grid);
+            }
+            assertEquals(expected, other, "level " + level);
+        }
+    }
+
+    @Test
+    void readsBothCellFormatsAndAliases() throws IOException {
+        LevelConfig level = read("{\"id\": 7, \"grid\": [["
+                + "{\"red\": 0.5, \"green\": 0.25, \"blue\": 0.0, \"isCenter\": true},"
+                + "{\"value\": 3, \"editable\": true},"
+                + "{\"value\": 4, \"unknown\": [1, 2], \"isCenter\": null}"
+                + "]]}");
+
+        LevelConfig.Cell[] row = level.getGrid().toCells()[0];
+        assertEquals(7, level.getLevelNumber());
+        assertArrayEquals(new float[] { 0.5f, 0.25f, 0.0f }, new float[] { row[0].red, row[0].green, row[0].blue });
+        assertTrue(row[0].editable);
+        assertNull(row[0].getStoredValue());
+        assertEquals(3, row[1].getStoredValue());
+        assertTrue(row[1].editable);
+        assertEquals(4, row[2].getStoredValue());
+        assertFalse(row[2].editable);
+        assertEquals(1.0f, row[2].red);
+    }
+
+    @Test
+    void writtenLevelsReadBackUnchanged() throws IOException {
+        for (int level = 1; level <= BUNDLED_LEVELS; level++) {
+            String written = write(read(source(level)));
+            assertEquals(written, write(read(written)), "level " + level);
+        }
+    }
+}
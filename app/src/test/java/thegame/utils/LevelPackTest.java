@@ -0,0 +1,62 @@
+package thegame.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+class LevelPackTest {
+    private static final int BUNDLED_LEVELS = 20;
+
+    private static byte[] source(int levelNumber) throws IOException {
+        try (InputStream in = LevelPackTest.class.getResourceAsStream("/levels/level" + levelNumber + ".json")) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void packedLevelsMatchTheirJson() throws IOException {
+        Map<Integer, byte[]> sources = new TreeMap<>();
+        for (int level = 1; level <= BUNDLED_LEVELS; level++) {
+            sources.put(level, source(level));
+        }
+        ByteBuffer pack = ByteBuffer.wrap(LevelPack.compile(sources));
+
+        Gson gson = new Gson();
+        for (int level = 1; level <= BUNDLED_LEVELS; level++) {
+            String json = new String(sources.get(level), StandardCharsets.UTF_8);
+            LevelConfig expected = gson.fromJson(json, LevelConfig.class);
+            LevelConfig actual = LevelPack.read(pack, level);
+
+            assertEquals(expected.getLevelNumber(), actual.getLevelNumber());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.isCustomLevel(), actual.isCustomLevel());
+            LevelConfig.Settings a = expected.getSettings();
+            LevelConfig.Settings b = actual.getSettings();
+            assertEquals(a.getGridSize(), b.getGridSize());
+            assertEquals(a.getMaxMoves(), b.getMaxMoves());
+            assertEquals(a.getMoveLimits(), b.getMoveLimits());
+            assertEquals(a.getDifficulty(), b.getDifficulty());
+            assertEquals(a.isNumberMode(), b.isNumberMode());
+            assertEquals(a.getMaxRowEdits(), b.getMaxRowEdits());
+            assertEquals(a.getMaxColEdits(), b.getMaxColEdits());
+
+            // Cells against plain reflective Gson, which does not go through the codec
+            RawLevel raw = gson.fromJson(json, RawLevel.class);
+            assertArrayEquals(RawLevel.toCells(raw.grid), RawLevel.cellsOf(actual.getGrid()), "level " + level);
+            assertArrayEquals(RawLevel.toCells(raw.targetPattern), RawLevel.cellsOf(actual.getTargetPattern()),
+                              "level " + level);
+        }
+        assertNull(LevelPack.read(pack, BUNDLED_LEVELS + 1));
+    }
+}
@@ -0,0 +1,55 @@
+package thegame.utils;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The cells of a level file as plain reflective Gson reads them, without the codec
+ * or {@link CellGrid}. Tests and benchmarks use it as a reference reader.
+ */
+class RawLevel {
+    RawCell[][] grid;
+    RawCell[][] targetPattern;
+
+    /**
+     * Converts raw cells the way the level readers should.
+     *
+     * @param cells The raw cells, or null
+     * @return The level cells, or null
+     */
+    static LevelConfig.Cell[][] toCells(RawCell[][] cells) {
+        if (cells == null) {
+            return null;
+        }
+        LevelConfig.Cell[][] result = new LevelConfig.Cell[cells.length][];
+        for (int row = 0; row < cells.length; row++) {
+            result[row] = new LevelConfig.Cell[cells[row].length];
+            for (int col = 0; col < cells[row].length; col++) {
+                result[row][col] = cells[row][col] == null ? null : cells[row][col].toCell();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies a grid into cells for comparison with {@link #toCells(RawCell[][])}.
+     *
+     * @param grid The grid, or null
+     * @return The cells, or null
+     */
+    static LevelConfig.Cell[][] cellsOf(CellGrid grid) {
+        return grid == null ? null : grid.toCells();
+    }
+
+    static class RawCell {
+        float red = 1.0f;
+        float green = 1.0f;
+        float blue = 1.0f;
+        @SerializedName(value = "isCenter", alternate = "editable")
+        boolean editable;
+        Integer value;
+
+        LevelConfig.Cell toCell() {
+            return new LevelConfig.Cell(red, green, blue, editable, value);
+        }
+    }
+}